@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.store.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataBroker.DataChangeScope;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeEvent;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeListener;
+import org.opendaylight.controller.md.sal.dom.store.impl.InMemoryDOMDataStore;
+import org.opendaylight.controller.md.sal.dom.store.impl.InMemoryDOMDataStoreConfigProperties;
+import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadWriteTransaction;
+import org.opendaylight.controller.sal.core.spi.data.DOMStoreThreePhaseCommitCohort;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.util.concurrent.SpecialExecutors;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark measuring the commit latency of InMemoryDataStore as a function of the number of registered
+ * data change listeners, with the data change events resolved either on the committing thread or on the
+ * data store's resolver thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class InMemoryDataStoreDataChangeListenerBenchmark extends AbstractInMemoryWriteTransactionBenchmark {
+
+    private static final AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>> NOOP_LISTENER =
+            new AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>() {
+                @Override
+                public void onDataChanged(final AsyncDataChangeEvent<YangInstanceIdentifier, NormalizedNode<?, ?>> change) {
+                    // Intentional no-op
+                }
+            };
+
+    @Param({"0", "10", "100", "1000"})
+    public int listenerCount;
+
+    @Param({"false", "true"})
+    public boolean asyncResolution;
+
+    private final List<ListenerRegistration<?>> registrations = new ArrayList<>();
+    private InMemoryDOMDataStore domStore;
+    private int nextKey;
+
+    @Setup(Level.Trial)
+    @Override
+    public void setUp() throws Exception {
+        final String name = "DS_DCL_BENCHMARK";
+        final ExecutorService dataChangeListenerExecutor = SpecialExecutors.newBlockingBoundedFastThreadPool(
+                InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_POOL_SIZE,
+                InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_QUEUE_SIZE, name + "-DCL");
+        final ExecutorService dataChangeResolverExecutor = asyncResolution ?
+                SpecialExecutors.newBlockingBoundedFastThreadPool(1,
+                        InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE,
+                        name + "-DCL-resolver") : null;
+
+        domStore = new InMemoryDOMDataStore(name, dataChangeListenerExecutor, dataChangeResolverExecutor,
+                InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE, false);
+        schemaContext = BenchmarkModel.createTestContext();
+        domStore.onGlobalContextUpdated(schemaContext);
+
+        DOMStoreReadWriteTransaction writeTx = domStore.newReadWriteTransaction();
+        writeTx.write(BenchmarkModel.TEST_PATH, provideOuterListNode());
+        for (int outerListKey = 0; outerListKey < OUTER_LIST_10K; ++outerListKey) {
+            writeTx.write(OUTER_LIST_10K_PATHS[outerListKey], OUTER_LIST_ONE_ITEM_INNER_LIST[outerListKey]);
+        }
+        commit(writeTx);
+
+        // Spread the listeners over exact and wildcarded paths so both kinds of listener tree lookups are exercised
+        final YangInstanceIdentifier wildcardedPath = YangInstanceIdentifier.builder(BenchmarkModel.OUTER_LIST_PATH)
+                .node(BenchmarkModel.OUTER_LIST_QNAME).node(BenchmarkModel.INNER_LIST_QNAME).build();
+        for (int i = 0; i < listenerCount; ++i) {
+            final YangInstanceIdentifier path;
+            final DataChangeScope scope;
+            if (i % 2 == 0) {
+                path = wildcardedPath;
+                scope = DataChangeScope.SUBTREE;
+            } else {
+                path = OUTER_LIST_10K_PATHS[i % OUTER_LIST_10K];
+                scope = DataChangeScope.ONE;
+            }
+            registrations.add(domStore.registerChangeListener(path, NOOP_LISTENER, scope));
+        }
+    }
+
+    @TearDown
+    @Override
+    public void tearDown() {
+        for (ListenerRegistration<?> reg : registrations) {
+            reg.close();
+        }
+        registrations.clear();
+        domStore.close();
+        domStore = null;
+        schemaContext = null;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public void commitSingleOuterListEntryBenchmark() throws Exception {
+        // Alternate the inner list size on each pass over the keys so every commit is an actual change
+        final int outerListKey = nextKey % OUTER_LIST_10K;
+        final boolean evenPass = (nextKey++ / OUTER_LIST_10K) % 2 == 0;
+        DOMStoreReadWriteTransaction writeTx = domStore.newReadWriteTransaction();
+        writeTx.write(OUTER_LIST_10K_PATHS[outerListKey], evenPass ?
+                OUTER_LIST_TEN_ITEM_INNER_LIST[outerListKey] : OUTER_LIST_ONE_ITEM_INNER_LIST[outerListKey]);
+        commit(writeTx);
+    }
+
+    private static void commit(final DOMStoreReadWriteTransaction writeTx) throws Exception {
+        DOMStoreThreePhaseCommitCohort cohort = writeTx.ready();
+        cohort.canCommit().get();
+        cohort.preCommit().get();
+        cohort.commit().get();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.store.benchmark;
+
+import com.google.common.base.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.datastore.utils.NormalizedNodeAggregator;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for aggregating the data read from the root of a sharded data store, comparing the merge into a
+ * DataTree with the incremental merge the distributed data store's root reads use. The outer list is spread
+ * across the shards so every shard's data collides at the test container and the list, which is the worst
+ * case for the incremental merge.
+ * <br>
+ * Allocation rates can be compared by running with the GC profiler, eg "-prof gc".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class NormalizedNodeAggregatorBenchmark {
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    @Param({"4", "16"})
+    public int shardCount;
+
+    @Param({"1000", "100000"})
+    public int outerListSize;
+
+    private SchemaContext schemaContext;
+    private List<Optional<NormalizedNode<?, ?>>> shardNodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        schemaContext = BenchmarkModel.createTestContext();
+
+        List<CollectionNodeBuilder<MapEntryNode, MapNode>> builders = new ArrayList<>(shardCount);
+        for(int i = 0; i < shardCount; i++) {
+            builders.add(ImmutableNodes.mapNodeBuilder(BenchmarkModel.OUTER_LIST_QNAME));
+        }
+
+        for(int id = 0; id < outerListSize; id++) {
+            builders.get(id % shardCount).withChild(ImmutableNodes.mapEntry(BenchmarkModel.OUTER_LIST_QNAME,
+                    BenchmarkModel.ID_QNAME, id));
+        }
+
+        shardNodes = new ArrayList<>(shardCount);
+        for(CollectionNodeBuilder<MapEntryNode, MapNode> builder: builders) {
+            NormalizedNode<?, ?> root = Builders.containerBuilder().withNodeIdentifier(
+                    new NodeIdentifier(SchemaContext.NAME)).withChild(Builders.containerBuilder().
+                            withNodeIdentifier(new NodeIdentifier(BenchmarkModel.TEST_QNAME)).
+                            withChild(builder.build()).build()).build();
+            shardNodes.add(Optional.<NormalizedNode<?, ?>>of(root));
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Optional<NormalizedNode<?, ?>> dataTreeMerge() throws Exception {
+        return NormalizedNodeAggregator.aggregate(YangInstanceIdentifier.EMPTY, shardNodes, schemaContext);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Optional<NormalizedNode<?, ?>> incrementalMerge() {
+        NormalizedNodeAggregator aggregator = new NormalizedNodeAggregator();
+        for(Optional<NormalizedNode<?, ?>> node: shardNodes) {
+            aggregator.addNode(node);
+        }
+
+        return aggregator.getAggregatedNode();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import akka.actor.ActorSystem;
+import akka.actor.Address;
+import akka.cluster.Cluster;
+import com.google.common.base.Optional;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ShardStrategyFactory;
+import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadTransaction;
+import org.opendaylight.controller.sal.core.spi.data.DOMStoreThreePhaseCommitCohort;
+import org.opendaylight.controller.sal.core.spi.data.DOMStoreTransactionChain;
+import org.opendaylight.controller.sal.core.spi.data.DOMStoreWriteTransaction;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Base class for the benchmarks of transactions on a DistributedDataStore, which run the members of the
+ * cluster in this JVM, each with its own actor system. The outer list of the benchmark model is split across
+ * the configured number of shards by key hash and is populated with the configured number of entries before
+ * the benchmarks run. Transactions are issued on the first member's data store, whose shards become the
+ * leaders.
+ */
+public abstract class AbstractDistributedDataStoreBenchmark {
+    protected static final int WARMUP_ITERATIONS = 5;
+    protected static final int MEASUREMENT_ITERATIONS = 10;
+
+    private static final int CHAIN_LENGTH = 100;
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final String AKKA_CONFIG = "distributed-datastore-benchmark.conf";
+    private static final String SYSTEM_NAME = "opendaylight-cluster-data";
+
+    @Param({"1", "4"})
+    public int shardCount;
+
+    @Param({"1000", "10000"})
+    public int treeSize;
+
+    private final List<ActorSystem> actorSystems = new ArrayList<>();
+    private final List<DistributedDataStore> dataStores = new ArrayList<>();
+    private final Random random = new Random();
+    private DistributedDataStore dataStore;
+    private int nextId;
+
+    /**
+     * Returns the names of the configurations in distributed-datastore-benchmark.conf of the members to run.
+     */
+    protected abstract String[] getMemberConfigNames();
+
+    /**
+     * Returns the prefix of the name of the module-shards configuration with the members' replicas, which is
+     * followed by the shard count.
+     */
+    protected abstract String getModuleShardsConfigPrefix();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Config config = ConfigFactory.load(AKKA_CONFIG);
+        Configuration configuration = new ConfigurationImpl(getModuleShardsConfigPrefix() + shardCount + ".conf",
+                "modules.conf");
+        ShardStrategyFactory.setConfiguration(configuration);
+        SchemaContext schemaContext = BenchmarkModel.createTestContext();
+
+        Address seedAddress = null;
+        for(String member: getMemberConfigNames()) {
+            ActorSystem actorSystem = ActorSystem.create(SYSTEM_NAME, config.getConfig(member));
+            actorSystems.add(actorSystem);
+
+            Cluster cluster = Cluster.get(actorSystem);
+            if(seedAddress == null) {
+                seedAddress = cluster.selfAddress();
+            }
+
+            cluster.join(seedAddress);
+
+            // The other members' elections time out later so the first member's shards become the leaders.
+            DatastoreContext datastoreContext = DatastoreContext.newBuilder().dataStoreType("benchmark")
+                    .dataStoreMXBeanType("DistributedBenchmarkDatastore" + member)
+                    .shardElectionTimeoutFactor(dataStores.isEmpty() ? 1 : 10).build();
+
+            DistributedDataStore memberDataStore = new DistributedDataStore(actorSystem,
+                    new ClusterWrapperImpl(actorSystem), configuration, datastoreContext);
+            memberDataStore.onGlobalContextUpdated(schemaContext);
+            dataStores.add(memberDataStore);
+        }
+
+        for(DistributedDataStore memberDataStore: dataStores) {
+            memberDataStore.waitTillReady();
+        }
+
+        dataStore = dataStores.get(0);
+
+        DOMStoreWriteTransaction writeTx = dataStore.newWriteOnlyTransaction();
+        writeTx.write(BenchmarkModel.TEST_PATH, BenchmarkModel.testContainer(treeSize));
+        commit(writeTx.ready());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(DistributedDataStore memberDataStore: dataStores) {
+            memberDataStore.close();
+        }
+
+        for(ActorSystem actorSystem: actorSystems) {
+            actorSystem.shutdown();
+            actorSystem.awaitTermination(Duration.create(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        dataStores.clear();
+        actorSystems.clear();
+        dataStore = null;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    public void writeOnlyTransaction() throws Exception {
+        DOMStoreWriteTransaction writeTx = dataStore.newWriteOnlyTransaction();
+        int id = nextId();
+        writeTx.write(BenchmarkModel.outerEntryPath(id), BenchmarkModel.outerEntry(id));
+        commit(writeTx.ready());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    @OperationsPerInvocation(CHAIN_LENGTH)
+    public void chainedTransactions() throws Exception {
+        // All the transactions are readied before any is committed so they're pipelined on the chain, as
+        // they would be by the broker.
+        DOMStoreTransactionChain txChain = dataStore.createTransactionChain();
+        List<DOMStoreThreePhaseCommitCohort> cohorts = new ArrayList<>(CHAIN_LENGTH);
+        for(int i = 0; i < CHAIN_LENGTH; i++) {
+            DOMStoreWriteTransaction writeTx = txChain.newWriteOnlyTransaction();
+            int id = nextId();
+            writeTx.write(BenchmarkModel.outerEntryPath(id), BenchmarkModel.outerEntry(id));
+            cohorts.add(writeTx.ready());
+        }
+
+        for(DOMStoreThreePhaseCommitCohort cohort: cohorts) {
+            commit(cohort);
+        }
+
+        txChain.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    public Optional<NormalizedNode<?, ?>> read() throws Exception {
+        DOMStoreReadTransaction readTx = dataStore.newReadOnlyTransaction();
+        try {
+            return readTx.read(BenchmarkModel.outerEntryPath(random.nextInt(treeSize))).get(
+                    TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            readTx.close();
+        }
+    }
+
+    // Entries are overwritten round robin so the size of the tree stays the same.
+    private int nextId() {
+        int id = nextId;
+        nextId = (nextId + 1) % treeSize;
+        return id;
+    }
+
+    private static void commit(DOMStoreThreePhaseCommitCohort cohort) throws Exception {
+        if(!cohort.canCommit().get(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            cohort.abort().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            throw new IllegalStateException("Transaction was not allowed to commit");
+        }
+
+        cohort.preCommit().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        cohort.commit().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import java.util.Collections;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+
+/**
+ * The model the distributed data store benchmarks operate on, ie the odl-datastore-test.yang model whose
+ * outer list is the one split across shards in the benchmark module-shards configurations.
+ */
+public final class BenchmarkModel {
+    public static final QName TEST_QNAME = QName.create(
+            "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:test", "2014-03-13", "test");
+    public static final QName OUTER_LIST_QNAME = QName.create(TEST_QNAME, "outer-list");
+    public static final QName INNER_LIST_QNAME = QName.create(TEST_QNAME, "inner-list");
+    public static final QName ID_QNAME = QName.create(TEST_QNAME, "id");
+    public static final QName NAME_QNAME = QName.create(TEST_QNAME, "name");
+    public static final QName VALUE_QNAME = QName.create(TEST_QNAME, "value");
+
+    public static final YangInstanceIdentifier TEST_PATH = YangInstanceIdentifier.of(TEST_QNAME);
+    public static final YangInstanceIdentifier OUTER_LIST_PATH = TEST_PATH.node(OUTER_LIST_QNAME);
+
+    // The number of inner list items in each outer list entry.
+    private static final int INNER_LIST_SIZE = 2;
+
+    private static final String DATASTORE_TEST_YANG = "/odl-datastore-test.yang";
+
+    private BenchmarkModel() {
+    }
+
+    public static SchemaContext createTestContext() {
+        YangParserImpl parser = new YangParserImpl();
+        Set<Module> modules = parser.parseYangModelsFromStreams(Collections.singletonList(
+                BenchmarkModel.class.getResourceAsStream(DATASTORE_TEST_YANG)));
+        return parser.resolveSchemaContext(modules);
+    }
+
+    public static YangInstanceIdentifier outerEntryPath(int id) {
+        return OUTER_LIST_PATH.node(new YangInstanceIdentifier.NodeIdentifierWithPredicates(
+                OUTER_LIST_QNAME, ID_QNAME, id));
+    }
+
+    public static MapEntryNode outerEntry(int id) {
+        CollectionNodeBuilder<MapEntryNode, MapNode> innerList = ImmutableNodes.mapNodeBuilder(INNER_LIST_QNAME);
+        for(int name = 0; name < INNER_LIST_SIZE; name++) {
+            innerList.withChild(ImmutableNodes.mapEntryBuilder(INNER_LIST_QNAME, NAME_QNAME, name)
+                    .withChild(ImmutableNodes.leafNode(VALUE_QNAME, "value-" + id + "-" + name)).build());
+        }
+
+        return ImmutableNodes.mapEntryBuilder(OUTER_LIST_QNAME, ID_QNAME, id).withChild(innerList.build()).build();
+    }
+
+    /**
+     * Returns the test container with an outer list of the given size.
+     */
+    public static ContainerNode testContainer(int outerListSize) {
+        CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(OUTER_LIST_QNAME);
+        for(int id = 0; id < outerListSize; id++) {
+            outerList.withChild(outerEntry(id));
+        }
+
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+                .withChild(outerList.build()).build();
+    }
+}
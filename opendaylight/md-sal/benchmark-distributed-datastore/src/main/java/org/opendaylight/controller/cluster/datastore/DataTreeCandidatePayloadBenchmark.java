@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for encoding the DataTreeCandidatePayload a shard replicates and persists for each transaction
+ * and decoding it on followers and on recovery. The candidate writes the configured number of outer list
+ * entries. A compression threshold of 0 disables compression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class DataTreeCandidatePayloadBenchmark {
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    @Param({"1", "100", "10000"})
+    public int entries;
+
+    @Param({"3", "4"})
+    public short version;
+
+    @Param({"0", "65536"})
+    public int compressionThreshold;
+
+    private DataTreeCandidate candidate;
+    private DataTreeCandidatePayload payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        TipProducingDataTree dataTree = InMemoryDataTreeFactory.getInstance().create();
+        dataTree.setSchemaContext(BenchmarkModel.createTestContext());
+
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, BenchmarkModel.testContainer(0));
+        modification.ready();
+        dataTree.commit(dataTree.prepare(modification));
+
+        modification = dataTree.takeSnapshot().newModification();
+        for(int id = 0; id < entries; id++) {
+            modification.write(BenchmarkModel.outerEntryPath(id), BenchmarkModel.outerEntry(id));
+        }
+
+        modification.ready();
+        candidate = dataTree.prepare(modification);
+        payload = encode();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public DataTreeCandidatePayload encode() {
+        return DataTreeCandidatePayload.create(candidate, version, compressionThreshold, null);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public DataTreeCandidate decode() throws Exception {
+        return payload.getCandidate();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark for replaying a shard's journal on recovery. Each journal entry is the payload of a transaction
+ * that writes one outer list entry, and the entries are handed to the ShardRecoveryCoordinator in batches of
+ * the default recovery batch size as the RaftActor does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ShardRecoveryBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardRecoveryBenchmark.class);
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    @Param({"1000", "100000"})
+    public int journalSize;
+
+    private SchemaContext schemaContext;
+    private List<DataTreeCandidatePayload> journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        schemaContext = BenchmarkModel.createTestContext();
+
+        TipProducingDataTree dataTree = new ShardDataTree(schemaContext).getDataTree();
+        journal = new ArrayList<>(journalSize + 1);
+        journal.add(DataTreeCandidatePayload.create(commit(dataTree, -1)));
+        for(int id = 0; id < journalSize; id++) {
+            journal.add(DataTreeCandidatePayload.create(commit(dataTree, id)));
+        }
+    }
+
+    private static DataTreeCandidate commit(TipProducingDataTree dataTree, int id) throws Exception {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        if(id < 0) {
+            modification.write(BenchmarkModel.TEST_PATH, BenchmarkModel.testContainer(0));
+        } else {
+            modification.write(BenchmarkModel.outerEntryPath(id), BenchmarkModel.outerEntry(id));
+        }
+
+        modification.ready();
+        DataTreeCandidate candidate = dataTree.prepare(modification);
+        dataTree.commit(candidate);
+        return candidate;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public ShardDataTree replayJournal() {
+        ShardDataTree store = new ShardDataTree(schemaContext);
+        ShardRecoveryCoordinator coordinator = new ShardRecoveryCoordinator(store, schemaContext, "benchmark", LOG);
+
+        int batchSize = DatastoreContext.DEFAULT_JOURNAL_RECOVERY_BATCH_SIZE;
+        for(int start = 0; start < journal.size(); start += batchSize) {
+            int end = Math.min(start + batchSize, journal.size());
+            coordinator.startLogRecoveryBatch(batchSize);
+            for(int i = start; i < end; i++) {
+                coordinator.appendRecoveredLogEntry(journal.get(i));
+            }
+
+            coordinator.applyCurrentLogRecoveryBatch();
+        }
+
+        coordinator.completeRecovery();
+        return store;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.datastore.utils.CompressionUtils;
+import org.opendaylight.controller.cluster.datastore.utils.SerializationUtils;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark for capturing a full snapshot of a shard's data tree, applying it as a follower does when a
+ * snapshot is installed and applying it on recovery.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ShardSnapshotBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardSnapshotBenchmark.class);
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    @Param({"1000", "100000"})
+    public int treeSize;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    private SchemaContext schemaContext;
+    private TipProducingDataTree dataTree;
+    private ShardSnapshotCohort snapshotCohort;
+    private byte[] snapshotBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        schemaContext = BenchmarkModel.createTestContext();
+
+        dataTree = new ShardDataTree(schemaContext).getDataTree();
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, BenchmarkModel.testContainer(treeSize));
+        modification.ready();
+        dataTree.commit(dataTree.prepare(modification));
+
+        snapshotCohort = new ShardSnapshotCohort(null, new ShardDataTree(schemaContext), LOG, "benchmark");
+        snapshotBytes = captureSnapshot();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public byte[] captureSnapshot() {
+        // This is what the shard's snapshot transaction does for a full snapshot.
+        NormalizedNode<?, ?> root = dataTree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get();
+        byte[] bytes = SerializationUtils.serializeNormalizedNode(root);
+        return compressed ? CompressionUtils.compress(bytes, null) : bytes;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public void applySnapshot() {
+        snapshotCohort.applySnapshot(snapshotBytes);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public ShardDataTree recoverSnapshot() {
+        ShardDataTree store = new ShardDataTree(schemaContext);
+        ShardRecoveryCoordinator coordinator = new ShardRecoveryCoordinator(store, schemaContext, "benchmark", LOG);
+        coordinator.applyRecoverySnapshot(snapshotBytes);
+        coordinator.completeRecovery();
+        return store;
+    }
+}
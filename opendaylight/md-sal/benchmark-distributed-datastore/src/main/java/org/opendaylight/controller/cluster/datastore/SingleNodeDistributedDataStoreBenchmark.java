@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of transactions on a DistributedDataStore in a single member cluster, ie with no replication.
+ */
+@State(Scope.Thread)
+@Fork(1)
+public class SingleNodeDistributedDataStoreBenchmark extends AbstractDistributedDataStoreBenchmark {
+
+    @Override
+    protected String[] getMemberConfigNames() {
+        return new String[] {"SingleNode"};
+    }
+
+    @Override
+    protected String getModuleShardsConfigPrefix() {
+        return "module-shards-single-";
+    }
+}
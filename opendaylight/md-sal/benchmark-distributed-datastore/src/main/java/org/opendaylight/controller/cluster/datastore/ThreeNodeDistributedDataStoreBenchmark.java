@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of transactions on a DistributedDataStore in a three member cluster with a replica of every shard
+ * on every member, so each commit is replicated to the other members over akka remoting before it completes.
+ */
+@State(Scope.Thread)
+@Fork(1)
+public class ThreeNodeDistributedDataStoreBenchmark extends AbstractDistributedDataStoreBenchmark {
+
+    @Override
+    protected String[] getMemberConfigNames() {
+        return new String[] {"Member1", "Member2", "Member3"};
+    }
+
+    @Override
+    protected String getModuleShardsConfigPrefix() {
+        return "module-shards-cluster-";
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft;
+
+import akka.japi.Procedure;
+import com.google.protobuf.GeneratedMessage;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.raft.protobuff.client.messages.Payload;
+import org.opendaylight.controller.protobuff.messages.cluster.raft.AppendEntriesMessages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the in-memory replicated log operations on a leader's hot path, ie appending entries,
+ * fetching the entries for an AppendEntries message to a lagging follower and trimming the log on snapshot.
+ * Persistence is a no-op so only AbstractReplicatedLogImpl is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ReplicatedLogBenchmark {
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    // The number of entries appended between snapshots in the append benchmark.
+    private static final int SNAPSHOT_BATCH_COUNT = 1000;
+
+    @Param({"1000", "100000"})
+    public int logSize;
+
+    @Param({"100", "10000"})
+    public int payloadSize;
+
+    private final Random random = new Random();
+    private BenchmarkReplicatedLog log;
+    private Payload payload;
+    private int maxDataSize;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        payload = new BenchmarkPayload(payloadSize);
+        maxDataSize = new DefaultConfigParamsImpl().getSnapshotChunkSize();
+
+        log = new BenchmarkReplicatedLog();
+        log.increaseJournalLogCapacity(logSize);
+        for(int i = 0; i < logSize; i++) {
+            log.append(new ReplicatedLogImplEntry(i, 1, payload));
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @OperationsPerInvocation(SNAPSHOT_BATCH_COUNT)
+    public void appendAndSnapshot() {
+        long index = log.lastIndex();
+        for(int i = 0; i < SNAPSHOT_BATCH_COUNT; i++) {
+            log.appendAndPersist(new ReplicatedLogImplEntry(++index, 1, payload));
+        }
+
+        // Trim as many of the oldest entries as were appended so the log stays the same size.
+        log.snapshotPreCommit(log.getSnapshotIndex() + SNAPSHOT_BATCH_COUNT, 1);
+        log.snapshotCommit();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public List<ReplicatedLogEntry> getFrom() {
+        // This is how the leader fetches the entries to send to a follower that is behind.
+        long index = log.getSnapshotIndex() + 1 + random.nextInt(logSize);
+        return log.getFrom(index, (int) log.size(), maxDataSize);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public ReplicatedLogEntry get() {
+        return log.get(log.getSnapshotIndex() + 1 + random.nextInt(logSize));
+    }
+
+    private static class BenchmarkReplicatedLog extends AbstractReplicatedLogImpl {
+        @Override
+        public void appendAndPersist(ReplicatedLogEntry replicatedLogEntry) {
+            append(replicatedLogEntry);
+        }
+
+        @Override
+        public void appendAndPersist(ReplicatedLogEntry replicatedLogEntry,
+                Procedure<ReplicatedLogEntry> callback) {
+            append(replicatedLogEntry);
+        }
+
+        @Override
+        public void removeFromAndPersist(long index) {
+            removeFrom(index);
+        }
+
+        @Override
+        public void captureSnapshotIfReady(ReplicatedLogEntry replicatedLogEntry) {
+        }
+    }
+
+    private static class BenchmarkPayload extends Payload {
+        private final int size;
+
+        BenchmarkPayload(int size) {
+            this.size = size;
+        }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("rawtypes")
+        public <T> Map<GeneratedMessage.GeneratedExtension, T> encode() {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public Payload decode(AppendEntriesMessages.AppendEntries.ReplicatedLogEntry.Payload payload) {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -29,7 +29,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
     private ArrayList<ReplicatedLogEntry> snapshottedJournal;
     private long previousSnapshotIndex = -1;
     private long previousSnapshotTerm = -1;
-    private int dataSize = 0;
+    private long dataSize = 0;
 
     public AbstractReplicatedLogImpl(long snapshotIndex,
         long snapshotTerm, List<ReplicatedLogEntry> unAppliedEntries) {
@@ -138,29 +138,23 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
                 maxIndex = size;
             }
 
-            if(maxDataSize == NO_MAX_SIZE) {
-                return new ArrayList<>(journal.subList(adjustedIndex, maxIndex));
-            } else {
-                List<ReplicatedLogEntry> retList = new ArrayList<>(maxIndex - adjustedIndex);
+            if(maxDataSize != NO_MAX_SIZE) {
                 long totalSize = 0;
                 for(int i = adjustedIndex; i < maxIndex; i++) {
-                    ReplicatedLogEntry entry = journal.get(i);
-                    totalSize += entry.size();
-                    if(totalSize <= maxDataSize) {
-                        retList.add(entry);
-                    } else {
-                        if(retList.isEmpty()) {
-                            // Edge case - the first entry's size exceeds the threshold. We need to return
-                            // at least the first entry so add it here.
-                            retList.add(entry);
-                        }
-
+                    totalSize += journal.get(i).size();
+                    if(totalSize > maxDataSize) {
+                        // Edge case - the first entry's size exceeds the threshold. We need to return
+                        // at least the first entry.
+                        maxIndex = Math.max(i, adjustedIndex + 1);
                         break;
                     }
                 }
-
-                return retList;
             }
+
+            // The entries are copied in bulk rather than returning a view of the journal since the
+            // returned list may be held on to, eg in an AppendEntries message, while the journal is
+            // modified.
+            return new ArrayList<>(journal.subList(adjustedIndex, maxIndex));
         } else {
             return Collections.emptyList();
         }
@@ -172,7 +166,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
     }
 
     @Override
-    public int dataSize() {
+    public long dataSize() {
         return dataSize;
     }
 
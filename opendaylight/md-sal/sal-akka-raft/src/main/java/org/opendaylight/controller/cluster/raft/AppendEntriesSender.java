@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSelection;
+import org.opendaylight.controller.cluster.raft.messages.AppendEntries;
+
+/**
+ * Sends the AppendEntries, including heartbeats, of a leader to its followers. By default they're sent
+ * directly to the follower actor but an implementation may route them otherwise, eg combined with those of
+ * other leaders to the same member. The follower must see the leader as the sender or otherwise route its
+ * reply back to the leader.
+ */
+public interface AppendEntriesSender {
+    AppendEntriesSender DIRECT = new AppendEntriesSender() {
+        @Override
+        public void send(ActorSelection follower, AppendEntries appendEntries, ActorRef leader) {
+            follower.tell(appendEntries.toSerializable(), leader);
+        }
+    };
+
+    /**
+     * Sends AppendEntries to a follower.
+     *
+     * @param follower the follower actor
+     * @param appendEntries the AppendEntries to send
+     * @param leader the leader actor
+     */
+    void send(ActorSelection follower, AppendEntries appendEntries, ActorRef leader);
+}
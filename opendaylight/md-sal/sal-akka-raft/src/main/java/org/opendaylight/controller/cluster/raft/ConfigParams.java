@@ -84,4 +84,24 @@ public interface ConfigParams {
      */
     long getElectionTimeoutFactor();
 
+    /**
+     * The maximum number of log entries, persisted on behalf of clients, that are coalesced into a single
+     * journal write. A value of 1 or less disables batching and each entry is persisted individually.
+     */
+    int getJournalPersistMaxBatchSize();
+
+    /**
+     * The maximum amount of time an entry waits for other entries to join its journal write batch before
+     * the batch is persisted.
+     *
+     * @return FiniteDuration
+     */
+    FiniteDuration getJournalPersistMaxBatchLinger();
+
+    /**
+     * The maximum number of AppendEntries messages carrying log entries that the leader may have outstanding
+     * to a single follower before waiting for a reply. A value of 1 or less results in stop-and-wait
+     * replication.
+     */
+    int getMaxInFlightAppendEntries();
 }
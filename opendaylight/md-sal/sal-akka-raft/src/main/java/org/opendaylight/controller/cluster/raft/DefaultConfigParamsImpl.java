@@ -28,6 +28,13 @@ public class DefaultConfigParamsImpl implements ConfigParams {
 
     private static final int SNAPSHOT_CHUNK_SIZE = 2048 * 1000; //2MB
 
+    private static final int JOURNAL_PERSIST_MAX_BATCH_SIZE = 1;
+
+    private static final FiniteDuration JOURNAL_PERSIST_MAX_BATCH_LINGER =
+        new FiniteDuration(5, TimeUnit.MILLISECONDS);
+
+    private static final int MAX_IN_FLIGHT_APPEND_ENTRIES = 1;
+
 
     /**
      * The interval at which a heart beat message will be sent to the remote
@@ -53,6 +60,12 @@ public class DefaultConfigParamsImpl implements ConfigParams {
 
     private long electionTimeoutFactor = 2;
 
+    private int journalPersistMaxBatchSize = JOURNAL_PERSIST_MAX_BATCH_SIZE;
+
+    private FiniteDuration journalPersistMaxBatchLinger = JOURNAL_PERSIST_MAX_BATCH_LINGER;
+
+    private int maxInFlightAppendEntries = MAX_IN_FLIGHT_APPEND_ENTRIES;
+
     public void setHeartBeatInterval(FiniteDuration heartBeatInterval) {
         this.heartBeatInterval = heartBeatInterval;
         electionTimeOutInterval = null;
@@ -83,6 +96,18 @@ public class DefaultConfigParamsImpl implements ConfigParams {
         electionTimeOutInterval = null;
     }
 
+    public void setJournalPersistMaxBatchSize(int journalPersistMaxBatchSize) {
+        this.journalPersistMaxBatchSize = journalPersistMaxBatchSize;
+    }
+
+    public void setJournalPersistMaxBatchLinger(FiniteDuration journalPersistMaxBatchLinger) {
+        this.journalPersistMaxBatchLinger = journalPersistMaxBatchLinger;
+    }
+
+    public void setMaxInFlightAppendEntries(int maxInFlightAppendEntries) {
+        this.maxInFlightAppendEntries = maxInFlightAppendEntries;
+    }
+
     @Override
     public long getSnapshotBatchCount() {
         return snapshotBatchCount;
@@ -132,4 +157,19 @@ public class DefaultConfigParamsImpl implements ConfigParams {
     public long getElectionTimeoutFactor() {
         return electionTimeoutFactor;
     }
+
+    @Override
+    public int getJournalPersistMaxBatchSize() {
+        return journalPersistMaxBatchSize;
+    }
+
+    @Override
+    public FiniteDuration getJournalPersistMaxBatchLinger() {
+        return journalPersistMaxBatchLinger;
+    }
+
+    @Override
+    public int getMaxInFlightAppendEntries() {
+        return maxInFlightAppendEntries;
+    }
 }
@@ -98,6 +98,38 @@ public interface FollowerLogInformation {
      */
     boolean okToReplicate();
 
+    /**
+     * Returns true if replication to this follower is pipelined, ie more than one AppendEntries carrying
+     * log entries may be outstanding at a time.
+     */
+    boolean isPipelined();
+
+    /**
+     * Records that an AppendEntries carrying log entries up to and including the given index was sent to
+     * the follower. When pipelined, the nextIndex is advanced past the sent entries so the next
+     * AppendEntries can be sent without waiting for the reply.
+     *
+     * @param lastSentIndex the index of the last log entry sent
+     */
+    void markAppendEntriesSent(long lastSentIndex);
+
+    /**
+     * Records that an AppendEntriesReply was received from the follower. A successful reply acknowledges the
+     * outstanding AppendEntries whose entries the follower now has, a reply to a heartbeat does not
+     * acknowledge any. An unsuccessful reply clears all outstanding AppendEntries as the follower will reject
+     * them as well.
+     *
+     * @param success whether or not the reply was successful
+     * @param followerLastLogIndex the index of the last entry in the follower's log, as reported in the reply
+     */
+    void markAppendEntriesReplyReceived(boolean success, long followerLastLogIndex);
+
+    /**
+     * Returns the number of AppendEntries carrying log entries sent to the follower for which no reply has
+     * been received yet.
+     */
+    int getInFlightAppendEntriesCount();
+
     /**
      * Returns the payload data version of the follower.
      */
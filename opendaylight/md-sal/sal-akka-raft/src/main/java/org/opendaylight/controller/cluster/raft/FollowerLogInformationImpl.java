@@ -9,6 +9,8 @@
 package org.opendaylight.controller.cluster.raft;
 
 import com.google.common.base.Stopwatch;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.TimeUnit;
 
 public class FollowerLogInformationImpl implements FollowerLogInformation {
@@ -28,6 +30,9 @@ public class FollowerLogInformationImpl implements FollowerLogInformation {
 
     private short payloadVersion = -1;
 
+    // The last log index carried by each outstanding AppendEntries, in the order they were sent
+    private final Deque<Long> inFlightAppendEntries = new ArrayDeque<>();
+
     public FollowerLogInformationImpl(String id, long matchIndex, RaftActorContext context) {
         this.id = id;
         this.nextIndex = context.getCommitIndex();
@@ -114,6 +119,10 @@ public class FollowerLogInformationImpl implements FollowerLogInformation {
 
     @Override
     public boolean okToReplicate() {
+        if(isPipelined()) {
+            return okToReplicatePipelined();
+        }
+
         // Return false if we are trying to send duplicate data before the heartbeat interval
         if(getNextIndex() == lastReplicatedIndex){
             if(lastReplicatedStopwatch.elapsed(TimeUnit.MILLISECONDS) < context.getConfigParams()
@@ -126,6 +135,64 @@ public class FollowerLogInformationImpl implements FollowerLogInformation {
         return true;
     }
 
+    private boolean okToReplicatePipelined() {
+        if(inFlightAppendEntries.size() < context.getConfigParams().getMaxInFlightAppendEntries()) {
+            return true;
+        }
+
+        // The window is full. If nothing was sent or received for a heartbeat interval, assume the
+        // outstanding AppendEntries or their replies were lost and rewind to the last index known
+        // to be replicated.
+        if(lastReplicatedStopwatch.elapsed(TimeUnit.MILLISECONDS) >= context.getConfigParams()
+                .getHeartBeatInterval().toMillis()) {
+            nextIndex = matchIndex + 1;
+            inFlightAppendEntries.clear();
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean isPipelined() {
+        return context.getConfigParams().getMaxInFlightAppendEntries() > 1;
+    }
+
+    @Override
+    public void markAppendEntriesSent(long lastSentIndex) {
+        if(isPipelined()) {
+            inFlightAppendEntries.addLast(lastSentIndex);
+            nextIndex = lastSentIndex + 1;
+            resetLastReplicated();
+        }
+    }
+
+    @Override
+    public void markAppendEntriesReplyReceived(boolean success, long followerLastLogIndex) {
+        if(inFlightAppendEntries.isEmpty()) {
+            return;
+        }
+
+        if(!success) {
+            inFlightAppendEntries.clear();
+        } else if(inFlightAppendEntries.peekFirst() <= followerLastLogIndex) {
+            // The follower has all the entries of these AppendEntries. Replies to heartbeats do not
+            // acknowledge anything else so they do not open the window.
+            do {
+                inFlightAppendEntries.removeFirst();
+            } while(!inFlightAppendEntries.isEmpty() && inFlightAppendEntries.peekFirst() <= followerLastLogIndex);
+        } else {
+            return;
+        }
+
+        resetLastReplicated();
+    }
+
+    @Override
+    public int getInFlightAppendEntriesCount() {
+        return inFlightAppendEntries.size();
+    }
+
     private void resetLastReplicated(){
         lastReplicatedIndex = getNextIndex();
         if(lastReplicatedStopwatch.isRunning()){
@@ -138,7 +205,8 @@ public class FollowerLogInformationImpl implements FollowerLogInformation {
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("FollowerLogInformationImpl [id=").append(id).append(", nextIndex=").append(nextIndex)
-                .append(", matchIndex=").append(matchIndex).append(", stopwatch=")
+                .append(", matchIndex=").append(matchIndex)
+                .append(", inFlightAppendEntries=").append(inFlightAppendEntries.size()).append(", stopwatch=")
                 .append(stopwatch.elapsed(TimeUnit.MILLISECONDS))
                 .append(", followerTimeoutMillis=")
                 .append(context.getConfigParams().getElectionTimeOutInterval().toMillis()).append("]");
@@ -11,6 +11,8 @@ package org.opendaylight.controller.cluster.raft;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSelection;
+import akka.actor.Cancellable;
+import akka.actor.Status;
 import akka.japi.Procedure;
 import akka.persistence.SnapshotSelectionCriteria;
 import com.google.common.annotations.VisibleForTesting;
@@ -18,6 +20,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +37,8 @@ import org.opendaylight.controller.cluster.notifications.LeaderStateChanged;
 import org.opendaylight.controller.cluster.notifications.RoleChanged;
 import org.opendaylight.controller.cluster.raft.base.messages.ApplyJournalEntries;
 import org.opendaylight.controller.cluster.raft.base.messages.ApplyState;
+import org.opendaylight.controller.cluster.raft.base.messages.FlushPersistBatch;
+import org.opendaylight.controller.cluster.raft.base.messages.LeadershipTransferTimeout;
 import org.opendaylight.controller.cluster.raft.base.messages.Replicate;
 import org.opendaylight.controller.cluster.raft.behaviors.AbstractLeader;
 import org.opendaylight.controller.cluster.raft.behaviors.DelegatingRaftActorBehavior;
@@ -43,10 +48,13 @@ import org.opendaylight.controller.cluster.raft.client.messages.FindLeader;
 import org.opendaylight.controller.cluster.raft.client.messages.FindLeaderReply;
 import org.opendaylight.controller.cluster.raft.client.messages.FollowerInfo;
 import org.opendaylight.controller.cluster.raft.client.messages.GetOnDemandRaftState;
+import org.opendaylight.controller.cluster.raft.client.messages.LeadershipTransferFailedException;
 import org.opendaylight.controller.cluster.raft.client.messages.OnDemandRaftState;
+import org.opendaylight.controller.cluster.raft.client.messages.TransferLeadership;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.Payload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.FiniteDuration;
 
 /**
  * RaftActor encapsulates a state machine that needs to be kept synchronized
@@ -114,6 +122,15 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
 
     private final BehaviorStateHolder reusableBehaviorStateHolder = new BehaviorStateHolder();
 
+    private final List<PendingPersist> pendingPersistBatch = new ArrayList<>();
+
+    private Cancellable persistBatchFlushSchedule;
+
+    // The sender of the TransferLeadership in progress, if any, along with its target follower.
+    private ActorRef leadershipTransferRequester;
+    private String leadershipTransferTarget;
+    private Cancellable leadershipTransferTimeout;
+
     public RaftActor(String id, Map<String, String> peerAddresses,
          Optional<ConfigParams> configParams, short payloadVersion) {
 
@@ -139,6 +156,9 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
 
     @Override
     public void postStop() {
+        cancelPersistBatchFlush();
+        cancelLeadershipTransferTimeout();
+
         if(currentBehavior.getDelegate() != null) {
             try {
                 currentBehavior.close();
@@ -227,6 +247,10 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
 
             persistence().persist(applyEntries, NoopProcedure.instance());
 
+        } else if (message instanceof FlushPersistBatch) {
+            persistBatchFlushSchedule = null;
+            flushPersistBatch();
+
         } else if (message instanceof FindLeader) {
             getSender().tell(
                 new FindLeaderReply(getLeaderAddress()),
@@ -234,6 +258,11 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
             );
         } else if(message instanceof GetOnDemandRaftState) {
             onGetOnDemandRaftStats();
+        } else if(message instanceof TransferLeadership) {
+            onTransferLeadership(((TransferLeadership) message).getTargetId());
+        } else if(message instanceof LeadershipTransferTimeout) {
+            leadershipTransferTimeout = null;
+            onLeadershipTransferTimeout();
         } else if(!snapshotSupport.handleSnapshotMessage(message)) {
             reusableBehaviorStateHolder.init(getCurrentBehavior());
 
@@ -248,6 +277,90 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
                 getRaftActorSnapshotCohort());
     }
 
+    private void onTransferLeadership(String requestedTargetId) {
+        if(leadershipTransferRequester != null) {
+            getSender().tell(new Status.Failure(new LeadershipTransferFailedException(
+                    "A leadership transfer to " + leadershipTransferTarget + " is already in progress")), getSelf());
+            return;
+        }
+
+        if(currentBehavior.state() != RaftState.Leader) {
+            getSender().tell(new Status.Failure(new LeadershipTransferFailedException(
+                    "Not the leader - current state is " + currentBehavior.state())), getSelf());
+            return;
+        }
+
+        AbstractLeader leader = (AbstractLeader) getCurrentBehavior();
+        String targetId = requestedTargetId != null ? requestedTargetId : leader.getMostUpToDateFollower();
+        if(targetId == null || leader.getFollower(targetId) == null) {
+            getSender().tell(new Status.Failure(new LeadershipTransferFailedException(
+                    "Unknown follower " + targetId)), getSelf());
+            return;
+        }
+
+        if(!context.isPeerVoting(targetId)) {
+            getSender().tell(new Status.Failure(new LeadershipTransferFailedException(
+                    "Follower " + targetId + " is not a voting member")), getSelf());
+            return;
+        }
+
+        leadershipTransferRequester = getSender();
+        leadershipTransferTarget = targetId;
+
+        // The target is normally caught up within a few heartbeats - allow a couple of election timeouts
+        // in case it is further behind.
+        long timeout = context.getConfigParams().getElectionTimeOutInterval().toMillis() * 2;
+        leadershipTransferTimeout = context.getActorSystem().scheduler().scheduleOnce(
+                new FiniteDuration(timeout, TimeUnit.MILLISECONDS), getSelf(), LeadershipTransferTimeout.INSTANCE,
+                context.getActorSystem().dispatcher(), getSelf());
+
+        leader.transferLeadership(targetId);
+    }
+
+    private void onLeadershipTransferTimeout() {
+        if(leadershipTransferRequester == null) {
+            return;
+        }
+
+        LOG.warn("{}: Leadership transfer to {} timed out", persistenceId(), leadershipTransferTarget);
+
+        if(getCurrentBehavior() instanceof AbstractLeader) {
+            ((AbstractLeader) getCurrentBehavior()).abortLeadershipTransfer();
+        }
+
+        finishLeadershipTransfer(new Status.Failure(new LeadershipTransferFailedException(
+                "Leadership transfer to " + leadershipTransferTarget + " did not complete in time")));
+    }
+
+    private void onLeaderChangedDuringTransfer(String newLeaderId) {
+        // Wait for a new leader to be known - if it's us again, the transfer will time out.
+        if(leadershipTransferRequester == null || newLeaderId == null || newLeaderId.equals(getId())) {
+            return;
+        }
+
+        if(newLeaderId.equals(leadershipTransferTarget)) {
+            LOG.info("{}: Leadership transferred to {}", persistenceId(), newLeaderId);
+            finishLeadershipTransfer(new Status.Success(newLeaderId));
+        } else {
+            finishLeadershipTransfer(new Status.Failure(new LeadershipTransferFailedException(
+                    "Leadership was taken by " + newLeaderId + " rather than " + leadershipTransferTarget)));
+        }
+    }
+
+    private void finishLeadershipTransfer(Object reply) {
+        cancelLeadershipTransferTimeout();
+        leadershipTransferRequester.tell(reply, getSelf());
+        leadershipTransferRequester = null;
+        leadershipTransferTarget = null;
+    }
+
+    private void cancelLeadershipTransferTimeout() {
+        if(leadershipTransferTimeout != null) {
+            leadershipTransferTimeout.cancel();
+            leadershipTransferTimeout = null;
+        }
+    }
+
     private void onGetOnDemandRaftStats() {
         // Debugging message to retrieve raft stats.
 
@@ -311,6 +424,8 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
             }
 
             onLeaderChanged(oldBehaviorLeaderId, currentBehavior.getLeaderId());
+
+            onLeaderChangedDuringTransfer(currentBehavior.getLeaderId());
         }
 
         if (roleChangeNotifier.isPresent() &&
@@ -337,6 +452,10 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
     /**
      * When a derived RaftActor needs to persist something it must call
      * persistData.
+     * <p>
+     * If journal persist batching is enabled, the data is held back until either the batch is full or
+     * the configured linger time expires. All entries in the batch are then persisted while handling a
+     * single message so akka-persistence writes them to the journal together.
      *
      * @param clientActor
      * @param identifier
@@ -345,6 +464,59 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
     protected void persistData(final ActorRef clientActor, final String identifier,
         final Payload data) {
 
+        int maxBatchSize = context.getConfigParams().getJournalPersistMaxBatchSize();
+        if(maxBatchSize <= 1) {
+            appendAndPersist(clientActor, identifier, data);
+            return;
+        }
+
+        pendingPersistBatch.add(new PendingPersist(clientActor, identifier, data));
+
+        if(pendingPersistBatch.size() >= maxBatchSize) {
+            flushPersistBatch();
+        } else if(persistBatchFlushSchedule == null) {
+            persistBatchFlushSchedule = context.getActorSystem().scheduler().scheduleOnce(
+                    context.getConfigParams().getJournalPersistMaxBatchLinger(), getSelf(),
+                    FlushPersistBatch.INSTANCE, context.getActorSystem().dispatcher(), getSelf());
+        }
+    }
+
+    private void flushPersistBatch() {
+        cancelPersistBatchFlush();
+
+        if(pendingPersistBatch.isEmpty()) {
+            return;
+        }
+
+        if(!isLeader()) {
+            // The entries were never appended to the log so nothing needs to be undone - the clients
+            // will time out as they would for any other leader that loses leadership mid-commit.
+            LOG.warn("{}: No longer the leader - dropping {} pending entries to persist", persistenceId(),
+                    pendingPersistBatch.size());
+            pendingPersistBatch.clear();
+            return;
+        }
+
+        LOG.debug("{}: Persisting batch of {} entries", persistenceId(), pendingPersistBatch.size());
+
+        replicatedLog().increaseJournalLogCapacity(pendingPersistBatch.size());
+        for(PendingPersist pending: pendingPersistBatch) {
+            appendAndPersist(pending.clientActor, pending.identifier, pending.data);
+        }
+
+        pendingPersistBatch.clear();
+    }
+
+    private void cancelPersistBatchFlush() {
+        if(persistBatchFlushSchedule != null) {
+            persistBatchFlushSchedule.cancel();
+            persistBatchFlushSchedule = null;
+        }
+    }
+
+    private void appendAndPersist(final ActorRef clientActor, final String identifier,
+        final Payload data) {
+
         ReplicatedLogEntry replicatedLogEntry = new ReplicatedLogImplEntry(
             context.getReplicatedLog().lastIndex() + 1,
             context.getTermInformation().getCurrentTerm(), data);
@@ -373,9 +545,11 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
                 } else if (clientActor != null) {
                     context.getReplicatedLog().captureSnapshotIfReady(replicatedLogEntry);
 
-                    // Send message for replication
+                    // Send message for replication. Entries of a persisted batch complete together so only
+                    // the last one needs to trigger AppendEntries - it carries the preceding entries with it.
+                    boolean sendImmediate = replicatedLogEntry.getIndex() == replicatedLog().lastIndex();
                     currentBehavior.handleMessage(getSelf(),
-                            new Replicate(clientActor, identifier, replicatedLogEntry));
+                            new Replicate(clientActor, identifier, replicatedLogEntry, sendImmediate));
                 }
             }
         });
@@ -461,6 +635,22 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
         context.setConfigParams(configParams);
     }
 
+    /**
+     * Sets the AppendEntriesSender used to send AppendEntries to the followers while this actor is the leader.
+     */
+    protected void setAppendEntriesSender(AppendEntriesSender appendEntriesSender) {
+        context.setAppendEntriesSender(appendEntriesSender);
+    }
+
+    /**
+     * Sets the ids of the members, possibly including this one, that replicate the log but don't vote in
+     * elections or count towards the commit quorum. This must be called before the initial behavior is
+     * created, ie from the constructor of the derived actor.
+     */
+    protected void setNonVotingMembers(Collection<String> nonVotingMemberIds) {
+        context.setNonVotingMemberIds(nonVotingMemberIds);
+    }
+
     public final DataPersistenceProvider persistence() {
         return delegatingPersistenceProvider.getDelegate();
     }
@@ -587,6 +777,29 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
         return getRaftActorContext().hasFollowers();
     }
 
+    /**
+     * Derived actors can call this method to determine whether all followers support a newer payload
+     * version before replicating payloads in that version.
+     *
+     * @return the lowest payload version reported by the followers or this actor's own payload version if
+     *         there are no followers. -1 is returned if this actor is not the leader or if a follower's
+     *         payload version isn't known yet.
+     */
+    protected short getMinimumFollowerPayloadVersion() {
+        RaftActorBehavior behavior = getCurrentBehavior();
+        if(!(behavior instanceof AbstractLeader)) {
+            return -1;
+        }
+
+        AbstractLeader leader = (AbstractLeader) behavior;
+        short minVersion = context.getPayloadVersion();
+        for(String followerId: leader.getFollowerIds()) {
+            minVersion = (short) Math.min(minVersion, leader.getFollower(followerId).getPayloadVersion());
+        }
+
+        return minVersion;
+    }
+
     /**
      * @deprecated Deprecated in favor of {@link org.opendaylight.controller.cluster.raft.base.messages.DeleteEntries}
      *             whose type for fromIndex is long instead of int. This class was kept for backwards
@@ -632,6 +845,18 @@ public abstract class RaftActor extends AbstractUntypedPersistentActor {
         }
     }
 
+    private static class PendingPersist {
+        private final ActorRef clientActor;
+        private final String identifier;
+        private final Payload data;
+
+        PendingPersist(ActorRef clientActor, String identifier, Payload data) {
+            this.clientActor = clientActor;
+            this.identifier = identifier;
+            this.data = data;
+        }
+    }
+
     private static class BehaviorStateHolder {
         private RaftActorBehavior behavior;
         private String leaderId;
@@ -15,6 +15,7 @@ import akka.actor.Props;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import java.util.Map;
+import java.util.Set;
 import org.opendaylight.controller.cluster.DataPersistenceProvider;
 import org.slf4j.Logger;
 
@@ -164,6 +165,23 @@ public interface RaftActorContext {
      */
     void setPeerAddress(String peerId, String peerAddress);
 
+    /**
+     * @return true if this member votes in elections and counts towards the commit quorum. A non-voting
+     *         member only replicates the log and never becomes a candidate.
+     */
+    boolean isVotingMember();
+
+    /**
+     * @param peerId
+     * @return true if the peer votes in elections and counts towards the commit quorum
+     */
+    boolean isPeerVoting(String peerId);
+
+    /**
+     * @return the ids of the peers that vote in elections and count towards the commit quorum
+     */
+    Set<String> getVotingPeerIds();
+
     /**
      * @return ConfigParams
      */
@@ -181,4 +199,9 @@ public interface RaftActorContext {
     void setTotalMemoryRetriever(Supplier<Long> retriever);
 
     short getPayloadVersion();
+
+    /**
+     * @return the AppendEntriesSender the leader sends AppendEntries to its followers with
+     */
+    AppendEntriesSender getAppendEntriesSender();
 }
@@ -16,7 +16,11 @@ import akka.actor.Props;
 import akka.actor.UntypedActorContext;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import org.opendaylight.controller.cluster.DataPersistenceProvider;
 import org.slf4j.Logger;
 
@@ -53,6 +57,10 @@ public class RaftActorContextImpl implements RaftActorContext {
 
     private short payloadVersion;
 
+    private AppendEntriesSender appendEntriesSender = AppendEntriesSender.DIRECT;
+
+    private Set<String> nonVotingMemberIds = ImmutableSet.of();
+
     public RaftActorContextImpl(ActorRef actor, UntypedActorContext context, String id,
             ElectionTerm termInformation, long commitIndex, long lastApplied, Map<String, String> peerAddresses,
             ConfigParams configParams, DataPersistenceProvider persistenceProvider, Logger logger) {
@@ -77,6 +85,36 @@ public class RaftActorContextImpl implements RaftActorContext {
         return payloadVersion;
     }
 
+    @Override
+    public AppendEntriesSender getAppendEntriesSender() {
+        return appendEntriesSender;
+    }
+
+    void setAppendEntriesSender(AppendEntriesSender appendEntriesSender) {
+        this.appendEntriesSender = appendEntriesSender;
+    }
+
+    void setNonVotingMemberIds(Collection<String> nonVotingMemberIds) {
+        this.nonVotingMemberIds = ImmutableSet.copyOf(nonVotingMemberIds);
+    }
+
+    @Override
+    public boolean isVotingMember() {
+        return !nonVotingMemberIds.contains(id);
+    }
+
+    @Override
+    public boolean isPeerVoting(String peerId) {
+        return !nonVotingMemberIds.contains(peerId);
+    }
+
+    @Override
+    public Set<String> getVotingPeerIds() {
+        Set<String> votingPeerIds = new HashSet<>(peerAddresses.keySet());
+        votingPeerIds.removeAll(nonVotingMemberIds);
+        return votingPeerIds;
+    }
+
     void setConfigParams(ConfigParams configParams) {
         this.configParams = configParams;
     }
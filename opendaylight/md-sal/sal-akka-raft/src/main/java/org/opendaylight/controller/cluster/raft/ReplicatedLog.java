@@ -181,7 +181,7 @@ public interface ReplicatedLog {
     /**
      * Size of the data in the log (in bytes)
      */
-    int dataSize();
+    long dataSize();
 
     /**
      * We decide if snapshot need to be captured based on the count/memory consumed.
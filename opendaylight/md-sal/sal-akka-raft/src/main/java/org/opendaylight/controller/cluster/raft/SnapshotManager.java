@@ -97,6 +97,14 @@ public class SnapshotManager implements SnapshotState {
         return lastSequenceNumber;
     }
 
+    /**
+     * Returns whether the snapshot currently being captured is to be installed on a follower, in which case
+     * the snapshot must contain the full state.
+     */
+    public boolean isCapturingInstallSnapshot() {
+        return captureSnapshot != null && captureSnapshot.isInstallSnapshotInitiated();
+    }
+
     @VisibleForTesting
     public CaptureSnapshot getCaptureSnapshot() {
         return captureSnapshot;
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.base.messages;
+
+/**
+ * Message sent by the RaftActor to itself when the linger time of the pending journal persist
+ * batch has expired and the batch should be written.
+ */
+public final class FlushPersistBatch {
+    public static final FlushPersistBatch INSTANCE = new FlushPersistBatch();
+
+    private FlushPersistBatch() {
+    }
+}
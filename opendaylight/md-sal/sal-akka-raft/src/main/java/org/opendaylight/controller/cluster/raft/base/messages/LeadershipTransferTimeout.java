@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.base.messages;
+
+/**
+ * Message sent by the RaftActor to itself when a leadership transfer in progress didn't complete in time.
+ */
+public final class LeadershipTransferTimeout {
+    public static final LeadershipTransferTimeout INSTANCE = new LeadershipTransferTimeout();
+
+    private LeadershipTransferTimeout() {
+    }
+}
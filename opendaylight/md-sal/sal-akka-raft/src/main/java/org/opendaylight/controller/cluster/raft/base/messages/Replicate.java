@@ -18,13 +18,20 @@ public class Replicate implements Serializable {
     private final ActorRef clientActor;
     private final String identifier;
     private final ReplicatedLogEntry replicatedLogEntry;
+    private final boolean sendImmediate;
 
     public Replicate(ActorRef clientActor, String identifier,
         ReplicatedLogEntry replicatedLogEntry) {
+        this(clientActor, identifier, replicatedLogEntry, true);
+    }
+
+    public Replicate(ActorRef clientActor, String identifier,
+        ReplicatedLogEntry replicatedLogEntry, boolean sendImmediate) {
 
         this.clientActor = clientActor;
         this.identifier = identifier;
         this.replicatedLogEntry = replicatedLogEntry;
+        this.sendImmediate = sendImmediate;
     }
 
     public ActorRef getClientActor() {
@@ -38,4 +45,12 @@ public class Replicate implements Serializable {
     public ReplicatedLogEntry getReplicatedLogEntry() {
         return replicatedLogEntry;
     }
+
+    /**
+     * Returns whether the leader should send AppendEntries to its followers right away. This is false for
+     * all but the last entry of a persisted batch so the whole batch is carried by a single AppendEntries.
+     */
+    public boolean isSendImmediate() {
+        return sendImmediate;
+    }
 }
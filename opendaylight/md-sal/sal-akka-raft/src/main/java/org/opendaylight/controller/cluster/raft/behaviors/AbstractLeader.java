@@ -44,6 +44,7 @@ import org.opendaylight.controller.cluster.raft.messages.InstallSnapshot;
 import org.opendaylight.controller.cluster.raft.messages.InstallSnapshotReply;
 import org.opendaylight.controller.cluster.raft.messages.RaftRPC;
 import org.opendaylight.controller.cluster.raft.messages.RequestVoteReply;
+import org.opendaylight.controller.cluster.raft.messages.TimeoutNow;
 import scala.concurrent.duration.FiniteDuration;
 
 /**
@@ -92,6 +93,9 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
 
     private Optional<SnapshotHolder> snapshot;
 
+    // The follower leadership is being transferred to, if any.
+    private String leadershipTransferTarget;
+
     public AbstractLeader(RaftActorContext context) {
         super(context, RaftState.Leader);
 
@@ -110,7 +114,8 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
 
         LOG.debug("{}: Election: Leader has following peers: {}", logName(), getFollowerIds());
 
-        minReplicationCount = getMajorityVoteCount(getFollowerIds().size());
+        // Non-voting followers are replicated to but don't count towards the commit quorum.
+        minReplicationCount = getMajorityVoteCount(context.getVotingPeerIds().size());
 
         // the isolated Leader peer count will be 1 less than the majority vote count.
         // this is because the vote count has the self vote counted in it
@@ -187,6 +192,8 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
 
         followerLogInformation.markFollowerActive();
         followerLogInformation.setPayloadVersion(appendEntriesReply.getPayloadVersion());
+        followerLogInformation.markAppendEntriesReplyReceived(appendEntriesReply.isSuccess(),
+                appendEntriesReply.getLogLastIndex());
 
         boolean updated = false;
         if (appendEntriesReply.isSuccess()) {
@@ -204,6 +211,11 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
                 // follower's last log index.
 
                 updated = updateFollowerLogInformation(followerLogInformation, appendEntriesReply);
+            } else if (followerLogInformation.isPipelined()) {
+                // The nextIndex was already advanced past the entries still in flight so rewind it to
+                // just before the follower's last entry and resend from there.
+                followerLogInformation.setNextIndex(Math.min(followerLogInformation.getNextIndex(),
+                        followerLastLogIndex + 1) - 1);
             } else {
                 // TODO: When we find that the follower is out of sync with the
                 // Leader we simply decrement that followers next index by 1.
@@ -219,11 +231,11 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         // If there exists an N such that N > commitIndex, a majority
         // of matchIndex[i] ≥ N, and log[N].term == currentTerm:
         // set commitIndex = N (§5.3, §5.4).
-        for (long N = context.getCommitIndex() + 1; ; N++) {
+        for (long N = context.getCommitIndex() + 1; N <= context.getReplicatedLog().lastIndex(); N++) {
             int replicatedCount = 1;
 
             for (FollowerLogInformation info : followerToLog.values()) {
-                if (info.getMatchIndex() >= N) {
+                if (info.getMatchIndex() >= N && context.isPeerVoting(info.getId())) {
                     replicatedCount++;
                 }
             }
@@ -253,15 +265,111 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             purgeInMemoryLog();
         }
 
+        if(appendEntriesReply.isSuccess()) {
+            completeLeadershipTransferIfCaughtUp(followerId, followerLogInformation);
+        }
+
         //Send the next log entry immediately, if possible, no need to wait for heartbeat to trigger that event
         sendUpdatesToFollower(followerId, followerLogInformation, false, !updated);
         return this;
     }
 
+    /**
+     * Starts transferring leadership to the given follower. Its log is brought up to date and, once it is,
+     * the follower is sent a {@link TimeoutNow} to start an election. The leader keeps serving requests in the
+     * meantime so the transfer may never complete under a sustained write load - the caller is expected to
+     * time it out and call {@link #abortLeadershipTransfer}.
+     *
+     * @param followerId the id of the follower to transfer leadership to
+     */
+    public void transferLeadership(String followerId) {
+        FollowerLogInformation followerLogInformation = followerToLog.get(followerId);
+        Preconditions.checkArgument(followerLogInformation != null, "Unknown follower %s", followerId);
+        Preconditions.checkArgument(context.isPeerVoting(followerId), "Follower %s is not a voting member",
+                followerId);
+
+        LOG.info("{}: Transferring leadership to {} - matchIndex: {}, lastIndex: {}", logName(), followerId,
+                followerLogInformation.getMatchIndex(), context.getReplicatedLog().lastIndex());
+
+        leadershipTransferTarget = followerId;
+
+        completeLeadershipTransferIfCaughtUp(followerId, followerLogInformation);
+        if(leadershipTransferTarget != null) {
+            sendUpdatesToFollower(followerId, followerLogInformation, true, false);
+        }
+    }
+
+    /**
+     * Stops a leadership transfer in progress, if any.
+     */
+    public void abortLeadershipTransfer() {
+        if(leadershipTransferTarget != null) {
+            LOG.info("{}: Aborting leadership transfer to {}", logName(), leadershipTransferTarget);
+            leadershipTransferTarget = null;
+        }
+    }
+
+    @Nullable
+    public String getLeadershipTransferTarget() {
+        return leadershipTransferTarget;
+    }
+
+    /**
+     * Returns the id of the voting follower with the highest match index, ie the one a leadership transfer
+     * completes the soonest for, or null if there are no voting followers.
+     */
+    @Nullable
+    public String getMostUpToDateFollower() {
+        FollowerLogInformation mostUpToDate = null;
+        for(FollowerLogInformation info: followerToLog.values()) {
+            if(!context.isPeerVoting(info.getId())) {
+                continue;
+            }
+
+            if(mostUpToDate == null || info.getMatchIndex() > mostUpToDate.getMatchIndex() ||
+                    (info.getMatchIndex() == mostUpToDate.getMatchIndex() && info.isFollowerActive() &&
+                            !mostUpToDate.isFollowerActive())) {
+                mostUpToDate = info;
+            }
+        }
+
+        return mostUpToDate != null ? mostUpToDate.getId() : null;
+    }
+
+    private void completeLeadershipTransferIfCaughtUp(String followerId,
+            FollowerLogInformation followerLogInformation) {
+        if(!followerId.equals(leadershipTransferTarget) ||
+                followerLogInformation.getMatchIndex() < context.getReplicatedLog().lastIndex()) {
+            return;
+        }
+
+        ActorSelection followerActor = context.getPeerActorSelection(followerId);
+        if(followerActor != null) {
+            LOG.info("{}: Follower {} is caught up - sending TimeoutNow", logName(), followerId);
+
+            followerActor.tell(new TimeoutNow(currentTerm(), context.getId()), actor());
+            leadershipTransferTarget = null;
+        }
+    }
+
     private boolean updateFollowerLogInformation(FollowerLogInformation followerLogInformation,
             AppendEntriesReply appendEntriesReply) {
-        boolean updated = followerLogInformation.setMatchIndex(appendEntriesReply.getLogLastIndex());
-        updated = followerLogInformation.setNextIndex(appendEntriesReply.getLogLastIndex() + 1) || updated;
+        long followerLastLogIndex = appendEntriesReply.getLogLastIndex();
+        boolean updated = false;
+        if(followerLogInformation.isPipelined() && appendEntriesReply.isSuccess()) {
+            // With pipelining the reply may be for an earlier AppendEntries than the last one sent so
+            // only ever move the indexes forward.
+            if(followerLastLogIndex > followerLogInformation.getMatchIndex()) {
+                updated = followerLogInformation.setMatchIndex(followerLastLogIndex);
+            }
+
+            if(followerLastLogIndex + 1 > followerLogInformation.getNextIndex()) {
+                updated = followerLogInformation.setNextIndex(followerLastLogIndex + 1) || updated;
+            }
+        } else {
+            updated = followerLogInformation.setMatchIndex(followerLastLogIndex);
+            updated = followerLogInformation.setNextIndex(followerLastLogIndex + 1) || updated;
+        }
 
         if(updated && LOG.isDebugEnabled()) {
             LOG.debug("{}: handleAppendEntriesReply - FollowerLogInformation for {} updated: matchIndex: {}, nextIndex: {}",
@@ -451,10 +559,14 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
                 logIndex)
         );
 
-        if (followerToLog.isEmpty()) {
+        if (minReplicationCount == 0) {
+            // There are no voting followers so the entry is committed as soon as it's in our log - any
+            // non-voting followers still get it below.
             context.setCommitIndex(logIndex);
             applyLogToStateMachine(logIndex);
-        } else {
+        }
+
+        if (!followerToLog.isEmpty() && replicate.isSendImmediate()) {
             sendAppendEntries(0, false);
         }
     }
@@ -547,6 +659,10 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             if(sendAppendEntries) {
                 sendAppendEntriesToFollower(followerActor, followerNextIndex,
                         entries, followerId);
+
+                if(!entries.isEmpty()) {
+                    followerLogInformation.markAppendEntriesSent(entries.get(entries.size() - 1).getIndex());
+                }
             }
         }
     }
@@ -563,7 +679,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
                     appendEntries);
         }
 
-        followerActor.tell(appendEntries.toSerializable(), actor());
+        context.getAppendEntriesSender().send(followerActor, appendEntries, actor());
     }
 
     /**
@@ -653,10 +769,10 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
     }
 
     /**
-     * Acccepts snaphot as ByteString, enters into map for future chunks
+     * Acccepts snaphot as a byte array, enters into map for future chunks
      * creates and return a ByteString chunk
      */
-    private ByteString getNextSnapshotChunk(String followerId, ByteString snapshotBytes) throws IOException {
+    private ByteString getNextSnapshotChunk(String followerId, byte[] snapshotBytes) throws IOException {
         FollowerToSnapshot followerToSnapshot = mapFollowerToSnapshot.get(followerId);
         if (followerToSnapshot == null) {
             followerToSnapshot = new FollowerToSnapshot(snapshotBytes);
@@ -714,7 +830,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
     protected boolean isLeaderIsolated() {
         int minPresent = minIsolatedLeaderPeerCount;
         for (FollowerLogInformation followerLogInformation : followerToLog.values()) {
-            if (followerLogInformation.isFollowerActive()) {
+            if (followerLogInformation.isFollowerActive() && context.isPeerVoting(followerLogInformation.getId())) {
                 --minPresent;
                 if (minPresent == 0) {
                     break;
@@ -725,11 +841,11 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
     }
 
     /**
-     * Encapsulates the snapshot bytestring and handles the logic of sending
-     * snapshot chunks
+     * Tracks the progress of installing a snapshot on a follower. Chunks are sliced lazily from the
+     * snapshot's state as they are sent so only one chunk at a time is copied rather than the whole snapshot.
      */
     protected class FollowerToSnapshot {
-        private final ByteString snapshotBytes;
+        private final byte[] snapshotBytes;
         private int offset = 0;
         // the next snapshot chunk is sent only if the replyReceivedForOffset matches offset
         private int replyReceivedForOffset;
@@ -740,9 +856,9 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         private int lastChunkHashCode = AbstractLeader.INITIAL_LAST_CHUNK_HASH_CODE;
         private int nextChunkHashCode = AbstractLeader.INITIAL_LAST_CHUNK_HASH_CODE;
 
-        public FollowerToSnapshot(ByteString snapshotBytes) {
+        public FollowerToSnapshot(byte[] snapshotBytes) {
             this.snapshotBytes = snapshotBytes;
-            int size = snapshotBytes.size();
+            int size = snapshotBytes.length;
             totalChunks = ( size / context.getConfigParams().getSnapshotChunkSize()) +
                 ((size % context.getConfigParams().getSnapshotChunkSize()) > 0 ? 1 : 0);
             if(LOG.isDebugEnabled()) {
@@ -753,10 +869,6 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             chunkIndex = AbstractLeader.FIRST_CHUNK_INDEX;
         }
 
-        public ByteString getSnapshotBytes() {
-            return snapshotBytes;
-        }
-
         public int incrementOffset() {
             if(replyStatus) {
                 // if prev chunk failed, we would want to sent the same chunk again
@@ -804,7 +916,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         }
 
         public ByteString getNextChunk() {
-            int snapshotLength = getSnapshotBytes().size();
+            int snapshotLength = snapshotBytes.length;
             int start = incrementOffset();
             int size = context.getConfigParams().getSnapshotChunkSize();
             if (context.getConfigParams().getSnapshotChunkSize() > snapshotLength) {
@@ -819,7 +931,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             LOG.debug("{}: Next chunk: length={}, offset={},size={}", logName(),
                     snapshotLength, start, size);
 
-            ByteString substring = getSnapshotBytes().substring(start, start + size);
+            ByteString substring = ByteString.copyFrom(snapshotBytes, start, size);
             nextChunkHashCode = substring.hashCode();
             return substring;
         }
@@ -880,12 +992,14 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
     private static class SnapshotHolder {
         private final long lastIncludedTerm;
         private final long lastIncludedIndex;
-        private final ByteString snapshotBytes;
+        private final byte[] snapshotBytes;
 
         SnapshotHolder(Snapshot snapshot) {
             this.lastIncludedTerm = snapshot.getLastAppliedTerm();
             this.lastIncludedIndex = snapshot.getLastAppliedIndex();
-            this.snapshotBytes = ByteString.copyFrom(snapshot.getState());
+
+            // The state is shared with the captured Snapshot rather than copied - it is never mutated.
+            this.snapshotBytes = snapshot.getState();
         }
 
         long getLastIncludedTerm() {
@@ -896,7 +1010,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             return lastIncludedIndex;
         }
 
-        ByteString getSnapshotBytes() {
+        byte[] getSnapshotBytes() {
             return snapshotBytes;
         }
     }
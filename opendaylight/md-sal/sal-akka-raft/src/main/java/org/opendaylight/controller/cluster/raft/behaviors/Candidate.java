@@ -49,7 +49,8 @@ public class Candidate extends AbstractRaftActorBehavior {
     public Candidate(RaftActorContext context) {
         super(context, RaftState.Candidate);
 
-        peers = context.getPeerAddresses().keySet();
+        // Only the voting peers are asked for their vote - non-voting peers just replicate the log.
+        peers = context.getVotingPeerIds();
 
         if(LOG.isDebugEnabled()) {
             LOG.debug("{}: Election: Candidate has following peers: {}", logName(), peers);
@@ -59,7 +60,7 @@ public class Candidate extends AbstractRaftActorBehavior {
 
         startNewTerm();
 
-        if(context.getPeerAddresses().isEmpty()){
+        if(peers.isEmpty()){
             actor().tell(ELECTION_TIMEOUT, actor());
         } else {
             scheduleElection(electionDuration());
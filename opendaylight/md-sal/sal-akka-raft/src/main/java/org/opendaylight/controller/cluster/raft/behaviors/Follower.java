@@ -24,6 +24,7 @@ import org.opendaylight.controller.cluster.raft.messages.InstallSnapshot;
 import org.opendaylight.controller.cluster.raft.messages.InstallSnapshotReply;
 import org.opendaylight.controller.cluster.raft.messages.RaftRPC;
 import org.opendaylight.controller.cluster.raft.messages.RequestVoteReply;
+import org.opendaylight.controller.cluster.raft.messages.TimeoutNow;
 
 /**
  * The behavior of a RaftActor in the Follower state
@@ -41,6 +42,10 @@ public class Follower extends AbstractRaftActorBehavior {
 
     private SnapshotTracker snapshotTracker = null;
 
+    private long leaderCommitIndex = -1;
+
+    private long lastLeaderContactTime = System.nanoTime();
+
     private final InitialSyncStatusTracker initialSyncStatusTracker;
 
     public Follower(RaftActorContext context) {
@@ -87,6 +92,21 @@ public class Follower extends AbstractRaftActorBehavior {
         initialSyncStatusTracker.update(leaderId, currentLeaderCommit, context.getCommitIndex());
     }
 
+    /**
+     * Returns the leader's commit index as of the last AppendEntries received from the leader, or -1 if none has
+     * been received yet.
+     */
+    public long getLeaderCommitIndex() {
+        return leaderCommitIndex;
+    }
+
+    /**
+     * Returns the System.nanoTime at which the last AppendEntries was received from the leader.
+     */
+    public long getLastLeaderContactTime() {
+        return lastLeaderContactTime;
+    }
+
     @Override protected RaftActorBehavior handleAppendEntries(ActorRef sender,
                                                               AppendEntries appendEntries) {
 
@@ -119,6 +139,8 @@ public class Follower extends AbstractRaftActorBehavior {
 
         // If we got here then we do appear to be talking to the leader
         leaderId = appendEntries.getLeaderId();
+        leaderCommitIndex = appendEntries.getLeaderCommit();
+        lastLeaderContactTime = System.nanoTime();
 
         setLeaderPayloadVersion(appendEntries.getPayloadVersion());
 
@@ -296,10 +318,20 @@ public class Follower extends AbstractRaftActorBehavior {
             }
         }
 
-        if (message instanceof ElectionTimeout) {
+        if ((message instanceof ElectionTimeout || message instanceof TimeoutNow) && !context.isVotingMember()) {
+            // A non-voting member never starts an election - it just waits to hear from the next leader.
+            LOG.debug("{}: Ignoring {} - not a voting member", logName(), message);
+
+        } else if (message instanceof ElectionTimeout) {
             LOG.debug("{}: Received ElectionTimeout - switching to Candidate", logName());
             return switchBehavior(new Candidate(context));
 
+        } else if (message instanceof TimeoutNow &&
+                ((TimeoutNow) message).getTerm() == context.getTermInformation().getCurrentTerm()) {
+            // Sent by the leader transferring its leadership to us - one from an earlier term is stale.
+            LOG.debug("{}: Received {} - switching to Candidate", logName(), message);
+            return switchBehavior(new Candidate(context));
+
         } else if (message instanceof InstallSnapshot) {
             InstallSnapshot installSnapshot = (InstallSnapshot) message;
             handleInstallSnapshot(sender, installSnapshot);
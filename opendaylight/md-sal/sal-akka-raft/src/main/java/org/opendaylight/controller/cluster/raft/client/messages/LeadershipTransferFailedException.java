@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.client.messages;
+
+/**
+ * Exception replied in a Status.Failure to a {@link TransferLeadership} request that couldn't be completed.
+ */
+public class LeadershipTransferFailedException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public LeadershipTransferFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.client.messages;
+
+import java.io.Serializable;
+import javax.annotation.Nullable;
+
+/**
+ * Message sent to the leader RaftActor to gracefully transfer its leadership to one of its followers. The
+ * leader first brings the follower's log up to date and then tells it to start an election, so the shard is
+ * without a leader for about a round trip rather than an election timeout.
+ * <p>
+ * The sender is replied to with a Status.Success once the target became leader or a Status.Failure if the
+ * actor isn't the leader, the target is unknown or the transfer didn't complete in time.
+ */
+public class TransferLeadership implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String targetId;
+
+    /**
+     * Constructor.
+     *
+     * @param targetId the id of the follower to transfer leadership to or null to transfer it to the
+     *                 most up to date follower
+     */
+    public TransferLeadership(@Nullable String targetId) {
+        this.targetId = targetId;
+    }
+
+    @Nullable
+    public String getTargetId() {
+        return targetId;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferLeadership [targetId=" + targetId + "]";
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.messages;
+
+/**
+ * Message sent by a leader transferring its leadership to the follower it is transferring to, once that
+ * follower's log is up to date. The follower starts an election immediately rather than waiting for its
+ * election timeout to expire, which it wins as no other member has a more up to date log.
+ */
+public class TimeoutNow extends AbstractRaftRPC {
+    private static final long serialVersionUID = 1L;
+
+    private final String leaderId;
+
+    public TimeoutNow(long term, String leaderId) {
+        super(term);
+        this.leaderId = leaderId;
+    }
+
+    @Override
+    public long getTerm() {
+        return term;
+    }
+
+    public String getLeaderId() {
+        return leaderId;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("TimeoutNow [term=").append(term).append(", leaderId=").append(leaderId).append("]");
+        return builder.toString();
+    }
+}
@@ -209,6 +209,19 @@ public class AbstractReplicatedLogImplTest {
         assertEquals(3, replicatedLogImpl.getSnapshotTerm());
     }
 
+    @Test
+    public void testDataSizeExceedingIntRange() {
+        replicatedLogImpl = new MockAbstractReplicatedLogImpl();
+        replicatedLogImpl.append(new MockReplicatedLogEntry(1, 0, new MockPayload("A", Integer.MAX_VALUE)));
+        replicatedLogImpl.append(new MockReplicatedLogEntry(1, 1, new MockPayload("B", Integer.MAX_VALUE)));
+
+        assertEquals("dataSize", 2L * Integer.MAX_VALUE, replicatedLogImpl.dataSize());
+
+        replicatedLogImpl.removeFrom(1);
+
+        assertEquals("dataSize", Integer.MAX_VALUE, replicatedLogImpl.dataSize());
+    }
+
     @Test
     public void testSnapshotCommit() {
 
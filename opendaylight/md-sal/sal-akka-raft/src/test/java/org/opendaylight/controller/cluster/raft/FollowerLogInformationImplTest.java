@@ -7,6 +7,7 @@
  */
 package org.opendaylight.controller.cluster.raft;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import com.google.common.base.Stopwatch;
@@ -80,4 +81,51 @@ public class FollowerLogInformationImplTest {
         followerLogInformation.incrNextIndex();
         assertTrue(followerLogInformation.okToReplicate());
     }
+
+    @Test
+    public void testOkToReplicatePipelined(){
+        MockRaftActorContext context = new MockRaftActorContext();
+        context.setCommitIndex(9);
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl();
+        configParams.setHeartBeatInterval(new FiniteDuration(100, TimeUnit.MILLISECONDS));
+        configParams.setMaxInFlightAppendEntries(2);
+        context.setConfigParams(configParams);
+
+        FollowerLogInformation followerLogInformation =
+                new FollowerLogInformationImpl("follower1", 8, context);
+
+        assertTrue(followerLogInformation.isPipelined());
+
+        assertTrue(followerLogInformation.okToReplicate());
+        followerLogInformation.markAppendEntriesSent(10);
+        assertEquals(11, followerLogInformation.getNextIndex());
+
+        assertTrue(followerLogInformation.okToReplicate());
+        followerLogInformation.markAppendEntriesSent(12);
+        assertEquals(13, followerLogInformation.getNextIndex());
+
+        // The window is full
+        assertFalse(followerLogInformation.okToReplicate());
+
+        // A heartbeat reply acknowledges none of the outstanding entries
+        followerLogInformation.markAppendEntriesReplyReceived(true, 9);
+        assertEquals(2, followerLogInformation.getInFlightAppendEntriesCount());
+        assertFalse(followerLogInformation.okToReplicate());
+
+        followerLogInformation.markAppendEntriesReplyReceived(true, 10);
+        assertEquals(1, followerLogInformation.getInFlightAppendEntriesCount());
+        assertTrue(followerLogInformation.okToReplicate());
+        followerLogInformation.markAppendEntriesSent(13);
+        assertFalse(followerLogInformation.okToReplicate());
+
+        // With no reply for the heartbeat interval the window is rewound to the match index
+        Uninterruptibles.sleepUninterruptibly(150, TimeUnit.MILLISECONDS);
+        assertTrue(followerLogInformation.okToReplicate());
+        assertEquals(0, followerLogInformation.getInFlightAppendEntriesCount());
+        assertEquals(9, followerLogInformation.getNextIndex());
+
+        followerLogInformation.markAppendEntriesSent(13);
+        followerLogInformation.markAppendEntriesReplyReceived(false, 9);
+        assertEquals(0, followerLogInformation.getInFlightAppendEntriesCount());
+    }
 }
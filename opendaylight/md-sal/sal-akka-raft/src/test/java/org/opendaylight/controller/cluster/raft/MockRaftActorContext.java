@@ -17,8 +17,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.protobuf.GeneratedMessage;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import org.opendaylight.controller.cluster.DataPersistenceProvider;
 import org.opendaylight.controller.cluster.NonPersistentDataProvider;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.Payload;
@@ -42,6 +45,7 @@ public class MockRaftActorContext implements RaftActorContext {
     private SnapshotManager snapshotManager;
     private DataPersistenceProvider persistenceProvider = new NonPersistentDataProvider();
     private short payloadVersion;
+    private Set<String> nonVotingMemberIds = Collections.emptySet();
 
     public MockRaftActorContext(){
         electionTerm = new ElectionTerm() {
@@ -192,6 +196,27 @@ public class MockRaftActorContext implements RaftActorContext {
         this.peerAddresses = peerAddresses;
     }
 
+    public void setNonVotingMemberIds(Set<String> nonVotingMemberIds) {
+        this.nonVotingMemberIds = nonVotingMemberIds;
+    }
+
+    @Override
+    public boolean isVotingMember() {
+        return !nonVotingMemberIds.contains(id);
+    }
+
+    @Override
+    public boolean isPeerVoting(String peerId) {
+        return !nonVotingMemberIds.contains(peerId);
+    }
+
+    @Override
+    public Set<String> getVotingPeerIds() {
+        Set<String> votingPeerIds = new HashSet<>(peerAddresses.keySet());
+        votingPeerIds.removeAll(nonVotingMemberIds);
+        return votingPeerIds;
+    }
+
     @Override
     public ConfigParams getConfigParams() {
         return configParams;
@@ -242,6 +267,11 @@ public class MockRaftActorContext implements RaftActorContext {
         this.payloadVersion = payloadVersion;
     }
 
+    @Override
+    public AppendEntriesSender getAppendEntriesSender() {
+        return AppendEntriesSender.DIRECT;
+    }
+
     public static class SimpleReplicatedLog extends AbstractReplicatedLogImpl {
         @Override
         public void appendAndPersist(
@@ -250,7 +280,7 @@ public class MockRaftActorContext implements RaftActorContext {
         }
 
         @Override
-        public int dataSize() {
+        public long dataSize() {
             return -1;
         }
 
@@ -10,11 +10,14 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import akka.actor.ActorRef;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
+import akka.actor.Status;
 import akka.actor.Terminated;
 import akka.japi.Procedure;
 import akka.persistence.SaveSnapshotFailure;
@@ -50,13 +53,17 @@ import org.opendaylight.controller.cluster.raft.base.messages.ApplyState;
 import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshot;
 import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshotReply;
 import org.opendaylight.controller.cluster.raft.base.messages.DeleteEntries;
+import org.opendaylight.controller.cluster.raft.base.messages.FlushPersistBatch;
 import org.opendaylight.controller.cluster.raft.base.messages.SendHeartBeat;
 import org.opendaylight.controller.cluster.raft.base.messages.UpdateElectionTerm;
 import org.opendaylight.controller.cluster.raft.behaviors.Follower;
 import org.opendaylight.controller.cluster.raft.behaviors.Leader;
 import org.opendaylight.controller.cluster.raft.behaviors.RaftActorBehavior;
+import org.opendaylight.controller.cluster.raft.client.messages.LeadershipTransferFailedException;
+import org.opendaylight.controller.cluster.raft.client.messages.TransferLeadership;
 import org.opendaylight.controller.cluster.raft.messages.AppendEntries;
 import org.opendaylight.controller.cluster.raft.messages.AppendEntriesReply;
+import org.opendaylight.controller.cluster.raft.messages.TimeoutNow;
 import org.opendaylight.controller.cluster.raft.utils.InMemoryJournal;
 import org.opendaylight.controller.cluster.raft.utils.InMemorySnapshotStore;
 import org.opendaylight.controller.cluster.raft.utils.MessageCollectorActor;
@@ -375,6 +382,59 @@ public class RaftActorTest extends AbstractActorTest {
         };
     }
 
+    @Test
+    public void testPersistDataWithBatching() throws Exception {
+        new JavaTestKit(getSystem()) {
+            {
+                String persistenceId = factory.generateActorId("leader-");
+
+                DefaultConfigParamsImpl config = new DefaultConfigParamsImpl();
+
+                config.setHeartBeatInterval(new FiniteDuration(1, TimeUnit.DAYS));
+                config.setJournalPersistMaxBatchSize(3);
+                config.setJournalPersistMaxBatchLinger(new FiniteDuration(1, TimeUnit.DAYS));
+
+                DataPersistenceProvider dataPersistenceProvider = mock(DataPersistenceProvider.class);
+
+                TestActorRef<MockRaftActor> mockActorRef = factory.createTestActor(MockRaftActor.props(persistenceId,
+                        Collections.<String, String>emptyMap(), Optional.<ConfigParams>of(config), dataPersistenceProvider), persistenceId);
+
+                MockRaftActor mockRaftActor = mockActorRef.underlyingActor();
+
+                mockRaftActor.waitForInitializeBehaviorComplete();
+
+                mockRaftActor.waitUntilLeader();
+
+                reset(dataPersistenceProvider);
+
+                mockRaftActor.persistData(mockActorRef, "tx1", new MockRaftActorContext.MockPayload("A"));
+                mockRaftActor.persistData(mockActorRef, "tx2", new MockRaftActorContext.MockPayload("B"));
+
+                verify(dataPersistenceProvider, never()).persist(anyObject(), any(Procedure.class));
+                assertEquals("Journal size", 0, mockRaftActor.getReplicatedLog().size());
+
+                // The third entry fills the batch which is then persisted in one go.
+                mockRaftActor.persistData(mockActorRef, "tx3", new MockRaftActorContext.MockPayload("C"));
+
+                verify(dataPersistenceProvider, times(3)).persist(anyObject(), any(Procedure.class));
+                assertEquals("Journal size", 3, mockRaftActor.getReplicatedLog().size());
+                assertEquals("Last index", 2, mockRaftActor.getReplicatedLog().lastIndex());
+
+                // A partial batch is persisted when the linger time expires.
+                reset(dataPersistenceProvider);
+
+                mockRaftActor.persistData(mockActorRef, "tx4", new MockRaftActorContext.MockPayload("D"));
+
+                verify(dataPersistenceProvider, never()).persist(anyObject(), any(Procedure.class));
+
+                mockRaftActor.onReceiveCommand(FlushPersistBatch.INSTANCE);
+
+                verify(dataPersistenceProvider).persist(anyObject(), any(Procedure.class));
+                assertEquals("Last index", 3, mockRaftActor.getReplicatedLog().lastIndex());
+            }
+        };
+    }
+
     @Test
     public void testRaftRoleChangeNotifierWhenRaftActorHasNoPeers() throws Exception {
         new JavaTestKit(getSystem()) {{
@@ -908,4 +968,127 @@ public class RaftActorTest extends AbstractActorTest {
         }
     }
 
+    @Test
+    public void testTransferLeadership() throws Exception {
+        new JavaTestKit(getSystem()) {
+            {
+                String persistenceId = factory.generateActorId("leader-");
+                String followerId = factory.generateActorId("follower-");
+
+                ActorRef followerActor = factory.createActor(Props.create(MessageCollectorActor.class));
+
+                DefaultConfigParamsImpl config = new DefaultConfigParamsImpl();
+                config.setHeartBeatInterval(new FiniteDuration(1, TimeUnit.DAYS));
+                config.setIsolatedLeaderCheckInterval(new FiniteDuration(1, TimeUnit.DAYS));
+
+                Map<String, String> peerAddresses = new HashMap<>();
+                peerAddresses.put(followerId, followerActor.path().toString());
+
+                TestActorRef<MockRaftActor> mockActorRef = factory.createTestActor(
+                        MockRaftActor.props(persistenceId, peerAddresses, Optional.<ConfigParams>of(config),
+                                new NonPersistentDataProvider()), persistenceId);
+
+                MockRaftActor leaderActor = mockActorRef.underlyingActor();
+                leaderActor.waitForInitializeBehaviorComplete();
+
+                // Not the leader yet.
+                mockActorRef.tell(new TransferLeadership(followerId), getRef());
+                Status.Failure failure = expectMsgClass(duration("5 seconds"), Status.Failure.class);
+                assertEquals("Failure cause", LeadershipTransferFailedException.class, failure.cause().getClass());
+
+                leaderActor.getRaftActorContext().getTermInformation().update(1, persistenceId);
+                leaderActor.getRaftActorContext().setReplicatedLog(
+                        new MockRaftActorContext.MockReplicatedLogBuilder().createEntries(0, 5, 1).build());
+                leaderActor.getRaftActorContext().setCommitIndex(4);
+                leaderActor.getRaftActorContext().setLastApplied(4);
+
+                leaderActor.setCurrentBehavior(new Leader(leaderActor.getRaftActorContext()));
+                MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+                MessageCollectorActor.clearMessages(followerActor);
+
+                // Transfer to the most up to date follower, which is behind so it's caught up first.
+                mockActorRef.tell(new TransferLeadership(null), getRef());
+                MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+                leaderActor.onReceiveCommand(new AppendEntriesReply(followerId, 1, true, 4, 1, (short)0));
+
+                TimeoutNow timeoutNow = MessageCollectorActor.expectFirstMatching(followerActor, TimeoutNow.class);
+                assertEquals("getTerm", 1, timeoutNow.getTerm());
+                assertEquals("getLeaderId", persistenceId, timeoutNow.getLeaderId());
+
+                // A second transfer isn't allowed while one is in progress.
+                mockActorRef.tell(new TransferLeadership(followerId), getRef());
+                expectMsgClass(duration("5 seconds"), Status.Failure.class);
+
+                // The follower wins the election it starts and asserts its leadership - the first AppendEntries
+                // with the new term makes the leader step down and the next one is handled as a follower.
+                AppendEntries appendEntries = new AppendEntries(2, followerId, 4, 1,
+                        Collections.<ReplicatedLogEntry>emptyList(), 4, 4, (short)0);
+                leaderActor.onReceiveCommand(appendEntries);
+                leaderActor.onReceiveCommand(appendEntries);
+
+                assertEquals("Leader", followerId, leaderActor.getLeaderId());
+                Status.Success success = expectMsgClass(duration("5 seconds"), Status.Success.class);
+                assertEquals("Success status", followerId, success.status());
+            }
+        };
+    }
+
+    @Test
+    public void testTransferLeadershipWithNonVotingFollowers() throws Exception {
+        new JavaTestKit(getSystem()) {
+            {
+                String persistenceId = factory.generateActorId("leader-");
+                String followerId = factory.generateActorId("follower-");
+                String nonVotingFollowerId = factory.generateActorId("non-voting-follower-");
+
+                ActorRef followerActor = factory.createActor(Props.create(MessageCollectorActor.class));
+                ActorRef nonVotingFollowerActor = factory.createActor(Props.create(MessageCollectorActor.class));
+
+                DefaultConfigParamsImpl config = new DefaultConfigParamsImpl();
+                config.setHeartBeatInterval(new FiniteDuration(1, TimeUnit.DAYS));
+                config.setIsolatedLeaderCheckInterval(new FiniteDuration(1, TimeUnit.DAYS));
+
+                Map<String, String> peerAddresses = new HashMap<>();
+                peerAddresses.put(followerId, followerActor.path().toString());
+                peerAddresses.put(nonVotingFollowerId, nonVotingFollowerActor.path().toString());
+
+                TestActorRef<MockRaftActor> mockActorRef = factory.createTestActor(
+                        MockRaftActor.props(persistenceId, peerAddresses, Optional.<ConfigParams>of(config),
+                                new NonPersistentDataProvider()), persistenceId);
+
+                MockRaftActor leaderActor = mockActorRef.underlyingActor();
+                leaderActor.waitForInitializeBehaviorComplete();
+
+                ((RaftActorContextImpl) leaderActor.getRaftActorContext()).setNonVotingMemberIds(
+                        Collections.singleton(nonVotingFollowerId));
+                leaderActor.getRaftActorContext().getTermInformation().update(1, persistenceId);
+                leaderActor.getRaftActorContext().setReplicatedLog(
+                        new MockRaftActorContext.MockReplicatedLogBuilder().createEntries(0, 5, 1).build());
+                leaderActor.getRaftActorContext().setCommitIndex(4);
+                leaderActor.getRaftActorContext().setLastApplied(4);
+
+                leaderActor.setCurrentBehavior(new Leader(leaderActor.getRaftActorContext()));
+                MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+                MessageCollectorActor.clearMessages(followerActor);
+
+                // The non-voting follower is the most up to date but can't become the leader.
+                leaderActor.onReceiveCommand(new AppendEntriesReply(nonVotingFollowerId, 1, true, 4, 1, (short)0));
+
+                mockActorRef.tell(new TransferLeadership(nonVotingFollowerId), getRef());
+                Status.Failure failure = expectMsgClass(duration("5 seconds"), Status.Failure.class);
+                assertEquals("Failure cause", LeadershipTransferFailedException.class, failure.cause().getClass());
+
+                // Without an explicit target the voting follower is picked.
+                mockActorRef.tell(new TransferLeadership(null), getRef());
+                MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+                leaderActor.onReceiveCommand(new AppendEntriesReply(followerId, 1, true, 4, 1, (short)0));
+
+                MessageCollectorActor.expectFirstMatching(followerActor, TimeoutNow.class);
+                assertEquals("TimeoutNow sent to non-voting follower", 0,
+                        MessageCollectorActor.getAllMatching(nonVotingFollowerActor, TimeoutNow.class).size());
+            }
+        };
+    }
 }
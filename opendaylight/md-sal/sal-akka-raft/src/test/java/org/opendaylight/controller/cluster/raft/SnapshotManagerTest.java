@@ -260,7 +260,7 @@ public class SnapshotManagerTest extends AbstractActorTest {
 
     @Test
     public void testPersistWhenReplicatedLogDataSizeGreaterThanThreshold(){
-        doReturn(Integer.MAX_VALUE).when(mockReplicatedLog).dataSize();
+        doReturn((long) Integer.MAX_VALUE).when(mockReplicatedLog).dataSize();
 
         // when replicatedToAllIndex = -1
         snapshotManager.capture(new MockRaftActorContext.MockReplicatedLogEntry(6,9,
@@ -275,7 +275,7 @@ public class SnapshotManagerTest extends AbstractActorTest {
 
     @Test
     public void testPersistSendInstallSnapshot(){
-        doReturn(Integer.MAX_VALUE).when(mockReplicatedLog).dataSize();
+        doReturn((long) Integer.MAX_VALUE).when(mockReplicatedLog).dataSize();
 
         // when replicatedToAllIndex = -1
         boolean capture = snapshotManager.captureToInstall(new MockRaftActorContext.MockReplicatedLogEntry(6, 9,
@@ -313,7 +313,7 @@ public class SnapshotManagerTest extends AbstractActorTest {
     }
     @Test
     public void testCallingPersistTwiceWillDoNoHarm(){
-        doReturn(Integer.MAX_VALUE).when(mockReplicatedLog).dataSize();
+        doReturn((long) Integer.MAX_VALUE).when(mockReplicatedLog).dataSize();
 
         // when replicatedToAllIndex = -1
         snapshotManager.captureToInstall(new MockRaftActorContext.MockReplicatedLogEntry(6, 9,
@@ -6,8 +6,10 @@ import akka.actor.ActorRef;
 import akka.actor.Props;
 import akka.testkit.TestActorRef;
 import com.google.common.base.Stopwatch;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.junit.After;
@@ -121,6 +123,27 @@ public class CandidateTest extends AbstractRaftActorBehaviorTest {
         assertEquals("Behavior", RaftState.Leader, candidate.state());
     }
 
+    @Test
+    public void testBecomeLeaderWithNonVotingPeers() throws Exception {
+        MockRaftActorContext raftActorContext = createActorContext();
+        raftActorContext.setPeerAddresses(setupPeers(4));
+        raftActorContext.setNonVotingMemberIds(new HashSet<>(Arrays.asList("peer3", "peer4")));
+        candidate = new Candidate(raftActorContext);
+
+        // Only the voting peers are asked for their vote.
+        MessageCollectorActor.expectFirstMatching(peerActors[0], RequestVote.class);
+        MessageCollectorActor.expectFirstMatching(peerActors[1], RequestVote.class);
+        assertEquals("RequestVote count", 0, MessageCollectorActor.getAllMatching(
+                peerActors[2], RequestVote.class).size());
+        assertEquals("RequestVote count", 0, MessageCollectorActor.getAllMatching(
+                peerActors[3], RequestVote.class).size());
+
+        // A majority of the 3 voting members is enough.
+        candidate = candidate.handleMessage(peerActors[0], new RequestVoteReply(1, true));
+
+        assertEquals("Behavior", RaftState.Leader, candidate.state());
+    }
+
     @Test
     public void testResponseToHandleAppendEntriesWithLowerTerm() {
         candidate = new Candidate(createActorContext());
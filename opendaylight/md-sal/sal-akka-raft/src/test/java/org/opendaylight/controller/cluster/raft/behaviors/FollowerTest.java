@@ -16,6 +16,7 @@ import com.google.common.base.Stopwatch;
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +37,7 @@ import org.opendaylight.controller.cluster.raft.messages.InstallSnapshotReply;
 import org.opendaylight.controller.cluster.raft.messages.RaftRPC;
 import org.opendaylight.controller.cluster.raft.messages.RequestVote;
 import org.opendaylight.controller.cluster.raft.messages.RequestVoteReply;
+import org.opendaylight.controller.cluster.raft.messages.TimeoutNow;
 import org.opendaylight.controller.cluster.raft.utils.MessageCollectorActor;
 
 public class FollowerTest extends AbstractRaftActorBehaviorTest {
@@ -97,6 +99,40 @@ public class FollowerTest extends AbstractRaftActorBehaviorTest {
         assertTrue(raftBehavior instanceof Candidate);
     }
 
+    @Test
+    public void testHandleTimeoutNow(){
+        logStart("testHandleTimeoutNow");
+
+        RaftActorContext context = createActorContext();
+        context.getTermInformation().update(2, null);
+
+        follower = new Follower(context);
+
+        // A TimeoutNow from an earlier term is stale and ignored.
+        RaftActorBehavior raftBehavior = follower.handleMessage(leaderActor, new TimeoutNow(1, "leader"));
+        assertTrue(raftBehavior instanceof Follower);
+
+        raftBehavior = follower.handleMessage(leaderActor, new TimeoutNow(2, "leader"));
+        assertTrue(raftBehavior instanceof Candidate);
+    }
+
+    @Test
+    public void testNonVotingMemberDoesNotStartElection(){
+        logStart("testNonVotingMemberDoesNotStartElection");
+
+        MockRaftActorContext context = createActorContext();
+        context.setNonVotingMemberIds(Collections.singleton(context.getId()));
+        context.getTermInformation().update(2, null);
+
+        follower = new Follower(context);
+
+        RaftActorBehavior raftBehavior = follower.handleMessage(followerActor, new ElectionTimeout());
+        assertTrue(raftBehavior instanceof Follower);
+
+        raftBehavior = follower.handleMessage(leaderActor, new TimeoutNow(2, "leader"));
+        assertTrue(raftBehavior instanceof Follower);
+    }
+
     @Test
     public void testHandleRequestVoteWhenSenderTermEqualToCurrentTermAndVotedForIsNull(){
         logStart("testHandleRequestVoteWhenSenderTermEqualToCurrentTermAndVotedForIsNull");
@@ -333,6 +369,7 @@ public class FollowerTest extends AbstractRaftActorBehaviorTest {
         follower.handleMessage(leaderActor, appendEntries);
 
         assertEquals("getLastApplied", 101L, context.getLastApplied());
+        assertEquals("getLeaderCommitIndex", 101L, ((Follower)follower).getLeaderCommitIndex());
     }
 
     /**
@@ -2,6 +2,7 @@ package org.opendaylight.controller.cluster.raft.behaviors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import akka.actor.ActorRef;
 import akka.actor.PoisonPill;
@@ -12,8 +13,10 @@ import akka.testkit.TestActorRef;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.protobuf.ByteString;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +46,7 @@ import org.opendaylight.controller.cluster.raft.messages.InstallSnapshot;
 import org.opendaylight.controller.cluster.raft.messages.InstallSnapshotReply;
 import org.opendaylight.controller.cluster.raft.messages.RaftRPC;
 import org.opendaylight.controller.cluster.raft.messages.RequestVoteReply;
+import org.opendaylight.controller.cluster.raft.messages.TimeoutNow;
 import org.opendaylight.controller.cluster.raft.utils.ForwardMessageToBehaviorActor;
 import org.opendaylight.controller.cluster.raft.utils.MessageCollectorActor;
 import scala.concurrent.duration.FiniteDuration;
@@ -212,6 +216,137 @@ public class LeaderTest extends AbstractLeaderTest {
         assertEquals("The number of append entries collected should be 1", 1, allMessages.size());
     }
 
+    @Test
+    public void testPipelinedReplicateSendsAppendEntriesUpToInFlightWindow() throws Exception {
+        logStart("testPipelinedReplicateSendsAppendEntriesUpToInFlightWindow");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl();
+        configParams.setHeartBeatInterval(new FiniteDuration(5, TimeUnit.SECONDS));
+        configParams.setMaxInFlightAppendEntries(3);
+        actorContext.setConfigParams(configParams);
+
+        long term = 1;
+        actorContext.getTermInformation().update(term, "");
+
+        leader = new Leader(actorContext);
+
+        // Leader will send an immediate heartbeat - ignore it.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+        // The follower would normally reply - simulate that explicitly here.
+        long lastIndex = actorContext.getReplicatedLog().lastIndex();
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex, term, (short)0));
+
+        followerActor.underlyingActor().clear();
+
+        for(int i=0;i<5;i++) {
+            sendReplicate(actorContext, lastIndex+i+1);
+        }
+
+        // Only 3 AppendEntries may be outstanding - each carries the entry not yet sent.
+        List<AppendEntries> allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("The number of append entries collected", 3, allMessages.size());
+        for(int i=0;i<3;i++) {
+            AppendEntries appendEntries = allMessages.get(i);
+            assertEquals("getPrevLogIndex", lastIndex + i, appendEntries.getPrevLogIndex());
+            assertEquals("Entries size", 1, appendEntries.getEntries().size());
+            assertEquals("Entry getIndex", lastIndex + i + 1, appendEntries.getEntries().get(0).getIndex());
+        }
+
+        FollowerLogInformation followerInfo = leader.getFollower(FOLLOWER_ID);
+        assertEquals("getInFlightAppendEntriesCount", 3, followerInfo.getInFlightAppendEntriesCount());
+        assertEquals("getNextIndex", lastIndex + 4, followerInfo.getNextIndex());
+
+        followerActor.underlyingActor().clear();
+
+        // A reply for the first AppendEntries opens the window - the remaining entries are sent together.
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex + 1, term, (short)0));
+
+        assertEquals("getMatchIndex", lastIndex + 1, followerInfo.getMatchIndex());
+
+        AppendEntries appendEntries = MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+        assertEquals("getPrevLogIndex", lastIndex + 3, appendEntries.getPrevLogIndex());
+        assertEquals("Entries size", 2, appendEntries.getEntries().size());
+        assertEquals("Entry getIndex", lastIndex + 4, appendEntries.getEntries().get(0).getIndex());
+        assertEquals("getNextIndex", lastIndex + 6, followerInfo.getNextIndex());
+
+        followerActor.underlyingActor().clear();
+
+        // A failed reply rewinds to the follower's last index and resends from there.
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, false, lastIndex + 1, term, (short)0));
+
+        assertEquals("getInFlightAppendEntriesCount", 1, followerInfo.getInFlightAppendEntriesCount());
+        appendEntries = MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+        assertEquals("getPrevLogIndex", lastIndex + 1, appendEntries.getPrevLogIndex());
+        assertEquals("Entries size", 4, appendEntries.getEntries().size());
+    }
+
+    @Test
+    public void testPipelinedHeartbeatRepliesDoNotOpenInFlightWindow() throws Exception {
+        logStart("testPipelinedHeartbeatRepliesDoNotOpenInFlightWindow");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl();
+        configParams.setHeartBeatInterval(new FiniteDuration(5, TimeUnit.SECONDS));
+        configParams.setMaxInFlightAppendEntries(2);
+        actorContext.setConfigParams(configParams);
+
+        long term = 1;
+        actorContext.getTermInformation().update(term, "");
+
+        leader = new Leader(actorContext);
+
+        // Leader will send an immediate heartbeat - ignore it.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+        long lastIndex = actorContext.getReplicatedLog().lastIndex();
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex, term, (short)0));
+
+        followerActor.underlyingActor().clear();
+
+        // Fill the window.
+        sendReplicate(actorContext, lastIndex + 1);
+        sendReplicate(actorContext, lastIndex + 2);
+
+        FollowerLogInformation followerInfo = leader.getFollower(FOLLOWER_ID);
+        assertEquals("getInFlightAppendEntriesCount", 2, followerInfo.getInFlightAppendEntriesCount());
+        assertEquals("AppendEntries sent", 2,
+                MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class).size());
+
+        followerActor.underlyingActor().clear();
+
+        // Interleave heartbeats and their replies with new entries - the replies predate the outstanding
+        // AppendEntries so they must not open the window.
+        for(int i = 0; i < 3; i++) {
+            leader.handleMessage(leaderActor, new SendHeartBeat());
+            leader.handleMessage(followerActor, new AppendEntriesReply(
+                    FOLLOWER_ID, term, true, lastIndex, term, (short)0));
+            sendReplicate(actorContext, lastIndex + 3 + i);
+        }
+
+        assertEquals("getInFlightAppendEntriesCount", 2, followerInfo.getInFlightAppendEntriesCount());
+        for(AppendEntries appendEntries: MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class)) {
+            assertEquals("Entries size", 0, appendEntries.getEntries().size());
+        }
+
+        followerActor.underlyingActor().clear();
+
+        // The reply for the first AppendEntries frees exactly one slot.
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex + 1, term, (short)0));
+
+        List<AppendEntries> allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("AppendEntries sent", 1, allMessages.size());
+        assertEquals("getPrevLogIndex", lastIndex + 2, allMessages.get(0).getPrevLogIndex());
+        assertEquals("Entries size", 3, allMessages.get(0).getEntries().size());
+        assertEquals("getInFlightAppendEntriesCount", 2, followerInfo.getInFlightAppendEntriesCount());
+    }
+
     @Test
     public void testMultipleReplicateWithReplyShouldResultInAppendEntries() throws Exception {
         logStart("testMultipleReplicateWithReplyShouldResultInAppendEntries");
@@ -469,7 +604,7 @@ public class LeaderTest extends AbstractLeaderTest {
         ByteString bs = toByteString(leadersSnapshot);
         leader.setSnapshot(Snapshot.create(bs.toByteArray(), Collections.<ReplicatedLogEntry>emptyList(),
                 commitIndex, snapshotTerm, commitIndex, snapshotTerm));
-        FollowerToSnapshot fts = leader.new FollowerToSnapshot(bs);
+        FollowerToSnapshot fts = leader.new FollowerToSnapshot(bs.toByteArray());
         leader.setFollowerSnapshot(FOLLOWER_ID, fts);
 
         //send first chunk and no InstallSnapshotReply received yet
@@ -695,7 +830,7 @@ public class LeaderTest extends AbstractLeaderTest {
         ByteString bs = toByteString(leadersSnapshot);
         leader.setSnapshot(Snapshot.create(bs.toByteArray(), Collections.<ReplicatedLogEntry>emptyList(),
                 commitIndex, snapshotTerm, commitIndex, snapshotTerm));
-        FollowerToSnapshot fts = leader.new FollowerToSnapshot(bs);
+        FollowerToSnapshot fts = leader.new FollowerToSnapshot(bs.toByteArray());
         leader.setFollowerSnapshot(FOLLOWER_ID, fts);
         while(!fts.isLastChunk(fts.getChunkIndex())) {
             fts.getNextChunk();
@@ -943,7 +1078,7 @@ public class LeaderTest extends AbstractLeaderTest {
         ByteString bs = toByteString(leadersSnapshot);
         byte[] barray = bs.toByteArray();
 
-        FollowerToSnapshot fts = leader.new FollowerToSnapshot(bs);
+        FollowerToSnapshot fts = leader.new FollowerToSnapshot(bs.toByteArray());
         leader.setFollowerSnapshot(FOLLOWER_ID, fts);
 
         assertEquals(bs.size(), barray.length);
@@ -1423,6 +1558,66 @@ public class LeaderTest extends AbstractLeaderTest {
         assertEquals(payloadVersion, followerInfo.getPayloadVersion());
     }
 
+    @Test
+    public void testHandleAppendEntriesReplyFromNonVotingFollower() throws Exception {
+        logStart("testHandleAppendEntriesReplyFromNonVotingFollower");
+
+        MockRaftActorContext leaderActorContext = createActorContext();
+        leaderActorContext.setPeerAddresses(ImmutableMap.<String, String>builder().
+                put(FOLLOWER_ID, followerActor.path().toString()).
+                put("non-voting-follower", followerActor.path().toString()).build());
+        leaderActorContext.setNonVotingMemberIds(Collections.singleton("non-voting-follower"));
+
+        leaderActorContext.setReplicatedLog(
+                new MockRaftActorContext.MockReplicatedLogBuilder().createEntries(0, 3, 1).build());
+
+        leaderActorContext.setCommitIndex(1);
+        leaderActorContext.setLastApplied(1);
+        leaderActorContext.getTermInformation().update(1, "leader");
+
+        leader = new Leader(leaderActorContext);
+
+        // A non-voting follower doesn't count towards the commit quorum.
+        leader.handleAppendEntriesReply(followerActor, new AppendEntriesReply(
+                "non-voting-follower", 1, true, 2, 1, (short)0));
+
+        assertEquals(1, leaderActorContext.getCommitIndex());
+
+        leader.handleAppendEntriesReply(followerActor, new AppendEntriesReply(FOLLOWER_ID, 1, true, 2, 1, (short)0));
+
+        assertEquals(2, leaderActorContext.getCommitIndex());
+    }
+
+    @Test
+    public void testHandleReplicateMessageWithOnlyNonVotingFollowers() throws Exception {
+        logStart("testHandleReplicateMessageWithOnlyNonVotingFollowers");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+        actorContext.setNonVotingMemberIds(Collections.singleton(FOLLOWER_ID));
+
+        long term = 1;
+        actorContext.getTermInformation().update(term, "");
+
+        leader = new Leader(actorContext);
+
+        // Leader will send an immediate heartbeat - ignore it.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+        MessageCollectorActor.clearMessages(followerActor);
+
+        long newLogIndex = actorContext.getReplicatedLog().lastIndex() + 1;
+        MockRaftActorContext.MockReplicatedLogEntry newEntry = new MockRaftActorContext.MockReplicatedLogEntry(
+                term, newLogIndex, new MockRaftActorContext.MockPayload("foo"));
+
+        actorContext.getReplicatedLog().append(newEntry);
+
+        leader.handleMessage(leaderActor, new Replicate(leaderActor, "state-id", newEntry));
+
+        // The entry is committed without waiting for the follower, which is still sent AppendEntries.
+        assertEquals("getCommitIndex", newLogIndex, actorContext.getCommitIndex());
+
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+    }
+
     @Test
     public void testHandleAppendEntriesReplyUnknownFollower(){
         logStart("testHandleAppendEntriesReplyUnknownFollower");
@@ -1690,4 +1885,71 @@ public class LeaderTest extends AbstractLeaderTest {
             return snapshotChunkSize;
         }
     }
+
+    @Test
+    public void testTransferLeadership() throws Exception {
+        logStart("testTransferLeadership");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+
+        long term = 1;
+        actorContext.getTermInformation().update(term, "");
+
+        leader = new Leader(actorContext);
+
+        // Leader will send an immediate heartbeat - ignore it.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+        long lastIndex = actorContext.getReplicatedLog().lastIndex();
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex, term, (short)0));
+
+        assertEquals("getMostUpToDateFollower", FOLLOWER_ID, leader.getMostUpToDateFollower());
+
+        // Leave the follower behind by one entry.
+        sendReplicate(actorContext, lastIndex + 1);
+
+        followerActor.underlyingActor().clear();
+
+        leader.transferLeadership(FOLLOWER_ID);
+        assertEquals("getLeadershipTransferTarget", FOLLOWER_ID, leader.getLeadershipTransferTarget());
+
+        // The follower must be caught up before it's told to start an election.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+        assertEquals("TimeoutNow sent", 0, MessageCollectorActor.getAllMatching(followerActor, TimeoutNow.class).size());
+
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex + 1, term, (short)0));
+
+        TimeoutNow timeoutNow = MessageCollectorActor.expectFirstMatching(followerActor, TimeoutNow.class);
+        assertEquals("getTerm", term, timeoutNow.getTerm());
+        assertEquals("getLeaderId", LEADER_ID, timeoutNow.getLeaderId());
+        assertNull("getLeadershipTransferTarget", leader.getLeadershipTransferTarget());
+    }
+
+    @Test
+    public void testGetMostUpToDateFollowerSkipsNonVotingFollowers() throws Exception {
+        logStart("testGetMostUpToDateFollowerSkipsNonVotingFollowers");
+
+        MockRaftActorContext leaderActorContext = createActorContext();
+        leaderActorContext.setPeerAddresses(ImmutableMap.<String, String>builder().
+                put(FOLLOWER_ID, followerActor.path().toString()).
+                put("non-voting-follower", followerActor.path().toString()).build());
+        leaderActorContext.setNonVotingMemberIds(Collections.singleton("non-voting-follower"));
+
+        leaderActorContext.setReplicatedLog(
+                new MockRaftActorContext.MockReplicatedLogBuilder().createEntries(0, 3, 1).build());
+        leaderActorContext.getTermInformation().update(1, "leader");
+
+        leader = new Leader(leaderActorContext);
+
+        leader.handleAppendEntriesReply(followerActor, new AppendEntriesReply(
+                "non-voting-follower", 1, true, 2, 1, (short)0));
+        leader.handleAppendEntriesReply(followerActor, new AppendEntriesReply(FOLLOWER_ID, 1, true, 1, 1, (short)0));
+
+        assertEquals("getMostUpToDateFollower", FOLLOWER_ID, leader.getMostUpToDateFollower());
+
+        leaderActorContext.setNonVotingMemberIds(new HashSet<>(Arrays.asList(FOLLOWER_ID, "non-voting-follower")));
+        assertNull("getMostUpToDateFollower", leader.getMostUpToDateFollower());
+    }
 }
@@ -59,6 +59,12 @@ public class NormalizedNodeInputStreamReader implements NormalizedNodeStreamRead
 
     private final Map<Integer, String> codedStringMap = new HashMap<>();
 
+    private final List<QName> qNameDictionary = new ArrayList<>();
+
+    private final List<YangInstanceIdentifier.AugmentationIdentifier> augmentationDictionary = new ArrayList<>();
+
+    private short version = NormalizedNodeOutputStreamWriter.CURRENT_VERSION;
+
     private QName lastLeafSetQName;
 
     private NormalizedNodeAttrBuilder<YangInstanceIdentifier.NodeIdentifier,
@@ -96,7 +102,7 @@ public class NormalizedNodeInputStreamReader implements NormalizedNodeStreamRead
                         "Invalid signature marker: %d", marker));
             }
 
-            input.readShort(); // read the version - not currently used/needed.
+            version = input.readShort();
         }
     }
 
@@ -111,8 +117,7 @@ public class NormalizedNodeInputStreamReader implements NormalizedNodeStreamRead
 
         switch(nodeType) {
             case NodeTypes.AUGMENTATION_NODE :
-                YangInstanceIdentifier.AugmentationIdentifier augIdentifier =
-                    new YangInstanceIdentifier.AugmentationIdentifier(readQNameSet());
+                YangInstanceIdentifier.AugmentationIdentifier augIdentifier = readAugmentationIdentifier();
 
                 LOG.debug("Reading augmentation node {} ", augIdentifier);
 
@@ -213,6 +218,54 @@ public class NormalizedNodeInputStreamReader implements NormalizedNodeStreamRead
     }
 
     private QName readQName() throws IOException {
+        if(version >= NormalizedNodeOutputStreamWriter.QNAME_DICTIONARY_VERSION) {
+            byte valueType = input.readByte();
+            if(valueType == NormalizedNodeOutputStreamWriter.IS_CODE_VALUE) {
+                return qNameDictionary.get(readVarInt());
+            }
+
+            QName qName = readQNameStrings();
+            qNameDictionary.add(qName);
+            return qName;
+        }
+
+        return readQNameStrings();
+    }
+
+    private YangInstanceIdentifier.AugmentationIdentifier readAugmentationIdentifier() throws IOException {
+        if(version >= NormalizedNodeOutputStreamWriter.QNAME_DICTIONARY_VERSION) {
+            byte valueType = input.readByte();
+            if(valueType == NormalizedNodeOutputStreamWriter.IS_CODE_VALUE) {
+                return augmentationDictionary.get(readVarInt());
+            }
+
+            YangInstanceIdentifier.AugmentationIdentifier identifier =
+                    new YangInstanceIdentifier.AugmentationIdentifier(readQNameSet());
+            augmentationDictionary.add(identifier);
+            return identifier;
+        }
+
+        return new YangInstanceIdentifier.AugmentationIdentifier(readQNameSet());
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if(shift > 28) {
+                throw new InvalidNormalizedNodeStreamException("Malformed varint");
+            }
+
+            b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+
+        return value;
+    }
+
+    private QName readQNameStrings() throws IOException {
         // Read in the same sequence of writing
         String localName = readCodedString();
         String namespace = readCodedString();
@@ -235,7 +288,8 @@ public class NormalizedNodeInputStreamReader implements NormalizedNodeStreamRead
     private String readCodedString() throws IOException {
         byte valueType = input.readByte();
         if(valueType == NormalizedNodeOutputStreamWriter.IS_CODE_VALUE) {
-            return codedStringMap.get(input.readInt());
+            return codedStringMap.get(version >= NormalizedNodeOutputStreamWriter.QNAME_DICTIONARY_VERSION ?
+                    readVarInt() : input.readInt());
         } else if(valueType == NormalizedNodeOutputStreamWriter.IS_STRING_VALUE) {
             String value = input.readUTF().intern();
             codedStringMap.put(Integer.valueOf(codedStringMap.size()), value);
@@ -344,7 +398,7 @@ public class NormalizedNodeInputStreamReader implements NormalizedNodeStreamRead
         switch(type) {
 
             case PathArgumentTypes.AUGMENTATION_IDENTIFIER :
-                return new YangInstanceIdentifier.AugmentationIdentifier(readQNameSet());
+                return readAugmentationIdentifier();
 
             case PathArgumentTypes.NODE_IDENTIFIER :
                 return new NodeIdentifier(readQName());
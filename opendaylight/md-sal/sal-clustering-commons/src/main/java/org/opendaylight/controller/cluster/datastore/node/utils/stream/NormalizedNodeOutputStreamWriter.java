@@ -39,7 +39,9 @@ import org.slf4j.LoggerFactory;
  * Based on the each node, the node type is also written to the stream, that helps in reconstructing the object,
  * while reading.
  *
- *
+ * With {@link #QNAME_DICTIONARY_VERSION}, each distinct QName and augmentation identifier is written once and
+ * subsequent occurrences are written as a varint code into the stream's dictionary. Strings are also coded with
+ * varints. The reader determines the encoding from the version in the stream header.
  */
 
 public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWriter {
@@ -49,14 +51,26 @@ public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWri
     static final byte SIGNATURE_MARKER = (byte) 0xab;
     static final short CURRENT_VERSION = (short) 1;
 
+    /**
+     * Stream version which codes QNames and augmentation identifiers via a per-stream dictionary.
+     */
+    public static final short QNAME_DICTIONARY_VERSION = (short) 2;
+
     static final byte IS_CODE_VALUE = 1;
     static final byte IS_STRING_VALUE = 2;
     static final byte IS_NULL_VALUE = 3;
+    static final byte IS_DEFINITION_VALUE = 4;
 
     private final DataOutput output;
 
+    private final short version;
+
     private final Map<String, Integer> stringCodeMap = new HashMap<>();
 
+    private final Map<QName, Integer> qNameCodeMap = new HashMap<>();
+
+    private final Map<YangInstanceIdentifier.AugmentationIdentifier, Integer> augmentationCodeMap = new HashMap<>();
+
     private NormalizedNodeWriter normalizedNodeWriter;
 
     private boolean wroteSignatureMarker;
@@ -64,10 +78,18 @@ public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWri
     public NormalizedNodeOutputStreamWriter(OutputStream stream) throws IOException {
         Preconditions.checkNotNull(stream);
         output = new DataOutputStream(stream);
+        version = CURRENT_VERSION;
     }
 
     public NormalizedNodeOutputStreamWriter(DataOutput output) {
+        this(output, CURRENT_VERSION);
+    }
+
+    public NormalizedNodeOutputStreamWriter(DataOutput output, short version) {
+        Preconditions.checkArgument(version == CURRENT_VERSION || version == QNAME_DICTIONARY_VERSION,
+                "Unsupported stream version %s", version);
         this.output = Preconditions.checkNotNull(output);
+        this.version = version;
     }
 
     private NormalizedNodeWriter normalizedNodeWriter() {
@@ -86,7 +108,7 @@ public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWri
     private void writeSignatureMarkerAndVersionIfNeeded() throws IOException {
         if(!wroteSignatureMarker) {
             output.writeByte(SIGNATURE_MARKER);
-            output.writeShort(CURRENT_VERSION);
+            output.writeShort(version);
             wroteSignatureMarker = true;
         }
     }
@@ -181,7 +203,7 @@ public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWri
         LOG.debug("Starting a new augmentation node");
 
         output.writeByte(NodeTypes.AUGMENTATION_NODE);
-        writeQNameSet(identifier.getPossibleChildNames());
+        writeAugmentationIdentifier(identifier);
     }
 
     @Override
@@ -226,17 +248,59 @@ public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWri
     }
 
     private void writeQName(QName qName) throws IOException {
+        if(version >= QNAME_DICTIONARY_VERSION) {
+            Integer code = qNameCodeMap.get(qName);
+            if(code != null) {
+                output.writeByte(IS_CODE_VALUE);
+                writeVarInt(code);
+                return;
+            }
+
+            output.writeByte(IS_DEFINITION_VALUE);
+            qNameCodeMap.put(qName, Integer.valueOf(qNameCodeMap.size()));
+        }
 
         writeCodedString(qName.getLocalName());
         writeCodedString(qName.getNamespace().toString());
         writeCodedString(qName.getFormattedRevision());
     }
 
+    private void writeAugmentationIdentifier(YangInstanceIdentifier.AugmentationIdentifier identifier)
+            throws IOException {
+        if(version >= QNAME_DICTIONARY_VERSION) {
+            Integer code = augmentationCodeMap.get(identifier);
+            if(code != null) {
+                output.writeByte(IS_CODE_VALUE);
+                writeVarInt(code);
+                return;
+            }
+
+            output.writeByte(IS_DEFINITION_VALUE);
+            augmentationCodeMap.put(identifier, Integer.valueOf(augmentationCodeMap.size()));
+        }
+
+        writeQNameSet(identifier.getPossibleChildNames());
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        int remaining = value;
+        while((remaining & ~0x7F) != 0) {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+
+        output.writeByte(remaining);
+    }
+
     private void writeCodedString(String key) throws IOException {
         Integer value = stringCodeMap.get(key);
         if(value != null) {
             output.writeByte(IS_CODE_VALUE);
-            output.writeInt(value);
+            if(version >= QNAME_DICTIONARY_VERSION) {
+                writeVarInt(value);
+            } else {
+                output.writeInt(value);
+            }
         } else {
             if(key != null) {
                 output.writeByte(IS_STRING_VALUE);
@@ -317,7 +381,7 @@ public class NormalizedNodeOutputStreamWriter implements NormalizedNodeStreamWri
                     (YangInstanceIdentifier.AugmentationIdentifier) pathArgument;
 
                 // No Qname in augmentation identifier
-                writeQNameSet(augmentationIdentifier.getPossibleChildNames());
+                writeAugmentationIdentifier(augmentationIdentifier);
                 break;
             default :
                 throw new IllegalStateException("Unknown node identifier type is found : " + pathArgument.getClass().toString() );
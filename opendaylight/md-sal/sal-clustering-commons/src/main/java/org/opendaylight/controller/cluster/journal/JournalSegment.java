@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single memory-mapped, append-only segment file of a {@link SegmentedJournal}. Each entry is laid out as
+ * <pre>
+ *   int    payload length (always &gt; 0)
+ *   int    CRC32 of the payload
+ *   long   sequence number
+ *   byte[] payload
+ * </pre>
+ * The mapped region is zero-filled by the OS so a zero length marks the end of the written entries. When
+ * a segment is opened it is scanned up to the first entry whose length or checksum is invalid - anything
+ * past that point is a torn write and is overwritten by subsequent appends.
+ */
+class JournalSegment {
+    private static final Logger LOG = LoggerFactory.getLogger(JournalSegment.class);
+
+    static final int ENTRY_HEADER_SIZE = 4 + 4 + 8;
+
+    interface EntryHandler {
+        void handle(long sequenceNr, byte[] payload) throws Exception;
+    }
+
+    private final File file;
+    private final long firstSequenceNr;
+    private final RandomAccessFile raf;
+    private MappedByteBuffer buffer;
+    private long lastSequenceNr;
+    private boolean dirty;
+
+    private JournalSegment(File file, long firstSequenceNr, RandomAccessFile raf, MappedByteBuffer buffer) {
+        this.file = file;
+        this.firstSequenceNr = firstSequenceNr;
+        this.raf = raf;
+        this.buffer = buffer;
+        this.lastSequenceNr = firstSequenceNr - 1;
+    }
+
+    /**
+     * Opens, or creates, the segment file and positions it after the last valid entry.
+     *
+     * @param file the segment file
+     * @param firstSequenceNr the sequence number of the first entry stored in the segment
+     * @param size the size to map if the file does not exist yet
+     */
+    static JournalSegment open(File file, long firstSequenceNr, int size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long length = raf.length();
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    length > 0 ? length : size);
+
+            JournalSegment segment = new JournalSegment(file, firstSequenceNr, raf, buffer);
+            segment.scan();
+            return segment;
+        } catch(IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private void scan() {
+        CRC32 crc = new CRC32();
+        buffer.position(0);
+        while(buffer.remaining() >= ENTRY_HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            long sequenceNr = buffer.getLong();
+            if(length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+
+            lastSequenceNr = sequenceNr;
+        }
+
+        // Clear out a partially written trailing entry header, if any, so a later scan stops here.
+        if(buffer.remaining() >= 4) {
+            buffer.putInt(buffer.position(), 0);
+        }
+    }
+
+    /**
+     * Appends an entry to the segment.
+     *
+     * @return false if there isn't enough room left in the segment for the entry.
+     */
+    boolean append(long sequenceNr, byte[] payload) {
+        if(buffer.remaining() < ENTRY_HEADER_SIZE + payload.length) {
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        int start = buffer.position();
+
+        // Write the payload before the length so a torn write never looks like a valid entry.
+        buffer.position(start + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.putLong(sequenceNr);
+        buffer.put(payload);
+        if(buffer.remaining() >= 4) {
+            buffer.putInt(buffer.position(), 0);
+        }
+
+        buffer.putInt(start, payload.length);
+
+        lastSequenceNr = sequenceNr;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Forces any appended entries to the storage device.
+     */
+    void flush() {
+        if(dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Reads back the entries with a sequence number in the given range, in order.
+     *
+     * @return the number of entries passed to the handler
+     */
+    long replay(long fromSequenceNr, long toSequenceNr, long max, EntryHandler handler) throws Exception {
+        long count = 0;
+        int end = buffer.position();
+        MappedByteBuffer reader = (MappedByteBuffer) buffer.duplicate();
+        reader.position(0);
+        while(reader.position() < end && count < max) {
+            int length = reader.getInt();
+            reader.getInt();
+            long sequenceNr = reader.getLong();
+            if(sequenceNr > toSequenceNr) {
+                break;
+            }
+
+            if(sequenceNr < fromSequenceNr) {
+                reader.position(reader.position() + length);
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            reader.get(payload);
+            handler.handle(sequenceNr, payload);
+            count++;
+        }
+
+        return count;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getFirstSequenceNr() {
+        return firstSequenceNr;
+    }
+
+    /**
+     * @return the sequence number of the last entry or getFirstSequenceNr() - 1 if the segment is empty.
+     */
+    long getLastSequenceNr() {
+        return lastSequenceNr;
+    }
+
+    boolean isEmpty() {
+        return lastSequenceNr < firstSequenceNr;
+    }
+
+    int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Flushes and unmaps the segment. The segment must not be used afterwards.
+     */
+    void close() throws IOException {
+        if(buffer == null) {
+            return;
+        }
+
+        flush();
+        unmap(buffer);
+        buffer = null;
+        raf.close();
+    }
+
+    /**
+     * Releases the mapping right away rather than when the buffer is garbage collected, which may be long after
+     * the segment is deleted - until then its disk space isn't reclaimed and on some platforms the file can't
+     * be deleted at all.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if(cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Could not unmap journal segment buffer - it is released when garbage collected", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JournalSegment [file=" + file + ", firstSequenceNr=" + firstSequenceNr + ", lastSequenceNr="
+                + lastSequenceNr + ", size=" + (buffer != null ? size() : 0) + "]";
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.journal;
+
+import akka.dispatch.Futures;
+import akka.dispatch.OnComplete;
+import akka.japi.Procedure;
+import akka.persistence.PersistentConfirmation;
+import akka.persistence.PersistentId;
+import akka.persistence.PersistentRepr;
+import akka.persistence.journal.japi.SyncWriteJournal;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import com.typesafe.config.Config;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.Future;
+
+/**
+ * An akka journal plugin that stores each persistence id's messages in a {@link SegmentedJournal}, ie a set of
+ * memory-mapped, append-only segment files with a CRC per entry. Compared to the LevelDB journal there is no
+ * index or compaction to maintain, a batch of writes is flushed to disk with a single fsync and deleting
+ * messages on snapshot drops whole segment files.
+ *
+ * <p>
+ * The plugin is configured under {@code akka.persistence.journal.segmented-file}:
+ * <pre>
+ *   akka.persistence.journal.plugin = "akka.persistence.journal.segmented-file"
+ *   akka.persistence.journal.segmented-file {
+ *     class = "org.opendaylight.controller.cluster.journal.SegmentedFileJournal"
+ *     plugin-dispatcher = "akka.persistence.dispatchers.default-plugin-dispatcher"
+ *     dir = "journal"
+ *     max-segment-size = 16777216
+ *     fsync = on
+ *   }
+ * </pre>
+ * Messages are serialized with akka's serialization extension so payloads use the same serializers as with
+ * the LevelDB journal. Messages are replayed on the plugin dispatcher, off the journal actor, so writes for
+ * other persistence ids aren't held up by a recovering one. Only permanent deletes are supported.
+ */
+public class SegmentedFileJournal extends SyncWriteJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedFileJournal.class);
+
+    public static final String CONFIG_PATH = "akka.persistence.journal.segmented-file";
+
+    private static final String DEFAULT_DIR = "journal";
+    private static final int DEFAULT_MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final Map<String, SegmentedJournal> journals = new HashMap<>();
+    private final File rootDirectory;
+    private final int maxSegmentSize;
+    private final boolean fsync;
+    private final Serialization serialization;
+
+    public SegmentedFileJournal() {
+        Config config = context().system().settings().config();
+        Config journalConfig = config.hasPath(CONFIG_PATH) ? config.getConfig(CONFIG_PATH) : null;
+
+        rootDirectory = new File(journalConfig != null && journalConfig.hasPath("dir") ?
+                journalConfig.getString("dir") : DEFAULT_DIR);
+        maxSegmentSize = journalConfig != null && journalConfig.hasPath("max-segment-size") ?
+                journalConfig.getBytes("max-segment-size").intValue() : DEFAULT_MAX_SEGMENT_SIZE;
+        fsync = journalConfig == null || !journalConfig.hasPath("fsync") || journalConfig.getBoolean("fsync");
+
+        serialization = SerializationExtension.get(context().system());
+
+        LOG.info("Segmented file journal: dir: {}, max-segment-size: {}, fsync: {}", rootDirectory.getAbsolutePath(),
+                maxSegmentSize, fsync);
+    }
+
+    @Override
+    public void doWriteMessages(Iterable<PersistentRepr> messages) throws Exception {
+        Set<SegmentedJournal> written = new HashSet<>();
+        for(PersistentRepr repr: messages) {
+            SegmentedJournal journal = journalFor(repr.persistenceId());
+            journal.append(repr.sequenceNr(), serialization.findSerializerFor(repr).toBinary(repr));
+            written.add(journal);
+        }
+
+        // The whole batch is forced to disk at once rather than per message.
+        if(fsync) {
+            for(SegmentedJournal journal: written) {
+                journal.flush();
+            }
+        }
+    }
+
+    @Override
+    public void doWriteConfirmations(Iterable<PersistentConfirmation> confirmations) {
+        // Channels aren't used so there's nothing to confirm.
+    }
+
+    @Override
+    public void doDeleteMessages(Iterable<PersistentId> messageIds, boolean permanent) {
+        // Only deleting up to a sequence number, which is what snapshotting uses, is supported. Failing here
+        // makes akka reply with DeleteMessagesFailure rather than pretending the messages are gone.
+        throw new UnsupportedOperationException(
+                "Deleting individual messages is not supported by the segmented file journal");
+    }
+
+    @Override
+    public void doDeleteMessagesTo(String persistenceId, long toSequenceNr, boolean permanent) throws Exception {
+        LOG.debug("{}: doDeleteMessagesTo: {}, permanent: {}", persistenceId, toSequenceNr, permanent);
+
+        // Logically deleted messages would have to be replayed flagged as deleted, which we don't record.
+        if(!permanent) {
+            throw new UnsupportedOperationException(
+                    "Logical deletes are not supported by the segmented file journal");
+        }
+
+        journalFor(persistenceId).deleteTo(toSequenceNr);
+    }
+
+    @Override
+    public Future<Void> doAsyncReplayMessages(final String persistenceId, final long fromSequenceNr,
+            final long toSequenceNr, final long max, final Procedure<PersistentRepr> replayCallback) {
+        // The journal is looked up here as the map is confined to the actor - the replay itself runs on the
+        // plugin dispatcher, the journal's lock keeps its segments from being deleted underneath it.
+        final SegmentedJournal journal;
+        try {
+            journal = journalFor(persistenceId);
+        } catch (IOException e) {
+            LOG.error("{}: Error opening the journal", persistenceId, e);
+            return Futures.failed(e);
+        }
+
+        Future<Void> future = Futures.future(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                journal.replay(fromSequenceNr, toSequenceNr, max, new JournalSegment.EntryHandler() {
+                    @Override
+                    public void handle(long sequenceNr, byte[] payload) throws Exception {
+                        replayCallback.apply(serialization.deserialize(payload, PersistentRepr.class).get());
+                    }
+                });
+
+                return null;
+            }
+        }, context().dispatcher());
+
+        future.onComplete(new OnComplete<Void>() {
+            @Override
+            public void onComplete(Throwable failure, Void notUsed) {
+                if(failure != null) {
+                    LOG.error("{}: Error replaying messages", persistenceId, failure);
+                }
+            }
+        }, context().dispatcher());
+
+        return future;
+    }
+
+    @Override
+    public Future<Long> doAsyncReadHighestSequenceNr(String persistenceId, long fromSequenceNr) {
+        try {
+            return Futures.successful(Math.max(fromSequenceNr, journalFor(persistenceId).getHighestSequenceNr()));
+        } catch (IOException e) {
+            LOG.error("{}: Error reading the highest sequence number", persistenceId, e);
+            return Futures.failed(e);
+        }
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        for(SegmentedJournal journal: journals.values()) {
+            journal.close();
+        }
+
+        journals.clear();
+
+        super.postStop();
+    }
+
+    private SegmentedJournal journalFor(String persistenceId) throws IOException {
+        SegmentedJournal journal = journals.get(persistenceId);
+        if(journal == null) {
+            journal = new SegmentedJournal(new File(rootDirectory, encode(persistenceId)), maxSegmentSize);
+            journals.put(persistenceId, journal);
+        }
+
+        return journal;
+    }
+
+    private static String encode(String persistenceId) {
+        try {
+            return URLEncoder.encode(persistenceId, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
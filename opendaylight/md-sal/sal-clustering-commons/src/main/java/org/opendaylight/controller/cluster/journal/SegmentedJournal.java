@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.journal;
+
+import com.google.common.base.Preconditions;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The journal of a single persistence id, stored as a directory of {@link JournalSegment} files named after
+ * the sequence number of their first entry. Deleting messages up to a sequence number removes whole
+ * segments - the deletion point within the remaining first segment is recorded in a separate marker
+ * file and applied on replay.
+ *
+ * <p>
+ * Appends and deletes are intended to be confined to the journal actor while replays may run on other threads.
+ * A read-write lock keeps segments from being appended to, or unmapped and deleted, while they are replayed.
+ */
+class SegmentedJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DELETED_TO_FILE = "deleted-to";
+
+    private final File directory;
+    private final int maxSegmentSize;
+    private final TreeMap<Long, JournalSegment> segments = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long deletedToSequenceNr;
+    private long highestSequenceNr;
+
+    SegmentedJournal(File directory, int maxSegmentSize) throws IOException {
+        Preconditions.checkArgument(maxSegmentSize > JournalSegment.ENTRY_HEADER_SIZE,
+                "maxSegmentSize %s is too small", maxSegmentSize);
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory " + directory);
+        }
+
+        deletedToSequenceNr = readDeletedTo();
+        highestSequenceNr = deletedToSequenceNr;
+
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file: files) {
+                String name = file.getName();
+                if(name.endsWith(SEGMENT_SUFFIX)) {
+                    long firstSequenceNr = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    JournalSegment segment = JournalSegment.open(file, firstSequenceNr, maxSegmentSize);
+                    segments.put(firstSequenceNr, segment);
+                    highestSequenceNr = Math.max(highestSequenceNr, segment.getLastSequenceNr());
+                }
+            }
+        }
+
+        LOG.debug("Opened journal {}: segments: {}, deletedTo: {}, highest: {}", directory, segments.size(),
+                deletedToSequenceNr, highestSequenceNr);
+    }
+
+    void append(long sequenceNr, byte[] payload) throws IOException {
+        lock.writeLock().lock();
+        try {
+            JournalSegment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+            if(segment == null || !segment.append(sequenceNr, payload)) {
+                if(segment != null) {
+                    segment.flush();
+                }
+
+                // An entry larger than the configured segment size gets a segment of its own.
+                int size = Math.max(maxSegmentSize, JournalSegment.ENTRY_HEADER_SIZE + payload.length);
+                segment = JournalSegment.open(segmentFile(sequenceNr), sequenceNr, size);
+                segments.put(sequenceNr, segment);
+
+                if(!segment.append(sequenceNr, payload)) {
+                    throw new IOException("Could not append entry " + sequenceNr + " to new segment " + segment);
+                }
+            }
+
+            highestSequenceNr = Math.max(highestSequenceNr, sequenceNr);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces appended entries to the storage device. Only the last segment can have unflushed entries
+     * since a segment is flushed when it's rolled over.
+     */
+    void flush() {
+        lock.writeLock().lock();
+        try {
+            if(!segments.isEmpty()) {
+                segments.lastEntry().getValue().flush();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replays the entries in the given range, in order. This may be called from any thread - appends and
+     * deletes wait until the replay is done.
+     */
+    void replay(long fromSequenceNr, long toSequenceNr, long max, JournalSegment.EntryHandler handler)
+            throws Exception {
+        lock.readLock().lock();
+        try {
+            long from = Math.max(fromSequenceNr, deletedToSequenceNr + 1);
+            long remaining = max;
+            for(JournalSegment segment: segments.values()) {
+                if(remaining <= 0 || segment.getFirstSequenceNr() > toSequenceNr) {
+                    break;
+                }
+
+                if(segment.getLastSequenceNr() < from) {
+                    continue;
+                }
+
+                remaining -= segment.replay(from, toSequenceNr, remaining, handler);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes all messages with a sequence number up to and including the given sequence number. Segments
+     * whose entries are all deleted are removed, except the last one which is still being appended to.
+     */
+    void deleteTo(long toSequenceNr) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if(toSequenceNr <= deletedToSequenceNr) {
+                return;
+            }
+
+            deletedToSequenceNr = toSequenceNr;
+            writeDeletedTo();
+
+            Iterator<Map.Entry<Long, JournalSegment>> iter = segments.entrySet().iterator();
+            while(iter.hasNext()) {
+                JournalSegment segment = iter.next().getValue();
+                if(segment.getLastSequenceNr() > toSequenceNr || !iter.hasNext()) {
+                    break;
+                }
+
+                // Drop our reference and unmap the segment before deleting the file underneath it.
+                iter.remove();
+                segment.close();
+                if(!segment.getFile().delete()) {
+                    LOG.warn("Could not delete journal segment {}", segment.getFile());
+                }
+
+                LOG.debug("Deleted journal segment {}", segment);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the highest sequence number ever written, including deleted messages.
+     */
+    long getHighestSequenceNr() {
+        return highestSequenceNr;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for(JournalSegment segment: segments.values()) {
+                segment.close();
+            }
+
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private File segmentFile(long firstSequenceNr) {
+        return new File(directory, String.format("%020d%s", firstSequenceNr, SEGMENT_SUFFIX));
+    }
+
+    private long readDeletedTo() throws IOException {
+        File file = new File(directory, DELETED_TO_FILE);
+        if(!file.exists()) {
+            return 0;
+        }
+
+        try(DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readLong();
+        }
+    }
+
+    private void writeDeletedTo() throws IOException {
+        File tmp = new File(directory, DELETED_TO_FILE + ".tmp");
+        try(FileOutputStream fos = new FileOutputStream(tmp)) {
+            DataOutputStream out = new DataOutputStream(fos);
+            out.writeLong(deletedToSequenceNr);
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        File file = new File(directory, DELETED_TO_FILE);
+        if(!tmp.renameTo(file)) {
+            throw new IOException("Could not rename " + tmp + " to " + file);
+        }
+    }
+}
@@ -11,6 +11,7 @@ package org.opendaylight.controller.cluster.datastore.node.utils.stream;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import org.apache.commons.lang.SerializationUtils;
 import org.junit.Assert;
@@ -65,6 +66,39 @@ public class NormalizedNodeStreamReaderWriterTest {
         writer.close();
     }
 
+    @Test
+    public void testNormalizedNodeStreamingWithQNameDictionary() throws IOException {
+        NormalizedNode<?, ?> testContainer = createTestContainer();
+        YangInstanceIdentifier path = YangInstanceIdentifier.builder(TestModel.TEST_PATH).
+                node(TestModel.OUTER_LIST_QNAME).nodeWithKey(
+                        TestModel.INNER_LIST_QNAME, TestModel.ID_QNAME, 10).build();
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        NormalizedNodeOutputStreamWriter writer = new NormalizedNodeOutputStreamWriter(
+                new DataOutputStream(byteArrayOutputStream), NormalizedNodeOutputStreamWriter.QNAME_DICTIONARY_VERSION);
+        writer.writeYangInstanceIdentifier(path);
+        writer.writeNormalizedNode(testContainer);
+        writer.writeNormalizedNode(testContainer);
+        writer.close();
+
+        NormalizedNodeInputStreamReader reader = new NormalizedNodeInputStreamReader(
+                new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+
+        Assert.assertEquals(path, reader.readYangInstanceIdentifier());
+        Assert.assertEquals(testContainer, reader.readNormalizedNode());
+        Assert.assertEquals(testContainer, reader.readNormalizedNode());
+
+        // The same content written with the string coded version should be larger.
+        ByteArrayOutputStream legacyOutputStream = new ByteArrayOutputStream();
+        NormalizedNodeOutputStreamWriter legacyWriter = new NormalizedNodeOutputStreamWriter(legacyOutputStream);
+        legacyWriter.writeYangInstanceIdentifier(path);
+        legacyWriter.writeNormalizedNode(testContainer);
+        legacyWriter.writeNormalizedNode(testContainer);
+        legacyWriter.close();
+
+        Assert.assertTrue("Expected smaller stream", byteArrayOutputStream.size() < legacyOutputStream.size());
+    }
+
     private NormalizedNode<?, ?> createTestContainer() {
         byte[] bytes1 = {1,2,3};
         LeafSetEntryNode<Object> entry1 = ImmutableLeafSetEntryNodeBuilder.create().withNodeIdentifier(
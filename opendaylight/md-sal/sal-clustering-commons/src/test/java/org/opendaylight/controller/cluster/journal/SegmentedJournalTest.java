@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.journal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for SegmentedJournal and JournalSegment.
+ */
+public class SegmentedJournalTest {
+    private static final int SEGMENT_SIZE = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private SegmentedJournal journal;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(folder.getRoot(), "member-1-shard-test");
+        journal = new SegmentedJournal(directory, SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    public void testAppendAndReplay() throws Exception {
+        for(int i = 1; i <= 20; i++) {
+            journal.append(i, payload(i));
+        }
+
+        journal.flush();
+
+        assertEquals("getHighestSequenceNr", 20, journal.getHighestSequenceNr());
+        assertTrue("Expected multiple segments", journal.getSegmentCount() > 1);
+
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 1, 20);
+        assertReplay(journal, 5, 12, Long.MAX_VALUE, 5, 12);
+        assertReplay(journal, 5, Long.MAX_VALUE, 3, 5, 7);
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        for(int i = 1; i <= 20; i++) {
+            journal.append(i, payload(i));
+        }
+
+        journal.close();
+
+        journal = new SegmentedJournal(directory, SEGMENT_SIZE);
+
+        assertEquals("getHighestSequenceNr", 20, journal.getHighestSequenceNr());
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 1, 20);
+
+        journal.append(21, payload(21));
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 1, 21);
+    }
+
+    @Test
+    public void testDeleteTo() throws Exception {
+        for(int i = 1; i <= 20; i++) {
+            journal.append(i, payload(i));
+        }
+
+        int segmentCount = journal.getSegmentCount();
+
+        journal.deleteTo(15);
+
+        assertTrue("Expected segments to be deleted", journal.getSegmentCount() < segmentCount);
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 16, 20);
+
+        journal.deleteTo(20);
+
+        assertEquals("getSegmentCount", 1, journal.getSegmentCount());
+        assertEquals("getHighestSequenceNr", 20, journal.getHighestSequenceNr());
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 0, -1);
+
+        journal.close();
+
+        // The deletion point and the highest sequence number survive a restart.
+        journal = new SegmentedJournal(directory, SEGMENT_SIZE);
+        assertEquals("getHighestSequenceNr", 20, journal.getHighestSequenceNr());
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 0, -1);
+    }
+
+    @Test
+    public void testDeleteToWaitsForReplay() throws Exception {
+        for(int i = 1; i <= 20; i++) {
+            journal.append(i, payload(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Hold up a replay in the first segment, which the delete is going to unmap.
+            final CountDownLatch replayStarted = new CountDownLatch(1);
+            final CountDownLatch replayBlocked = new CountDownLatch(1);
+            final List<Long> replayed = new ArrayList<>();
+            Future<?> replay = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    journal.replay(1, Long.MAX_VALUE, Long.MAX_VALUE, new JournalSegment.EntryHandler() {
+                        @Override
+                        public void handle(long sequenceNr, byte[] payload) {
+                            replayStarted.countDown();
+                            Uninterruptibles.awaitUninterruptibly(replayBlocked);
+                            assertArrayEquals("Payload for " + sequenceNr, payload(sequenceNr), payload);
+                            replayed.add(sequenceNr);
+                        }
+                    });
+                    return null;
+                }
+            });
+
+            assertTrue("Replay started", replayStarted.await(5, TimeUnit.SECONDS));
+
+            Future<?> delete = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    journal.deleteTo(15);
+                    return null;
+                }
+            });
+
+            Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+            assertFalse("deleteTo completed during replay", delete.isDone());
+
+            replayBlocked.countDown();
+            replay.get(5, TimeUnit.SECONDS);
+            delete.get(5, TimeUnit.SECONDS);
+
+            assertEquals("Replayed count", 20, replayed.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The deleted segments are unmapped and their files are gone.
+        File[] segmentFiles = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".log");
+            }
+        });
+        assertEquals("Segment files", journal.getSegmentCount(), segmentFiles.length);
+        assertReplay(journal, 1, Long.MAX_VALUE, Long.MAX_VALUE, 16, 20);
+    }
+
+    @Test
+    public void testLargeEntry() throws Exception {
+        journal.append(1, payload(1));
+
+        byte[] large = new byte[SEGMENT_SIZE * 2];
+        large[large.length - 1] = 1;
+        journal.append(2, large);
+        journal.append(3, payload(3));
+
+        final List<byte[]> replayed = new ArrayList<>();
+        journal.replay(2, 2, Long.MAX_VALUE, new JournalSegment.EntryHandler() {
+            @Override
+            public void handle(long sequenceNr, byte[] payload) {
+                replayed.add(payload);
+            }
+        });
+
+        assertEquals("Replayed size", 1, replayed.size());
+        assertArrayEquals("Replayed payload", large, replayed.get(0));
+        assertReplay(journal, 3, Long.MAX_VALUE, Long.MAX_VALUE, 3, 3);
+    }
+
+    @Test
+    public void testCorruptEntryIsTruncated() throws Exception {
+        File file = new File(folder.getRoot(), "segment.log");
+        JournalSegment segment = JournalSegment.open(file, 1, SEGMENT_SIZE);
+        assertTrue(segment.isEmpty());
+        assertTrue(segment.append(1, payload(1)));
+        assertTrue(segment.append(2, payload(2)));
+        int secondEntryEnd = segment.size();
+        segment.close();
+
+        // Corrupt the last payload byte of the second entry.
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(secondEntryEnd - 1);
+            raf.write(0xFF);
+        }
+
+        segment = JournalSegment.open(file, 1, SEGMENT_SIZE);
+        assertFalse(segment.isEmpty());
+        assertEquals("getLastSequenceNr", 1, segment.getLastSequenceNr());
+
+        // The corrupt entry is overwritten.
+        assertTrue(segment.append(2, payload(2)));
+        assertEquals("size", secondEntryEnd, segment.size());
+        segment.close();
+    }
+
+    private static byte[] payload(long sequenceNr) {
+        return ("payload-" + sequenceNr).getBytes();
+    }
+
+    private static void assertReplay(SegmentedJournal journal, long from, long to, long max,
+            long expFirst, long expLast) throws Exception {
+        final List<Long> sequenceNrs = new ArrayList<>();
+        journal.replay(from, to, max, new JournalSegment.EntryHandler() {
+            @Override
+            public void handle(long sequenceNr, byte[] payload) {
+                assertArrayEquals("Payload for " + sequenceNr, payload(sequenceNr), payload);
+                sequenceNrs.add(sequenceNr);
+            }
+        });
+
+        List<Long> expected = new ArrayList<>();
+        for(long i = expFirst; i <= expLast; i++) {
+            expected.add(i);
+        }
+
+        assertEquals("Replayed sequence numbers", expected, sequenceNrs);
+    }
+}
@@ -22,6 +22,7 @@ import org.opendaylight.controller.cluster.datastore.utils.ActorContext;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadTransaction;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadWriteTransaction;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreWriteTransaction;
+import org.opendaylight.controller.sal.core.spi.data.SnapshotBackedTransactions;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +62,27 @@ abstract class AbstractTransactionContextFactory<F extends LocalTransactionFacto
         return null;
     }
 
+    private TransactionContext maybeCreateLocalReplicaTransactionContext(final TransactionProxy parent,
+            final String shardName, final PrimaryShardInfo primaryShardInfo) {
+        if(parent.getType() != TransactionType.READ_ONLY || !isFollowerReadAllowed()) {
+            return null;
+        }
+
+        final Optional<LocalReadReplica> replica = primaryShardInfo.getLocalReadReplica();
+        if(!replica.isPresent() ||
+                !replica.get().isReadable(actorContext.getDatastoreContext().getFollowerReadMaxLag())) {
+            return null;
+        }
+
+        if(LOG.isDebugEnabled()) {
+            LOG.debug("Tx {} - Creating read-only component for shard {} using local replica {}",
+                    parent.getIdentifier(), shardName, replica.get());
+        }
+
+        return createLocalReadOnlyTransactionContext(SnapshotBackedTransactions.newReadTransaction(
+                parent.getIdentifier(), false, replica.get().getDataTree().takeSnapshot()), parent);
+    }
+
     private void onFindPrimaryShardSuccess(PrimaryShardInfo primaryShardInfo, TransactionProxy parent,
             String shardName, TransactionContextWrapper transactionContextWrapper) {
         if(LOG.isDebugEnabled()) {
@@ -71,6 +93,10 @@ abstract class AbstractTransactionContextFactory<F extends LocalTransactionFacto
         updateShardInfo(shardName, primaryShardInfo);
 
         TransactionContext localContext = maybeCreateLocalTransactionContext(parent, shardName);
+        if(localContext == null) {
+            localContext = maybeCreateLocalReplicaTransactionContext(parent, shardName, primaryShardInfo);
+        }
+
         if(localContext != null) {
             transactionContextWrapper.executePriorTransactionOperations(localContext);
         } else {
@@ -175,23 +201,36 @@ abstract class AbstractTransactionContextFactory<F extends LocalTransactionFacto
      */
     protected abstract <T> void onTransactionReady(@Nonnull TransactionIdentifier transaction, @Nonnull Collection<Future<T>> cohortFutures);
 
+    /**
+     * Returns whether read-only transactions may be served from a local follower replica of a shard that is
+     * sufficiently up to date rather than from the remote shard leader.
+     */
+    protected boolean isFollowerReadAllowed() {
+        return false;
+    }
+
+    private static TransactionContext createLocalReadOnlyTransactionContext(final DOMStoreReadTransaction readOnly,
+                                                                            final TransactionProxy parent) {
+        return new LocalTransactionContext(readOnly, parent.getIdentifier()) {
+            @Override
+            protected DOMStoreWriteTransaction getWriteDelegate() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected DOMStoreReadTransaction getReadDelegate() {
+                return readOnly;
+            }
+        };
+    }
+
     private static TransactionContext createLocalTransactionContext(final LocalTransactionFactory factory,
                                                                     final TransactionProxy parent) {
 
         switch(parent.getType()) {
             case READ_ONLY:
-                final DOMStoreReadTransaction readOnly = factory.newReadOnlyTransaction(parent.getIdentifier());
-                return new LocalTransactionContext(readOnly, parent.getIdentifier()) {
-                    @Override
-                    protected DOMStoreWriteTransaction getWriteDelegate() {
-                        throw new UnsupportedOperationException();
-                    }
-
-                    @Override
-                    protected DOMStoreReadTransaction getReadDelegate() {
-                        return readOnly;
-                    }
-                };
+                return createLocalReadOnlyTransactionContext(factory.newReadOnlyTransaction(parent.getIdentifier()),
+                        parent);
             case READ_WRITE:
                 final DOMStoreReadWriteTransaction readWrite = factory.newReadWriteTransaction(parent.getIdentifier());
                 return new LocalTransactionContext(readWrite, parent.getIdentifier()) {
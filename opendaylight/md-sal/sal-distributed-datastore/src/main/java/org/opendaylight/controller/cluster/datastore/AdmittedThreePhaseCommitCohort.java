@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import org.opendaylight.controller.cluster.datastore.utils.ShardAdmissionController.Admission;
+import scala.concurrent.Future;
+
+/**
+ * An AbstractThreePhaseCommitCohort implementation that completes the shard admission of the transaction
+ * when the commit or abort completes.
+ */
+class AdmittedThreePhaseCommitCohort extends AbstractThreePhaseCommitCohort<Object> {
+    private final AbstractThreePhaseCommitCohort<?> delegate;
+    private final Admission admission;
+
+    AdmittedThreePhaseCommitCohort(AbstractThreePhaseCommitCohort<?> delegate, Admission admission) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.admission = Preconditions.checkNotNull(admission);
+    }
+
+    @Override
+    public ListenableFuture<Boolean> canCommit() {
+        return delegate.canCommit();
+    }
+
+    @Override
+    public ListenableFuture<Void> preCommit() {
+        return delegate.preCommit();
+    }
+
+    @Override
+    public ListenableFuture<Void> commit() {
+        ListenableFuture<Void> future = delegate.commit();
+        Futures.addCallback(future, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void notUsed) {
+                admission.complete(true);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                admission.complete(false);
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public ListenableFuture<Void> abort() {
+        // The admission is released right away - there's no point waiting for the abort to complete.
+        admission.complete(false);
+        return delegate.abort();
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    List<Future<Object>> getCohortFutures() {
+        return ((AbstractThreePhaseCommitCohort)delegate).getCohortFutures();
+    }
+}
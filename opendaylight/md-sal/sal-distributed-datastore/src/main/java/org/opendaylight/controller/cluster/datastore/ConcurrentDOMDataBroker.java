@@ -15,10 +15,13 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.opendaylight.controller.cluster.databroker.AbstractDOMBroker;
 import org.opendaylight.controller.cluster.datastore.exceptions.NoShardLeaderException;
 import org.opendaylight.controller.md.sal.common.api.data.DataStoreUnavailableException;
@@ -26,6 +29,7 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataWriteTransaction;
 import org.opendaylight.controller.md.sal.dom.broker.impl.TransactionCommitFailedExceptionMapper;
+import org.opendaylight.controller.md.sal.dom.broker.impl.jmx.DurationHistogram;
 import org.opendaylight.controller.sal.core.spi.data.DOMStore;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreThreePhaseCommitCohort;
 import org.opendaylight.yangtools.util.DurationStatisticsTracker;
@@ -36,7 +40,8 @@ import org.slf4j.LoggerFactory;
 /**
  * ConcurrentDOMDataBroker commits transactions concurrently. The 3
  * commit phases (canCommit, preCommit, and commit) are performed serially and non-blocking
- * (ie async) per transaction but multiple transaction commits can run concurrent.
+ * (ie async) per transaction but multiple transaction commits can run concurrent. Each phase
+ * is invoked on all of a transaction's cohorts at once, so the data stores process it in parallel.
  *
  * @author Thomas Pantelis
  */
@@ -47,6 +52,7 @@ public class ConcurrentDOMDataBroker extends AbstractDOMBroker {
     private static final String COMMIT = "COMMIT";
 
     private final DurationStatisticsTracker commitStatsTracker = DurationStatisticsTracker.createConcurrent();
+    private final Map<String, DurationHistogram> phaseHistograms;
 
     /**
      * This executor is used to execute Future listener callback Runnables async.
@@ -56,12 +62,25 @@ public class ConcurrentDOMDataBroker extends AbstractDOMBroker {
     public ConcurrentDOMDataBroker(final Map<LogicalDatastoreType, DOMStore> datastores, Executor listenableFutureExecutor) {
         super(datastores);
         this.clientFutureCallbackExecutor = Preconditions.checkNotNull(listenableFutureExecutor);
+
+        Map<String, DurationHistogram> histograms = new LinkedHashMap<>();
+        histograms.put(CAN_COMMIT, new DurationHistogram());
+        histograms.put(PRE_COMMIT, new DurationHistogram());
+        histograms.put(COMMIT, new DurationHistogram());
+        phaseHistograms = Collections.unmodifiableMap(histograms);
     }
 
     public DurationStatisticsTracker getCommitStatsTracker() {
         return commitStatsTracker;
     }
 
+    /**
+     * Returns the latency histograms of the individual commit phases, keyed by phase name in phase order.
+     */
+    public Map<String, DurationHistogram> getCommitPhaseHistograms() {
+        return phaseHistograms;
+    }
+
     @Override
     protected CheckedFuture<Void, TransactionCommitFailedException> submit(DOMDataWriteTransaction transaction,
             Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
@@ -77,111 +96,183 @@ public class ConcurrentDOMDataBroker extends AbstractDOMBroker {
         final AsyncNotifyingSettableFuture clientSubmitFuture =
                 new AsyncNotifyingSettableFuture(clientFutureCallbackExecutor);
 
-        doCanCommit(clientSubmitFuture, transaction, cohorts);
+        if(cohorts.size() == 1) {
+            new SingleCohortCommit(clientSubmitFuture, transaction, cohorts).start();
+        } else {
+            new PipelinedCommit(clientSubmitFuture, transaction, cohorts).start();
+        }
 
         return MappingCheckedFuture.create(clientSubmitFuture,
                 TransactionCommitFailedExceptionMapper.COMMIT_ERROR_MAPPER);
     }
 
-    private void doCanCommit(final AsyncNotifyingSettableFuture clientSubmitFuture,
-            final DOMDataWriteTransaction transaction,
-            final Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
+    /**
+     * Drives a transaction through the commit phases, completing the client future once all cohorts have
+     * committed or one of them has failed.
+     */
+    private abstract class CommitCoordinator implements FutureCallback<Object> {
+        final AsyncNotifyingSettableFuture clientSubmitFuture;
+        final DOMDataWriteTransaction transaction;
+        final Collection<DOMStoreThreePhaseCommitCohort> cohorts;
+        private long startTime;
+        private long phaseStartTime;
+        String phase;
+
+        CommitCoordinator(final AsyncNotifyingSettableFuture clientSubmitFuture,
+                final DOMDataWriteTransaction transaction, final Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
+            this.clientSubmitFuture = clientSubmitFuture;
+            this.transaction = transaction;
+            this.cohorts = cohorts;
+        }
 
-        final long startTime = System.nanoTime();
+        final void start() {
+            startTime = System.nanoTime();
+            startPhase(CAN_COMMIT);
+        }
 
-        final Iterator<DOMStoreThreePhaseCommitCohort> cohortIterator = cohorts.iterator();
+        private void startPhase(final String newPhase) {
+            phase = newPhase;
+            phaseStartTime = System.nanoTime();
+            invokePhase();
+        }
 
-        // Not using Futures.allAsList here to avoid its internal overhead.
-        FutureCallback<Boolean> futureCallback = new FutureCallback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean result) {
-                if (result == null || !result) {
-                    handleException(clientSubmitFuture, transaction, cohorts,
-                            CAN_COMMIT, TransactionCommitFailedExceptionMapper.CAN_COMMIT_ERROR_MAPPER,
-                            new TransactionCommitFailedException(
-                                            "Can Commit failed, no detailed cause available."));
-                } else {
-                    if(!cohortIterator.hasNext()) {
-                        // All cohorts completed successfully - we can move on to the preCommit phase
-                        doPreCommit(startTime, clientSubmitFuture, transaction, cohorts);
-                    } else {
-                        ListenableFuture<Boolean> canCommitFuture = cohortIterator.next().canCommit();
-                        Futures.addCallback(canCommitFuture, this, MoreExecutors.directExecutor());
-                    }
-                }
+        /**
+         * Invoke the current phase on the cohorts, with this instance as the callback.
+         */
+        abstract void invokePhase();
+
+        final ListenableFuture<?> invokePhase(final DOMStoreThreePhaseCommitCohort cohort) {
+            switch(phase) {
+                case CAN_COMMIT:
+                    return cohort.canCommit();
+                case PRE_COMMIT:
+                    return cohort.preCommit();
+                default:
+                    return cohort.commit();
             }
+        }
 
-            @Override
-            public void onFailure(Throwable t) {
-                handleException(clientSubmitFuture, transaction, cohorts, CAN_COMMIT,
-                        TransactionCommitFailedExceptionMapper.CAN_COMMIT_ERROR_MAPPER, t);
+        /**
+         * Check the result of a cohort's phase invocation, failing the commit if it is a negative canCommit.
+         *
+         * @return True if the result is acceptable.
+         */
+        final boolean checkResult(final Object result) {
+            if(CAN_COMMIT.equals(phase) && !Boolean.TRUE.equals(result)) {
+                onFailure(new TransactionCommitFailedException("Can Commit failed, no detailed cause available."));
+                return false;
             }
-        };
-
-        ListenableFuture<Boolean> canCommitFuture = cohortIterator.next().canCommit();
-        Futures.addCallback(canCommitFuture, futureCallback, MoreExecutors.directExecutor());
-    }
-
-    private void doPreCommit(final long startTime, final AsyncNotifyingSettableFuture clientSubmitFuture,
-            final DOMDataWriteTransaction transaction,
-            final Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
-
-        final Iterator<DOMStoreThreePhaseCommitCohort> cohortIterator = cohorts.iterator();
+            return true;
+        }
 
-        // Not using Futures.allAsList here to avoid its internal overhead.
-        FutureCallback<Void> futureCallback = new FutureCallback<Void>() {
-            @Override
-            public void onSuccess(Void notUsed) {
-                if(!cohortIterator.hasNext()) {
+        /**
+         * Called once all cohorts have completed the current phase successfully.
+         */
+        final void phaseSucceeded() {
+            final long now = System.nanoTime();
+            phaseHistograms.get(phase).addDuration(now - phaseStartTime);
+
+            switch(phase) {
+                case CAN_COMMIT:
+                    // All cohorts completed successfully - we can move on to the preCommit phase
+                    startPhase(PRE_COMMIT);
+                    break;
+                case PRE_COMMIT:
                     // All cohorts completed successfully - we can move on to the commit phase
-                    doCommit(startTime, clientSubmitFuture, transaction, cohorts);
-                } else {
-                    ListenableFuture<Void> preCommitFuture = cohortIterator.next().preCommit();
-                    Futures.addCallback(preCommitFuture, this, MoreExecutors.directExecutor());
-                }
+                    startPhase(COMMIT);
+                    break;
+                default:
+                    // All cohorts completed successfully - we're done.
+                    commitStatsTracker.addDuration(now - startTime);
+                    clientSubmitFuture.set();
+                    break;
             }
+        }
 
-            @Override
-            public void onFailure(Throwable t) {
-                handleException(clientSubmitFuture, transaction, cohorts, PRE_COMMIT,
-                        TransactionCommitFailedExceptionMapper.PRE_COMMIT_MAPPER, t);
+        @Override
+        public void onFailure(final Throwable t) {
+            final TransactionCommitFailedExceptionMapper exMapper;
+            switch(phase) {
+                case CAN_COMMIT:
+                    exMapper = TransactionCommitFailedExceptionMapper.CAN_COMMIT_ERROR_MAPPER;
+                    break;
+                case PRE_COMMIT:
+                    exMapper = TransactionCommitFailedExceptionMapper.PRE_COMMIT_MAPPER;
+                    break;
+                default:
+                    exMapper = TransactionCommitFailedExceptionMapper.COMMIT_ERROR_MAPPER;
+                    break;
             }
-        };
 
-        ListenableFuture<Void> preCommitFuture = cohortIterator.next().preCommit();
-        Futures.addCallback(preCommitFuture, futureCallback, MoreExecutors.directExecutor());
+            handleException(clientSubmitFuture, transaction, cohorts, phase, exMapper, t);
+        }
     }
 
-    private void doCommit(final long startTime, final AsyncNotifyingSettableFuture clientSubmitFuture,
-            final DOMDataWriteTransaction transaction,
-            final Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
+    /**
+     * Fast path for the common case of a transaction touching a single data store. The phases are chained
+     * directly off the cohort's futures without any coordination.
+     */
+    private final class SingleCohortCommit extends CommitCoordinator {
+        private final DOMStoreThreePhaseCommitCohort cohort;
 
-        final Iterator<DOMStoreThreePhaseCommitCohort> cohortIterator = cohorts.iterator();
+        SingleCohortCommit(final AsyncNotifyingSettableFuture clientSubmitFuture,
+                final DOMDataWriteTransaction transaction, final Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
+            super(clientSubmitFuture, transaction, cohorts);
+            this.cohort = cohorts.iterator().next();
+        }
 
-        // Not using Futures.allAsList here to avoid its internal overhead.
-        FutureCallback<Void> futureCallback = new FutureCallback<Void>() {
-            @Override
-            public void onSuccess(Void notUsed) {
-                if(!cohortIterator.hasNext()) {
-                    // All cohorts completed successfully - we're done.
-                    commitStatsTracker.addDuration(System.nanoTime() - startTime);
+        @Override
+        void invokePhase() {
+            Futures.addCallback(invokePhase(cohort), this, MoreExecutors.directExecutor());
+        }
 
-                    clientSubmitFuture.set();
-                } else {
-                    ListenableFuture<Void> commitFuture = cohortIterator.next().commit();
-                    Futures.addCallback(commitFuture, this, MoreExecutors.directExecutor());
-                }
+        @Override
+        public void onSuccess(final Object result) {
+            if(checkResult(result)) {
+                phaseSucceeded();
             }
+        }
+    }
 
-            @Override
-            public void onFailure(Throwable t) {
-                handleException(clientSubmitFuture, transaction, cohorts, COMMIT,
-                        TransactionCommitFailedExceptionMapper.COMMIT_ERROR_MAPPER, t);
+    /**
+     * Invokes each phase on all cohorts at once, so the data stores process it in parallel, and moves on to
+     * the next phase once the last one of them completes.
+     */
+    private final class PipelinedCommit extends CommitCoordinator {
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        PipelinedCommit(final AsyncNotifyingSettableFuture clientSubmitFuture,
+                final DOMDataWriteTransaction transaction, final Collection<DOMStoreThreePhaseCommitCohort> cohorts) {
+            super(clientSubmitFuture, transaction, cohorts);
+        }
+
+        @Override
+        void invokePhase() {
+            // Not using Futures.allAsList here to avoid its internal overhead.
+            remaining.set(cohorts.size());
+            for(DOMStoreThreePhaseCommitCohort cohort: cohorts) {
+                Futures.addCallback(invokePhase(cohort), this, MoreExecutors.directExecutor());
             }
-        };
+        }
+
+        @Override
+        public void onSuccess(final Object result) {
+            if(checkResult(result) && remaining.decrementAndGet() == 0) {
+                phaseSucceeded();
+            }
+        }
 
-        ListenableFuture<Void> commitFuture = cohortIterator.next().commit();
-        Futures.addCallback(commitFuture, futureCallback, MoreExecutors.directExecutor());
+        @Override
+        public void onFailure(final Throwable t) {
+            // Failed cohorts never count down, so the phase cannot complete - we only need to make sure
+            // the abort is triggered once.
+            if(failed.compareAndSet(false, true)) {
+                super.onFailure(t);
+            } else {
+                LOG.debug("Tx: {} Additional error during phase {}", transaction.getIdentifier(), phase, t);
+            }
+        }
     }
 
     private static void handleException(final AsyncNotifyingSettableFuture clientSubmitFuture,
@@ -54,6 +54,15 @@ public interface Configuration {
      */
     List<String> getMembersFromShardName(String shardName);
 
+    /**
+     * Given a shardName find the members on which it belongs as a non-voting replica. These are a subset of
+     * the members returned by {@link #getMembersFromShardName}.
+     *
+     * @param shardName
+     * @return
+     */
+    Set<String> getNonVotingMembersFromShardName(String shardName);
+
     /**
      *
      * @return
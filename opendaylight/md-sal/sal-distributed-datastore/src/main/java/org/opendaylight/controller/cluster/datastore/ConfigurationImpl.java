@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.opendaylight.controller.cluster.datastore.shardstrategy.DefaultShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.KeyHashShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.KeyRangeShardStrategy;
 import org.opendaylight.controller.cluster.datastore.shardstrategy.ModuleShardStrategy;
 import org.opendaylight.controller.cluster.datastore.shardstrategy.ShardStrategy;
 import org.slf4j.Logger;
@@ -193,6 +195,21 @@ public class ConfigurationImpl implements Configuration {
         return Collections.emptyList();
     }
 
+    @Override
+    public Set<String> getNonVotingMembersFromShardName(final String shardName) {
+        Preconditions.checkNotNull(shardName, "shardName should not be null");
+
+        for(ModuleShard ms : moduleShards){
+            for(Shard s : ms.getShards()) {
+                if(s.getName().equals(shardName)){
+                    return s.getNonVotingReplicas();
+                }
+            }
+        }
+
+        return Collections.emptySet();
+    }
+
     @Override
     public Set<String> getAllShardNames() {
         return allShardNames;
@@ -228,23 +245,59 @@ public class ConfigurationImpl implements Configuration {
 
             for(ConfigObject shard : shardsConfigObjectList){
                 String shardName = shard.get("name").unwrapped().toString();
-                List<String> replicas = shard.toConfig().getStringList("replicas");
-                shards.add(new Shard(shardName, replicas));
+                List<String> votingReplicas = shard.toConfig().getStringList("replicas");
+
+                // Non-voting replicas are also replicas of the shard - they just don't take part in elections or
+                // count towards the commit quorum.
+                Set<String> nonVotingReplicas = shard.containsKey("non-voting-replicas") ?
+                        ImmutableSet.copyOf(shard.toConfig().getStringList("non-voting-replicas")) :
+                            ImmutableSet.<String>of();
+                for(String memberName : nonVotingReplicas) {
+                    Preconditions.checkArgument(!votingReplicas.contains(memberName),
+                            "Member %s is both a voting and non-voting replica of shard %s", memberName, shardName);
+                }
+
+                List<String> replicas = ImmutableList.<String>builder().addAll(votingReplicas).
+                        addAll(nonVotingReplicas).build();
+                String keyRangeStart = shard.containsKey("key-range-start") ?
+                        shard.get("key-range-start").unwrapped().toString() : null;
+                shards.add(new Shard(shardName, replicas, nonVotingReplicas, keyRangeStart));
             }
 
-            b.add(new ModuleShard(moduleName, shards));
+            String listPath = moduleShardConfigObject.containsKey("list-path") ?
+                    moduleShardConfigObject.get("list-path").unwrapped().toString() : null;
+            String listShardStrategy = moduleShardConfigObject.containsKey("list-shard-strategy") ?
+                    moduleShardConfigObject.get("list-shard-strategy").unwrapped().toString() :
+                        KeyHashShardStrategy.NAME;
+
+            b.add(new ModuleShard(moduleName, shards, listPath, listShardStrategy));
         }
 
         return b.build();
     }
 
+    private ModuleShard findModuleShard(final String moduleName) {
+        for(ModuleShard ms : moduleShards) {
+            if(ms.getModuleName().equals(moduleName)) {
+                return ms;
+            }
+        }
+
+        return null;
+    }
+
     private static class ModuleShard {
         private final String moduleName;
         private final List<Shard> shards;
+        private final String listPath;
+        private final String listShardStrategy;
 
-        public ModuleShard(final String moduleName, final List<Shard> shards) {
+        public ModuleShard(final String moduleName, final List<Shard> shards, final String listPath,
+                final String listShardStrategy) {
             this.moduleName = moduleName;
             this.shards = shards;
+            this.listPath = listPath;
+            this.listShardStrategy = listShardStrategy;
         }
 
         public String getModuleName() {
@@ -254,15 +307,55 @@ public class ConfigurationImpl implements Configuration {
         public List<Shard> getShards() {
             return shards;
         }
+
+        public List<String> getShardNames() {
+            List<String> names = new ArrayList<>(shards.size());
+            for(Shard s : shards) {
+                names.add(s.getName());
+            }
+
+            return names;
+        }
+
+        /**
+         * Returns the path of the list whose entries are split across the module's shards or null if the
+         * module isn't split.
+         */
+        public String getListPath() {
+            return listPath;
+        }
+
+        public ShardStrategy createListShardStrategy() {
+            if(KeyRangeShardStrategy.NAME.equals(listShardStrategy)) {
+                List<String> rangeStarts = new ArrayList<>(shards.size());
+                for(Shard s : shards.subList(1, shards.size())) {
+                    Preconditions.checkArgument(s.getKeyRangeStart() != null,
+                            "key-range-start is missing for shard %s of module %s", s.getName(), moduleName);
+                    rangeStarts.add(s.getKeyRangeStart());
+                }
+
+                return new KeyRangeShardStrategy(listPath, getShardNames(), rangeStarts);
+            } else if(KeyHashShardStrategy.NAME.equals(listShardStrategy)) {
+                return new KeyHashShardStrategy(listPath, getShardNames());
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown list-shard-strategy %s for module %s",
+                    listShardStrategy, moduleName));
+        }
     }
 
     private static class Shard {
         private final String name;
         private final List<String> replicas;
+        private final Set<String> nonVotingReplicas;
+        private final String keyRangeStart;
 
-        Shard(final String name, final List<String> replicas) {
+        Shard(final String name, final List<String> replicas, final Set<String> nonVotingReplicas,
+                final String keyRangeStart) {
             this.name = name;
             this.replicas = replicas;
+            this.nonVotingReplicas = nonVotingReplicas;
+            this.keyRangeStart = keyRangeStart;
         }
 
         public String getName() {
@@ -272,6 +365,14 @@ public class ConfigurationImpl implements Configuration {
         public List<String> getReplicas() {
             return replicas;
         }
+
+        public Set<String> getNonVotingReplicas() {
+            return nonVotingReplicas;
+        }
+
+        public String getKeyRangeStart() {
+            return keyRangeStart;
+        }
     }
 
     private class Module {
@@ -283,7 +384,13 @@ public class ConfigurationImpl implements Configuration {
         Module(final String name, final String nameSpace, final String shardStrategy) {
             this.name = name;
             this.nameSpace = nameSpace;
-            if(ModuleShardStrategy.NAME.equals(shardStrategy)){
+
+            // A list-path in module-shards.conf splits the module's list across its shards regardless of
+            // the module's configured strategy.
+            ModuleShard moduleShard = findModuleShard(name);
+            if(moduleShard != null && moduleShard.getListPath() != null) {
+                this.shardStrategy = moduleShard.createListShardStrategy();
+            } else if(ModuleShardStrategy.NAME.equals(shardStrategy)){
                 this.shardStrategy = new ModuleShardStrategy(name, ConfigurationImpl.this);
             } else {
                 this.shardStrategy = DefaultShardStrategy.getInstance();
@@ -17,5 +17,6 @@ public interface DataStoreVersions {
     short HELIUM_1_VERSION = 1;
     short HELIUM_2_VERSION = 2;
     short LITHIUM_VERSION = 3;
-    short CURRENT_VERSION = LITHIUM_VERSION;
+    short BERYLLIUM_VERSION = 4;
+    short CURRENT_VERSION = BERYLLIUM_VERSION;
 }
@@ -9,11 +9,12 @@ package org.opendaylight.controller.cluster.datastore;
 
 import com.google.common.base.Preconditions;
 import com.google.common.io.ByteArrayDataInput;
-import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 import com.google.protobuf.GeneratedMessage.GeneratedExtension;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -22,8 +23,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
 import org.opendaylight.controller.cluster.datastore.node.utils.stream.NormalizedNodeInputStreamReader;
 import org.opendaylight.controller.cluster.datastore.node.utils.stream.NormalizedNodeOutputStreamWriter;
+import org.opendaylight.controller.cluster.datastore.utils.CompressionUtils;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.Payload;
 import org.opendaylight.controller.protobuff.messages.cluster.raft.AppendEntriesMessages.AppendEntries;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
@@ -35,6 +38,13 @@ import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Payload wrapping a serialized DataTreeCandidate. Two encodings are supported - the Lithium encoding, which
+ * codes repeated strings, and an encoding which additionally codes repeated QNames and augmentation identifiers
+ * via a per-payload dictionary. The latter is only used when all followers run at least
+ * {@link DataStoreVersions#BERYLLIUM_VERSION} so mixed-version clusters keep working. With the latter encoding,
+ * large payloads may additionally be compressed, which is recorded in the format byte.
+ */
 final class DataTreeCandidatePayload extends Payload implements Externalizable {
     private static final Logger LOG = LoggerFactory.getLogger(DataTreeCandidatePayload.class);
     private static final long serialVersionUID = 1L;
@@ -43,13 +53,29 @@ final class DataTreeCandidatePayload extends Payload implements Externalizable {
     private static final byte UNMODIFIED = 2;
     private static final byte WRITE = 3;
 
+    private static final byte LITHIUM_FORMAT = (byte) serialVersionUID;
+    private static final byte QNAME_DICTIONARY_FORMAT = 2;
+    private static final byte COMPRESSED_FLAG = 0x10;
+
+    // Candidates are serialized into a per-thread buffer which is reused unless it grew too large, so we
+    // don't pay for growing a fresh buffer for every transaction.
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ByteArrayOutputStream> BUFFER = new ThreadLocal<ByteArrayOutputStream>() {
+        @Override
+        protected ByteArrayOutputStream initialValue() {
+            return new ByteArrayOutputStream(4096);
+        }
+    };
+
+    private transient byte format;
     private transient byte[] serialized;
 
     public DataTreeCandidatePayload() {
         // Required by Externalizable
     }
 
-    private DataTreeCandidatePayload(final byte[] serialized) {
+    private DataTreeCandidatePayload(final byte format, final byte[] serialized) {
+        this.format = format;
         this.serialized = Preconditions.checkNotNull(serialized);
     }
 
@@ -86,8 +112,39 @@ final class DataTreeCandidatePayload extends Payload implements Externalizable {
     }
 
     static DataTreeCandidatePayload create(DataTreeCandidate candidate) {
-        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
-        try (final NormalizedNodeOutputStreamWriter writer = new NormalizedNodeOutputStreamWriter(out)) {
+        return create(candidate, DataStoreVersions.CURRENT_VERSION);
+    }
+
+    /**
+     * Creates a payload for the given candidate using the most compact encoding supported by the given data
+     * store version.
+     *
+     * @param candidate the DataTreeCandidate to serialize
+     * @param version the lowest data store version of the members that will read the payload
+     */
+    static DataTreeCandidatePayload create(DataTreeCandidate candidate, short version) {
+        return create(candidate, version, 0, null);
+    }
+
+    /**
+     * Creates a payload for the given candidate using the most compact encoding supported by the given data
+     * store version, compressing it if it's at least compressionThreshold bytes and compression reduces its
+     * size.
+     *
+     * @param candidate the DataTreeCandidate to serialize
+     * @param version the lowest data store version of the members that will read the payload
+     * @param compressionThreshold the minimum serialized size to compress, 0 to never compress
+     * @param stats the ShardStats to record compression to, may be null
+     */
+    static DataTreeCandidatePayload create(DataTreeCandidate candidate, short version, int compressionThreshold,
+            ShardStats stats) {
+        final byte format = version >= DataStoreVersions.BERYLLIUM_VERSION ? QNAME_DICTIONARY_FORMAT : LITHIUM_FORMAT;
+        final ByteArrayOutputStream buffer = BUFFER.get();
+        final DataOutputStream out = new DataOutputStream(buffer);
+        final NormalizedNodeOutputStreamWriter writer = format == QNAME_DICTIONARY_FORMAT ?
+                new NormalizedNodeOutputStreamWriter(out, NormalizedNodeOutputStreamWriter.QNAME_DICTIONARY_VERSION) :
+                new NormalizedNodeOutputStreamWriter((DataOutput) out);
+        try {
             writer.writeYangInstanceIdentifier(candidate.getRootPath());
 
             final DataTreeCandidateNode node = candidate.getRootNode();
@@ -111,11 +168,26 @@ final class DataTreeCandidatePayload extends Payload implements Externalizable {
             }
 
             writer.close();
+
+            final byte[] serialized = buffer.toByteArray();
+            if (format == QNAME_DICTIONARY_FORMAT && compressionThreshold > 0 &&
+                    serialized.length >= compressionThreshold) {
+                final byte[] compressed = CompressionUtils.compress(serialized, stats);
+                if (compressed.length < serialized.length) {
+                    return new DataTreeCandidatePayload((byte) (format | COMPRESSED_FLAG), compressed);
+                }
+            }
+
+            return new DataTreeCandidatePayload(format, serialized);
         } catch (IOException e) {
             throw new IllegalArgumentException(String.format("Failed to serialize candidate %s", candidate), e);
+        } finally {
+            if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+                BUFFER.remove();
+            } else {
+                buffer.reset();
+            }
         }
-
-        return new DataTreeCandidatePayload(out.toByteArray());
     }
 
     private static Collection<DataTreeCandidateNode> readChildren(final NormalizedNodeInputStreamReader reader,
@@ -183,7 +255,12 @@ final class DataTreeCandidatePayload extends Payload implements Externalizable {
     }
 
     DataTreeCandidate getCandidate() throws IOException {
-        return parseCandidate(ByteStreams.newDataInput(serialized));
+        return parseCandidate(ByteStreams.newDataInput(isCompressed() ?
+                CompressionUtils.decompress(serialized, null) : serialized));
+    }
+
+    boolean isCompressed() {
+        return (format & COMPRESSED_FLAG) != 0;
     }
 
     @Override
@@ -206,15 +283,17 @@ final class DataTreeCandidatePayload extends Payload implements Externalizable {
 
     @Override
     public void writeExternal(ObjectOutput out) throws IOException {
-        out.writeByte((byte)serialVersionUID);
+        out.writeByte(format);
         out.writeInt(serialized.length);
         out.write(serialized);
     }
 
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
-        final long version = in.readByte();
-        Preconditions.checkArgument(version == serialVersionUID, "Unsupported serialization version %s", version);
+        format = in.readByte();
+        final byte baseFormat = (byte) (format & ~COMPRESSED_FLAG);
+        Preconditions.checkArgument(baseFormat == LITHIUM_FORMAT || baseFormat == QNAME_DICTIONARY_FORMAT,
+                "Unsupported serialization version %s", format);
 
         final int length = in.readInt();
         serialized = new byte[length];
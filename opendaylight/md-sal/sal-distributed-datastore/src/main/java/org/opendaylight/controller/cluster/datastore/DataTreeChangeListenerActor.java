@@ -7,39 +7,92 @@
  */
 package org.opendaylight.controller.cluster.datastore;
 
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
 import akka.japi.Creator;
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.controller.cluster.common.actor.AbstractUntypedActor;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.DataTreeChangeListenerStats;
 import org.opendaylight.controller.cluster.datastore.messages.DataTreeChanged;
 import org.opendaylight.controller.cluster.datastore.messages.DataTreeChangedReply;
 import org.opendaylight.controller.cluster.datastore.messages.EnableNotification;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.FiniteDuration;
 
 /**
  * Proxy actor which acts as a facade to the user-provided listener. Responsible for decapsulating
  * DataTreeChanged messages and dispatching their context to the user.
+ * <p>
+ * Optionally the changes can be delivered in batches. The changes from consecutive DataTreeChanged messages
+ * are then accumulated and delivered in a single onDataTreeChanged call once the batch reaches the maximum
+ * size or the oldest change has waited the maximum latency. As each message is acknowledged as soon as it's
+ * queued and queueing is cheap, a slow listener drains its mailbox quickly and gets the changes that arrived
+ * while it was busy in one call rather than one call per commit. The number of queued changes and the
+ * delivered batches are exposed via a DataTreeChangeListenerStats MXBean.
  */
 final class DataTreeChangeListenerActor extends AbstractUntypedActor {
     private static final Logger LOG = LoggerFactory.getLogger(DataTreeChangeListenerActor.class);
     private final DOMDataTreeChangeListener listener;
+    private final int maxBatchSize;
+    private final FiniteDuration maxBatchLatency;
+    private final String mxBeanType;
+    private final List<DataTreeCandidate> pendingChanges = new ArrayList<>();
+    private Cancellable flushSchedule;
+    private DataTreeChangeListenerStats stats;
     private boolean notificationsEnabled = false;
 
-    private DataTreeChangeListenerActor(final DOMDataTreeChangeListener listener) {
+    private DataTreeChangeListenerActor(final DOMDataTreeChangeListener listener, final int maxBatchSize,
+            final FiniteDuration maxBatchLatency, final String mxBeanType) {
         this.listener = Preconditions.checkNotNull(listener);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchLatency = maxBatchLatency;
+        this.mxBeanType = mxBeanType;
+    }
+
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+
+        if (isBatching()) {
+            stats = new DataTreeChangeListenerStats(getSelf().path().name(), mxBeanType, listener.toString());
+            stats.registerMBean();
+        }
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        super.postStop();
+
+        cancelFlushSchedule();
+        if (stats != null) {
+            stats.unregisterMBean();
+        }
     }
 
     @Override
     protected void handleReceive(final Object message) {
         if (message instanceof DataTreeChanged) {
             dataChanged((DataTreeChanged)message);
+        } else if (message instanceof FlushChanges) {
+            flushSchedule = null;
+            flushChanges();
         } else if (message instanceof EnableNotification) {
             enableNotification((EnableNotification) message);
         }
     }
 
+    private boolean isBatching() {
+        return maxBatchSize > 1;
+    }
+
     private void dataChanged(final DataTreeChanged message) {
         // Do nothing if notifications are not enabled
         if (!notificationsEnabled) {
@@ -47,12 +100,10 @@ final class DataTreeChangeListenerActor extends AbstractUntypedActor {
             return;
         }
 
-        LOG.debug("Sending change notification {} to listener {}", message.getChanges(), listener);
-
-        try {
-            this.listener.onDataTreeChanged(message.getChanges());
-        } catch (Exception e) {
-            LOG.error("Error notifying listener {}", this.listener, e);
+        if (isBatching()) {
+            queueChanges(message.getChanges());
+        } else {
+            notifyListener(message.getChanges());
         }
 
         // TODO: do we really need this?
@@ -63,27 +114,99 @@ final class DataTreeChangeListenerActor extends AbstractUntypedActor {
         }
     }
 
+    private void queueChanges(final Collection<DataTreeCandidate> changes) {
+        pendingChanges.addAll(changes);
+        stats.setPendingChangeCount(pendingChanges.size());
+
+        if (pendingChanges.size() >= maxBatchSize) {
+            flushChanges();
+        } else if (flushSchedule == null) {
+            flushSchedule = getContext().system().scheduler().scheduleOnce(maxBatchLatency, getSelf(),
+                    FlushChanges.INSTANCE, getContext().dispatcher(), ActorRef.noSender());
+        }
+    }
+
+    private void flushChanges() {
+        cancelFlushSchedule();
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+
+        List<DataTreeCandidate> batch = new ArrayList<>(pendingChanges);
+        pendingChanges.clear();
+
+        notifyListener(batch);
+        stats.onBatchDelivered(batch.size());
+    }
+
+    private void cancelFlushSchedule() {
+        if (flushSchedule != null) {
+            flushSchedule.cancel();
+            flushSchedule = null;
+        }
+    }
+
+    private void notifyListener(final Collection<DataTreeCandidate> changes) {
+        LOG.debug("Sending change notification {} to listener {}", changes, listener);
+
+        try {
+            this.listener.onDataTreeChanged(changes);
+        } catch (Exception e) {
+            LOG.error("Error notifying listener {}", this.listener, e);
+        }
+    }
+
     private void enableNotification(final EnableNotification message) {
+        if (!message.isEnabled()) {
+            // The queued changes were received while notifications were enabled so deliver them now.
+            flushChanges();
+        }
+
         notificationsEnabled = message.isEnabled();
         LOG.debug("{} notifications for listener {}", (notificationsEnabled ? "Enabled" : "Disabled"),
                 listener);
     }
 
     public static Props props(final DOMDataTreeChangeListener listener) {
-        return Props.create(new DataTreeChangeListenerCreator(listener));
+        return props(listener, 1, 0, DatastoreContext.UNKNOWN_DATA_STORE_TYPE);
+    }
+
+    /**
+     * Returns the Props for an actor that delivers the changes to the listener in batches of up to
+     * maxBatchSize changes. A maxBatchSize of 1 disables batching.
+     */
+    public static Props props(final DOMDataTreeChangeListener listener, final int maxBatchSize,
+            final long maxBatchLatencyInMillis, final String mxBeanType) {
+        return Props.create(new DataTreeChangeListenerCreator(listener, maxBatchSize, maxBatchLatencyInMillis,
+                mxBeanType));
+    }
+
+    private static final class FlushChanges {
+        static final FlushChanges INSTANCE = new FlushChanges();
+
+        private FlushChanges() {
+        }
     }
 
     private static final class DataTreeChangeListenerCreator implements Creator<DataTreeChangeListenerActor> {
         private static final long serialVersionUID = 1L;
         private final DOMDataTreeChangeListener listener;
+        private final int maxBatchSize;
+        private final long maxBatchLatencyInMillis;
+        private final String mxBeanType;
 
-        DataTreeChangeListenerCreator(final DOMDataTreeChangeListener listener) {
+        DataTreeChangeListenerCreator(final DOMDataTreeChangeListener listener, final int maxBatchSize,
+                final long maxBatchLatencyInMillis, final String mxBeanType) {
             this.listener = Preconditions.checkNotNull(listener);
+            this.maxBatchSize = maxBatchSize;
+            this.maxBatchLatencyInMillis = maxBatchLatencyInMillis;
+            this.mxBeanType = mxBeanType;
         }
 
         @Override
         public DataTreeChangeListenerActor create() {
-            return new DataTreeChangeListenerActor(listener);
+            return new DataTreeChangeListenerActor(listener, maxBatchSize,
+                    new FiniteDuration(maxBatchLatencyInMillis, TimeUnit.MILLISECONDS), mxBeanType);
         }
     }
 }
@@ -43,8 +43,12 @@ final class DataTreeChangeListenerProxy<T extends DOMDataTreeChangeListener> ext
     public DataTreeChangeListenerProxy(final ActorContext actorContext, final T listener) {
         super(listener);
         this.actorContext = Preconditions.checkNotNull(actorContext);
+        final DatastoreContext datastoreContext = actorContext.getDatastoreContext();
         this.dataChangeListenerActor = actorContext.getActorSystem().actorOf(
-            DataTreeChangeListenerActor.props(getInstance()).withDispatcher(actorContext.getNotificationDispatcherPath()));
+            DataTreeChangeListenerActor.props(getInstance(), datastoreContext.getDataTreeChangeListenerMaxBatchSize(),
+                    datastoreContext.getDataTreeChangeListenerMaxBatchLatencyInMillis(),
+                    datastoreContext.getDataStoreMXBeanType()).withDispatcher(
+                            actorContext.getNotificationDispatcherPath()));
     }
 
     @Override
@@ -46,7 +46,22 @@ public class DatastoreContext {
     public static final int DEFAULT_TX_CREATION_INITIAL_RATE_LIMIT = 100;
     public static final String UNKNOWN_DATA_STORE_TYPE = "unknown";
     public static final int DEFAULT_SHARD_BATCHED_MODIFICATION_COUNT = 1000;
+    public static final int DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_BYTES = 512 * 1024;
+    public static final int DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_LINGER_IN_MILLIS = 10;
+    public static final long DEFAULT_SHARD_ADMISSION_TARGET_LATENCY_IN_MILLIS = 100;
+    public static final long DEFAULT_FOLLOWER_READ_MAX_LAG = 10;
+    public static final int DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_SIZE = 1;
+    public static final long DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_LATENCY_IN_MILLIS = 10;
+    public static final int DEFAULT_SHARD_PAYLOAD_COMPRESSION_THRESHOLD_IN_BYTES = 64 * 1024;
+    public static final int DEFAULT_SHARD_FULL_SNAPSHOT_INTERVAL = 10;
+    public static final String DEFAULT_SHARD_SNAPSHOT_BASE_DIRECTORY = "snapshots-base";
+    public static final int DEFAULT_SHARD_LEADER_BALANCING_INTERVAL_IN_SECONDS = 60;
+    public static final int DEFAULT_SHARD_REPLICATION_HEARTBEAT_LINGER_IN_MILLIS = 100;
     public static final long DEFAULT_SHARD_COMMIT_QUEUE_EXPIRY_TIMEOUT_IN_MS = TimeUnit.MILLISECONDS.convert(2, TimeUnit.MINUTES);
+    public static final int DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_SIZE = 1;
+    public static final int DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_LINGER_IN_MILLIS = 5;
+    public static final int DEFAULT_SHARD_MAX_IN_FLIGHT_APPEND_ENTRIES = 1;
+    public static final int DEFAULT_SHARD_MAX_PIPELINED_COMMITS = 1;
 
     private static Set<String> globalDatastoreTypes = Sets.newConcurrentHashSet();
 
@@ -56,6 +71,7 @@ public class DatastoreContext {
     private String dataStoreMXBeanType;
     private int shardTransactionCommitTimeoutInSeconds = DEFAULT_SHARD_TX_COMMIT_TIMEOUT_IN_SECONDS;
     private int shardTransactionCommitQueueCapacity = DEFAULT_SHARD_TX_COMMIT_QUEUE_CAPACITY;
+    private int shardMaxPipelinedCommits = DEFAULT_SHARD_MAX_PIPELINED_COMMITS;
     private Timeout shardInitializationTimeout = DEFAULT_SHARD_INITIALIZATION_TIMEOUT;
     private Timeout shardLeaderElectionTimeout = DEFAULT_SHARD_LEADER_ELECTION_TIMEOUT;
     private boolean persistent = DEFAULT_PERSISTENT;
@@ -64,9 +80,28 @@ public class DatastoreContext {
     private final DefaultConfigParamsImpl raftConfig = new DefaultConfigParamsImpl();
     private String dataStoreType = UNKNOWN_DATA_STORE_TYPE;
     private int shardBatchedModificationCount = DEFAULT_SHARD_BATCHED_MODIFICATION_COUNT;
+    private boolean adaptiveTransactionBatchingEnabled = false;
+    private int shardBatchedModificationMaxBytes = DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_BYTES;
+    private int shardBatchedModificationMaxLingerInMillis = DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_LINGER_IN_MILLIS;
     private boolean writeOnlyTransactionOptimizationsEnabled = true;
     private long shardCommitQueueExpiryTimeoutInMillis = DEFAULT_SHARD_COMMIT_QUEUE_EXPIRY_TIMEOUT_IN_MS;
     private boolean transactionDebugContextEnabled = false;
+    private boolean shardAdmissionControlEnabled = false;
+    private long shardAdmissionTargetLatencyInMillis = DEFAULT_SHARD_ADMISSION_TARGET_LATENCY_IN_MILLIS;
+    private boolean followerReadsEnabled = false;
+    private long followerReadMaxLag = DEFAULT_FOLLOWER_READ_MAX_LAG;
+    private int dataTreeChangeListenerMaxBatchSize = DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_SIZE;
+    private long dataTreeChangeListenerMaxBatchLatencyInMillis = DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_LATENCY_IN_MILLIS;
+    private boolean shardSnapshotCompressionEnabled = false;
+    private boolean shardPayloadCompressionEnabled = false;
+    private int shardPayloadCompressionThresholdInBytes = DEFAULT_SHARD_PAYLOAD_COMPRESSION_THRESHOLD_IN_BYTES;
+    private boolean shardDeltaSnapshotsEnabled = false;
+    private int shardFullSnapshotInterval = DEFAULT_SHARD_FULL_SNAPSHOT_INTERVAL;
+    private String shardSnapshotBaseDirectory = DEFAULT_SHARD_SNAPSHOT_BASE_DIRECTORY;
+    private boolean shardLeaderBalancingEnabled = false;
+    private int shardLeaderBalancingIntervalInSeconds = DEFAULT_SHARD_LEADER_BALANCING_INTERVAL_IN_SECONDS;
+    private boolean shardReplicationMultiplexingEnabled = false;
+    private int shardReplicationHeartbeatLingerInMillis = DEFAULT_SHARD_REPLICATION_HEARTBEAT_LINGER_IN_MILLIS;
 
     public static Set<String> getGlobalDatastoreTypes() {
         return globalDatastoreTypes;
@@ -79,6 +114,9 @@ public class DatastoreContext {
         setIsolatedLeaderCheckInterval(DEFAULT_ISOLATED_LEADER_CHECK_INTERVAL_IN_MILLIS);
         setSnapshotDataThresholdPercentage(DEFAULT_SHARD_SNAPSHOT_DATA_THRESHOLD_PERCENTAGE);
         setElectionTimeoutFactor(DEFAULT_SHARD_ELECTION_TIMEOUT_FACTOR);
+        setJournalPersistMaxBatchSize(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_SIZE);
+        setJournalPersistMaxBatchLinger(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_LINGER_IN_MILLIS);
+        setMaxInFlightAppendEntries(DEFAULT_SHARD_MAX_IN_FLIGHT_APPEND_ENTRIES);
     }
 
     private DatastoreContext(DatastoreContext other) {
@@ -88,6 +126,7 @@ public class DatastoreContext {
         this.dataStoreMXBeanType = other.dataStoreMXBeanType;
         this.shardTransactionCommitTimeoutInSeconds = other.shardTransactionCommitTimeoutInSeconds;
         this.shardTransactionCommitQueueCapacity = other.shardTransactionCommitQueueCapacity;
+        this.shardMaxPipelinedCommits = other.shardMaxPipelinedCommits;
         this.shardInitializationTimeout = other.shardInitializationTimeout;
         this.shardLeaderElectionTimeout = other.shardLeaderElectionTimeout;
         this.persistent = other.persistent;
@@ -95,9 +134,28 @@ public class DatastoreContext {
         this.transactionCreationInitialRateLimit = other.transactionCreationInitialRateLimit;
         this.dataStoreType = other.dataStoreType;
         this.shardBatchedModificationCount = other.shardBatchedModificationCount;
+        this.adaptiveTransactionBatchingEnabled = other.adaptiveTransactionBatchingEnabled;
+        this.shardBatchedModificationMaxBytes = other.shardBatchedModificationMaxBytes;
+        this.shardBatchedModificationMaxLingerInMillis = other.shardBatchedModificationMaxLingerInMillis;
         this.writeOnlyTransactionOptimizationsEnabled = other.writeOnlyTransactionOptimizationsEnabled;
         this.shardCommitQueueExpiryTimeoutInMillis = other.shardCommitQueueExpiryTimeoutInMillis;
         this.transactionDebugContextEnabled = other.transactionDebugContextEnabled;
+        this.shardAdmissionControlEnabled = other.shardAdmissionControlEnabled;
+        this.shardAdmissionTargetLatencyInMillis = other.shardAdmissionTargetLatencyInMillis;
+        this.followerReadsEnabled = other.followerReadsEnabled;
+        this.followerReadMaxLag = other.followerReadMaxLag;
+        this.dataTreeChangeListenerMaxBatchSize = other.dataTreeChangeListenerMaxBatchSize;
+        this.dataTreeChangeListenerMaxBatchLatencyInMillis = other.dataTreeChangeListenerMaxBatchLatencyInMillis;
+        this.shardSnapshotCompressionEnabled = other.shardSnapshotCompressionEnabled;
+        this.shardPayloadCompressionEnabled = other.shardPayloadCompressionEnabled;
+        this.shardPayloadCompressionThresholdInBytes = other.shardPayloadCompressionThresholdInBytes;
+        this.shardDeltaSnapshotsEnabled = other.shardDeltaSnapshotsEnabled;
+        this.shardFullSnapshotInterval = other.shardFullSnapshotInterval;
+        this.shardSnapshotBaseDirectory = other.shardSnapshotBaseDirectory;
+        this.shardLeaderBalancingEnabled = other.shardLeaderBalancingEnabled;
+        this.shardLeaderBalancingIntervalInSeconds = other.shardLeaderBalancingIntervalInSeconds;
+        this.shardReplicationMultiplexingEnabled = other.shardReplicationMultiplexingEnabled;
+        this.shardReplicationHeartbeatLingerInMillis = other.shardReplicationHeartbeatLingerInMillis;
 
         setShardJournalRecoveryLogBatchSize(other.raftConfig.getJournalRecoveryLogBatchSize());
         setSnapshotBatchCount(other.raftConfig.getSnapshotBatchCount());
@@ -105,6 +163,9 @@ public class DatastoreContext {
         setIsolatedLeaderCheckInterval(other.raftConfig.getIsolatedCheckIntervalInMillis());
         setSnapshotDataThresholdPercentage(other.raftConfig.getSnapshotDataThresholdPercentage());
         setElectionTimeoutFactor(other.raftConfig.getElectionTimeoutFactor());
+        setJournalPersistMaxBatchSize(other.raftConfig.getJournalPersistMaxBatchSize());
+        setJournalPersistMaxBatchLinger(other.raftConfig.getJournalPersistMaxBatchLinger().toMillis());
+        setMaxInFlightAppendEntries(other.raftConfig.getMaxInFlightAppendEntries());
     }
 
     public static Builder newBuilder() {
@@ -143,6 +204,10 @@ public class DatastoreContext {
         return shardTransactionCommitQueueCapacity;
     }
 
+    public int getShardMaxPipelinedCommits() {
+        return shardMaxPipelinedCommits;
+    }
+
     public Timeout getShardInitializationTimeout() {
         return shardInitializationTimeout;
     }
@@ -198,10 +263,35 @@ public class DatastoreContext {
         raftConfig.setSnapshotBatchCount(shardSnapshotBatchCount);
     }
 
+    private void setJournalPersistMaxBatchSize(int shardJournalPersistMaxBatchSize) {
+        raftConfig.setJournalPersistMaxBatchSize(shardJournalPersistMaxBatchSize);
+    }
+
+    private void setJournalPersistMaxBatchLinger(long shardJournalPersistMaxBatchLingerInMillis) {
+        raftConfig.setJournalPersistMaxBatchLinger(new FiniteDuration(shardJournalPersistMaxBatchLingerInMillis,
+                TimeUnit.MILLISECONDS));
+    }
+
+    private void setMaxInFlightAppendEntries(int shardMaxInFlightAppendEntries) {
+        raftConfig.setMaxInFlightAppendEntries(shardMaxInFlightAppendEntries);
+    }
+
     public int getShardBatchedModificationCount() {
         return shardBatchedModificationCount;
     }
 
+    public boolean isAdaptiveTransactionBatchingEnabled() {
+        return adaptiveTransactionBatchingEnabled;
+    }
+
+    public int getShardBatchedModificationMaxBytes() {
+        return shardBatchedModificationMaxBytes;
+    }
+
+    public int getShardBatchedModificationMaxLingerInMillis() {
+        return shardBatchedModificationMaxLingerInMillis;
+    }
+
     public boolean isWriteOnlyTransactionOptimizationsEnabled() {
         return writeOnlyTransactionOptimizationsEnabled;
     }
@@ -214,6 +304,70 @@ public class DatastoreContext {
         return transactionDebugContextEnabled;
     }
 
+    public boolean isShardAdmissionControlEnabled() {
+        return shardAdmissionControlEnabled;
+    }
+
+    public long getShardAdmissionTargetLatencyInMillis() {
+        return shardAdmissionTargetLatencyInMillis;
+    }
+
+    public boolean isFollowerReadsEnabled() {
+        return followerReadsEnabled;
+    }
+
+    public long getFollowerReadMaxLag() {
+        return followerReadMaxLag;
+    }
+
+    public int getDataTreeChangeListenerMaxBatchSize() {
+        return dataTreeChangeListenerMaxBatchSize;
+    }
+
+    public long getDataTreeChangeListenerMaxBatchLatencyInMillis() {
+        return dataTreeChangeListenerMaxBatchLatencyInMillis;
+    }
+
+    public boolean isShardSnapshotCompressionEnabled() {
+        return shardSnapshotCompressionEnabled;
+    }
+
+    public boolean isShardPayloadCompressionEnabled() {
+        return shardPayloadCompressionEnabled;
+    }
+
+    public int getShardPayloadCompressionThresholdInBytes() {
+        return shardPayloadCompressionThresholdInBytes;
+    }
+
+    public boolean isShardDeltaSnapshotsEnabled() {
+        return shardDeltaSnapshotsEnabled;
+    }
+
+    public int getShardFullSnapshotInterval() {
+        return shardFullSnapshotInterval;
+    }
+
+    public String getShardSnapshotBaseDirectory() {
+        return shardSnapshotBaseDirectory;
+    }
+
+    public boolean isShardLeaderBalancingEnabled() {
+        return shardLeaderBalancingEnabled;
+    }
+
+    public int getShardLeaderBalancingIntervalInSeconds() {
+        return shardLeaderBalancingIntervalInSeconds;
+    }
+
+    public boolean isShardReplicationMultiplexingEnabled() {
+        return shardReplicationMultiplexingEnabled;
+    }
+
+    public int getShardReplicationHeartbeatLingerInMillis() {
+        return shardReplicationHeartbeatLingerInMillis;
+    }
+
     public static class Builder {
         private final DatastoreContext datastoreContext;
         private int maxShardDataChangeExecutorPoolSize =
@@ -224,6 +378,8 @@ public class DatastoreContext {
                 InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE;
         private int maxShardDataStoreExecutorQueueSize =
                 InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_STORE_EXECUTOR_QUEUE_SIZE;
+        private boolean shardAsyncDataChangeResolution =
+                InMemoryDOMDataStoreConfigProperties.DEFAULT_ASYNC_DATA_CHANGE_RESOLUTION;
 
         private Builder(DatastoreContext datastoreContext) {
             this.datastoreContext = datastoreContext;
@@ -237,6 +393,8 @@ public class DatastoreContext {
                         datastoreContext.getDataStoreProperties().getMaxDataChangeListenerQueueSize();
                 maxShardDataStoreExecutorQueueSize =
                         datastoreContext.getDataStoreProperties().getMaxDataStoreExecutorQueueSize();
+                shardAsyncDataChangeResolution =
+                        datastoreContext.getDataStoreProperties().isAsyncDataChangeResolution();
             }
         }
 
@@ -295,11 +453,31 @@ public class DatastoreContext {
             return this;
         }
 
+        public Builder shardJournalPersistMaxBatchSize(int shardJournalPersistMaxBatchSize) {
+            datastoreContext.setJournalPersistMaxBatchSize(shardJournalPersistMaxBatchSize);
+            return this;
+        }
+
+        public Builder shardJournalPersistMaxBatchLingerInMillis(long shardJournalPersistMaxBatchLingerInMillis) {
+            datastoreContext.setJournalPersistMaxBatchLinger(shardJournalPersistMaxBatchLingerInMillis);
+            return this;
+        }
+
+        public Builder shardMaxInFlightAppendEntries(int shardMaxInFlightAppendEntries) {
+            datastoreContext.setMaxInFlightAppendEntries(shardMaxInFlightAppendEntries);
+            return this;
+        }
+
         public Builder shardTransactionCommitQueueCapacity(int shardTransactionCommitQueueCapacity) {
             datastoreContext.shardTransactionCommitQueueCapacity = shardTransactionCommitQueueCapacity;
             return this;
         }
 
+        public Builder shardMaxPipelinedCommits(int shardMaxPipelinedCommits) {
+            datastoreContext.shardMaxPipelinedCommits = shardMaxPipelinedCommits;
+            return this;
+        }
+
         public Builder shardInitializationTimeout(long timeout, TimeUnit unit) {
             datastoreContext.shardInitializationTimeout = new Timeout(timeout, unit);
             return this;
@@ -354,6 +532,21 @@ public class DatastoreContext {
             return this;
         }
 
+        public Builder adaptiveTransactionBatchingEnabled(boolean value) {
+            datastoreContext.adaptiveTransactionBatchingEnabled = value;
+            return this;
+        }
+
+        public Builder shardBatchedModificationMaxBytes(int shardBatchedModificationMaxBytes) {
+            datastoreContext.shardBatchedModificationMaxBytes = shardBatchedModificationMaxBytes;
+            return this;
+        }
+
+        public Builder shardBatchedModificationMaxLingerInMillis(int shardBatchedModificationMaxLingerInMillis) {
+            datastoreContext.shardBatchedModificationMaxLingerInMillis = shardBatchedModificationMaxLingerInMillis;
+            return this;
+        }
+
         public Builder writeOnlyTransactionOptimizationsEnabled(boolean value) {
             datastoreContext.writeOnlyTransactionOptimizationsEnabled = value;
             return this;
@@ -375,6 +568,86 @@ public class DatastoreContext {
             return this;
         }
 
+        public Builder shardAdmissionControlEnabled(boolean value) {
+            datastoreContext.shardAdmissionControlEnabled = value;
+            return this;
+        }
+
+        public Builder shardAdmissionTargetLatencyInMillis(long value) {
+            datastoreContext.shardAdmissionTargetLatencyInMillis = value;
+            return this;
+        }
+
+        public Builder followerReadsEnabled(boolean value) {
+            datastoreContext.followerReadsEnabled = value;
+            return this;
+        }
+
+        public Builder followerReadMaxLag(long value) {
+            datastoreContext.followerReadMaxLag = value;
+            return this;
+        }
+
+        public Builder dataTreeChangeListenerMaxBatchSize(int value) {
+            datastoreContext.dataTreeChangeListenerMaxBatchSize = value;
+            return this;
+        }
+
+        public Builder dataTreeChangeListenerMaxBatchLatencyInMillis(long value) {
+            datastoreContext.dataTreeChangeListenerMaxBatchLatencyInMillis = value;
+            return this;
+        }
+
+        public Builder shardSnapshotCompressionEnabled(boolean value) {
+            datastoreContext.shardSnapshotCompressionEnabled = value;
+            return this;
+        }
+
+        public Builder shardPayloadCompressionEnabled(boolean value) {
+            datastoreContext.shardPayloadCompressionEnabled = value;
+            return this;
+        }
+
+        public Builder shardPayloadCompressionThresholdInBytes(int value) {
+            datastoreContext.shardPayloadCompressionThresholdInBytes = value;
+            return this;
+        }
+
+        public Builder shardDeltaSnapshotsEnabled(boolean value) {
+            datastoreContext.shardDeltaSnapshotsEnabled = value;
+            return this;
+        }
+
+        public Builder shardFullSnapshotInterval(int value) {
+            datastoreContext.shardFullSnapshotInterval = value;
+            return this;
+        }
+
+        public Builder shardSnapshotBaseDirectory(String value) {
+            datastoreContext.shardSnapshotBaseDirectory = value;
+            return this;
+        }
+
+        public Builder shardLeaderBalancingEnabled(boolean value) {
+            datastoreContext.shardLeaderBalancingEnabled = value;
+            return this;
+        }
+
+        public Builder shardLeaderBalancingIntervalInSeconds(int value) {
+            datastoreContext.shardLeaderBalancingIntervalInSeconds = value;
+            return this;
+        }
+
+        public Builder shardReplicationMultiplexingEnabled(boolean value) {
+            datastoreContext.shardReplicationMultiplexingEnabled = value;
+            return this;
+        }
+
+        public Builder shardReplicationHeartbeatLingerInMillis(int value) {
+            datastoreContext.shardReplicationHeartbeatLingerInMillis = value;
+            return this;
+        }
+
         public Builder maxShardDataChangeExecutorPoolSize(int maxShardDataChangeExecutorPoolSize) {
             this.maxShardDataChangeExecutorPoolSize = maxShardDataChangeExecutorPoolSize;
             return this;
@@ -390,6 +663,11 @@ public class DatastoreContext {
             return this;
         }
 
+        public Builder shardAsyncDataChangeResolution(boolean shardAsyncDataChangeResolution) {
+            this.shardAsyncDataChangeResolution = shardAsyncDataChangeResolution;
+            return this;
+        }
+
         public Builder maxShardDataStoreExecutorQueueSize(int maxShardDataStoreExecutorQueueSize) {
             this.maxShardDataStoreExecutorQueueSize = maxShardDataStoreExecutorQueueSize;
             return this;
@@ -398,7 +676,8 @@ public class DatastoreContext {
         public DatastoreContext build() {
             datastoreContext.dataStoreProperties = InMemoryDOMDataStoreConfigProperties.create(
                     maxShardDataChangeExecutorPoolSize, maxShardDataChangeExecutorQueueSize,
-                    maxShardDataChangeListenerQueueSize, maxShardDataStoreExecutorQueueSize);
+                    maxShardDataChangeListenerQueueSize, maxShardDataStoreExecutorQueueSize,
+                    shardAsyncDataChangeResolution);
 
             if(datastoreContext.dataStoreType != null) {
                 globalDatastoreTypes.add(datastoreContext.dataStoreType);
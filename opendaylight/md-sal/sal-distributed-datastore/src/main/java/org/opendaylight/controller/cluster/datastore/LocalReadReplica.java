@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import com.google.common.base.Preconditions;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+
+/**
+ * The DataTree of a local shard replica that is a follower, together with how far it lags the leader. It is
+ * updated by the Shard actor and read by front-end threads to decide whether a read-only transaction may be
+ * served from the local replica rather than the remote leader.
+ * <p>
+ * The lag is the number of log entries committed by the leader, as of the last AppendEntries, that have not been
+ * applied locally. Since the leader's commit index is only as recent as the last AppendEntries, the replica is
+ * also considered stale if the leader hasn't been heard from within the election timeout.
+ */
+public class LocalReadReplica {
+    private final DataTree dataTree;
+    private volatile boolean follower;
+    private volatile long lag = Long.MAX_VALUE;
+    private volatile long lastLeaderContactTime;
+    private volatile long maxLeaderContactAge;
+
+    LocalReadReplica(@Nonnull DataTree dataTree) {
+        this.dataTree = Preconditions.checkNotNull(dataTree);
+    }
+
+    public @Nonnull DataTree getDataTree() {
+        return dataTree;
+    }
+
+    /**
+     * Returns whether the replica is a follower of an active leader and lags the leader by at most the given number
+     * of log entries.
+     */
+    public boolean isReadable(long maxLag) {
+        return follower && lag <= maxLag && System.nanoTime() - lastLeaderContactTime <= maxLeaderContactAge;
+    }
+
+    long getLag() {
+        return lag;
+    }
+
+    void update(long lag, long lastLeaderContactTime, long maxLeaderContactAge) {
+        this.lag = lag;
+        this.lastLeaderContactTime = lastLeaderContactTime;
+        this.maxLeaderContactAge = maxLeaderContactAge;
+        this.follower = true;
+    }
+
+    void notFollower() {
+        follower = false;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalReadReplica [follower=" + follower + ", lag=" + lag + "]";
+    }
+}
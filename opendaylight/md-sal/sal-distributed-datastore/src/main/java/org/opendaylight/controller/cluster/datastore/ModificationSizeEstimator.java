@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import org.opendaylight.controller.cluster.datastore.modification.AbstractModification;
+import org.opendaylight.controller.cluster.datastore.modification.Modification;
+import org.opendaylight.controller.cluster.datastore.modification.WriteModification;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+
+/**
+ * Cheaply estimates the serialized size of a Modification without actually serializing it. The estimate
+ * walks the data tree and adds a fixed overhead per node and path argument, which roughly corresponds to
+ * the node type and dictionary coded QName of the NormalizedNode stream encoding, plus the size of the leaf
+ * values.
+ */
+final class ModificationSizeEstimator {
+    private static final int NODE_OVERHEAD = 8;
+    private static final int PATH_ARGUMENT_OVERHEAD = 8;
+    private static final int SIMPLE_VALUE_SIZE = 8;
+
+    private ModificationSizeEstimator() {
+    }
+
+    static long estimateSize(Modification modification) {
+        long size = NODE_OVERHEAD;
+        if(modification instanceof AbstractModification) {
+            size += estimateSize(((AbstractModification) modification).getPath());
+        }
+
+        if(modification instanceof WriteModification) {
+            size += estimateSize(((WriteModification) modification).getData());
+        }
+
+        return size;
+    }
+
+    static long estimateSize(NormalizedNode<?, ?> node) {
+        if(node == null) {
+            return 0;
+        }
+
+        long size = NODE_OVERHEAD;
+        if(node instanceof NormalizedNodeContainer) {
+            for(Object child: ((NormalizedNodeContainer<?, ?, ?>) node).getValue()) {
+                size += estimateSize((NormalizedNode<?, ?>) child);
+            }
+        } else {
+            size += estimateValueSize(node.getValue());
+        }
+
+        return size;
+    }
+
+    private static long estimateSize(YangInstanceIdentifier path) {
+        long size = 0;
+        for(PathArgument arg: path.getPathArguments()) {
+            size += PATH_ARGUMENT_OVERHEAD;
+            if(arg instanceof NodeIdentifierWithPredicates) {
+                for(Object keyValue: ((NodeIdentifierWithPredicates) arg).getKeyValues().values()) {
+                    size += PATH_ARGUMENT_OVERHEAD + estimateValueSize(keyValue);
+                }
+            } else if(arg instanceof NodeWithValue) {
+                size += estimateValueSize(((NodeWithValue) arg).getValue());
+            }
+        }
+
+        return size;
+    }
+
+    private static long estimateValueSize(Object value) {
+        if(value instanceof String) {
+            return ((String) value).length();
+        } else if(value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if(value instanceof YangInstanceIdentifier) {
+            return estimateSize((YangInstanceIdentifier) value);
+        } else if(value instanceof Iterable) {
+            // Bits values are sets of strings.
+            long size = 0;
+            for(Object o: (Iterable<?>) value) {
+                size += estimateValueSize(o);
+            }
+
+            return size;
+        }
+
+        return SIMPLE_VALUE_SIZE;
+    }
+}
@@ -9,10 +9,12 @@
 package org.opendaylight.controller.cluster.datastore;
 
 import akka.actor.ActorSelection;
+import akka.actor.Cancellable;
 import akka.dispatch.OnComplete;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.SettableFuture;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.controller.cluster.datastore.identifiers.TransactionIdentifier;
 import org.opendaylight.controller.cluster.datastore.messages.BatchedModifications;
 import org.opendaylight.controller.cluster.datastore.messages.CloseTransaction;
@@ -32,10 +34,17 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.concurrent.Future;
+import scala.concurrent.duration.FiniteDuration;
 
 /**
  * Redirects front-end transaction operations to a shard for processing. Instances of this class are used
  * when the destination shard is remote to the caller.
+ * <p>
+ * Modifications are sent to the shard in batches of up to shardBatchedModificationCount operations. If
+ * adaptive transaction batching is enabled, a batch is also sent when its estimated serialized size reaches
+ * shardBatchedModificationMaxBytes or when it has lingered for about one round-trip to the shard, bounded
+ * by shardBatchedModificationMaxLingerInMillis. So the faster modifications are issued relative to the
+ * round-trip, the larger the batches. A timer sends a lingering batch if no further modifications follow.
  *
  * @author Thomas Pantelis
  */
@@ -48,8 +57,19 @@ public class RemoteTransactionContext extends AbstractTransactionContext {
     private final short remoteTransactionVersion;
     private final OperationLimiter limiter;
 
+    private final boolean adaptiveBatching;
+
     private BatchedModifications batchedModifications;
     private int totalBatchedModificationsSent;
+    private long batchedModificationsSize;
+    private long batchStartTime;
+    private Cancellable lingerTimer;
+
+    /**
+     * Smoothed round-trip time of BatchedModifications in nanoseconds, or -1 if not measured yet. This is
+     * updated from reply callbacks - concurrent updates may lose a sample which is fine for an estimate.
+     */
+    private volatile long roundTripTime = -1;
 
     protected RemoteTransactionContext(TransactionIdentifier identifier, ActorSelection actor,
             ActorContext actorContext, boolean isTxActorLocal,
@@ -60,6 +80,7 @@ public class RemoteTransactionContext extends AbstractTransactionContext {
         this.actorContext = actorContext;
         this.isTxActorLocal = isTxActorLocal;
         this.remoteTransactionVersion = remoteTransactionVersion;
+        this.adaptiveBatching = actorContext.getDatastoreContext().isAdaptiveTransactionBatchingEnabled();
     }
 
     private Future<Object> completeOperation(Future<Object> operationFuture){
@@ -87,6 +108,7 @@ public class RemoteTransactionContext extends AbstractTransactionContext {
     public void closeTransaction() {
         LOG.debug("Tx {} closeTransaction called", getIdentifier());
         TransactionContextCleanup.untrack(this);
+        cancelLingerTimer();
 
         actorContext.sendOperationAsync(getActor(), CloseTransaction.INSTANCE.toSerializable());
     }
@@ -129,7 +151,8 @@ public class RemoteTransactionContext extends AbstractTransactionContext {
         return new BatchedModifications(getIdentifier().toString(), remoteTransactionVersion, getIdentifier().getChainId());
     }
 
-    private void batchModification(Modification modification) {
+    // Synchronized as a lingering batch is sent from the timer thread with adaptive batching.
+    private synchronized void batchModification(Modification modification) {
         incrementModificationCount();
         if(batchedModifications == null) {
             batchedModifications = newBatchedModifications();
@@ -137,17 +160,75 @@ public class RemoteTransactionContext extends AbstractTransactionContext {
 
         batchedModifications.addModification(modification);
 
-        if(batchedModifications.getModifications().size() >=
-                actorContext.getDatastoreContext().getShardBatchedModificationCount()) {
+        DatastoreContext datastoreContext = actorContext.getDatastoreContext();
+        if(batchedModifications.getModifications().size() >= datastoreContext.getShardBatchedModificationCount()) {
             sendBatchedModifications();
+        } else if(adaptiveBatching) {
+            adaptBatch(modification, datastoreContext);
         }
     }
 
+    private void adaptBatch(Modification modification, DatastoreContext datastoreContext) {
+        long now = System.nanoTime();
+        long maxLinger = TimeUnit.MILLISECONDS.toNanos(datastoreContext.getShardBatchedModificationMaxLingerInMillis());
+        long rtt = roundTripTime;
+        long linger = rtt < 0 ? maxLinger : Math.min(rtt, maxLinger);
+
+        batchedModificationsSize += ModificationSizeEstimator.estimateSize(modification);
+
+        boolean firstInBatch = batchedModifications.getModifications().size() == 1;
+        if(firstInBatch) {
+            batchStartTime = now;
+        }
+
+        if(batchedModificationsSize >= datastoreContext.getShardBatchedModificationMaxBytes() ||
+                now - batchStartTime >= linger) {
+            sendBatchedModifications();
+        } else if(firstInBatch) {
+            scheduleLingerTimer(batchedModifications, linger);
+        }
+    }
+
+    private void scheduleLingerTimer(final BatchedModifications batch, long linger) {
+        lingerTimer = actorContext.getActorSystem().scheduler().scheduleOnce(
+                new FiniteDuration(linger, TimeUnit.NANOSECONDS), new Runnable() {
+                    @Override
+                    public void run() {
+                        onLingerTimer(batch);
+                    }
+                }, actorContext.getClientDispatcher());
+    }
+
+    private synchronized void onLingerTimer(BatchedModifications batch) {
+        // Only send the batch if it's still pending, ie it wasn't sent or readied in the meantime.
+        if(batch == batchedModifications) {
+            LOG.debug("Tx {} sending lingering batched modifications", getIdentifier());
+
+            sendBatchedModifications();
+        }
+    }
+
+    private void onBatchedModificationsComplete(long sentTime) {
+        // Exponentially weighted moving average as used for TCP's smoothed RTT.
+        long sample = System.nanoTime() - sentTime;
+        long rtt = roundTripTime;
+        roundTripTime = rtt < 0 ? sample : rtt + (sample - rtt) / 8;
+    }
+
     protected Future<Object> sendBatchedModifications() {
         return sendBatchedModifications(false, false);
     }
 
-    protected Future<Object> sendBatchedModifications(boolean ready, boolean doCommitOnReady) {
+    private synchronized void cancelLingerTimer() {
+        if(lingerTimer != null) {
+            lingerTimer.cancel();
+            lingerTimer = null;
+        }
+    }
+
+    protected synchronized Future<Object> sendBatchedModifications(boolean ready, boolean doCommitOnReady) {
+        cancelLingerTimer();
+
         Future<Object> sent = null;
         if(ready || (batchedModifications != null && !batchedModifications.getModifications().isEmpty())) {
             if(batchedModifications == null) {
@@ -164,6 +245,21 @@ public class RemoteTransactionContext extends AbstractTransactionContext {
             batchedModifications.setTotalMessagesSent(++totalBatchedModificationsSent);
             sent = executeOperationAsync(batchedModifications);
 
+            batchedModificationsSize = 0;
+
+            // The ready reply includes the time to ready or commit so it isn't a round-trip sample.
+            if(adaptiveBatching && !ready) {
+                final long sentTime = System.nanoTime();
+                sent.onComplete(new OnComplete<Object>() {
+                    @Override
+                    public void onComplete(Throwable failure, Object reply) {
+                        if(failure == null) {
+                            onBatchedModificationsComplete(sentTime);
+                        }
+                    }
+                }, actorContext.getClientDispatcher());
+            }
+
             if(ready) {
                 batchedModifications = null;
             } else {
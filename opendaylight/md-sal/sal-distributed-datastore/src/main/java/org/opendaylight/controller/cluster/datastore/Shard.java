@@ -18,12 +18,17 @@ import akka.serialization.Serialization;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import org.opendaylight.controller.cluster.common.actor.CommonConfig;
@@ -56,16 +61,22 @@ import org.opendaylight.controller.cluster.datastore.modification.ModificationPa
 import org.opendaylight.controller.cluster.datastore.modification.MutableCompositeModification;
 import org.opendaylight.controller.cluster.datastore.utils.Dispatchers;
 import org.opendaylight.controller.cluster.datastore.utils.MessageTracker;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
 import org.opendaylight.controller.cluster.notifications.LeaderStateChanged;
 import org.opendaylight.controller.cluster.notifications.RegisterRoleChangeListener;
 import org.opendaylight.controller.cluster.notifications.RoleChangeNotifier;
+import org.opendaylight.controller.cluster.raft.AppendEntriesSender;
 import org.opendaylight.controller.cluster.raft.RaftActor;
 import org.opendaylight.controller.cluster.raft.RaftActorRecoveryCohort;
 import org.opendaylight.controller.cluster.raft.RaftActorSnapshotCohort;
 import org.opendaylight.controller.cluster.raft.base.messages.FollowerInitialSyncUpStatus;
+import org.opendaylight.controller.cluster.raft.behaviors.Follower;
+import org.opendaylight.controller.cluster.raft.behaviors.RaftActorBehavior;
 import org.opendaylight.controller.cluster.raft.messages.AppendEntriesReply;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.CompositeModificationByteStringPayload;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.CompositeModificationPayload;
+import org.opendaylight.controller.md.sal.dom.store.impl.InMemoryDOMDataStoreConfigProperties;
+import org.opendaylight.yangtools.util.concurrent.SpecialExecutors;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
@@ -93,6 +104,10 @@ public class Shard extends RaftActor {
     // The state of this Shard
     private final ShardDataTree store;
 
+    private final ExecutorService dataChangeResolverExecutor;
+
+    private final LocalReadReplica localReadReplica;
+
     /// The name of this shard
     private final String name;
 
@@ -114,26 +129,50 @@ public class Shard extends RaftActor {
 
     private final ShardSnapshotCohort snapshotCohort;
 
+    private final SnapshotBaseStore snapshotBaseStore;
+
+    private ShardRecoveryCoordinator recoveryCoordinator;
+
     private final DataTreeChangeListenerSupport treeChangeSupport = new DataTreeChangeListenerSupport(this);
     private final DataChangeListenerSupport changeSupport = new DataChangeListenerSupport(this);
 
     protected Shard(final ShardIdentifier name, final Map<String, String> peerAddresses,
             final DatastoreContext datastoreContext, final SchemaContext schemaContext) {
+        this(name, peerAddresses, Collections.<String>emptySet(), datastoreContext, schemaContext);
+    }
+
+    protected Shard(final ShardIdentifier name, final Map<String, String> peerAddresses,
+            final Set<String> nonVotingMemberIds, final DatastoreContext datastoreContext,
+            final SchemaContext schemaContext) {
         super(name.toString(), new HashMap<>(peerAddresses), Optional.of(datastoreContext.getShardRaftConfig()),
                 DataStoreVersions.CURRENT_VERSION);
 
         this.name = name.toString();
         this.datastoreContext = datastoreContext;
 
+        setNonVotingMembers(nonVotingMemberIds);
+
         setPersistence(datastoreContext.isPersistent());
 
         LOG.info("Shard created : {}, persistent : {}", name, datastoreContext.isPersistent());
 
-        store = new ShardDataTree(schemaContext);
+        // Data change events are resolved on a single thread, so they are still delivered in commit order. The
+        // queue is bounded but never blocks the shard actor - ShardDataTree defers the tasks it rejects.
+        final InMemoryDOMDataStoreConfigProperties storeProps = datastoreContext.getDataStoreProperties();
+        if(storeProps.isAsyncDataChangeResolution()) {
+            dataChangeResolverExecutor = SpecialExecutors.newBoundedSingleThreadExecutor(
+                    storeProps.getMaxDataChangeListenerQueueSize(), this.name + "-DCL-resolver");
+        } else {
+            dataChangeResolverExecutor = null;
+        }
+
+        store = new ShardDataTree(schemaContext, dataChangeResolverExecutor);
+        localReadReplica = new LocalReadReplica(store.getDataTree());
 
         shardMBean = ShardMBeanFactory.getShardStatsMBean(name.toString(),
                 datastoreContext.getDataStoreMXBeanType());
         shardMBean.setShardActor(getSelf());
+        shardMBean.registerMetrics();
 
         if (isMetricsCaptureEnabled()) {
             getContext().become(new MeteringBehavior(this));
@@ -141,7 +180,8 @@ public class Shard extends RaftActor {
 
         commitCoordinator = new ShardCommitCoordinator(store,
                 datastoreContext.getShardCommitQueueExpiryTimeoutInMillis(),
-                datastoreContext.getShardTransactionCommitQueueCapacity(), self(), LOG, this.name);
+                datastoreContext.getShardTransactionCommitQueueCapacity(), self(), LOG, this.name, shardMBean);
+        commitCoordinator.setMaxPipelinedCommits(datastoreContext.getShardMaxPipelinedCommits());
 
         setTransactionCommitTimeout();
 
@@ -155,9 +195,38 @@ public class Shard extends RaftActor {
                 new Dispatchers(context().system().dispatchers()).getDispatcherPath(
                         Dispatchers.DispatcherType.Transaction), self(), getContext(), shardMBean);
 
-        snapshotCohort = new ShardSnapshotCohort(transactionActorFactory, store, LOG, this.name);
+        snapshotCohort = new ShardSnapshotCohort(transactionActorFactory, store, LOG, this.name, shardMBean);
+        snapshotCohort.setSnapshotCompressionEnabled(datastoreContext.isShardSnapshotCompressionEnabled());
+        snapshotCohort.setMinimumFollowerPayloadVersion(new Supplier<Short>() {
+            @Override
+            public Short get() {
+                // Only a leader installs snapshots - one captured otherwise is only stored locally.
+                return isLeader() ? getMinimumFollowerPayloadVersion() : DataStoreVersions.CURRENT_VERSION;
+            }
+        });
 
+        snapshotBaseStore = new SnapshotBaseStore(new File(datastoreContext.getShardSnapshotBaseDirectory(),
+                this.name));
+        snapshotCohort.setDeltaSnapshotSupport(snapshotBaseStore, getRaftActorContext().getSnapshotManager());
+        setDeltaSnapshotsEnabled();
+        setAppendEntriesSender();
 
+
+    }
+
+    private void setDeltaSnapshotsEnabled() {
+        store.getSnapshotDeltaTracker().setEnabled(datastoreContext.isShardDeltaSnapshotsEnabled() &&
+                datastoreContext.isPersistent(), datastoreContext.getShardFullSnapshotInterval());
+    }
+
+    private void setAppendEntriesSender() {
+        if(datastoreContext.isShardReplicationMultiplexingEnabled()) {
+            // The channel is a sibling created by the ShardManager.
+            setAppendEntriesSender(ShardReplicationChannel.newAppendEntriesSender(
+                    getContext().actorSelection("../" + ShardReplicationChannel.NAME)));
+        } else {
+            setAppendEntriesSender(AppendEntriesSender.DIRECT);
+        }
     }
 
     private void setTransactionCommitTimeout() {
@@ -173,7 +242,24 @@ public class Shard extends RaftActor {
         Preconditions.checkNotNull(datastoreContext, "dataStoreContext should not be null");
         Preconditions.checkNotNull(schemaContext, "schemaContext should not be null");
 
-        return Props.create(new ShardCreator(name, peerAddresses, datastoreContext, schemaContext));
+        return props(name, peerAddresses, Collections.<String>emptySet(), datastoreContext, schemaContext);
+    }
+
+    /**
+     * @param nonVotingMemberIds the ids of the members, possibly including this one, that replicate the shard
+     *                           but don't vote in elections or count towards the commit quorum
+     */
+    public static Props props(final ShardIdentifier name,
+        final Map<String, String> peerAddresses, final Set<String> nonVotingMemberIds,
+        final DatastoreContext datastoreContext, final SchemaContext schemaContext) {
+        Preconditions.checkNotNull(name, "name should not be null");
+        Preconditions.checkNotNull(peerAddresses, "peerAddresses should not be null");
+        Preconditions.checkNotNull(nonVotingMemberIds, "nonVotingMemberIds should not be null");
+        Preconditions.checkNotNull(datastoreContext, "dataStoreContext should not be null");
+        Preconditions.checkNotNull(schemaContext, "schemaContext should not be null");
+
+        return Props.create(new ShardCreator(name, peerAddresses, nonVotingMemberIds, datastoreContext,
+                schemaContext));
     }
 
     private Optional<ActorRef> createRoleChangeNotifier(String shardId) {
@@ -193,6 +279,11 @@ public class Shard extends RaftActor {
         }
 
         shardMBean.unregisterMBean();
+
+        if(dataChangeResolverExecutor != null) {
+            // Events already queued are still resolved and delivered
+            dataChangeResolverExecutor.shutdown();
+        }
     }
 
     @Override
@@ -257,6 +348,9 @@ public class Shard extends RaftActor {
                         resolved.getPeerAddress());
             } else if (message.equals(TX_COMMIT_TIMEOUT_CHECK_MESSAGE)) {
                 handleTransactionCommitTimeoutCheck();
+
+                // Data change resolutions deferred by a full resolver queue would otherwise wait for the next commit
+                store.resubmitDeferredResolutions();
             } else if(message instanceof DatastoreContext) {
                 onDatastoreContext((DatastoreContext)message);
             } else if(message instanceof RegisterRoleChangeListener){
@@ -268,12 +362,26 @@ public class Shard extends RaftActor {
                 sender().tell(getShardMBean(), self());
             } else {
                 super.onReceiveCommand(message);
+                updateLocalReadReplica();
             }
         } finally {
             context.done();
         }
     }
 
+    private void updateLocalReadReplica() {
+        RaftActorBehavior behavior = getCurrentBehavior();
+        if(datastoreContext.isFollowerReadsEnabled() && behavior instanceof Follower) {
+            Follower follower = (Follower) behavior;
+            long leaderCommitIndex = follower.getLeaderCommitIndex();
+            long lag = leaderCommitIndex < 0 ? Long.MAX_VALUE : Math.max(0, leaderCommitIndex - getLastApplied());
+            localReadReplica.update(lag, follower.getLastLeaderContactTime(),
+                    getRaftActorContext().getConfigParams().getElectionTimeOutInterval().toNanos());
+        } else {
+            localReadReplica.notFollower();
+        }
+    }
+
     @Override
     protected Optional<ActorRef> getRoleChangeNotifier() {
         return roleChangeNotifier;
@@ -283,16 +391,22 @@ public class Shard extends RaftActor {
     protected LeaderStateChanged newLeaderStateChanged(String memberId, String leaderId, short leaderPayloadVersion) {
         return new ShardLeaderStateChanged(memberId, leaderId,
                 isLeader() ? Optional.<DataTree>of(store.getDataTree()) : Optional.<DataTree>absent(),
-                leaderPayloadVersion);
+                isLeader() ? Optional.<LocalReadReplica>absent() : Optional.of(localReadReplica),
+                leaderPayloadVersion, getRaftActorContext().getTermInformation().getCurrentTerm());
     }
 
     private void onDatastoreContext(DatastoreContext context) {
         datastoreContext = context;
 
         commitCoordinator.setQueueCapacity(datastoreContext.getShardTransactionCommitQueueCapacity());
+        commitCoordinator.setMaxPipelinedCommits(datastoreContext.getShardMaxPipelinedCommits());
 
         setTransactionCommitTimeout();
 
+        snapshotCohort.setSnapshotCompressionEnabled(datastoreContext.isShardSnapshotCompressionEnabled());
+        setDeltaSnapshotsEnabled();
+        setAppendEntriesSender();
+
         if(datastoreContext.isPersistent() && !persistence().isRecoveryApplicable()) {
             setPersistence(true);
         } else if(!datastoreContext.isPersistent() && persistence().isRecoveryApplicable()) {
@@ -313,6 +427,14 @@ public class Shard extends RaftActor {
             }
         }
 
+        cohortEntry = commitCoordinator.getOldestPipelinedCohortEntry();
+        if(cohortEntry != null && cohortEntry.isExpired(transactionCommitTimeout)) {
+            LOG.warn("{}: Pipelined transaction {} has not been replicated after {} ms - aborting",
+                    persistenceId(), cohortEntry.getTransactionID(), transactionCommitTimeout);
+
+            doAbortTransaction(cohortEntry.getTransactionID(), null);
+        }
+
         commitCoordinator.cleanupExpiredCohortEntries();
     }
 
@@ -330,7 +452,9 @@ public class Shard extends RaftActor {
             applyModificationToState(cohortEntry.getReplySender(), cohortEntry.getTransactionID(), candidate);
         } else {
             Shard.this.persistData(cohortEntry.getReplySender(), cohortEntry.getTransactionID(),
-                DataTreeCandidatePayload.create(candidate));
+                DataTreeCandidatePayload.create(candidate, getMinimumFollowerPayloadVersion(),
+                        datastoreContext.isShardPayloadCompressionEnabled() ?
+                                datastoreContext.getShardPayloadCompressionThresholdInBytes() : 0, shardMBean));
         }
     }
 
@@ -343,12 +467,17 @@ public class Shard extends RaftActor {
     private void finishCommit(@Nonnull final ActorRef sender, @Nonnull final String transactionID, @Nonnull final CohortEntry cohortEntry) {
         LOG.debug("{}: Finishing commit for transaction {}", persistenceId(), cohortEntry.getTransactionID());
 
+        long start = System.nanoTime();
+        shardMBean.recordPhaseLatency(ShardStats.REPLICATION_PHASE, start - cohortEntry.getCommitStartNanos());
+
         try {
             // We block on the future here so we don't have to worry about possibly accessing our
             // state on a different thread outside of our dispatcher. Also, the data store
             // currently uses a same thread executor anyway.
             cohortEntry.getCohort().commit().get();
 
+            shardMBean.recordPhaseLatency(ShardStats.APPLY_PHASE, System.nanoTime() - start);
+
             sender.tell(CommitTransactionReply.INSTANCE.toSerializable(), getSelf());
 
             shardMBean.incrementCommittedTransactionCount();
@@ -360,6 +489,9 @@ public class Shard extends RaftActor {
             LOG.error("{}, An exception occurred while committing transaction {}", persistenceId(),
                     transactionID, e);
             shardMBean.incrementFailedTransactionsCount();
+
+            // Transactions pipelined behind this one were prepared on top of it.
+            commitCoordinator.abortPipelinedCommits();
         } finally {
             commitCoordinator.currentTransactionComplete(transactionID, true);
         }
@@ -483,7 +615,12 @@ public class Shard extends RaftActor {
             // We don't remove the cached cohort entry here (ie pass false) in case the Tx was
             // aborted during replication in which case we may still commit locally if replication
             // succeeds.
-            commitCoordinator.currentTransactionComplete(transactionID, false);
+            if(commitCoordinator.isCurrentTransaction(transactionID)) {
+                commitCoordinator.currentTransactionComplete(transactionID, false);
+            } else {
+                // A pipelined Tx awaiting replication - the Tx's prepared after it can't commit either.
+                commitCoordinator.abortPipelinedCommits();
+            }
 
             final ListenableFuture<Void> future = cohortEntry.getCohort().abort();
             final ActorRef self = getSelf();
@@ -600,11 +737,18 @@ public class Shard extends RaftActor {
     @Override
     @Nonnull
     protected RaftActorRecoveryCohort getRaftActorRecoveryCohort() {
-        return new ShardRecoveryCoordinator(store, store.getSchemaContext(), persistenceId(), LOG);
+        recoveryCoordinator = new ShardRecoveryCoordinator(store, store.getSchemaContext(), persistenceId(), LOG,
+                shardMBean, snapshotBaseStore);
+        return recoveryCoordinator;
     }
 
     @Override
     protected void onRecoveryComplete() {
+        if(recoveryCoordinator != null) {
+            recoveryCoordinator.completeRecovery();
+            recoveryCoordinator = null;
+        }
+
         //notify shard manager
         getContext().parent().tell(new ActorInitialized(), getSelf());
 
@@ -674,6 +818,7 @@ public class Shard extends RaftActor {
         boolean isLeader = isLeader();
         changeSupport.onLeadershipChange(isLeader);
         treeChangeSupport.onLeadershipChange(isLeader);
+        commitCoordinator.onLeadershipChange();
 
         // If this actor is no longer the leader close all the transaction chains
         if (!isLeader) {
@@ -690,6 +835,7 @@ public class Shard extends RaftActor {
     @Override
     protected void onLeaderChanged(String oldLeader, String newLeader) {
         shardMBean.incrementLeadershipChangeCount();
+        commitCoordinator.onLeadershipChange();
     }
 
     @Override
@@ -709,20 +855,23 @@ public class Shard extends RaftActor {
 
         final ShardIdentifier name;
         final Map<String, String> peerAddresses;
+        final Set<String> nonVotingMemberIds;
         final DatastoreContext datastoreContext;
         final SchemaContext schemaContext;
 
         ShardCreator(final ShardIdentifier name, final Map<String, String> peerAddresses,
-                final DatastoreContext datastoreContext, final SchemaContext schemaContext) {
+                final Set<String> nonVotingMemberIds, final DatastoreContext datastoreContext,
+                final SchemaContext schemaContext) {
             this.name = name;
             this.peerAddresses = peerAddresses;
+            this.nonVotingMemberIds = nonVotingMemberIds;
             this.datastoreContext = datastoreContext;
             this.schemaContext = schemaContext;
         }
 
         @Override
         public Shard create() throws Exception {
-            return new Shard(name, peerAddresses, datastoreContext, schemaContext);
+            return new Shard(name, peerAddresses, nonVotingMemberIds, datastoreContext, schemaContext);
         }
     }
 
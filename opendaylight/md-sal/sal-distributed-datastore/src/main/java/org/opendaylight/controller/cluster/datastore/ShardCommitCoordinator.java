@@ -13,6 +13,8 @@ import akka.serialization.Serialization;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -21,6 +23,7 @@ import java.util.Queue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import org.opendaylight.controller.cluster.datastore.compat.BackwardsCompatibleThreePhaseCommitCohort;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
 import org.opendaylight.controller.cluster.datastore.messages.BatchedModifications;
 import org.opendaylight.controller.cluster.datastore.messages.BatchedModificationsReply;
 import org.opendaylight.controller.cluster.datastore.messages.CanCommitTransactionReply;
@@ -34,6 +37,11 @@ import org.slf4j.Logger;
 
 /**
  * Coordinates commits for a shard ensuring only one concurrent 3-phase commit.
+ * <p>
+ * If pipelining is enabled (maxPipelinedCommits &gt; 1), a transaction whose commit is awaiting replication
+ * no longer blocks the queue - it's moved to the pipelined entries and the next transaction is validated and
+ * prepared against the candidate it produced. Pipelined transactions complete in the order they were
+ * committed. If one fails, all transactions prepared after it are dropped from the pipeline.
  *
  * @author Thomas Pantelis
  */
@@ -56,31 +64,48 @@ class ShardCommitCoordinator {
 
     private int queueCapacity;
 
+    // Transactions that have been committed and are awaiting replication, in commit order.
+    private final Deque<CohortEntry> pipelinedCohortEntries = new ArrayDeque<>();
+
+    private int maxPipelinedCommits = DatastoreContext.DEFAULT_SHARD_MAX_PIPELINED_COMMITS;
+
     private final Logger log;
 
     private final String name;
 
     private final long cacheExpiryTimeoutInMillis;
 
+    private final ShardStats shardStats;
+
     // This is a hook for unit tests to replace or decorate the DOMStoreThreePhaseCommitCohorts.
     private CohortDecorator cohortDecorator;
 
     private ReadyTransactionReply readyTransactionReply;
 
     ShardCommitCoordinator(ShardDataTree dataTree,
-            long cacheExpiryTimeoutInMillis, int queueCapacity, ActorRef shardActor, Logger log, String name) {
+            long cacheExpiryTimeoutInMillis, int queueCapacity, ActorRef shardActor, Logger log, String name,
+            ShardStats shardStats) {
 
         this.queueCapacity = queueCapacity;
         this.log = log;
         this.name = name;
         this.dataTree = Preconditions.checkNotNull(dataTree);
         this.cacheExpiryTimeoutInMillis = cacheExpiryTimeoutInMillis;
+        this.shardStats = Preconditions.checkNotNull(shardStats);
     }
 
     void setQueueCapacity(int queueCapacity) {
         this.queueCapacity = queueCapacity;
     }
 
+    void setMaxPipelinedCommits(int maxPipelinedCommits) {
+        this.maxPipelinedCommits = maxPipelinedCommits;
+    }
+
+    private boolean isPipeliningEnabled() {
+        return maxPipelinedCommits > 1;
+    }
+
     private ReadyTransactionReply readyTransactionReply(Shard shard) {
         if(readyTransactionReply == null) {
             readyTransactionReply = new ReadyTransactionReply(Serialization.serializedActorPath(shard.self()));
@@ -247,6 +272,7 @@ class ShardCommitCoordinator {
         String transactionID = cohortEntry.getTransactionID();
 
         cohortEntry.updateLastAccessTime();
+        cohortEntry.markCanCommitRequested();
 
         if(currentCohortEntry != null) {
             // There's already a Tx commit in progress so we can't process this entry yet - but it's in the
@@ -307,8 +333,13 @@ class ShardCommitCoordinator {
             // We block on the future here so we don't have to worry about possibly accessing our
             // state on a different thread outside of our dispatcher. Also, the data store
             // currently uses a same thread executor anyway.
+            long start = System.nanoTime();
+            shardStats.recordPhaseLatency(ShardStats.QUEUE_WAIT_PHASE, start - cohortEntry.getCanCommitRequestedNanos());
+
             canCommit = cohortEntry.getCohort().canCommit().get();
 
+            shardStats.recordPhaseLatency(ShardStats.CAN_COMMIT_PHASE, System.nanoTime() - start);
+
             log.debug("{}: canCommit for {}: {}", name, cohortEntry.getTransactionID(), canCommit);
 
             if(cohortEntry.isDoImmediateCommit()) {
@@ -354,8 +385,19 @@ class ShardCommitCoordinator {
             // We block on the future here so we don't have to worry about possibly accessing our
             // state on a different thread outside of our dispatcher. Also, the data store
             // currently uses a same thread executor anyway.
+            long start = System.nanoTime();
             cohortEntry.getCohort().preCommit().get();
 
+            // Subsequent transactions are validated and prepared on top of this one while it's replicated.
+            if(isPipeliningEnabled()) {
+                dataTree.setPreparedTip(cohortEntry.getCohort().getCandidate());
+            }
+
+            cohortEntry.setCommitStartNanos(System.nanoTime());
+            shardStats.recordPhaseLatency(ShardStats.PRE_COMMIT_PHASE, cohortEntry.getCommitStartNanos() - start);
+
+            cohortEntry.setCommitted(true);
+
             cohortEntry.getShard().continueCommit(cohortEntry);
 
             cohortEntry.updateLastAccessTime();
@@ -369,9 +411,37 @@ class ShardCommitCoordinator {
             currentTransactionComplete(cohortEntry.getTransactionID(), true);
         }
 
+        // If the commit didn't complete synchronously, ie it's being replicated, let the next transaction
+        // proceed if the pipeline has room.
+        if(success && maybePipelineCurrentCohortEntry()) {
+            maybeProcessNextCohortEntry();
+        }
+
         return success;
     }
 
+    /**
+     * Moves the current cohort entry to the pipelined entries if it has been committed and is awaiting
+     * replication and the maximum number of pipelined commits hasn't been reached.
+     *
+     * @return true if the current entry was moved.
+     */
+    private boolean maybePipelineCurrentCohortEntry() {
+        if(currentCohortEntry == null || !currentCohortEntry.isCommitted() ||
+                pipelinedCohortEntries.size() + 1 >= maxPipelinedCommits) {
+            return false;
+        }
+
+        if(log.isDebugEnabled()) {
+            log.debug("{}: Pipelining Tx {} while awaiting replication - {} pipelined", name,
+                    currentCohortEntry.getTransactionID(), pipelinedCohortEntries.size() + 1);
+        }
+
+        pipelinedCohortEntries.offer(currentCohortEntry);
+        currentCohortEntry = null;
+        return true;
+    }
+
     /**
      * This method handles the preCommit and commit phases for a transaction.
      *
@@ -401,7 +471,7 @@ class ShardCommitCoordinator {
 
     /**
      * Returns the cohort entry for the Tx commit currently in progress if the given transaction ID
-     * matches the current entry.
+     * matches the current entry or the oldest pipelined entry awaiting replication.
      *
      * @param transactionID the ID of the transaction
      * @return the current CohortEntry or null if the given transaction ID does not match the
@@ -412,9 +482,25 @@ class ShardCommitCoordinator {
             return currentCohortEntry;
         }
 
+        if(isOldestPipelinedTransaction(transactionID)) {
+            return pipelinedCohortEntries.peek();
+        }
+
         return null;
     }
 
+    /**
+     * @return the oldest pipelined cohort entry awaiting replication or null if there is none.
+     */
+    public CohortEntry getOldestPipelinedCohortEntry() {
+        return pipelinedCohortEntries.peek();
+    }
+
+    private boolean isOldestPipelinedTransaction(String transactionID) {
+        CohortEntry oldest = pipelinedCohortEntries.peek();
+        return oldest != null && oldest.getTransactionID().equals(transactionID);
+    }
+
     public CohortEntry getCurrentCohortEntry() {
         return currentCohortEntry;
     }
@@ -447,8 +533,60 @@ class ShardCommitCoordinator {
 
             log.debug("{}: currentTransactionComplete: {}", name, transactionID);
 
+            // The transaction may have been prepared but not committed (eg aborted) so roll the data tree tip
+            // back to the last pipelined candidate.
+            CohortEntry lastPipelined = pipelinedCohortEntries.peekLast();
+            dataTree.setPreparedTip(lastPipelined != null ? lastPipelined.getCohort().getCandidate() : null);
+
             maybeProcessNextCohortEntry();
+        } else if(isOldestPipelinedTransaction(transactionID)) {
+            pipelinedCohortEntries.poll();
+
+            log.debug("{}: pipelined transaction complete: {}", name, transactionID);
+
+            // There's room in the pipeline now for the current entry if it's awaiting replication.
+            maybePipelineCurrentCohortEntry();
+            maybeProcessNextCohortEntry();
+        }
+    }
+
+    /**
+     * This method is called when a pipelined transaction failed to commit or was aborted. All transactions
+     * that were prepared after it are based on state that will never be committed so they're dropped from
+     * the pipeline and the data tree tip is reset. They remain cached so, if their replication completes,
+     * they're re-applied like any other transaction that was aborted during replication.
+     */
+    void abortPipelinedCommits() {
+        if(pipelinedCohortEntries.isEmpty()) {
+            return;
         }
+
+        log.warn("{}: Pipelined transaction {} failed - dropping all transactions prepared after it", name,
+                pipelinedCohortEntries.peek().getTransactionID());
+
+        pipelinedCohortEntries.clear();
+        if(currentCohortEntry != null && currentCohortEntry.isCommitted()) {
+            currentCohortEntry = null;
+        }
+
+        dataTree.setPreparedTip(null);
+
+        maybeProcessNextCohortEntry();
+    }
+
+    /**
+     * This method is called when the shard's leadership changes. Transactions awaiting replication may never be
+     * applied under a new leader so they're dropped from the pipeline and subsequent transactions are validated
+     * against the committed data tree again. Like aborted pipelined transactions, they remain cached.
+     */
+    void onLeadershipChange() {
+        if(!pipelinedCohortEntries.isEmpty()) {
+            log.debug("{}: Leadership changed - dropping {} pipelined transactions", name,
+                    pipelinedCohortEntries.size());
+            pipelinedCohortEntries.clear();
+        }
+
+        dataTree.setPreparedTip(null);
     }
 
     private void maybeProcessNextCohortEntry() {
@@ -500,6 +638,9 @@ class ShardCommitCoordinator {
         private boolean doImmediateCommit;
         private final Stopwatch lastAccessTimer = Stopwatch.createStarted();
         private int totalBatchedModificationsReceived;
+        private boolean committed;
+        private long canCommitRequestedNanos;
+        private long commitStartNanos;
 
         CohortEntry(String transactionID, ReadWriteShardDataTreeTransaction transaction) {
             this.transaction = Preconditions.checkNotNull(transaction);
@@ -589,6 +730,33 @@ class ShardCommitCoordinator {
             this.shard = shard;
         }
 
+        boolean isCommitted() {
+            return committed;
+        }
+
+        void setCommitted(boolean committed) {
+            this.committed = committed;
+        }
+
+        void markCanCommitRequested() {
+            // Only the first request counts - the entry may be re-examined while it waits in the queue.
+            if(canCommitRequestedNanos == 0) {
+                canCommitRequestedNanos = System.nanoTime();
+            }
+        }
+
+        long getCanCommitRequestedNanos() {
+            return canCommitRequestedNanos;
+        }
+
+        long getCommitStartNanos() {
+            return commitStartNanos;
+        }
+
+        void setCommitStartNanos(long commitStartNanos) {
+            this.commitStartNanos = commitStartNanos;
+        }
+
         @Override
         public String toString() {
             StringBuilder builder = new StringBuilder();
@@ -10,21 +10,31 @@ package org.opendaylight.controller.cluster.datastore;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.opendaylight.controller.md.sal.common.api.data.AsyncDataBroker.DataChangeScope;
 import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeListener;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
 import org.opendaylight.controller.md.sal.dom.store.impl.DOMImmutableDataChangeEvent;
 import org.opendaylight.controller.md.sal.dom.store.impl.ResolveDataChangeEventsTask;
+import org.opendaylight.controller.md.sal.dom.store.impl.DataChangeListenerRegistration;
 import org.opendaylight.controller.md.sal.dom.store.impl.tree.ListenerTree;
+import org.opendaylight.yangtools.concepts.AbstractListenerRegistration;
 import org.opendaylight.yangtools.concepts.ListenerRegistration;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
@@ -48,19 +58,57 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
     private final Map<String, ShardDataTreeTransactionChain> transactionChains = new HashMap<>();
     private final ShardDataTreeChangePublisher treeChangePublisher = new ShardDataTreeChangePublisher();
     private final ListenerTree listenerTree = ListenerTree.create();
+    private final SnapshotDeltaTracker snapshotDeltaTracker = new SnapshotDeltaTracker();
     private final TipProducingDataTree dataTree;
+    private final ExecutorService dataChangeResolverExecutor;
+    // Resolution tasks the executor rejected because its queue was full, in the order they were submitted.
+    private final Deque<Runnable> deferredResolutions = new ArrayDeque<>();
     private SchemaContext schemaContext;
 
+    // The candidate of the last transaction that was prepared but not yet committed, if any. Pipelined
+    // transactions are validated and prepared on top of it rather than the committed data tree.
+    private DataTreeCandidateTip preparedTip;
+
     ShardDataTree(final SchemaContext schemaContext) {
+        this(schemaContext, null);
+    }
+
+    /**
+     * @param dataChangeResolverExecutor single-threaded, non-blocking executor used to resolve data change events
+     *                                   off the shard actor, or null to resolve them synchronously when
+     *                                   committing.
+     */
+    ShardDataTree(final SchemaContext schemaContext, @Nullable final ExecutorService dataChangeResolverExecutor) {
         dataTree = InMemoryDataTreeFactory.getInstance().create();
+        this.dataChangeResolverExecutor = dataChangeResolverExecutor;
         updateSchemaContext(schemaContext);
-
     }
 
     TipProducingDataTree getDataTree() {
         return dataTree;
     }
 
+    /**
+     * Returns the candidate of the most recently prepared transaction that has not been committed yet.
+     *
+     * @return the prepared candidate or null if the committed data tree is the tip.
+     */
+    DataTreeCandidateTip getPreparedTip() {
+        return preparedTip;
+    }
+
+    void setPreparedTip(final DataTreeCandidateTip preparedTip) {
+        this.preparedTip = preparedTip;
+    }
+
+    void clearPreparedTip(final DataTreeCandidateTip committed) {
+        // Purposely checking reference equality - a later candidate prepared on top of the committed one
+        // remains the tip.
+        if (preparedTip == committed) {
+            preparedTip = null;
+        }
+    }
+
     SchemaContext getSchemaContext() {
         return schemaContext;
     }
@@ -98,14 +146,86 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         return ensureTransactionChain(chainId).newReadWriteTransaction(txId);
     }
 
+    SnapshotDeltaTracker getSnapshotDeltaTracker() {
+        return snapshotDeltaTracker;
+    }
+
     void notifyListeners(final DataTreeCandidate candidate) {
+        snapshotDeltaTracker.onCandidateApplied(candidate);
+
         LOG.debug("Notifying listeners on candidate {}", candidate);
 
         // DataTreeChanges first, as they are more light-weight
         treeChangePublisher.publishChanges(candidate);
 
         // DataChanges second, as they are heavier
-        ResolveDataChangeEventsTask.create(candidate, listenerTree).resolve(MANAGER);
+        final ResolveDataChangeEventsTask task = ResolveDataChangeEventsTask.create(candidate, listenerTree);
+        if(dataChangeResolverExecutor == null) {
+            task.resolve(MANAGER);
+            return;
+        }
+
+        // We are only ever called from the shard actor, so the tasks are queued in commit order
+        executeResolution(new Runnable() {
+            @Override
+            public void run() {
+                task.resolve(MANAGER);
+            }
+        });
+    }
+
+    /*
+     * The resolver executor's queue is bounded but rejects rather than blocks when full, so the shard actor is
+     * never stalled by a slow listener. A rejected task is deferred, along with every task submitted after it,
+     * until the queue has room again.
+     */
+    private void executeResolution(final Runnable task) {
+        synchronized(deferredResolutions) {
+            resubmitDeferredResolutions();
+            if(deferredResolutions.isEmpty()) {
+                try {
+                    dataChangeResolverExecutor.execute(task);
+                    return;
+                } catch(RejectedExecutionException e) {
+                    if(dataChangeResolverExecutor.isShutdown()) {
+                        LOG.debug("Data change resolver is shut down - dropping {}", task);
+                        return;
+                    }
+
+                    LOG.warn("Data change resolver queue is full - deferring data change event resolution");
+                }
+            }
+
+            deferredResolutions.add(task);
+        }
+    }
+
+    /**
+     * Resubmits the data change resolution tasks deferred because the resolver's queue was full, as far as it
+     * now has room for them.
+     */
+    void resubmitDeferredResolutions() {
+        if(dataChangeResolverExecutor == null) {
+            return;
+        }
+
+        synchronized(deferredResolutions) {
+            while(!deferredResolutions.isEmpty()) {
+                try {
+                    dataChangeResolverExecutor.execute(deferredResolutions.peek());
+                } catch(RejectedExecutionException e) {
+                    if(dataChangeResolverExecutor.isShutdown()) {
+                        LOG.debug("Data change resolver is shut down - dropping {} deferred tasks",
+                                deferredResolutions.size());
+                        deferredResolutions.clear();
+                    }
+
+                    return;
+                }
+
+                deferredResolutions.remove();
+            }
+        }
     }
 
     void closeAllTransactionChains() {
@@ -128,8 +248,12 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
     Entry<ListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>>, DOMImmutableDataChangeEvent> registerChangeListener(
             final YangInstanceIdentifier path,
             final AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>> listener, final DataChangeScope scope) {
-        final ListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>> reg =
-                listenerTree.registerDataChangeListener(path, listener, scope);
+        final ListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>> reg;
+        if(dataChangeResolverExecutor == null) {
+            reg = listenerTree.registerDataChangeListener(path, listener, scope);
+        } else {
+            reg = registerChangeListenerAsync(path, listener, scope);
+        }
 
         final Optional<NormalizedNode<?, ?>> currentState = dataTree.takeSnapshot().readNode(path);
         final DOMImmutableDataChangeEvent event;
@@ -143,6 +267,37 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         return new SimpleEntry<>(reg, event);
     }
 
+    /*
+     * With asynchronous resolution there may be commits whose events have not been resolved yet. The initial
+     * state we return already includes them, so the listener must not see them again - we add it to the tree
+     * from the resolver thread, once all the commits preceding the registration have been resolved.
+     */
+    private ListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>> registerChangeListenerAsync(
+            final YangInstanceIdentifier path,
+            final AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>> listener, final DataChangeScope scope) {
+        final SettableFuture<DataChangeListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>>> futureReg =
+                SettableFuture.create();
+        executeResolution(new Runnable() {
+            @Override
+            public void run() {
+                futureReg.set(listenerTree.registerDataChangeListener(path, listener, scope));
+            }
+        });
+
+        return new AbstractListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>>(listener) {
+            @Override
+            protected void removeRegistration() {
+                // Queued behind the registration task, hence the future is guaranteed to be set when we run
+                executeResolution(new Runnable() {
+                    @Override
+                    public void run() {
+                        Futures.getUnchecked(futureReg).close();
+                    }
+                });
+            }
+        };
+    }
+
     Entry<ListenerRegistration<DOMDataTreeChangeListener>, DataTreeCandidate> registerTreeChangeListener(final YangInstanceIdentifier path,
             final DOMDataTreeChangeListener listener) {
         final ListenerRegistration<DOMDataTreeChangeListener> reg = treeChangePublisher.registerTreeChangeListener(path, listener);
@@ -168,6 +323,10 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         dataTree.validate(mod);
         final DataTreeCandidate candidate = dataTree.prepare(mod);
         dataTree.commit(candidate);
+
+        // Any prepared candidate is now based on a stale root and can no longer be committed.
+        preparedTip = null;
+
         notifyListeners(candidate);
     }
 
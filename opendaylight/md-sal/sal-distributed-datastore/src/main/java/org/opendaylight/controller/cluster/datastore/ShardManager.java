@@ -15,26 +15,33 @@ import akka.actor.Cancellable;
 import akka.actor.OneForOneStrategy;
 import akka.actor.Props;
 import akka.actor.SupervisorStrategy;
+import akka.actor.Terminated;
 import akka.cluster.ClusterEvent;
+import akka.dispatch.OnComplete;
 import akka.japi.Creator;
 import akka.japi.Function;
+import akka.pattern.Patterns;
 import akka.persistence.RecoveryCompleted;
 import akka.serialization.Serialization;
+import akka.util.Timeout;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.controller.cluster.common.actor.AbstractUntypedPersistentActorWithMetering;
 import org.opendaylight.controller.cluster.datastore.exceptions.NoShardLeaderException;
 import org.opendaylight.controller.cluster.datastore.exceptions.NotInitializedException;
@@ -47,9 +54,12 @@ import org.opendaylight.controller.cluster.datastore.messages.ActorInitialized;
 import org.opendaylight.controller.cluster.datastore.messages.FindLocalShard;
 import org.opendaylight.controller.cluster.datastore.messages.FindPrimary;
 import org.opendaylight.controller.cluster.datastore.messages.LocalPrimaryShardFound;
+import org.opendaylight.controller.cluster.datastore.messages.LocalReplicaPrimaryShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.LocalShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.LocalShardNotFound;
 import org.opendaylight.controller.cluster.datastore.messages.PeerAddressResolved;
+import org.opendaylight.controller.cluster.datastore.messages.PrimaryShardChanged;
+import org.opendaylight.controller.cluster.datastore.messages.PrimaryShardInfo;
 import org.opendaylight.controller.cluster.datastore.messages.RemoteFindPrimary;
 import org.opendaylight.controller.cluster.datastore.messages.RemotePrimaryShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.ShardLeaderStateChanged;
@@ -60,11 +70,14 @@ import org.opendaylight.controller.cluster.notifications.RegisterRoleChangeListe
 import org.opendaylight.controller.cluster.notifications.RoleChangeNotification;
 import org.opendaylight.controller.cluster.raft.RaftState;
 import org.opendaylight.controller.cluster.raft.base.messages.FollowerInitialSyncUpStatus;
+import org.opendaylight.controller.cluster.raft.client.messages.TransferLeadership;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.concurrent.Future;
 import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
 
 /**
  * The ShardManager has the following jobs,
@@ -109,6 +122,15 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
 
     private final PrimaryShardInfoFutureCache primaryShardInfoCache;
 
+    private final ActorRef replicationChannel;
+
+    private final Set<String> unreachableMembers = new HashSet<>();
+
+    private Cancellable leaderBalancingSchedule;
+
+    // The name of the local shard whose leadership is being transferred by leader balancing, if any.
+    private String leaderBalancingTransferShard;
+
     /**
      */
     protected ShardManager(ClusterWrapper cluster, Configuration configuration,
@@ -129,6 +151,13 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         cluster.subscribeToMemberEvents(getSelf());
 
         createLocalShards();
+
+        // The channel is always created so the frames of members with replication multiplexing enabled are
+        // delivered, whether or not it is enabled for this member.
+        replicationChannel = getContext().actorOf(ShardReplicationChannel.props(datastoreContext),
+                ShardReplicationChannel.NAME);
+
+        scheduleLeaderBalancing();
     }
 
     public static Props props(
@@ -151,6 +180,8 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
     public void postStop() {
         LOG.info("Stopping ShardManager");
 
+        cancelLeaderBalancing();
+
         mBean.unregisterMBean();
     }
 
@@ -182,6 +213,14 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
             onShardNotInitializedTimeout((ShardNotInitializedTimeout)message);
         } else if(message instanceof ShardLeaderStateChanged) {
             onLeaderStateChanged((ShardLeaderStateChanged)message);
+        } else if(message instanceof PrimaryShardChanged) {
+            onPrimaryShardChanged((PrimaryShardChanged)message);
+        } else if(message instanceof BalanceShardLeaders) {
+            balanceShardLeaders();
+        } else if(message instanceof LeadershipTransferReply) {
+            onLeadershipTransferReply((LeadershipTransferReply)message);
+        } else if(message instanceof Terminated) {
+            onTerminated((Terminated)message);
         } else {
             unknownMessage(message);
         }
@@ -203,9 +242,15 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         ShardInformation shardInformation = findShardInformation(leaderStateChanged.getMemberId());
         if(shardInformation != null) {
             shardInformation.setLocalDataTree(leaderStateChanged.getLocalShardDataTree());
+            shardInformation.setLocalReadReplica(leaderStateChanged.getLocalReadReplica());
             shardInformation.setLeaderVersion(leaderStateChanged.getLeaderPayloadVersion());
             if(shardInformation.setLeaderId(leaderStateChanged.getLeaderId())) {
                 primaryShardInfoCache.remove(shardInformation.getShardName());
+                mBean.setShardLeaderDistribution(getShardLeaderDistribution());
+
+                if(shardInformation.isLeader()) {
+                    broadcastPrimaryShardChanged(shardInformation, leaderStateChanged.getLeaderTerm());
+                }
             }
 
             checkReady();
@@ -214,6 +259,38 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         }
     }
 
+    /**
+     * Tells the ShardManagers of the other members that the given local shard is now the leader. Members without
+     * a local replica of the shard would otherwise only find out once a transaction fails against the old leader.
+     */
+    private void broadcastPrimaryShardChanged(ShardInformation info, long leaderTerm) {
+        PrimaryShardChanged message = new PrimaryShardChanged(info.getShardName(), info.getSerializedLeaderActor(),
+                info.getLeaderVersion(), leaderTerm);
+        for(Map.Entry<String, Address> entry: memberNameToAddress.entrySet()) {
+            if(!cluster.getCurrentMemberName().equals(entry.getKey())) {
+                String path = getShardManagerActorPathBuilder(entry.getValue()).toString();
+
+                LOG.debug("{}: Sending {} to {}", persistenceId(), message, path);
+
+                getContext().actorSelection(path).tell(message, getSelf());
+            }
+        }
+    }
+
+    private void onPrimaryShardChanged(PrimaryShardChanged message) {
+        LOG.debug("{}: Received {}", persistenceId(), message);
+
+        // A local replica hears about the new leader via Raft and the cached entry is invalidated then.
+        if(localShards.containsKey(message.getShardName())) {
+            return;
+        }
+
+        // Only replace an existing entry - the cache is otherwise populated on demand by FindPrimary.
+        PrimaryShardInfo info = new PrimaryShardInfo(getContext().system().actorSelection(message.getPrimaryPath()),
+                message.getPrimaryVersion(), Optional.<DataTree>absent());
+        primaryShardInfoCache.replaceIfPresent(message.getShardName(), info, message.getLeaderTerm());
+    }
+
     private void onShardNotInitializedTimeout(ShardNotInitializedTimeout message) {
         ShardInformation shardInfo = message.getShardInfo();
 
@@ -406,6 +483,7 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
                 message.member().address());
 
         memberNameToAddress.remove(message.member().roles().head());
+        unreachableMembers.remove(memberName);
     }
 
     private void memberUp(ClusterEvent.MemberUp message) {
@@ -429,6 +507,7 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         String memberName = message.member().roles().head();
         LOG.debug("Received ReachableMember: memberName {}, address: {}", memberName, message.member().address());
 
+        unreachableMembers.remove(memberName);
         markMemberAvailable(memberName);
     }
 
@@ -436,6 +515,7 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         String memberName = message.member().roles().head();
         LOG.debug("Received UnreachableMember: memberName {}, address: {}", memberName, message.member().address());
 
+        unreachableMembers.add(memberName);
         markMemberUnavailable(memberName);
     }
 
@@ -468,6 +548,155 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
                 info.getActor().tell(datastoreContext, getSelf());
             }
         }
+
+        replicationChannel.tell(datastoreContext, getSelf());
+
+        cancelLeaderBalancing();
+        scheduleLeaderBalancing();
+    }
+
+    private void scheduleLeaderBalancing() {
+        if(datastoreContext.isShardLeaderBalancingEnabled()) {
+            FiniteDuration interval = new FiniteDuration(
+                    datastoreContext.getShardLeaderBalancingIntervalInSeconds(), TimeUnit.SECONDS);
+            leaderBalancingSchedule = getContext().system().scheduler().schedule(interval, interval, getSelf(),
+                    BalanceShardLeaders.INSTANCE, getContext().dispatcher(), getSelf());
+        }
+    }
+
+    private void cancelLeaderBalancing() {
+        if(leaderBalancingSchedule != null) {
+            leaderBalancingSchedule.cancel();
+            leaderBalancingSchedule = null;
+        }
+    }
+
+    /**
+     * Returns the number of local shards led by each member hosting any of them, as last reported by the
+     * local shards.
+     */
+    private Map<String, Integer> getShardLeaderDistribution() {
+        Map<String, Integer> distribution = new HashMap<>();
+        for(ShardInformation info: localShards.values()) {
+            for(String memberName: configuration.getMembersFromShardName(info.getShardName())) {
+                if(!distribution.containsKey(memberName)) {
+                    distribution.put(memberName, 0);
+                }
+            }
+        }
+
+        for(ShardInformation info: localShards.values()) {
+            String leaderId = info.getLeaderId();
+            if(leaderId != null) {
+                String memberName = ShardIdentifier.builder().fromShardIdString(leaderId).build().getMemberName();
+                Integer count = distribution.get(memberName);
+                distribution.put(memberName, count != null ? count + 1 : 1);
+            }
+        }
+
+        return distribution;
+    }
+
+    /**
+     * Moves the leadership of one of the local shards this member leads to the member leading the fewest
+     * shards, if this member leads at least 2 more. Each member only ever gives away leadership, one shard at a
+     * time, so the members converge on an even distribution without coordinating with each other.
+     */
+    private void balanceShardLeaders() {
+        if(leaderBalancingTransferShard != null) {
+            LOG.debug("{}: Leadership transfer for shard {} still in progress", persistenceId(),
+                    leaderBalancingTransferShard);
+            return;
+        }
+
+        String currentMemberName = cluster.getCurrentMemberName();
+        Map<String, Integer> distribution = getShardLeaderDistribution();
+        mBean.setShardLeaderDistribution(distribution);
+
+        int leaderCount = distribution.containsKey(currentMemberName) ? distribution.get(currentMemberName) : 0;
+
+        ShardInformation transferShard = null;
+        String transferMemberName = null;
+        int transferMemberLeaderCount = leaderCount - 1;
+        for(ShardInformation info: localShards.values()) {
+            if(!info.isLeader() || info.getActor() == null) {
+                continue;
+            }
+
+            Set<String> nonVotingMembers = configuration.getNonVotingMembersFromShardName(info.getShardName());
+            for(String memberName: configuration.getMembersFromShardName(info.getShardName())) {
+                if(memberName.equals(currentMemberName) || !memberNameToAddress.containsKey(memberName) ||
+                        unreachableMembers.contains(memberName) || nonVotingMembers.contains(memberName)) {
+                    continue;
+                }
+
+                int memberLeaderCount = distribution.get(memberName);
+                if(memberLeaderCount < transferMemberLeaderCount) {
+                    transferShard = info;
+                    transferMemberName = memberName;
+                    transferMemberLeaderCount = memberLeaderCount;
+                }
+            }
+        }
+
+        if(transferShard == null) {
+            LOG.debug("{}: Shard leaders are balanced: {}", persistenceId(), distribution);
+            return;
+        }
+
+        String targetId = getShardIdentifier(transferMemberName, transferShard.getShardName()).toString();
+
+        LOG.info("{}: Transferring leadership of shard {} to {} - leader distribution: {}", persistenceId(),
+                transferShard.getShardName(), targetId, distribution);
+
+        final String shardName = transferShard.getShardName();
+        leaderBalancingTransferShard = shardName;
+
+        // The shard gives up on the transfer after 2 election timeouts - allow for that plus some slack so the
+        // in-flight marker is still cleared if the shard stops or restarts without replying.
+        Timeout timeout = new Timeout(datastoreContext.getShardRaftConfig().getElectionTimeOutInterval().
+                toMillis() * 4, TimeUnit.MILLISECONDS);
+        getContext().watch(transferShard.getActor());
+        Future<Object> future = Patterns.ask(transferShard.getActor(), new TransferLeadership(targetId), timeout);
+
+        final ActorRef self = getSelf();
+        future.onComplete(new OnComplete<Object>() {
+            @Override
+            public void onComplete(Throwable failure, Object reply) {
+                // A Status.Failure reply or an ask timeout both complete the future with a failure.
+                self.tell(new LeadershipTransferReply(shardName, failure), ActorRef.noSender());
+            }
+        }, getContext().dispatcher());
+    }
+
+    private void onLeadershipTransferReply(LeadershipTransferReply reply) {
+        if(!reply.getShardName().equals(leaderBalancingTransferShard)) {
+            LOG.debug("{}: Ignoring leadership transfer reply for shard {} - current transfer is for shard {}",
+                    persistenceId(), reply.getShardName(), leaderBalancingTransferShard);
+            return;
+        }
+
+        if(reply.getFailure() != null) {
+            LOG.warn("{}: Leadership transfer for shard {} failed", persistenceId(), leaderBalancingTransferShard,
+                    reply.getFailure());
+        } else {
+            LOG.info("{}: Leadership transfer for shard {} completed", persistenceId(), leaderBalancingTransferShard);
+        }
+
+        leaderBalancingTransferShard = null;
+    }
+
+    private void onTerminated(Terminated message) {
+        if(leaderBalancingTransferShard == null) {
+            return;
+        }
+
+        ShardInformation info = localShards.get(leaderBalancingTransferShard);
+        if(info == null || message.getActor().equals(info.getActor())) {
+            LOG.warn("{}: Shard {} terminated during leadership transfer", persistenceId(),
+                    leaderBalancingTransferShard);
+            leaderBalancingTransferShard = null;
+        }
     }
 
     /**
@@ -498,7 +727,7 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
     @VisibleForTesting
     protected ActorRef newShardActor(final SchemaContext schemaContext, ShardInformation info) {
         return getContext().actorOf(Shard.props(info.getShardId(),
-                info.getPeerAddresses(), datastoreContext, schemaContext)
+                info.getPeerAddresses(), info.getNonVotingMemberIds(), datastoreContext, schemaContext)
                         .withDispatcher(shardDispatcherPath), info.getShardId().toString());
     }
 
@@ -515,9 +744,16 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
                 @Override
                 public Object get() {
                     String primaryPath = info.getSerializedLeaderActor();
-                    Object found = canReturnLocalShardState && info.isLeader() ?
-                            new LocalPrimaryShardFound(primaryPath, info.getLocalShardDataTree().get()) :
-                                new RemotePrimaryShardFound(primaryPath, info.getLeaderVersion());
+                    Object found;
+                    if(canReturnLocalShardState && info.isLeader()) {
+                        found = new LocalPrimaryShardFound(primaryPath, info.getLocalShardDataTree().get());
+                    } else if(canReturnLocalShardState && datastoreContext.isFollowerReadsEnabled() &&
+                            info.getLocalReadReplica().isPresent()) {
+                        found = new LocalReplicaPrimaryShardFound(primaryPath, info.getLeaderVersion(),
+                                info.getLocalReadReplica().get());
+                    } else {
+                        found = new RemotePrimaryShardFound(primaryPath, info.getLeaderVersion());
+                    }
 
                     if(LOG.isDebugEnabled()) {
                         LOG.debug("{}: Found primary for {}: {}", persistenceId(), shardName, found);
@@ -593,7 +829,8 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
             ShardIdentifier shardId = getShardIdentifier(memberName, shardName);
             Map<String, String> peerAddresses = getPeerAddresses(shardName);
             localShardActorNames.add(shardId.toString());
-            localShards.put(shardName, new ShardInformation(shardName, shardId, peerAddresses));
+            localShards.put(shardName, new ShardInformation(shardName, shardId, peerAddresses,
+                    getNonVotingMemberIds(shardName)));
         }
 
         mBean = ShardManagerInfo.createShardManagerMBean("shard-manager-" + this.type,
@@ -624,6 +861,19 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         return peerAddresses;
     }
 
+    /**
+     * Given the name of the shard find the ids of the shard's non-voting replicas, possibly including the local
+     * one.
+     */
+    private Set<String> getNonVotingMemberIds(String shardName) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for(String memberName : configuration.getNonVotingMembersFromShardName(shardName)) {
+            builder.add(getShardIdentifier(memberName, shardName).toString());
+        }
+
+        return builder.build();
+    }
+
     @Override
     public SupervisorStrategy supervisorStrategy() {
 
@@ -656,7 +906,9 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         private ActorRef actor;
         private ActorPath actorPath;
         private final Map<String, String> peerAddresses;
+        private final Set<String> nonVotingMemberIds;
         private Optional<DataTree> localShardDataTree;
+        private Optional<LocalReadReplica> localReadReplica = Optional.absent();
         private boolean leaderAvailable = false;
 
         // flag that determines if the actor is ready for business
@@ -670,10 +922,11 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         private short leaderVersion;
 
         private ShardInformation(String shardName, ShardIdentifier shardId,
-                Map<String, String> peerAddresses) {
+                Map<String, String> peerAddresses, Set<String> nonVotingMemberIds) {
             this.shardName = shardName;
             this.shardId = shardId;
             this.peerAddresses = peerAddresses;
+            this.nonVotingMemberIds = nonVotingMemberIds;
         }
 
         String getShardName() {
@@ -705,6 +958,18 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
             return localShardDataTree;
         }
 
+        void setLocalReadReplica(Optional<LocalReadReplica> localReadReplica) {
+            this.localReadReplica = localReadReplica;
+        }
+
+        Optional<LocalReadReplica> getLocalReadReplica() {
+            return localReadReplica;
+        }
+
+        Set<String> getNonVotingMemberIds() {
+            return nonVotingMemberIds;
+        }
+
         Map<String, String> getPeerAddresses() {
             return peerAddresses;
         }
@@ -891,6 +1156,33 @@ public class ShardManager extends AbstractUntypedPersistentActorWithMetering {
         }
     }
 
+    @VisibleForTesting
+    static final class BalanceShardLeaders {
+        static final BalanceShardLeaders INSTANCE = new BalanceShardLeaders();
+
+        private BalanceShardLeaders() {
+        }
+    }
+
+    @VisibleForTesting
+    static final class LeadershipTransferReply {
+        private final String shardName;
+        private final Throwable failure;
+
+        LeadershipTransferReply(String shardName, Throwable failure) {
+            this.shardName = shardName;
+            this.failure = failure;
+        }
+
+        String getShardName() {
+            return shardName;
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+    }
+
     private static class ShardNotInitializedTimeout {
         private final ActorRef sender;
         private final ShardInformation shardInfo;
@@ -13,11 +13,15 @@ package org.opendaylight.controller.cluster.datastore;
 import akka.actor.ActorRef;
 import akka.actor.PoisonPill;
 import com.google.common.base.Optional;
+import java.io.IOException;
 import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
 import org.opendaylight.controller.cluster.datastore.messages.CreateSnapshot;
 import org.opendaylight.controller.cluster.datastore.messages.DataExists;
 import org.opendaylight.controller.cluster.datastore.messages.ReadData;
+import org.opendaylight.controller.cluster.datastore.utils.CompressionUtils;
+import org.opendaylight.controller.cluster.datastore.utils.DeltaSnapshot;
 import org.opendaylight.controller.cluster.datastore.utils.SerializationUtils;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
 import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshotReply;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -45,7 +49,7 @@ public class ShardReadTransaction extends ShardTransaction {
         } else if (message instanceof DataExists) {
             dataExists(transaction, (DataExists) message, !SERIALIZED_REPLY);
         } else if (message instanceof CreateSnapshot) {
-            createSnapshot();
+            createSnapshot((CreateSnapshot) message);
         } else if(ReadData.SERIALIZABLE_CLASS.equals(message.getClass())) {
             readData(transaction, ReadData.fromSerializable(message), SERIALIZED_REPLY);
 
@@ -57,7 +61,7 @@ public class ShardReadTransaction extends ShardTransaction {
         }
     }
 
-    private void createSnapshot() {
+    private void createSnapshot(CreateSnapshot message) {
 
         // This is a special message sent by the shard to send back a serialized snapshot of the whole
         // data store tree. This transaction was created for that purpose only so we can
@@ -65,9 +69,35 @@ public class ShardReadTransaction extends ShardTransaction {
 
         final ActorRef sender = getSender();
         final ActorRef self = getSelf();
-        final Optional<NormalizedNode<?, ?>> result = transaction.getSnapshot().readNode(DATASTORE_ROOT);
+        final SnapshotBaseStore baseStore = message.getBaseStore();
+
+        // A delta is only created if its base was actually saved, otherwise a full snapshot is created and
+        // saved as the base instead. The delta paths are a superset of the changes since the later base so
+        // subsequent deltas remain valid.
+        byte[] serialized;
+        boolean isBase;
+        if(message.getDeltaPaths() != null && baseStore.contains(message.getBaseId())) {
+            serialized = DeltaSnapshot.serialize(message.getBaseId(), transaction.getSnapshot(),
+                    message.getDeltaPaths());
+            isBase = false;
+        } else {
+            final Optional<NormalizedNode<?, ?>> result = transaction.getSnapshot().readNode(DATASTORE_ROOT);
+            serialized = SerializationUtils.serializeNormalizedNode(result.get());
+            isBase = baseStore != null;
+        }
+
+        if(message.isCompressed()) {
+            serialized = CompressionUtils.compress(serialized, getShardStats());
+        }
+
+        if(isBase) {
+            try {
+                baseStore.save(message.getBaseId(), serialized);
+            } catch (IOException e) {
+                LOG.error("Failed to save snapshot base {}", message.getBaseId(), e);
+            }
+        }
 
-        byte[] serialized = SerializationUtils.serializeNormalizedNode(result.get());
         sender.tell(new CaptureSnapshotReply(serialized), self);
 
         self.tell(PoisonPill.getInstance(), self);
@@ -8,14 +8,31 @@
 package org.opendaylight.controller.cluster.datastore;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
 import org.opendaylight.controller.cluster.datastore.modification.ModificationPayload;
 import org.opendaylight.controller.cluster.datastore.modification.MutableCompositeModification;
 import org.opendaylight.controller.cluster.datastore.node.utils.transformer.NormalizedNodePruner;
+import org.opendaylight.controller.cluster.datastore.utils.CompressionUtils;
+import org.opendaylight.controller.cluster.datastore.utils.DeltaSnapshot;
 import org.opendaylight.controller.cluster.datastore.utils.PruningDataTreeModification;
 import org.opendaylight.controller.cluster.datastore.utils.SerializationUtils;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
 import org.opendaylight.controller.cluster.raft.RaftActorRecoveryCohort;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.CompositeModificationByteStringPayload;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.CompositeModificationPayload;
@@ -23,6 +40,7 @@ import org.opendaylight.controller.cluster.raft.protobuff.client.messages.Payloa
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
@@ -30,63 +48,161 @@ import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.slf4j.Logger;
 
 /**
- * Coordinates persistence recovery of journal log entries and snapshots for a shard. Each snapshot
- * and journal log entry batch are de-serialized and applied to their own write transaction
- * instance in parallel on a thread pool for faster recovery time. However the transactions are
- * committed to the data store in the order the corresponding snapshot or log batch are received
- * to preserve data store integrity.
+ * Coordinates persistence recovery of journal log entries and snapshots for a shard. Recovery is pipelined:
+ * the recovered snapshot and journal log entry payloads are de-serialized on a pool of worker threads while
+ * the journal is still being read, up to a bounded number of entries ahead of the apply stage. The
+ * de-serialized snapshot and log entries are applied to the data store in the order they were received
+ * on the shard actor to preserve data store integrity.
+ *
+ * <p>
+ * The snapshot, if any, is applied lazily, ie before the first log entry batch is applied or when
+ * {@link #completeRecovery} is called.
  *
  * @author Thomas Pantelis
  */
 class ShardRecoveryCoordinator implements RaftActorRecoveryCohort {
     private static final YangInstanceIdentifier ROOT = YangInstanceIdentifier.builder().build();
+
+    // The maximum number of log entries de-serialized ahead of the apply stage.
+    private static final int MAX_DECODE_LOOK_AHEAD = 256;
+
+    private static final int DECODE_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     private final DataTree store;
     private final String shardName;
     private final Logger log;
     private final Set<URI> validNamespaces;
+    private final ShardStats shardStats;
+    private final SnapshotBaseStore snapshotBaseStore;
+    private final Deque<Future<Object>> pendingDecodes = new ArrayDeque<>();
+    private final AtomicLong logDecodeNanos = new AtomicLong();
+    private final Stopwatch applyTimer = Stopwatch.createUnstarted();
+    private Stopwatch recoveryTimer;
+    private ExecutorService decodeExecutor;
+    private Future<RecoveredSnapshot> pendingSnapshot;
+    private long snapshotDecodeNanos;
     private PruningDataTreeModification transaction;
+    private boolean batchStarted;
+    private int maxLookAhead;
     private int size;
+    private long recoveredLogEntryCount;
 
     ShardRecoveryCoordinator(ShardDataTree store, SchemaContext schemaContext, String shardName, Logger log) {
+        this(store, schemaContext, shardName, log, null, null);
+    }
+
+    ShardRecoveryCoordinator(ShardDataTree store, SchemaContext schemaContext, String shardName, Logger log,
+            @Nullable ShardStats shardStats, @Nullable SnapshotBaseStore snapshotBaseStore) {
         this.store = store.getDataTree();
         this.shardName = shardName;
         this.log = log;
         this.validNamespaces = NormalizedNodePruner.namespaces(schemaContext);
+        this.shardStats = shardStats;
+        this.snapshotBaseStore = snapshotBaseStore;
+    }
+
+    private void initRecoveryTimer() {
+        if(recoveryTimer == null) {
+            recoveryTimer = Stopwatch.createStarted();
+        }
+    }
+
+    private ExecutorService decodeExecutor() {
+        if(decodeExecutor == null) {
+            // The threads time out when idle so they don't linger if the shard is stopped mid-recovery.
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 10,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat(shardName + "-recovery-%d").build());
+            executor.allowCoreThreadTimeOut(true);
+            decodeExecutor = executor;
+        }
+
+        return decodeExecutor;
     }
 
     @Override
     public void startLogRecoveryBatch(int maxBatchSize) {
         log.debug("{}: starting log recovery batch with max size {}", shardName, maxBatchSize);
-        transaction = new PruningDataTreeModification(store.takeSnapshot().newModification(), validNamespaces);
+        initRecoveryTimer();
+        batchStarted = true;
+        maxLookAhead = Math.max(1, Math.min(maxBatchSize, MAX_DECODE_LOOK_AHEAD));
         size = 0;
     }
 
     @Override
-    public void appendRecoveredLogEntry(Payload payload) {
-        Preconditions.checkState(transaction != null, "call startLogRecovery before calling appendRecoveredLogEntry");
+    public void appendRecoveredLogEntry(final Payload payload) {
+        Preconditions.checkState(batchStarted, "call startLogRecovery before calling appendRecoveredLogEntry");
 
-        try {
-            if (payload instanceof DataTreeCandidatePayload) {
-                DataTreeCandidates.applyToModification(transaction, ((DataTreeCandidatePayload)payload).getCandidate());
-                size++;
-            } else if (payload instanceof ModificationPayload) {
-                MutableCompositeModification.fromSerializable(
-                    ((ModificationPayload) payload).getModification()).apply(transaction);
-                size++;
-            } else if (payload instanceof CompositeModificationPayload) {
-                MutableCompositeModification.fromSerializable(
-                    ((CompositeModificationPayload) payload).getModification()).apply(transaction);
-                size++;
-            } else if (payload instanceof CompositeModificationByteStringPayload) {
-                MutableCompositeModification.fromSerializable(
-                        ((CompositeModificationByteStringPayload) payload).getModification()).apply(transaction);
-                size++;
-            } else {
-                log.error("{}: Unknown payload {} received during recovery", shardName, payload);
+        if (!(payload instanceof DataTreeCandidatePayload) && !(payload instanceof ModificationPayload) &&
+                !(payload instanceof CompositeModificationPayload) &&
+                !(payload instanceof CompositeModificationByteStringPayload)) {
+            log.error("{}: Unknown payload {} received during recovery", shardName, payload);
+            return;
+        }
+
+        pendingDecodes.add(decodeExecutor().submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                long start = System.nanoTime();
+                try {
+                    return decode(payload);
+                } finally {
+                    logDecodeNanos.addAndGet(System.nanoTime() - start);
+                }
             }
-        } catch (IOException | ClassNotFoundException e) {
+        }));
+
+        while(pendingDecodes.size() > maxLookAhead) {
+            applyNextDecoded();
+        }
+    }
+
+    private static Object decode(Payload payload) throws IOException, ClassNotFoundException {
+        if (payload instanceof DataTreeCandidatePayload) {
+            return ((DataTreeCandidatePayload)payload).getCandidate();
+        } else if (payload instanceof ModificationPayload) {
+            return MutableCompositeModification.fromSerializable(((ModificationPayload) payload).getModification());
+        } else if (payload instanceof CompositeModificationPayload) {
+            return MutableCompositeModification.fromSerializable(
+                    ((CompositeModificationPayload) payload).getModification());
+        } else {
+            return MutableCompositeModification.fromSerializable(
+                    ((CompositeModificationByteStringPayload) payload).getModification());
+        }
+    }
+
+    private void applyNextDecoded() {
+        Object decoded;
+        try {
+            decoded = pendingDecodes.remove().get();
+        } catch (InterruptedException | ExecutionException e) {
             log.error("{}: Error extracting ModificationPayload", shardName, e);
+            return;
+        }
+
+        PruningDataTreeModification tx = currentTransaction();
+
+        applyTimer.start();
+        if (decoded instanceof DataTreeCandidate) {
+            DataTreeCandidates.applyToModification(tx, (DataTreeCandidate) decoded);
+        } else {
+            ((MutableCompositeModification) decoded).apply(tx);
+        }
+
+        applyTimer.stop();
+
+        size++;
+        recoveredLogEntryCount++;
+    }
+
+    private PruningDataTreeModification currentTransaction() {
+        if(transaction == null) {
+            // The batch must be applied on top of the recovered snapshot.
+            applyPendingSnapshot();
+            transaction = new PruningDataTreeModification(store.takeSnapshot().newModification(), validNamespaces);
         }
+
+        return transaction;
     }
 
     private void commitTransaction(PruningDataTreeModification tx) throws DataValidationFailedException {
@@ -101,19 +217,31 @@ class ShardRecoveryCoordinator implements RaftActorRecoveryCohort {
      */
     @Override
     public void applyCurrentLogRecoveryBatch() {
-        Preconditions.checkState(transaction != null, "call startLogRecovery before calling applyCurrentLogRecoveryBatch");
+        Preconditions.checkState(batchStarted, "call startLogRecovery before calling applyCurrentLogRecoveryBatch");
+
+        while(!pendingDecodes.isEmpty()) {
+            applyNextDecoded();
+        }
 
         log.debug("{}: Applying current log recovery batch with size {}", shardName, size);
+        PruningDataTreeModification tx = currentTransaction();
         try {
-            commitTransaction(transaction);
+            applyTimer.start();
+            commitTransaction(tx);
         } catch (DataValidationFailedException e) {
             log.error("{}: Failed to apply recovery batch", shardName, e);
+        } finally {
+            applyTimer.stop();
         }
+
         transaction = null;
+        batchStarted = false;
     }
 
     /**
-     * Applies a recovered snapshot to the data store.
+     * Starts de-serializing a recovered snapshot. The snapshot is applied to the data store before the
+     * next log entry batch or on recovery completion, which lets it overlap with reading the journal.
+     * A delta snapshot is applied on top of its base, which is loaded from the snapshot base store.
      *
      * @param snapshotBytes the serialized snapshot
      */
@@ -121,13 +249,100 @@ class ShardRecoveryCoordinator implements RaftActorRecoveryCohort {
     public void applyRecoverySnapshot(final byte[] snapshotBytes) {
         log.debug("{}: Applying recovered snapshot", shardName);
 
-        final NormalizedNode<?, ?> node = SerializationUtils.deserializeNormalizedNode(snapshotBytes);
+        initRecoveryTimer();
+        applyPendingSnapshot();
+
+        pendingSnapshot = decodeExecutor().submit(new Callable<RecoveredSnapshot>() {
+            @Override
+            public RecoveredSnapshot call() throws IOException {
+                long start = System.nanoTime();
+                try {
+                    byte[] bytes = CompressionUtils.decompress(snapshotBytes, shardStats);
+                    if(!DeltaSnapshot.isDeltaSnapshot(bytes)) {
+                        return new RecoveredSnapshot(SerializationUtils.deserializeNormalizedNode(bytes), null);
+                    }
+
+                    Preconditions.checkState(snapshotBaseStore != null, "Delta snapshots are not supported");
+                    DeltaSnapshot delta = DeltaSnapshot.deserialize(bytes);
+                    log.debug("{}: Recovered delta snapshot with {} subtrees on base {}", shardName,
+                            delta.size(), delta.getBaseId());
+
+                    return new RecoveredSnapshot(snapshotBaseStore.load(delta.getBaseId(), shardStats), delta);
+                } finally {
+                    snapshotDecodeNanos = System.nanoTime() - start;
+                }
+            }
+        });
+    }
+
+    private void applyPendingSnapshot() {
+        if(pendingSnapshot == null) {
+            return;
+        }
+
+        final RecoveredSnapshot snapshot;
+        try {
+            snapshot = pendingSnapshot.get();
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("{}: Failed to de-serialize recovery snapshot", shardName, e);
+            return;
+        } finally {
+            pendingSnapshot = null;
+        }
+
+        applyTimer.start();
         final PruningDataTreeModification tx = new PruningDataTreeModification(store.takeSnapshot().newModification(), validNamespaces);
-        tx.write(ROOT, node);
+        tx.write(ROOT, snapshot.node);
+        if(snapshot.delta != null) {
+            snapshot.delta.applyTo(tx);
+        }
+
         try {
             commitTransaction(tx);
         } catch (DataValidationFailedException e) {
             log.error("{}: Failed to apply recovery snapshot", shardName, e);
+        } finally {
+            applyTimer.stop();
+        }
+    }
+
+    /**
+     * Completes recovery, ie applies the recovered snapshot if it hasn't been yet, releases the worker
+     * threads and records the recovery statistics.
+     */
+    void completeRecovery() {
+        applyPendingSnapshot();
+
+        if(decodeExecutor != null) {
+            decodeExecutor.shutdown();
+            decodeExecutor = null;
+        }
+
+        if(recoveryTimer == null) {
+            return;
+        }
+
+        long recoveryMillis = recoveryTimer.stop().elapsed(TimeUnit.MILLISECONDS);
+        long snapshotDecodeMillis = TimeUnit.NANOSECONDS.toMillis(snapshotDecodeNanos);
+        long logDecodeMillis = TimeUnit.NANOSECONDS.toMillis(logDecodeNanos.get());
+        long applyMillis = applyTimer.elapsed(TimeUnit.MILLISECONDS);
+
+        log.info("{}: Recovered {} log entries in {} ms - snapshot decode: {} ms, log entry decode: {} ms, apply: {} ms",
+                shardName, recoveredLogEntryCount, recoveryMillis, snapshotDecodeMillis, logDecodeMillis, applyMillis);
+
+        if(shardStats != null) {
+            shardStats.setRecoveryStats(recoveredLogEntryCount, recoveryMillis, snapshotDecodeMillis,
+                    logDecodeMillis, applyMillis);
+        }
+    }
+
+    private static final class RecoveredSnapshot {
+        final NormalizedNode<?, ?> node;
+        final DeltaSnapshot delta;
+
+        RecoveredSnapshot(NormalizedNode<?, ?> node, @Nullable DeltaSnapshot delta) {
+            this.node = node;
+            this.delta = delta;
         }
     }
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSelection;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import akka.japi.Creator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.common.actor.AbstractUntypedActor;
+import org.opendaylight.controller.cluster.datastore.messages.ReplicationFrame;
+import org.opendaylight.controller.cluster.raft.AppendEntriesSender;
+import org.opendaylight.controller.cluster.raft.messages.AppendEntries;
+import scala.concurrent.duration.FiniteDuration;
+
+/**
+ * Actor, one per ShardManager, that multiplexes the AppendEntries sent by the local shard leaders to followers on
+ * other members, and the followers' replies, into {@link ReplicationFrame}s sent to the channel of the other
+ * member, which delivers each message to its local shard actor.
+ * <p>
+ * AppendEntries carrying log entries and replies are sent with whatever else is queued for the member as soon as
+ * the messages already in the mailbox are processed, so they're only held back for as long as it takes to batch
+ * messages that are sent together anyway. Heartbeats, which otherwise are by far the most frequent message for
+ * idle shards, are held back for up to the configured linger so those of the shards on independent heartbeat
+ * schedules are combined.
+ * <p>
+ * The AppendEntries are delivered with this actor as the sender so the follower's reply comes back here and is
+ * routed to the leader through the channels as well.
+ */
+class ShardReplicationChannel extends AbstractUntypedActor {
+    static final String NAME = "shard-replication-channel";
+
+    // Keyed by the path of the channel on the other member, in the order first queued.
+    private final Map<String, List<ReplicationFrame.Entry>> pendingFrames = new LinkedHashMap<>();
+
+    // The leader to route the reply of each local follower to, keyed by the follower's path.
+    private final Map<String, ActorRef> replyRoutes = new HashMap<>();
+
+    private FiniteDuration heartbeatLinger;
+    private Cancellable flushSchedule;
+    private boolean flushQueued;
+
+    private ShardReplicationChannel(DatastoreContext datastoreContext) {
+        setDatastoreContext(datastoreContext);
+    }
+
+    static Props props(DatastoreContext datastoreContext) {
+        return Props.create(new ShardReplicationChannelCreator(datastoreContext));
+    }
+
+    /**
+     * Returns an AppendEntriesSender that sends the AppendEntries to followers on other members through the
+     * given channel.
+     */
+    static AppendEntriesSender newAppendEntriesSender(final ActorSelection channel) {
+        return new AppendEntriesSender() {
+            @Override
+            public void send(ActorSelection follower, AppendEntries appendEntries, ActorRef leader) {
+                if(follower.anchorPath().address().hasLocalScope()) {
+                    DIRECT.send(follower, appendEntries, leader);
+                } else {
+                    channel.tell(new Outbound(follower, appendEntries.toSerializable(),
+                            appendEntries.getEntries().isEmpty()), leader);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        super.postStop();
+
+        cancelFlushSchedule();
+    }
+
+    @Override
+    protected void handleReceive(Object message) throws Exception {
+        if(message instanceof Outbound) {
+            onOutbound((Outbound) message);
+        } else if(message instanceof ReplicationFrame) {
+            onReplicationFrame((ReplicationFrame) message);
+        } else if(message instanceof FlushFrames) {
+            flushFrames();
+        } else if(message instanceof DatastoreContext) {
+            setDatastoreContext((DatastoreContext) message);
+        } else {
+            ActorRef leader = replyRoutes.get(getSender().path().toStringWithoutAddress());
+            if(leader != null) {
+                queue(leader.path().address().toString(), leader.path().toStringWithoutAddress(),
+                        new ReplicationFrame.Entry(leader.path().toStringWithoutAddress(), message, getSender(),
+                                false), false);
+            } else {
+                unknownMessage(message);
+            }
+        }
+    }
+
+    private void setDatastoreContext(DatastoreContext datastoreContext) {
+        heartbeatLinger = new FiniteDuration(datastoreContext.getShardReplicationHeartbeatLingerInMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void onOutbound(Outbound outbound) {
+        String followerPath = outbound.follower.pathString();
+        queue(outbound.follower.anchorPath().address().toString(), followerPath,
+                new ReplicationFrame.Entry(followerPath, outbound.message, getSender(), true), outbound.heartbeat);
+    }
+
+    private void queue(String address, String targetPath, ReplicationFrame.Entry entry, boolean canLinger) {
+        // The channel of the other member is a sibling of the target shard actor.
+        String channelPath = address + targetPath.substring(0, targetPath.lastIndexOf('/') + 1) + NAME;
+
+        List<ReplicationFrame.Entry> entries = pendingFrames.get(channelPath);
+        if(entries == null) {
+            entries = new ArrayList<>();
+            pendingFrames.put(channelPath, entries);
+        }
+
+        entries.add(entry);
+
+        if(!canLinger) {
+            if(!flushQueued) {
+                // Flush once the messages already in the mailbox were queued.
+                flushQueued = true;
+                getSelf().tell(FlushFrames.INSTANCE, ActorRef.noSender());
+            }
+        } else if(flushSchedule == null && !flushQueued) {
+            flushSchedule = getContext().system().scheduler().scheduleOnce(heartbeatLinger, getSelf(),
+                    FlushFrames.INSTANCE, getContext().dispatcher(), ActorRef.noSender());
+        }
+    }
+
+    private void flushFrames() {
+        flushQueued = false;
+        cancelFlushSchedule();
+
+        for(Map.Entry<String, List<ReplicationFrame.Entry>> e: pendingFrames.entrySet()) {
+            LOG.trace("Sending {} messages to {}", e.getValue().size(), e.getKey());
+
+            getContext().actorSelection(e.getKey()).tell(new ReplicationFrame(e.getValue()), getSelf());
+        }
+
+        pendingFrames.clear();
+    }
+
+    private void cancelFlushSchedule() {
+        if(flushSchedule != null) {
+            flushSchedule.cancel();
+            flushSchedule = null;
+        }
+    }
+
+    private void onReplicationFrame(ReplicationFrame frame) {
+        LOG.trace("Received {} messages from {}", frame.getEntries().size(), getSender());
+
+        for(ReplicationFrame.Entry entry: frame.getEntries()) {
+            ActorSelection target = getContext().actorSelection(entry.getTargetPath());
+            if(entry.isRouteReply()) {
+                replyRoutes.put(entry.getTargetPath(), entry.getSender());
+                target.tell(entry.getMessage(), getSelf());
+            } else {
+                target.tell(entry.getMessage(), entry.getSender());
+            }
+        }
+    }
+
+    /**
+     * Message sent by a local shard leader, as the sender, to send a message to a follower on another member.
+     */
+    @VisibleForTesting
+    static final class Outbound {
+        final ActorSelection follower;
+        final Object message;
+        final boolean heartbeat;
+
+        Outbound(ActorSelection follower, Object message, boolean heartbeat) {
+            this.follower = follower;
+            this.message = message;
+            this.heartbeat = heartbeat;
+        }
+    }
+
+    private static final class FlushFrames {
+        static final FlushFrames INSTANCE = new FlushFrames();
+
+        private FlushFrames() {
+        }
+    }
+
+    private static final class ShardReplicationChannelCreator implements Creator<ShardReplicationChannel> {
+        private static final long serialVersionUID = 1L;
+
+        private final DatastoreContext datastoreContext;
+
+        ShardReplicationChannelCreator(DatastoreContext datastoreContext) {
+            this.datastoreContext = Preconditions.checkNotNull(datastoreContext);
+        }
+
+        @Override
+        public ShardReplicationChannel create() throws Exception {
+            return new ShardReplicationChannel(datastoreContext);
+        }
+    }
+}
@@ -8,12 +8,20 @@
 package org.opendaylight.controller.cluster.datastore;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import akka.actor.ActorRef;
+import java.io.IOException;
 import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
 import org.opendaylight.controller.cluster.datastore.identifiers.ShardTransactionIdentifier;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
 import org.opendaylight.controller.cluster.datastore.messages.CreateSnapshot;
+import org.opendaylight.controller.cluster.datastore.utils.CompressionUtils;
+import org.opendaylight.controller.cluster.datastore.utils.DeltaSnapshot;
 import org.opendaylight.controller.cluster.datastore.utils.SerializationUtils;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
 import org.opendaylight.controller.cluster.raft.RaftActorSnapshotCohort;
+import org.opendaylight.controller.cluster.raft.SnapshotManager;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.slf4j.Logger;
@@ -32,13 +40,63 @@ class ShardSnapshotCohort implements RaftActorSnapshotCohort {
     private final ShardDataTree store;
     private final Logger log;
     private final String logId;
+    private final ShardStats shardStats;
+    private volatile boolean snapshotCompressionEnabled;
+    private Supplier<Short> minimumFollowerPayloadVersion;
+    private SnapshotBaseStore snapshotBaseStore;
+    private SnapshotManager snapshotManager;
 
     ShardSnapshotCohort(ShardTransactionActorFactory transactionActorFactory, ShardDataTree store,
             Logger log, String logId) {
+        this(transactionActorFactory, store, log, logId, null);
+    }
+
+    ShardSnapshotCohort(ShardTransactionActorFactory transactionActorFactory, ShardDataTree store,
+            Logger log, String logId, @Nullable ShardStats shardStats) {
         this.transactionActorFactory = transactionActorFactory;
         this.store = Preconditions.checkNotNull(store);
         this.log = log;
         this.logId = logId;
+        this.shardStats = shardStats;
+    }
+
+    void setSnapshotCompressionEnabled(boolean snapshotCompressionEnabled) {
+        this.snapshotCompressionEnabled = snapshotCompressionEnabled;
+    }
+
+    /**
+     * Sets the source of the lowest payload version of the members a snapshot may be installed on. Snapshots
+     * are only compressed when it is at least {@link DataStoreVersions#BERYLLIUM_VERSION}, as older followers
+     * can't decompress an installed snapshot.
+     */
+    void setMinimumFollowerPayloadVersion(Supplier<Short> minimumFollowerPayloadVersion) {
+        this.minimumFollowerPayloadVersion = minimumFollowerPayloadVersion;
+    }
+
+    private boolean isSnapshotCompressionEnabled() {
+        if(!snapshotCompressionEnabled) {
+            return false;
+        }
+
+        if(minimumFollowerPayloadVersion != null &&
+                minimumFollowerPayloadVersion.get() < DataStoreVersions.BERYLLIUM_VERSION) {
+            log.debug("{}: Not compressing the snapshot as not all followers support it", logId);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Sets up delta snapshots, which are created when enabled via the store's {@link SnapshotDeltaTracker}.
+     *
+     * @param snapshotBaseStore the store of base snapshots
+     * @param snapshotManager the SnapshotManager used to determine if a snapshot is to be installed on a
+     *                        follower, which must be a full snapshot
+     */
+    void setDeltaSnapshotSupport(SnapshotBaseStore snapshotBaseStore, SnapshotManager snapshotManager) {
+        this.snapshotBaseStore = snapshotBaseStore;
+        this.snapshotManager = snapshotManager;
     }
 
     @Override
@@ -53,7 +111,17 @@ class ShardSnapshotCohort implements RaftActorSnapshotCohort {
         ActorRef createSnapshotTransaction = transactionActorFactory.newShardTransaction(
                 TransactionType.READ_ONLY, transactionID, "", DataStoreVersions.CURRENT_VERSION);
 
-        createSnapshotTransaction.tell(CreateSnapshot.INSTANCE, actorRef);
+        final CreateSnapshot message;
+        final boolean compress = isSnapshotCompressionEnabled();
+        SnapshotDeltaTracker deltaTracker = store.getSnapshotDeltaTracker();
+        if(snapshotBaseStore != null && deltaTracker.isEnabled()) {
+            message = deltaTracker.newCreateSnapshot(compress, snapshotBaseStore,
+                    snapshotManager.isCapturingInstallSnapshot());
+        } else {
+            message = compress ? new CreateSnapshot(true) : CreateSnapshot.INSTANCE;
+        }
+
+        createSnapshotTransaction.tell(message, actorRef);
     }
 
     @Override
@@ -67,15 +135,29 @@ class ShardSnapshotCohort implements RaftActorSnapshotCohort {
         try {
             ReadWriteShardDataTreeTransaction transaction = store.newReadWriteTransaction("snapshot-" + logId, null);
 
-            NormalizedNode<?, ?> node = SerializationUtils.deserializeNormalizedNode(snapshotBytes);
+            byte[] bytes = CompressionUtils.decompress(snapshotBytes, shardStats);
+
+            DeltaSnapshot delta = null;
+            NormalizedNode<?, ?> node;
+            if(DeltaSnapshot.isDeltaSnapshot(bytes)) {
+                Preconditions.checkState(snapshotBaseStore != null, "Delta snapshots are not supported");
+                delta = DeltaSnapshot.deserialize(bytes);
+                node = snapshotBaseStore.load(delta.getBaseId(), shardStats);
+            } else {
+                node = SerializationUtils.deserializeNormalizedNode(bytes);
+            }
 
             // delete everything first
             transaction.getSnapshot().delete(DATASTORE_ROOT);
 
             // Add everything from the remote node back
             transaction.getSnapshot().write(DATASTORE_ROOT, node);
+            if(delta != null) {
+                delta.applyTo(transaction.getSnapshot());
+            }
+
             syncCommitTransaction(transaction);
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (InterruptedException | ExecutionException | IOException e) {
             log.error("{}: An exception occurred when applying snapshot", logId, e);
         } finally {
             log.info("{}: Done applying snapshot", logId);
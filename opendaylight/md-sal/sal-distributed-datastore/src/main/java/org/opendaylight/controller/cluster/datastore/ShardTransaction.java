@@ -74,6 +74,10 @@ public abstract class ShardTransaction extends AbstractUntypedActorWithMetering
         return shardActor;
     }
 
+    protected ShardStats getShardStats() {
+        return shardStats;
+    }
+
     protected String getTransactionID() {
         return transactionID;
     }
@@ -16,6 +16,7 @@ import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFaile
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,7 +46,7 @@ final class SimpleShardDataTreeCohort extends ShardDataTreeCohort {
     public ListenableFuture<Boolean> canCommit() {
         DataTreeModification modification = dataTreeModification();
         try {
-            dataTree.getDataTree().validate(modification);
+            tip().validate(modification);
             LOG.trace("Transaction {} validated", transaction);
             return TRUE_FUTURE;
         }
@@ -69,7 +70,7 @@ final class SimpleShardDataTreeCohort extends ShardDataTreeCohort {
     @Override
     public ListenableFuture<Void> preCommit() {
         try {
-            candidate = dataTree.getDataTree().prepare(dataTreeModification());
+            candidate = tip().prepare(dataTreeModification());
             /*
              * FIXME: this is the place where we should be interacting with persistence, specifically by invoking
              *        persist on the candidate (which gives us a Future).
@@ -82,6 +83,15 @@ final class SimpleShardDataTreeCohort extends ShardDataTreeCohort {
         }
     }
 
+    /**
+     * Returns the state to validate and prepare against - the candidate of a previous transaction that was
+     * prepared but is still being replicated if commits are pipelined, otherwise the committed data tree.
+     */
+    private DataTreeTip tip() {
+        final DataTreeTip preparedTip = dataTree.getPreparedTip();
+        return preparedTip != null ? preparedTip : dataTree.getDataTree();
+    }
+
     private DataTreeModification dataTreeModification() {
         DataTreeModification dataTreeModification = transaction;
         if(transaction instanceof PruningDataTreeModification){
@@ -100,6 +110,7 @@ final class SimpleShardDataTreeCohort extends ShardDataTreeCohort {
     public ListenableFuture<Void> commit() {
         try {
             dataTree.getDataTree().commit(candidate);
+            dataTree.clearPreparedTip(candidate);
         } catch (Exception e) {
             LOG.error("Transaction {} failed to commit", transaction, e);
             return Futures.immediateFailedFuture(e);
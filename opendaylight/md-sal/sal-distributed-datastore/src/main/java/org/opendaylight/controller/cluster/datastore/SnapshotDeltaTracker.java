@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.opendaylight.controller.cluster.datastore.messages.CreateSnapshot;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+
+/**
+ * Tracks the subtrees of a shard's data tree modified by the applied DataTreeCandidates since the last full
+ * (base) snapshot, and decides whether the next snapshot is a full one or a delta of those subtrees.
+ * <p>
+ * Deltas are cumulative, ie each one contains every subtree modified since the base rather than since the
+ * previous snapshot, so recovery only ever applies the latest delta to its base. A new base is taken every
+ * configured number of snapshots, when too many subtrees were modified for a delta to pay off, when the
+ * whole tree was replaced or when the snapshot is to be installed on a follower.
+ */
+@NotThreadSafe
+class SnapshotDeltaTracker {
+    // Modifications are tracked down to this depth, which reaches the entries of lists in top-level
+    // containers, eg /nodes/node/node[id=1]. Modifications below it are attributed to the subtree at it.
+    @VisibleForTesting
+    static final int TRACKED_DEPTH = 3;
+
+    // Past this many modified subtrees a delta isn't worth it so the next snapshot is a full one.
+    @VisibleForTesting
+    static final int MAX_TRACKED_PATHS = 10000;
+
+    private Set<YangInstanceIdentifier> modifiedPaths = new HashSet<>();
+    private boolean enabled;
+    private int fullSnapshotInterval = 1;
+    private boolean fullSnapshotRequired = true;
+    private long baseId = -1;
+    private int deltasSinceBase;
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables delta snapshots.
+     *
+     * @param enabled whether delta snapshots are enabled
+     * @param fullSnapshotInterval the number of snapshots between full snapshots, including the full one
+     */
+    void setEnabled(boolean enabled, int fullSnapshotInterval) {
+        if(enabled && !this.enabled) {
+            // Modifications weren't tracked so far so the next snapshot must be a base.
+            fullSnapshotRequired = true;
+        }
+
+        this.enabled = enabled;
+        this.fullSnapshotInterval = Math.max(1, fullSnapshotInterval);
+        if(!enabled) {
+            modifiedPaths = new HashSet<>();
+        }
+    }
+
+    /**
+     * Records the subtrees modified by a candidate applied to the data tree.
+     */
+    void onCandidateApplied(DataTreeCandidate candidate) {
+        if(!enabled || fullSnapshotRequired) {
+            return;
+        }
+
+        YangInstanceIdentifier rootPath = candidate.getRootPath();
+        List<PathArgument> args = rootPath.getPathArguments();
+        if(args.size() > TRACKED_DEPTH) {
+            addPath(YangInstanceIdentifier.create(args.subList(0, TRACKED_DEPTH)));
+        } else {
+            track(rootPath, candidate.getRootNode());
+        }
+    }
+
+    private void track(YangInstanceIdentifier path, DataTreeCandidateNode node) {
+        switch(node.getModificationType()) {
+            case UNMODIFIED:
+                return;
+            case SUBTREE_MODIFIED:
+                // Only descend into nodes that existed before and after so the parent of every tracked
+                // subtree that appeared or disappeared since the base is tracked as well.
+                if(path.getPathArguments().size() < TRACKED_DEPTH && node.getDataBefore().isPresent() &&
+                        node.getDataAfter().isPresent()) {
+                    for(DataTreeCandidateNode child: node.getChildNodes()) {
+                        track(path.node(child.getIdentifier()), child);
+                    }
+
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+
+        addPath(path);
+    }
+
+    private void addPath(YangInstanceIdentifier path) {
+        if(path.getPathArguments().isEmpty()) {
+            // The whole tree was replaced, eg by an installed snapshot.
+            fullSnapshotRequired = true;
+            return;
+        }
+
+        modifiedPaths.add(path);
+        if(modifiedPaths.size() > MAX_TRACKED_PATHS) {
+            fullSnapshotRequired = true;
+            modifiedPaths = new HashSet<>();
+        }
+    }
+
+    /**
+     * Creates the message to create the next snapshot with, ie a full snapshot saved as a new base or a delta
+     * of the subtrees modified since the current base. Tracking restarts from a new base as of the time this
+     * is called, which must be when the data tree snapshot the snapshot is created from is taken.
+     *
+     * @param compressed whether the serialized snapshot should be compressed
+     * @param baseStore the store to save bases to
+     * @param installSnapshot whether the snapshot is to be installed on a follower
+     */
+    CreateSnapshot newCreateSnapshot(boolean compressed, SnapshotBaseStore baseStore, boolean installSnapshot) {
+        if(installSnapshot || fullSnapshotRequired || deltasSinceBase + 1 >= fullSnapshotInterval) {
+            baseId = Math.max(Math.max(baseId, baseStore.getLatestBaseId()) + 1, System.currentTimeMillis());
+            modifiedPaths = new HashSet<>();
+            fullSnapshotRequired = false;
+            deltasSinceBase = 0;
+
+            return new CreateSnapshot(compressed, baseStore, baseId, null);
+        }
+
+        deltasSinceBase++;
+        return new CreateSnapshot(compressed, baseStore, baseId, ImmutableList.copyOf(modifiedPaths));
+    }
+
+    @VisibleForTesting
+    Set<YangInstanceIdentifier> getModifiedPaths() {
+        return modifiedPaths;
+    }
+}
@@ -17,6 +17,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.controller.cluster.datastore.messages.AbortTransaction;
 import org.opendaylight.controller.cluster.datastore.messages.AbortTransactionReply;
 import org.opendaylight.controller.cluster.datastore.messages.CanCommitTransaction;
@@ -72,6 +73,7 @@ public class ThreePhaseCommitCohortProxy extends AbstractThreePhaseCommitCohort<
             LOG.debug("Tx {} canCommit", transactionId);
         }
         final SettableFuture<Boolean> returnFuture = SettableFuture.create();
+        final long start = System.nanoTime();
 
         // The first phase of canCommit is to gather the list of cohort actor paths that will
         // participate in the commit. buildCohortPathsList combines the cohort path Futures into
@@ -88,6 +90,9 @@ public class ThreePhaseCommitCohortProxy extends AbstractThreePhaseCommitCohort<
                     }
                     returnFuture.setException(failure);
                 } else {
+                    // This is the time spent waiting for the shards to reply to the ready messages.
+                    actorContext.getOperationTimer(ActorContext.READY).update(System.nanoTime() - start,
+                            TimeUnit.NANOSECONDS);
                     finishCanCommit(returnFuture);
                 }
             }
@@ -113,6 +118,7 @@ public class ThreePhaseCommitCohortProxy extends AbstractThreePhaseCommitCohort<
         final Object message = new CanCommitTransaction(transactionId).toSerializable();
 
         final Iterator<ActorSelection> iterator = cohorts.iterator();
+        final long start = System.nanoTime();
 
         final OnComplete<Object> onComplete = new OnComplete<Object>() {
             @Override
@@ -147,6 +153,8 @@ public class ThreePhaseCommitCohortProxy extends AbstractThreePhaseCommitCohort<
                     if(LOG.isDebugEnabled()) {
                         LOG.debug("Tx {}: canCommit returning result: {}", transactionId, result);
                     }
+                    actorContext.getOperationTimer(ActorContext.CAN_COMMIT).update(System.nanoTime() - start,
+                            TimeUnit.NANOSECONDS);
                     returnFuture.set(Boolean.valueOf(result));
                 }
 
@@ -49,6 +49,13 @@ final class TransactionContextFactory extends AbstractTransactionContextFactory<
         return getActorContext().findPrimaryShardAsync(shardName);
     }
 
+    @Override
+    protected boolean isFollowerReadAllowed() {
+        // Chained transactions must see the previous transactions' writes, which only the leader is guaranteed
+        // to have, so follower reads are only allowed for single transactions.
+        return getActorContext().getDatastoreContext().isFollowerReadsEnabled();
+    }
+
     @Override
     protected <T> void onTransactionReady(final TransactionIdentifier transaction, final Collection<Future<T>> cohortFutures) {
         // Transactions are disconnected, this is a no-op
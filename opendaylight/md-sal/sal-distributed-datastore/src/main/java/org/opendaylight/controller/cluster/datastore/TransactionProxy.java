@@ -14,6 +14,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -24,17 +25,22 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opendaylight.controller.cluster.datastore.exceptions.ShardOverloadedException;
 import org.opendaylight.controller.cluster.datastore.identifiers.TransactionIdentifier;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ListShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ShardStrategy;
 import org.opendaylight.controller.cluster.datastore.shardstrategy.ShardStrategyFactory;
 import org.opendaylight.controller.cluster.datastore.utils.ActorContext;
 import org.opendaylight.controller.cluster.datastore.utils.NormalizedNodeAggregator;
+import org.opendaylight.controller.cluster.datastore.utils.NormalizedNodeSplitter;
+import org.opendaylight.controller.cluster.datastore.utils.ShardAdmissionController;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
 import org.opendaylight.controller.sal.core.spi.data.AbstractDOMStoreTransaction;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadWriteTransaction;
 import org.opendaylight.yangtools.util.concurrent.MappingCheckedFuture;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.concurrent.Future;
@@ -72,8 +78,18 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
 
         LOG.debug("Tx {} exists {}", getIdentifier(), path);
 
+        final ListShardStrategy listStrategy = multiShardStrategy(path);
+        if(listStrategy != null) {
+            return multiShardExists(listStrategy.getShardNames(), path);
+        } else {
+            return singleShardExists(shardNameFromIdentifier(path), path);
+        }
+    }
+
+    private CheckedFuture<Boolean, ReadFailedException> singleShardExists(final String shardName,
+            final YangInstanceIdentifier path) {
         final SettableFuture<Boolean> proxyFuture = SettableFuture.create();
-        TransactionContextWrapper contextWrapper = getContextWrapper(path);
+        TransactionContextWrapper contextWrapper = getContextWrapper(shardName);
         contextWrapper.maybeExecuteTransactionOperation(new TransactionOperation() {
             @Override
             public void invoke(TransactionContext transactionContext) {
@@ -84,6 +100,24 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
         return MappingCheckedFuture.create(proxyFuture, ReadFailedException.MAPPER);
     }
 
+    private CheckedFuture<Boolean, ReadFailedException> multiShardExists(final Collection<String> shardNames,
+            final YangInstanceIdentifier path) {
+        final Collection<CheckedFuture<Boolean, ReadFailedException>> futures = new ArrayList<>(shardNames.size());
+        for (String shardName : shardNames) {
+            futures.add(singleShardExists(shardName, path));
+        }
+
+        final ListenableFuture<Boolean> existsFuture = Futures.transform(Futures.allAsList(futures),
+                new Function<List<Boolean>, Boolean>() {
+            @Override
+            public Boolean apply(final List<Boolean> input) {
+                return input.contains(Boolean.TRUE);
+            }
+        });
+
+        return MappingCheckedFuture.create(existsFuture, ReadFailedException.MAPPER);
+    }
+
     @Override
     public CheckedFuture<Optional<NormalizedNode<?, ?>>, ReadFailedException> read(final YangInstanceIdentifier path) {
         Preconditions.checkState(type != TransactionType.WRITE_ONLY, "Reads from write-only transactions are not allowed");
@@ -91,7 +125,12 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
         LOG.debug("Tx {} read {}", getIdentifier(), path);
 
         if (YangInstanceIdentifier.EMPTY.equals(path)) {
-            return readAllData();
+            return readAllData(txContextFactory.getActorContext().getConfiguration().getAllShardNames(), path);
+        }
+
+        final ListShardStrategy listStrategy = multiShardStrategy(path);
+        if(listStrategy != null) {
+            return readAllData(listStrategy.getShardNames(), path);
         } else {
             return singleShardRead(shardNameFromIdentifier(path), path);
         }
@@ -111,27 +150,35 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
         return MappingCheckedFuture.create(proxyFuture, ReadFailedException.MAPPER);
     }
 
-    private CheckedFuture<Optional<NormalizedNode<?, ?>>, ReadFailedException> readAllData() {
-        final Set<String> allShardNames = txContextFactory.getActorContext().getConfiguration().getAllShardNames();
-        final Collection<CheckedFuture<Optional<NormalizedNode<?, ?>>, ReadFailedException>> futures = new ArrayList<>(allShardNames.size());
-
-        for (String shardName : allShardNames) {
-            futures.add(singleShardRead(shardName, YangInstanceIdentifier.EMPTY));
+    private CheckedFuture<Optional<NormalizedNode<?, ?>>, ReadFailedException> readAllData(
+            final Collection<String> shardNames, final YangInstanceIdentifier path) {
+        // Scatter the read to all the shards and merge each shard's data as soon as it arrives so the merge
+        // overlaps the outstanding reads. The aggregate future completes as soon as the last shard replies
+        // or any shard fails.
+        final NormalizedNodeAggregator aggregator = new NormalizedNodeAggregator();
+        final SettableFuture<Optional<NormalizedNode<?, ?>>> aggregateFuture = SettableFuture.create();
+        final AtomicInteger remaining = new AtomicInteger(shardNames.size());
+
+        if(shardNames.isEmpty()) {
+            aggregateFuture.set(Optional.<NormalizedNode<?, ?>>absent());
         }
 
-        final ListenableFuture<List<Optional<NormalizedNode<?, ?>>>> listFuture = Futures.allAsList(futures);
-        final ListenableFuture<Optional<NormalizedNode<?, ?>>> aggregateFuture;
+        for (String shardName : shardNames) {
+            Futures.addCallback(singleShardRead(shardName, path), new FutureCallback<Optional<NormalizedNode<?, ?>>>() {
+                @Override
+                public void onSuccess(final Optional<NormalizedNode<?, ?>> result) {
+                    aggregator.addNode(result);
+                    if(remaining.decrementAndGet() == 0) {
+                        aggregateFuture.set(aggregator.getAggregatedNode());
+                    }
+                }
 
-        aggregateFuture = Futures.transform(listFuture, new Function<List<Optional<NormalizedNode<?, ?>>>, Optional<NormalizedNode<?, ?>>>() {
-            @Override
-            public Optional<NormalizedNode<?, ?>> apply(final List<Optional<NormalizedNode<?, ?>>> input) {
-                try {
-                    return NormalizedNodeAggregator.aggregate(YangInstanceIdentifier.EMPTY, input, txContextFactory.getActorContext().getSchemaContext());
-                } catch (DataValidationFailedException e) {
-                    throw new IllegalArgumentException("Failed to aggregate", e);
+                @Override
+                public void onFailure(final Throwable t) {
+                    aggregateFuture.setException(t);
                 }
-            }
-        });
+            });
+        }
 
         return MappingCheckedFuture.create(aggregateFuture, ReadFailedException.MAPPER);
     }
@@ -142,7 +189,18 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
 
         LOG.debug("Tx {} delete {}", getIdentifier(), path);
 
-        TransactionContextWrapper contextWrapper = getContextWrapper(path);
+        final ListShardStrategy listStrategy = multiShardStrategy(path);
+        if(listStrategy != null) {
+            for(String shardName: listStrategy.getShardNames()) {
+                singleShardDelete(shardName, path);
+            }
+        } else {
+            singleShardDelete(shardNameFromIdentifier(path), path);
+        }
+    }
+
+    private void singleShardDelete(final String shardName, final YangInstanceIdentifier path) {
+        TransactionContextWrapper contextWrapper = getContextWrapper(shardName);
         contextWrapper.maybeExecuteTransactionOperation(new TransactionOperation() {
             @Override
             public void invoke(TransactionContext transactionContext) {
@@ -157,7 +215,20 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
 
         LOG.debug("Tx {} merge {}", getIdentifier(), path);
 
-        TransactionContextWrapper contextWrapper = getContextWrapper(path);
+        final ListShardStrategy listStrategy = multiShardStrategy(path);
+        if(listStrategy != null) {
+            // Shards none of the list entries belong in are left untouched.
+            for(Entry<String, NormalizedNode<?, ?>> e: splitData(listStrategy, path, data, false).entrySet()) {
+                singleShardMerge(e.getKey(), path, e.getValue());
+            }
+        } else {
+            singleShardMerge(shardNameFromIdentifier(path), path, data);
+        }
+    }
+
+    private void singleShardMerge(final String shardName, final YangInstanceIdentifier path,
+            final NormalizedNode<?, ?> data) {
+        TransactionContextWrapper contextWrapper = getContextWrapper(shardName);
         contextWrapper.maybeExecuteTransactionOperation(new TransactionOperation() {
             @Override
             public void invoke(TransactionContext transactionContext) {
@@ -172,7 +243,20 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
 
         LOG.debug("Tx {} write {}", getIdentifier(), path);
 
-        TransactionContextWrapper contextWrapper = getContextWrapper(path);
+        final ListShardStrategy listStrategy = multiShardStrategy(path);
+        if(listStrategy != null) {
+            // A write replaces the list entries in every shard, including those none of the new entries belong in.
+            for(Entry<String, NormalizedNode<?, ?>> e: splitData(listStrategy, path, data, true).entrySet()) {
+                singleShardWrite(e.getKey(), path, e.getValue());
+            }
+        } else {
+            singleShardWrite(shardNameFromIdentifier(path), path, data);
+        }
+    }
+
+    private void singleShardWrite(final String shardName, final YangInstanceIdentifier path,
+            final NormalizedNode<?, ?> data) {
+        TransactionContextWrapper contextWrapper = getContextWrapper(shardName);
         contextWrapper.maybeExecuteTransactionOperation(new TransactionOperation() {
             @Override
             public void invoke(TransactionContext transactionContext) {
@@ -181,6 +265,13 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
         });
     }
 
+    private Map<String, NormalizedNode<?, ?>> splitData(final ListShardStrategy listStrategy,
+            final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final boolean includeShardsWithoutEntries) {
+        return NormalizedNodeSplitter.split(listStrategy, path, data,
+                txContextFactory.getActorContext().getSchemaContext(), includeShardsWithoutEntries);
+    }
+
     private void checkModificationState() {
         Preconditions.checkState(type != TransactionType.READ_ONLY,
                 "Modification operation on read-only transaction is not allowed");
@@ -206,6 +297,12 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
             return;
         }
 
+        closeTransactionContexts();
+
+        txContextWrappers.clear();
+    }
+
+    private void closeTransactionContexts() {
         for (TransactionContextWrapper contextWrapper : txContextWrappers.values()) {
             contextWrapper.maybeExecuteTransactionOperation(new TransactionOperation() {
                 @Override
@@ -214,9 +311,6 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
                 }
             });
         }
-
-
-        txContextWrappers.clear();
     }
 
     @Override
@@ -228,23 +322,50 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
 
         LOG.debug("Tx {} Readying {} components for commit", getIdentifier(), txContextWrappers.size());
 
+        final ShardAdmissionController admissionController = getActorContext().getShardAdmissionController();
         final AbstractThreePhaseCommitCohort<?> ret;
+        if (admissionController == null || txContextWrappers.isEmpty()) {
+            ret = createCommitCohort();
+        } else {
+            ret = createAdmittedCommitCohort(admissionController);
+        }
+
+        txContextFactory.onTransactionReady(getIdentifier(), ret.getCohortFutures());
+
+        final Throwable debugContext = getDebugContext();
+        return debugContext == null ? ret : new DebugThreePhaseCommitCohort(getIdentifier(), ret, debugContext);
+    }
+
+    private AbstractThreePhaseCommitCohort<?> createCommitCohort() {
         switch (txContextWrappers.size()) {
         case 0:
-            ret = NoOpDOMStoreThreePhaseCommitCohort.INSTANCE;
-            break;
+            return NoOpDOMStoreThreePhaseCommitCohort.INSTANCE;
         case 1:
             final Entry<String, TransactionContextWrapper> e = Iterables.getOnlyElement(txContextWrappers.entrySet());
-            ret = createSingleCommitCohort(e.getKey(), e.getValue());
-            break;
+            return createSingleCommitCohort(e.getKey(), e.getValue());
         default:
-            ret = createMultiCommitCohort(txContextWrappers.entrySet());
+            return createMultiCommitCohort(txContextWrappers.entrySet());
         }
+    }
 
-        txContextFactory.onTransactionReady(getIdentifier(), ret.getCohortFutures());
+    private AbstractThreePhaseCommitCohort<?> createAdmittedCommitCohort(
+            final ShardAdmissionController admissionController) {
+        final ShardAdmissionController.Admission admission = admissionController.tryAdmit(txContextWrappers.keySet());
+        if (admission != null) {
+            return new AdmittedThreePhaseCommitCohort(createCommitCohort(), admission);
+        }
 
-        final Throwable debugContext = getDebugContext();
-        return debugContext == null ? ret : new DebugThreePhaseCommitCohort(getIdentifier(), ret, debugContext);
+        // Fail the commit right away rather than adding to the load of an overloaded shard. The transaction
+        // is closed instead of readied so the shard discards it.
+        LOG.debug("Tx {} was not admitted for commit to shards {}", getIdentifier(), txContextWrappers.keySet());
+
+        closeTransactionContexts();
+
+        final Future<Object> failed = akka.dispatch.Futures.failed(new ShardOverloadedException(String.format(
+                "Transaction %s was not admitted for commit - a shard of %s is overloaded", getIdentifier(),
+                txContextWrappers.keySet())));
+        return new SingleCommitCohortProxy(getActorContext(), failed, getIdentifier().toString(),
+                new OperationCallback.Reference(OperationCallback.NO_OP_CALLBACK));
     }
 
     private AbstractThreePhaseCommitCohort<?> createSingleCommitCohort(final String shardName,
@@ -305,8 +426,16 @@ public class TransactionProxy extends AbstractDOMStoreTransaction<TransactionIde
         return ShardStrategyFactory.getStrategy(path).findShard(path);
     }
 
-    private TransactionContextWrapper getContextWrapper(final YangInstanceIdentifier path) {
-        return getContextWrapper(shardNameFromIdentifier(path));
+    /**
+     * Returns the ListShardStrategy for the path if the data it points to spans multiple shards, otherwise null.
+     */
+    private static ListShardStrategy multiShardStrategy(final YangInstanceIdentifier path) {
+        final ShardStrategy strategy = ShardStrategyFactory.getStrategy(path);
+        if(strategy instanceof ListShardStrategy && ((ListShardStrategy) strategy).isMultiShardPath(path)) {
+            return (ListShardStrategy) strategy;
+        }
+
+        return null;
     }
 
     private TransactionContextWrapper getContextWrapper(final String shardName) {
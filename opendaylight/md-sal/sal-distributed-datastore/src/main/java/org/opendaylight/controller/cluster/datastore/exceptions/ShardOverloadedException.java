@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.exceptions;
+
+/**
+ * Exception indicating a transaction commit was not admitted because a shard has too many transactions
+ * committing already.
+ */
+public class ShardOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ShardOverloadedException(String message){
+        super(message);
+    }
+}
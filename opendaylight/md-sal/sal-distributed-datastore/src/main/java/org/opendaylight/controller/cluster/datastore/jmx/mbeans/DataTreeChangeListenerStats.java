@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.jmx.mbeans;
+
+import org.opendaylight.controller.md.sal.common.util.jmx.AbstractMXBean;
+
+/**
+ * Implementation of DataTreeChangeListenerStatsMXBean. The counters are only updated by the listener's
+ * actor but are volatile as they're read by JMX.
+ */
+public class DataTreeChangeListenerStats extends AbstractMXBean implements DataTreeChangeListenerStatsMXBean {
+    public static final String JMX_CATEGORY_DATA_TREE_CHANGE_LISTENERS = "DataTreeChangeListeners";
+
+    private final String listener;
+    private volatile int pendingChangeCount;
+    private volatile int maxPendingChangeCount;
+    private volatile long deliveredBatchCount;
+    private volatile long deliveredChangeCount;
+    private volatile int lastBatchSize;
+
+    public DataTreeChangeListenerStats(String mBeanName, String mBeanType, String listener) {
+        super(mBeanName, mBeanType, JMX_CATEGORY_DATA_TREE_CHANGE_LISTENERS);
+        this.listener = listener;
+    }
+
+    public void setPendingChangeCount(int count) {
+        pendingChangeCount = count;
+        if(count > maxPendingChangeCount) {
+            maxPendingChangeCount = count;
+        }
+    }
+
+    public void onBatchDelivered(int batchSize) {
+        pendingChangeCount = 0;
+        lastBatchSize = batchSize;
+        deliveredBatchCount++;
+        deliveredChangeCount += batchSize;
+    }
+
+    @Override
+    public String getListener() {
+        return listener;
+    }
+
+    @Override
+    public int getPendingChangeCount() {
+        return pendingChangeCount;
+    }
+
+    @Override
+    public int getMaxPendingChangeCount() {
+        return maxPendingChangeCount;
+    }
+
+    @Override
+    public long getDeliveredBatchCount() {
+        return deliveredBatchCount;
+    }
+
+    @Override
+    public long getDeliveredChangeCount() {
+        return deliveredChangeCount;
+    }
+
+    @Override
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    @Override
+    public void resetMaxPendingChangeCount() {
+        maxPendingChangeCount = pendingChangeCount;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.jmx.mbeans;
+
+/**
+ * JMX bean for the batched delivery of data tree changes to a DOMDataTreeChangeListener registration.
+ */
+public interface DataTreeChangeListenerStatsMXBean {
+    String getListener();
+
+    int getPendingChangeCount();
+
+    int getMaxPendingChangeCount();
+
+    long getDeliveredBatchCount();
+
+    long getDeliveredChangeCount();
+
+    int getLastBatchSize();
+
+    void resetMaxPendingChangeCount();
+}
@@ -34,6 +34,8 @@ public interface DatastoreConfigurationMXBean {
 
     int getShardTransactionCommitQueueCapacity();
 
+    int getShardMaxPipelinedCommits();
+
     long getShardCommitQueueExpiryTimeoutInSeconds();
 
     long getShardInitializationTimeoutInSeconds();
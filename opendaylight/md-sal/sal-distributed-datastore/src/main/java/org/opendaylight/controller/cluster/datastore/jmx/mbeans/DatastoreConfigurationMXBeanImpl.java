@@ -84,6 +84,11 @@ public class DatastoreConfigurationMXBeanImpl extends AbstractMXBean implements
         return context.getShardTransactionCommitQueueCapacity();
     }
 
+    @Override
+    public int getShardMaxPipelinedCommits() {
+        return context.getShardMaxPipelinedCommits();
+    }
+
     @Override
     public long getShardInitializationTimeoutInSeconds() {
         return context.getShardInitializationTimeout().duration().toSeconds();
@@ -14,4 +14,20 @@ package org.opendaylight.controller.cluster.datastore.jmx.mbeans;
  */
 public interface DatastoreInfoMXBean {
     double getTransactionCreationRateLimit();
+
+    /**
+     * Returns the number of primary shard lookups served from the cache.
+     */
+    long getPrimaryShardInfoCacheHitCount();
+
+    /**
+     * Returns the number of primary shard lookups that required a FindPrimary.
+     */
+    long getPrimaryShardInfoCacheMissCount();
+
+    /**
+     * Returns the number of cached primary shard locations replaced by a new leader's location pushed by
+     * another member.
+     */
+    long getPrimaryShardInfoCacheStaleCount();
 }
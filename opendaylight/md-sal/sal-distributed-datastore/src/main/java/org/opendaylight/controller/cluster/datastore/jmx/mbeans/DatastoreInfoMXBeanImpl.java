@@ -29,4 +29,19 @@ public class DatastoreInfoMXBeanImpl extends AbstractMXBean implements Datastore
     public double getTransactionCreationRateLimit() {
         return actorContext.getTxCreationLimit();
     }
+
+    @Override
+    public long getPrimaryShardInfoCacheHitCount() {
+        return actorContext.getPrimaryShardInfoCache().getHitCount();
+    }
+
+    @Override
+    public long getPrimaryShardInfoCacheMissCount() {
+        return actorContext.getPrimaryShardInfoCache().getMissCount();
+    }
+
+    @Override
+    public long getPrimaryShardInfoCacheStaleCount() {
+        return actorContext.getPrimaryShardInfoCache().getStaleCount();
+    }
 }
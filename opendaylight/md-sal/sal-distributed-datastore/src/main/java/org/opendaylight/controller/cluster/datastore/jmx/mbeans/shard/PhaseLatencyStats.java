@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bean class containing a snapshot of the latency percentiles of a transaction commit phase, in
+ * microseconds.
+ */
+public class PhaseLatencyStats {
+    private final String phase;
+    private final long count;
+    private final double mean;
+    private final double median;
+    private final double percentile95th;
+    private final double percentile99th;
+    private final double percentile999th;
+    private final long max;
+
+    @ConstructorProperties({"phase", "count", "mean", "median", "percentile95th", "percentile99th",
+        "percentile999th", "max"})
+    public PhaseLatencyStats(String phase, long count, double mean, double median, double percentile95th,
+            double percentile99th, double percentile999th, long max) {
+        this.phase = phase;
+        this.count = count;
+        this.mean = mean;
+        this.median = median;
+        this.percentile95th = percentile95th;
+        this.percentile99th = percentile99th;
+        this.percentile999th = percentile999th;
+        this.max = max;
+    }
+
+    static PhaseLatencyStats fromTimer(String phase, Timer timer) {
+        Snapshot snapshot = timer.getSnapshot();
+        return new PhaseLatencyStats(phase, timer.getCount(), toMicros(snapshot.getMean()),
+                toMicros(snapshot.getMedian()), toMicros(snapshot.get95thPercentile()),
+                toMicros(snapshot.get99thPercentile()), toMicros(snapshot.get999thPercentile()),
+                TimeUnit.NANOSECONDS.toMicros(snapshot.getMax()));
+    }
+
+    private static double toMicros(double nanos) {
+        return nanos / 1000;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getPercentile95th() {
+        return percentile95th;
+    }
+
+    public double getPercentile99th() {
+        return percentile99th;
+    }
+
+    public double getPercentile999th() {
+        return percentile999th;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
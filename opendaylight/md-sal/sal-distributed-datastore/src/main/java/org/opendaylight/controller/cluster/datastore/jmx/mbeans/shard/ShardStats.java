@@ -11,18 +11,26 @@ package org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard;
 import akka.actor.ActorRef;
 import akka.pattern.Patterns;
 import akka.util.Timeout;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import org.opendaylight.controller.cluster.datastore.DatastoreContext;
 import org.opendaylight.controller.cluster.raft.client.messages.FollowerInfo;
 import org.opendaylight.controller.cluster.raft.client.messages.GetOnDemandRaftState;
 import org.opendaylight.controller.cluster.raft.client.messages.OnDemandRaftState;
+import org.opendaylight.controller.cluster.reporting.MetricsReporter;
 import org.opendaylight.controller.md.sal.common.util.jmx.AbstractMXBean;
 import org.opendaylight.controller.md.sal.common.util.jmx.QueuedNotificationManagerMXBeanImpl;
 import org.opendaylight.controller.md.sal.common.util.jmx.ThreadExecutorStatsMXBeanImpl;
@@ -40,6 +48,20 @@ import scala.concurrent.Await;
 public class ShardStats extends AbstractMXBean implements ShardStatsMXBean {
     public static String JMX_CATEGORY_SHARD = "Shards";
 
+    // The phases of a transaction commit on the shard. Queue wait is the time from when the commit is
+    // requested until the transaction reaches the head of the commit queue, and replication is the time from
+    // when the prepared transaction is handed to Raft until it's applied, ie including persistence.
+    public static final String QUEUE_WAIT_PHASE = "queue-wait";
+    public static final String CAN_COMMIT_PHASE = "can-commit";
+    public static final String PRE_COMMIT_PHASE = "pre-commit";
+    public static final String REPLICATION_PHASE = "replication";
+    public static final String APPLY_PHASE = "apply";
+
+    private static final List<String> COMMIT_PHASES = ImmutableList.of(QUEUE_WAIT_PHASE, CAN_COMMIT_PHASE,
+            PRE_COMMIT_PHASE, REPLICATION_PHASE, APPLY_PHASE);
+
+    private static final String SHARD_METRIC_REGISTRY = "distributed-data-store.shard";
+
     private static final Logger LOG = LoggerFactory.getLogger(ShardStats.class);
 
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
@@ -79,8 +101,77 @@ public class ShardStats extends AbstractMXBean implements ShardStatsMXBean {
 
     private long lastLeadershipChangeTime;
 
+    private long recoveredLogEntryCount;
+
+    private long recoveryTimeInMillis;
+
+    private long recoverySnapshotDecodeTimeInMillis;
+
+    private long recoveryLogEntryDecodeTimeInMillis;
+
+    private long recoveryApplyTimeInMillis;
+
+    // Compression may be done off the shard actor, eg by the snapshot worker, hence atomics.
+    private final AtomicLong compressionInputBytes = new AtomicLong();
+
+    private final AtomicLong compressionOutputBytes = new AtomicLong();
+
+    private final AtomicLong compressionTimeNanos = new AtomicLong();
+
+    private final AtomicLong decompressionTimeNanos = new AtomicLong();
+
+    private final Map<String, Timer> phaseTimers = new LinkedHashMap<>();
+
     public ShardStats(final String shardName, final String mxBeanType) {
         super(shardName, mxBeanType, JMX_CATEGORY_SHARD);
+
+        for(String phase: COMMIT_PHASES) {
+            phaseTimers.put(phase, new Timer());
+        }
+    }
+
+    /**
+     * Reports the phase timers via the process-wide MetricsReporter until {@link #unregisterMBean()} is called.
+     * Timers registered under the same names by another, still active, instance for the shard are left alone.
+     */
+    public void registerMetrics() {
+        MetricRegistry registry = metricsRegistry();
+        for(Map.Entry<String, Timer> entry: phaseTimers.entrySet()) {
+            String name = phaseTimerName(entry.getKey());
+            if(registry.getMetrics().get(name) == entry.getValue()) {
+                continue;
+            }
+
+            try {
+                registry.register(name, entry.getValue());
+            } catch(IllegalArgumentException e) {
+                LOG.warn("Metric {} is already registered by another instance of shard {}", name, getShardName());
+            }
+        }
+    }
+
+    private void unregisterMetrics() {
+        MetricRegistry registry = metricsRegistry();
+        for(Map.Entry<String, Timer> entry: phaseTimers.entrySet()) {
+            String name = phaseTimerName(entry.getKey());
+            if(registry.getMetrics().get(name) == entry.getValue()) {
+                registry.remove(name);
+            }
+        }
+    }
+
+    private String phaseTimerName(String phase) {
+        return MetricRegistry.name(SHARD_METRIC_REGISTRY, getShardName(), phase);
+    }
+
+    private static MetricRegistry metricsRegistry() {
+        return MetricsReporter.getInstance(DatastoreContext.METRICS_DOMAIN).getMetricsRegistry();
+    }
+
+    @Override
+    public boolean unregisterMBean() {
+        unregisterMetrics();
+        return super.unregisterMBean();
     }
 
     public void setNotificationManager(final QueuedNotificationManager<?, ?> manager) {
@@ -362,4 +453,105 @@ public class ShardStats extends AbstractMXBean implements ShardStatsMXBean {
     public String getLastLeadershipChangeTime() {
         return DATE_FORMAT.format(new Date(lastLeadershipChangeTime));
     }
+
+    /**
+     * Records the statistics of the shard's persistence recovery. The decode times are the cumulative
+     * times spent by the recovery worker threads so they may exceed the overall recovery time.
+     */
+    public void setRecoveryStats(long recoveredLogEntryCount, long recoveryTimeInMillis,
+            long snapshotDecodeTimeInMillis, long logEntryDecodeTimeInMillis, long applyTimeInMillis) {
+        this.recoveredLogEntryCount = recoveredLogEntryCount;
+        this.recoveryTimeInMillis = recoveryTimeInMillis;
+        this.recoverySnapshotDecodeTimeInMillis = snapshotDecodeTimeInMillis;
+        this.recoveryLogEntryDecodeTimeInMillis = logEntryDecodeTimeInMillis;
+        this.recoveryApplyTimeInMillis = applyTimeInMillis;
+    }
+
+    @Override
+    public long getRecoveredLogEntryCount() {
+        return recoveredLogEntryCount;
+    }
+
+    @Override
+    public long getRecoveryTimeInMillis() {
+        return recoveryTimeInMillis;
+    }
+
+    @Override
+    public long getRecoverySnapshotDecodeTimeInMillis() {
+        return recoverySnapshotDecodeTimeInMillis;
+    }
+
+    @Override
+    public long getRecoveryLogEntryDecodeTimeInMillis() {
+        return recoveryLogEntryDecodeTimeInMillis;
+    }
+
+    @Override
+    public long getRecoveryApplyTimeInMillis() {
+        return recoveryApplyTimeInMillis;
+    }
+
+    @Override
+    public long getRecoveryLogEntriesPerSecond() {
+        return recoveryTimeInMillis > 0 ? recoveredLogEntryCount * 1000 / recoveryTimeInMillis : 0;
+    }
+
+    public void onCompressed(long inputBytes, long outputBytes, long elapsedNanos) {
+        compressionInputBytes.addAndGet(inputBytes);
+        compressionOutputBytes.addAndGet(outputBytes);
+        compressionTimeNanos.addAndGet(elapsedNanos);
+    }
+
+    public void onDecompressed(long elapsedNanos) {
+        decompressionTimeNanos.addAndGet(elapsedNanos);
+    }
+
+    @Override
+    public long getCompressionInputBytes() {
+        return compressionInputBytes.get();
+    }
+
+    @Override
+    public long getCompressionOutputBytes() {
+        return compressionOutputBytes.get();
+    }
+
+    @Override
+    public double getCompressionRatio() {
+        long output = compressionOutputBytes.get();
+        return output > 0 ? (double) compressionInputBytes.get() / output : 0;
+    }
+
+    @Override
+    public long getCompressionTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(compressionTimeNanos.get());
+    }
+
+    @Override
+    public long getDecompressionTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(decompressionTimeNanos.get());
+    }
+
+    /**
+     * Records the time a transaction spent in a commit phase.
+     *
+     * @param phase one of the phase constants, eg {@link #CAN_COMMIT_PHASE}
+     * @param elapsedNanos the time spent in the phase
+     */
+    public void recordPhaseLatency(String phase, long elapsedNanos) {
+        Timer timer = phaseTimers.get(phase);
+        Preconditions.checkArgument(timer != null, "Unknown commit phase %s", phase);
+        timer.update(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public List<PhaseLatencyStats> getTransactionPhaseLatencies() {
+        List<PhaseLatencyStats> stats = new ArrayList<>(phaseTimers.size());
+        for(Map.Entry<String, Timer> e: phaseTimers.entrySet()) {
+            stats.add(PhaseLatencyStats.fromTimer(e.getKey(), e.getValue()));
+        }
+
+        return stats;
+    }
 }
@@ -73,4 +73,32 @@ public interface ShardStatsMXBean {
    long getLeadershipChangeCount();
 
    String getLastLeadershipChangeTime();
+
+   long getRecoveredLogEntryCount();
+
+   long getRecoveryTimeInMillis();
+
+   long getRecoverySnapshotDecodeTimeInMillis();
+
+   long getRecoveryLogEntryDecodeTimeInMillis();
+
+   long getRecoveryApplyTimeInMillis();
+
+   long getRecoveryLogEntriesPerSecond();
+
+   long getCompressionInputBytes();
+
+   long getCompressionOutputBytes();
+
+   double getCompressionRatio();
+
+   long getCompressionTimeInMillis();
+
+   long getDecompressionTimeInMillis();
+
+   /**
+    * Returns the latency percentiles of each transaction commit phase on the shard, which are biased
+    * towards the last 5 minutes.
+    */
+   List<PhaseLatencyStats> getTransactionPhaseLatencies();
 }
@@ -8,7 +8,9 @@
 
 package org.opendaylight.controller.cluster.datastore.jmx.mbeans.shardmanager;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.opendaylight.controller.md.sal.common.util.jmx.AbstractMXBean;
 
@@ -20,6 +22,8 @@ public class ShardManagerInfo extends AbstractMXBean implements ShardManagerInfo
 
     private boolean syncStatus = false;
 
+    private volatile Map<String, Integer> shardLeaderDistribution = Collections.emptyMap();
+
     public ShardManagerInfo(String name, String mxBeanType, List<String> localShards) {
         super(name, mxBeanType, JMX_CATEGORY_SHARD_MANAGER);
         this.localShards = localShards;
@@ -47,4 +51,13 @@ public class ShardManagerInfo extends AbstractMXBean implements ShardManagerInfo
     public void setSyncStatus(boolean syncStatus){
         this.syncStatus = syncStatus;
     }
+
+    @Override
+    public Map<String, Integer> getShardLeaderDistribution() {
+        return shardLeaderDistribution;
+    }
+
+    public void setShardLeaderDistribution(Map<String, Integer> shardLeaderDistribution) {
+        this.shardLeaderDistribution = shardLeaderDistribution;
+    }
 }
@@ -9,8 +9,14 @@
 package org.opendaylight.controller.cluster.datastore.jmx.mbeans.shardmanager;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ShardManagerInfoMBean {
     List<String> getLocalShards();
     boolean getSyncStatus();
+
+    /**
+     * Returns the number of this member's local shards led by each member, as last known to this member.
+     */
+    Map<String, Integer> getShardLeaderDistribution();
 }
@@ -7,6 +7,11 @@
  */
 package org.opendaylight.controller.cluster.datastore.messages;
 
+import java.util.Collection;
+import javax.annotation.Nullable;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
 /**
  * Message sent to a transaction actor to create a snapshot of the data store.
  *
@@ -15,5 +20,57 @@ package org.opendaylight.controller.cluster.datastore.messages;
 public class CreateSnapshot {
     // Note: This class does not need to Serializable as it's only sent locally.
 
-    public static final CreateSnapshot INSTANCE = new CreateSnapshot();
+    public static final CreateSnapshot INSTANCE = new CreateSnapshot(false);
+
+    private final boolean compressed;
+    private final SnapshotBaseStore baseStore;
+    private final long baseId;
+    private final Collection<YangInstanceIdentifier> deltaPaths;
+
+    public CreateSnapshot(boolean compressed) {
+        this(compressed, null, -1, null);
+    }
+
+    /**
+     * Constructor for a snapshot taking part in delta snapshots.
+     *
+     * @param compressed whether the serialized snapshot should be compressed
+     * @param baseStore the store of base snapshots
+     * @param baseId the id of the base snapshot to save the full snapshot as or that the delta applies to
+     * @param deltaPaths the paths of the subtrees modified since the base or null for a full snapshot
+     */
+    public CreateSnapshot(boolean compressed, @Nullable SnapshotBaseStore baseStore, long baseId,
+            @Nullable Collection<YangInstanceIdentifier> deltaPaths) {
+        this.compressed = compressed;
+        this.baseStore = baseStore;
+        this.baseId = baseId;
+        this.deltaPaths = deltaPaths;
+    }
+
+    /**
+     * Returns whether the serialized snapshot should be compressed.
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Returns the store of base snapshots or null if delta snapshots aren't used.
+     */
+    @Nullable
+    public SnapshotBaseStore getBaseStore() {
+        return baseStore;
+    }
+
+    public long getBaseId() {
+        return baseId;
+    }
+
+    /**
+     * Returns the paths of the subtrees modified since the base, or null if a full snapshot should be created.
+     */
+    @Nullable
+    public Collection<YangInstanceIdentifier> getDeltaPaths() {
+        return deltaPaths;
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.messages;
+
+import com.google.common.base.Preconditions;
+import javax.annotation.Nonnull;
+import org.opendaylight.controller.cluster.datastore.LocalReadReplica;
+
+/**
+ * Local message sent in reply to FindPrimaryShard to indicate the primary shard is remote to the caller but
+ * there's a local follower replica of the shard that read-only transactions may be served from.
+ */
+public class LocalReplicaPrimaryShardFound {
+
+    private final String primaryPath;
+    private final short primaryVersion;
+    private final LocalReadReplica localReadReplica;
+
+    public LocalReplicaPrimaryShardFound(@Nonnull String primaryPath, short primaryVersion,
+            @Nonnull LocalReadReplica localReadReplica) {
+        this.primaryPath = Preconditions.checkNotNull(primaryPath);
+        this.primaryVersion = primaryVersion;
+        this.localReadReplica = Preconditions.checkNotNull(localReadReplica);
+    }
+
+    public @Nonnull String getPrimaryPath() {
+        return primaryPath;
+    }
+
+    public short getPrimaryVersion() {
+        return primaryVersion;
+    }
+
+    public @Nonnull LocalReadReplica getLocalReadReplica() {
+        return localReadReplica;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("LocalReplicaPrimaryShardFound [primaryPath=").append(primaryPath).append(", primaryVersion=")
+                .append(primaryVersion).append(", localReadReplica=").append(localReadReplica).append("]");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.messages;
+
+import java.io.Serializable;
+
+/**
+ * Remote message sent by a ShardManager to the ShardManagers of the other members when one of its local shards
+ * becomes the leader so they can update the primary shard location they have cached.
+ */
+public class PrimaryShardChanged implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String shardName;
+    private final String primaryPath;
+    private final short primaryVersion;
+    private final long leaderTerm;
+
+    public PrimaryShardChanged(String shardName, String primaryPath, short primaryVersion, long leaderTerm) {
+        this.shardName = shardName;
+        this.primaryPath = primaryPath;
+        this.primaryVersion = primaryVersion;
+        this.leaderTerm = leaderTerm;
+    }
+
+    public String getShardName() {
+        return shardName;
+    }
+
+    public String getPrimaryPath() {
+        return primaryPath;
+    }
+
+    public short getPrimaryVersion() {
+        return primaryVersion;
+    }
+
+    /**
+     * Returns the raft term the new primary was elected in, used to discard messages delivered out of order.
+     */
+    public long getLeaderTerm() {
+        return leaderTerm;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("PrimaryShardChanged [shardName=").append(shardName).append(", primaryPath=")
+                .append(primaryPath).append(", primaryVersion=").append(primaryVersion).append(", leaderTerm=")
+                .append(leaderTerm).append("]");
+        return builder.toString();
+    }
+}
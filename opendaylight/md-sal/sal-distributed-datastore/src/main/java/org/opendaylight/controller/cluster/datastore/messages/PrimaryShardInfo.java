@@ -11,6 +11,7 @@ import akka.actor.ActorSelection;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import javax.annotation.Nonnull;
+import org.opendaylight.controller.cluster.datastore.LocalReadReplica;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 
 /**
@@ -22,12 +23,19 @@ public class PrimaryShardInfo {
     private final ActorSelection primaryShardActor;
     private final short primaryShardVersion;
     private final Optional<DataTree> localShardDataTree;
+    private final Optional<LocalReadReplica> localReadReplica;
 
     public PrimaryShardInfo(@Nonnull ActorSelection primaryShardActor, short primaryShardVersion,
             @Nonnull Optional<DataTree> localShardDataTree) {
+        this(primaryShardActor, primaryShardVersion, localShardDataTree, Optional.<LocalReadReplica>absent());
+    }
+
+    public PrimaryShardInfo(@Nonnull ActorSelection primaryShardActor, short primaryShardVersion,
+            @Nonnull Optional<DataTree> localShardDataTree, @Nonnull Optional<LocalReadReplica> localReadReplica) {
         this.primaryShardActor = Preconditions.checkNotNull(primaryShardActor);
         this.primaryShardVersion = primaryShardVersion;
         this.localShardDataTree = Preconditions.checkNotNull(localShardDataTree);
+        this.localReadReplica = Preconditions.checkNotNull(localReadReplica);
     }
 
     /**
@@ -51,4 +59,13 @@ public class PrimaryShardInfo {
     public @Nonnull Optional<DataTree> getLocalShardDataTree() {
         return localShardDataTree;
     }
+
+    /**
+     * Returns an Optional whose value contains the LocalReadReplica of a local follower replica of the shard if
+     * the primary shard is remote to the caller and follower reads are enabled. Otherwise the Optional value
+     * is absent.
+     */
+    public @Nonnull Optional<LocalReadReplica> getLocalReadReplica() {
+        return localReadReplica;
+    }
 }
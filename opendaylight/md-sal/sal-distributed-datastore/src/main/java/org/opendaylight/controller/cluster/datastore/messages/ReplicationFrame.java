@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.messages;
+
+import akka.actor.ActorRef;
+import com.google.common.base.Preconditions;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Message sent between the shard replication channels of two members carrying the Raft messages of several
+ * shards, each to be delivered to a local shard actor on the receiving member.
+ */
+public final class ReplicationFrame implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Entry> entries;
+
+    public ReplicationFrame(List<Entry> entries) {
+        this.entries = Preconditions.checkNotNull(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicationFrame [entries=" + entries.size() + "]";
+    }
+
+    public static final class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String targetPath;
+        private final Object message;
+        private final ActorRef sender;
+        private final boolean routeReply;
+
+        /**
+         * Constructor.
+         *
+         * @param targetPath the path, without the address, of the actor to deliver the message to
+         * @param message the message
+         * @param sender the actor that sent the message
+         * @param routeReply whether the target's reply should be routed back through the channels rather than
+         *                   sent to the sender directly
+         */
+        public Entry(String targetPath, Object message, ActorRef sender, boolean routeReply) {
+            this.targetPath = Preconditions.checkNotNull(targetPath);
+            this.message = Preconditions.checkNotNull(message);
+            this.sender = sender;
+            this.routeReply = routeReply;
+        }
+
+        public String getTargetPath() {
+            return targetPath;
+        }
+
+        public Object getMessage() {
+            return message;
+        }
+
+        public ActorRef getSender() {
+            return sender;
+        }
+
+        public boolean isRouteReply() {
+            return routeReply;
+        }
+    }
+}
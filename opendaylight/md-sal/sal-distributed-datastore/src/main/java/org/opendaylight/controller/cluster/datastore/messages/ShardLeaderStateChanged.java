@@ -10,6 +10,7 @@ package org.opendaylight.controller.cluster.datastore.messages;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import javax.annotation.Nonnull;
+import org.opendaylight.controller.cluster.datastore.LocalReadReplica;
 import org.opendaylight.controller.cluster.notifications.LeaderStateChanged;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 
@@ -23,14 +24,44 @@ import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 public class ShardLeaderStateChanged extends LeaderStateChanged {
 
     private final Optional<DataTree> localShardDataTree;
+    private final Optional<LocalReadReplica> localReadReplica;
+    private final long leaderTerm;
 
     public ShardLeaderStateChanged(@Nonnull String memberId, @Nonnull String leaderId,
             @Nonnull Optional<DataTree> localShardDataTree, short leaderPayloadVersion) {
+        this(memberId, leaderId, localShardDataTree, Optional.<LocalReadReplica>absent(), leaderPayloadVersion);
+    }
+
+    public ShardLeaderStateChanged(@Nonnull String memberId, @Nonnull String leaderId,
+            @Nonnull Optional<DataTree> localShardDataTree, @Nonnull Optional<LocalReadReplica> localReadReplica,
+            short leaderPayloadVersion) {
+        this(memberId, leaderId, localShardDataTree, localReadReplica, leaderPayloadVersion, -1);
+    }
+
+    public ShardLeaderStateChanged(@Nonnull String memberId, @Nonnull String leaderId,
+            @Nonnull Optional<DataTree> localShardDataTree, @Nonnull Optional<LocalReadReplica> localReadReplica,
+            short leaderPayloadVersion, long leaderTerm) {
         super(memberId, leaderId, leaderPayloadVersion);
         this.localShardDataTree = Preconditions.checkNotNull(localShardDataTree);
+        this.localReadReplica = Preconditions.checkNotNull(localReadReplica);
+        this.leaderTerm = leaderTerm;
     }
 
     public @Nonnull Optional<DataTree> getLocalShardDataTree() {
         return localShardDataTree;
     }
+
+    /**
+     * Returns an Optional whose value contains the shard's LocalReadReplica if the shard isn't the leader.
+     */
+    public @Nonnull Optional<LocalReadReplica> getLocalReadReplica() {
+        return localReadReplica;
+    }
+
+    /**
+     * Returns the raft term the current leader was elected in or -1 if not known.
+     */
+    public long getLeaderTerm() {
+        return leaderTerm;
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.shardstrategy;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+
+/**
+ * A ListShardStrategy that maps list entries to shards by a consistent hash of their keys.
+ */
+public class KeyHashShardStrategy extends ListShardStrategy {
+
+    public static final String NAME = "key-hash";
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    public KeyHashShardStrategy(String listPath, List<String> shardNames) {
+        super(listPath, shardNames);
+    }
+
+    @Override
+    protected int shardIndex(NodeIdentifierWithPredicates entryKey, int shardCount) {
+        return Hashing.consistentHash(HASH_FUNCTION.hashString(keyString(entryKey), StandardCharsets.UTF_8),
+                shardCount);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.shardstrategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+
+/**
+ * A ListShardStrategy that maps list entries to shards by ranges of their keys. Each shard other than the first
+ * has the start of its key range - a list entry belongs in the last shard whose range start is less than or
+ * equal to the entry's key, compared as strings. Entries whose keys sort before the second shard's range start
+ * belong in the first shard.
+ */
+public class KeyRangeShardStrategy extends ListShardStrategy {
+
+    public static final String NAME = "key-range";
+
+    private final List<String> rangeStarts;
+
+    /**
+     * Constructor.
+     *
+     * @param listPath the list path
+     * @param shardNames the shard names
+     * @param rangeStarts the key range starts of the shards after the first, in ascending order
+     */
+    public KeyRangeShardStrategy(String listPath, List<String> shardNames, List<String> rangeStarts) {
+        super(listPath, shardNames);
+        this.rangeStarts = ImmutableList.copyOf(rangeStarts);
+
+        Preconditions.checkArgument(this.rangeStarts.size() == shardNames.size() - 1,
+                "Expected %s key range starts, got %s", shardNames.size() - 1, rangeStarts.size());
+        for(int i = 1; i < this.rangeStarts.size(); i++) {
+            Preconditions.checkArgument(this.rangeStarts.get(i - 1).compareTo(this.rangeStarts.get(i)) < 0,
+                    "Key range starts must be in ascending order: %s", rangeStarts);
+        }
+    }
+
+    @Override
+    protected int shardIndex(NodeIdentifierWithPredicates entryKey, int shardCount) {
+        String key = keyString(entryKey);
+        int index = 0;
+        while(index < rangeStarts.size() && rangeStarts.get(index).compareTo(key) <= 0) {
+            index++;
+        }
+
+        return index;
+    }
+}
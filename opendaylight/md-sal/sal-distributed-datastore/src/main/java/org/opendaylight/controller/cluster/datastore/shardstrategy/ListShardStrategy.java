@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.shardstrategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Base class for strategies that split the entries of a keyed list of a module across multiple shards. The list
+ * is identified by the local names of the nodes on the path from the module's top-level node down to the list,
+ * eg "nodes/node". Data under a list entry belongs in the shard the entry's key maps to while all other data of
+ * the module, ie not under a list entry, belongs in the first shard, referred to as the primary shard.
+ * <p>
+ * Data at or above the list, ie whose path is a prefix of the list path, spans all the shards so operations
+ * on it have to be fanned out to all the shards.
+ */
+public abstract class ListShardStrategy implements ShardStrategy {
+
+    private final List<String> listPath;
+    private final List<String> shardNames;
+
+    protected ListShardStrategy(String listPath, List<String> shardNames) {
+        this.listPath = ImmutableList.copyOf(Splitter.on('/').omitEmptyStrings().trimResults().split(listPath));
+        this.shardNames = ImmutableList.copyOf(shardNames);
+
+        Preconditions.checkArgument(!this.listPath.isEmpty(), "list path must not be empty");
+        Preconditions.checkArgument(!this.shardNames.isEmpty(), "shard names must not be empty");
+    }
+
+    @Override
+    public String findShard(YangInstanceIdentifier path) {
+        int depth = listPath.size();
+        Iterator<PathArgument> iter = path.getPathArguments().iterator();
+        for(int i = 0; i < depth; i++) {
+            if(!iter.hasNext() || !matches(iter.next(), listPath.get(i))) {
+                return getPrimaryShard();
+            }
+        }
+
+        if(iter.hasNext()) {
+            PathArgument entry = iter.next();
+            if(entry instanceof NodeIdentifierWithPredicates) {
+                return findShard((NodeIdentifierWithPredicates) entry);
+            }
+        }
+
+        return getPrimaryShard();
+    }
+
+    /**
+     * Returns the name of the shard in which the list entry with the given key belongs.
+     */
+    public String findShard(NodeIdentifierWithPredicates entryKey) {
+        return shardNames.get(shardIndex(entryKey, shardNames.size()));
+    }
+
+    /**
+     * Returns whether the data pointed to by the specified path spans all the shards, ie the path is a prefix of
+     * the list path.
+     */
+    public boolean isMultiShardPath(YangInstanceIdentifier path) {
+        List<PathArgument> args = path.getPathArguments();
+        if(args.isEmpty() || args.size() > listPath.size()) {
+            return false;
+        }
+
+        for(int i = 0; i < args.size(); i++) {
+            if(!matches(args.get(i), listPath.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the path of the list under the specified multi-shard path.
+     */
+    public YangInstanceIdentifier getListPath(YangInstanceIdentifier path) {
+        Preconditions.checkArgument(isMultiShardPath(path), "%s is not a prefix of the list path", path);
+
+        QName base = path.getLastPathArgument().getNodeType();
+        YangInstanceIdentifier ret = path;
+        for(int i = path.getPathArguments().size(); i < listPath.size(); i++) {
+            ret = ret.node(QName.create(base, listPath.get(i)));
+        }
+
+        return ret;
+    }
+
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    public String getPrimaryShard() {
+        return shardNames.get(0);
+    }
+
+    /**
+     * Maps a list entry key to a shard.
+     *
+     * @param entryKey the list entry key
+     * @param shardCount the number of shards
+     * @return the index of the shard, in the range 0 to shardCount - 1
+     */
+    protected abstract int shardIndex(NodeIdentifierWithPredicates entryKey, int shardCount);
+
+    /**
+     * Returns the string form of a list entry key used to map it to a shard. This has to be the same on all
+     * members so it's derived from the key values' string forms rather than their hash codes.
+     */
+    protected static String keyString(NodeIdentifierWithPredicates entryKey) {
+        Map<QName, Object> keyValues = entryKey.getKeyValues();
+        if(keyValues.size() == 1) {
+            return String.valueOf(keyValues.values().iterator().next());
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for(Object value: keyValues.values()) {
+            if(builder.length() > 0) {
+                builder.append('/');
+            }
+
+            builder.append(value);
+        }
+
+        return builder.toString();
+    }
+
+    private static boolean matches(PathArgument arg, String localName) {
+        return !(arg instanceof AugmentationIdentifier) && localName.equals(arg.getNodeType().getLocalName());
+    }
+}
@@ -29,6 +29,7 @@ import org.opendaylight.controller.cluster.datastore.ClusterWrapper;
 import org.opendaylight.controller.cluster.datastore.Configuration;
 import org.opendaylight.controller.cluster.datastore.DataStoreVersions;
 import org.opendaylight.controller.cluster.datastore.DatastoreContext;
+import org.opendaylight.controller.cluster.datastore.LocalReadReplica;
 import org.opendaylight.controller.cluster.datastore.exceptions.LocalShardNotFoundException;
 import org.opendaylight.controller.cluster.datastore.exceptions.NoShardLeaderException;
 import org.opendaylight.controller.cluster.datastore.exceptions.NotInitializedException;
@@ -38,6 +39,7 @@ import org.opendaylight.controller.cluster.datastore.exceptions.UnknownMessageEx
 import org.opendaylight.controller.cluster.datastore.messages.FindLocalShard;
 import org.opendaylight.controller.cluster.datastore.messages.FindPrimary;
 import org.opendaylight.controller.cluster.datastore.messages.LocalPrimaryShardFound;
+import org.opendaylight.controller.cluster.datastore.messages.LocalReplicaPrimaryShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.LocalShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.LocalShardNotFound;
 import org.opendaylight.controller.cluster.datastore.messages.PrimaryShardInfo;
@@ -81,6 +83,8 @@ public class ActorContext {
     };
     public static final String MAILBOX = "bounded-mailbox";
     public static final String COMMIT = "commit";
+    public static final String READY = "ready";
+    public static final String CAN_COMMIT = "can-commit";
 
     private final ActorSystem actorSystem;
     private final ActorRef shardManager;
@@ -91,6 +95,7 @@ public class ActorContext {
     private Timeout operationTimeout;
     private final String selfAddressHostPort;
     private TransactionRateLimiter txRateLimiter;
+    private volatile ShardAdmissionController shardAdmissionController;
     private Timeout transactionCommitOperationTimeout;
     private Timeout shardInitializationTimeout;
     private final Dispatchers dispatchers;
@@ -132,6 +137,15 @@ public class ActorContext {
     private void setCachedProperties() {
         txRateLimiter = new TransactionRateLimiter(this);
 
+        // The admission controller is retained across context updates so the learned limits aren't lost.
+        if(datastoreContext.isShardAdmissionControlEnabled()) {
+            if(shardAdmissionController == null) {
+                shardAdmissionController = new ShardAdmissionController(this);
+            }
+        } else {
+            shardAdmissionController = null;
+        }
+
         operationDuration = Duration.create(datastoreContext.getOperationTimeoutInSeconds(), TimeUnit.SECONDS);
         operationTimeout = new Timeout(operationDuration);
 
@@ -206,6 +220,11 @@ public class ActorContext {
                     LOG.debug("findPrimaryShardAsync received: {}", response);
                     RemotePrimaryShardFound found = (RemotePrimaryShardFound)response;
                     return onPrimaryShardFound(shardName, found.getPrimaryPath(), found.getPrimaryVersion(), null);
+                } else if(response instanceof LocalReplicaPrimaryShardFound) {
+                    LOG.debug("findPrimaryShardAsync received: {}", response);
+                    LocalReplicaPrimaryShardFound found = (LocalReplicaPrimaryShardFound)response;
+                    return onPrimaryShardFound(shardName, found.getPrimaryPath(), found.getPrimaryVersion(), null,
+                            found.getLocalReadReplica());
                 } else if(response instanceof LocalPrimaryShardFound) {
                     LOG.debug("findPrimaryShardAsync received: {}", response);
                     LocalPrimaryShardFound found = (LocalPrimaryShardFound)response;
@@ -227,9 +246,14 @@ public class ActorContext {
 
     private PrimaryShardInfo onPrimaryShardFound(String shardName, String primaryActorPath,
             short primaryVersion, DataTree localShardDataTree) {
+        return onPrimaryShardFound(shardName, primaryActorPath, primaryVersion, localShardDataTree, null);
+    }
+
+    private PrimaryShardInfo onPrimaryShardFound(String shardName, String primaryActorPath,
+            short primaryVersion, DataTree localShardDataTree, LocalReadReplica localReadReplica) {
         ActorSelection actorSelection = actorSystem.actorSelection(primaryActorPath);
         PrimaryShardInfo info = new PrimaryShardInfo(actorSelection, primaryVersion,
-                Optional.fromNullable(localShardDataTree));
+                Optional.fromNullable(localShardDataTree), Optional.fromNullable(localReadReplica));
         primaryShardInfoCache.putSuccessful(shardName, info);
         return info;
     }
@@ -497,10 +521,22 @@ public class ActorContext {
     }
 
     /**
-     * Try to acquire a transaction creation permit. Will block if no permits are available.
+     * Try to acquire a transaction creation permit. Will block if no permits are available. This is a no-op
+     * if shard admission control is enabled as transactions are then admitted per shard on commit instead.
      */
     public void acquireTxCreationPermit(){
-        txRateLimiter.acquire();
+        if(shardAdmissionController == null) {
+            txRateLimiter.acquire();
+        }
+    }
+
+    /**
+     * Returns the controller used to admit transaction commits per shard.
+     *
+     * @return the ShardAdmissionController or null if shard admission control is disabled.
+     */
+    public ShardAdmissionController getShardAdmissionController() {
+        return shardAdmissionController;
     }
 
     /**
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
+
+/**
+ * Compresses serialized snapshots and payloads. Compressed bytes are framed with a header recording the codec
+ * and the uncompressed length so they can be told apart from uncompressed bytes when read back - the header
+ * starts with a byte that can't start a serialized NormalizedNode, nor a legacy protobuf message. Thus
+ * readers don't need to know whether compression was enabled when the bytes were written.
+ * <p>
+ * The only codec currently is deflate at its fastest level, which gets most of the gain on the highly
+ * repetitive NormalizedNode stream encoding at a fraction of the CPU cost of the higher levels.
+ */
+public final class CompressionUtils {
+    private static final byte MAGIC = (byte) 0xCF;
+    private static final byte DEFLATE = 1;
+    private static final int HEADER_SIZE = 6;
+
+    private CompressionUtils() {
+    }
+
+    /**
+     * Determines if the given bytes were compressed by {@link #compress}.
+     */
+    public static boolean isCompressed(byte[] bytes) {
+        return bytes.length >= HEADER_SIZE && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Compresses the given bytes.
+     *
+     * @param bytes the bytes to compress
+     * @param stats the ShardStats to record the compression ratio and time to, may be null
+     * @return the framed compressed bytes
+     */
+    public static byte[] compress(byte[] bytes, @Nullable ShardStats stats) {
+        long start = System.nanoTime();
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+            out.write(MAGIC);
+            out.write(DEFLATE);
+            out.write(ByteBuffer.allocate(4).putInt(bytes.length).array(), 0, 4);
+
+            byte[] buffer = new byte[8192];
+            while(!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+
+            byte[] compressed = out.toByteArray();
+            if(stats != null) {
+                stats.onCompressed(bytes.length, compressed.length, System.nanoTime() - start);
+            }
+
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses the given bytes if they were compressed by {@link #compress}, otherwise returns them as is.
+     *
+     * @param bytes the possibly compressed bytes
+     * @param stats the ShardStats to record the decompression time to, may be null
+     * @return the uncompressed bytes
+     */
+    public static byte[] decompress(byte[] bytes, @Nullable ShardStats stats) {
+        if(!isCompressed(bytes)) {
+            return bytes;
+        }
+
+        if(bytes[1] != DEFLATE) {
+            throw new IllegalArgumentException("Unsupported compression codec " + bytes[1]);
+        }
+
+        long start = System.nanoTime();
+
+        int length = ByteBuffer.wrap(bytes, 2, 4).getInt();
+        byte[] uncompressed = new byte[length];
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+
+            int offset = 0;
+            while(offset < length) {
+                int count = inflater.inflate(uncompressed, offset, length - offset);
+                if(count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalArgumentException(String.format(
+                            "Compressed data is truncated - expected %d bytes, got %d", length, offset));
+                }
+
+                offset += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Error decompressing data", e);
+        } finally {
+            inflater.end();
+        }
+
+        if(stats != null) {
+            stats.onDecompressed(System.nanoTime() - start);
+        }
+
+        return uncompressed;
+    }
+}
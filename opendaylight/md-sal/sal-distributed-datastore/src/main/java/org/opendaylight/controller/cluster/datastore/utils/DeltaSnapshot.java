@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import com.google.common.base.Optional;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+
+/**
+ * A snapshot containing only the subtrees of a shard modified since a full base snapshot, which is stored in
+ * a {@link SnapshotBaseStore}. Each subtree is recorded with its current data or as deleted so the state at
+ * the time of the snapshot is reconstructed by applying the subtrees to the base.
+ * <p>
+ * Serialized delta snapshots start with a byte that can't start a serialized NormalizedNode, a legacy protobuf
+ * message nor compressed bytes, so they can be told apart from full snapshots when read back.
+ */
+public final class DeltaSnapshot {
+    private static final byte MAGIC = (byte) 0xDE;
+    private static final byte VERSION = 1;
+
+    private static final Comparator<YangInstanceIdentifier> DEPTH_ORDER = new Comparator<YangInstanceIdentifier>() {
+        @Override
+        public int compare(YangInstanceIdentifier o1, YangInstanceIdentifier o2) {
+            return Integer.compare(o1.getPathArguments().size(), o2.getPathArguments().size());
+        }
+    };
+
+    private final long baseId;
+    private final List<YangInstanceIdentifier> paths;
+    private final List<NormalizedNode<?, ?>> nodes;
+
+    private DeltaSnapshot(long baseId, List<YangInstanceIdentifier> paths, List<NormalizedNode<?, ?>> nodes) {
+        this.baseId = baseId;
+        this.paths = paths;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Returns the id of the base snapshot this delta applies to.
+     */
+    public long getBaseId() {
+        return baseId;
+    }
+
+    /**
+     * Returns the number of subtrees in this delta.
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    /**
+     * Applies the subtrees of this delta to a modification of the base snapshot.
+     */
+    public void applyTo(DataTreeModification modification) {
+        for(int i = 0; i < paths.size(); i++) {
+            NormalizedNode<?, ?> node = nodes.get(i);
+            if(node != null) {
+                modification.write(paths.get(i), node);
+            } else {
+                modification.delete(paths.get(i));
+            }
+        }
+    }
+
+    /**
+     * Determines if the given bytes were serialized by {@link #serialize}.
+     */
+    public static boolean isDeltaSnapshot(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Serializes the given subtrees of a data tree snapshot as a delta.
+     *
+     * @param baseId the id of the base snapshot the delta applies to
+     * @param snapshot the snapshot to read the subtrees from
+     * @param modifiedPaths the paths of the subtrees modified since the base
+     * @return the serialized delta snapshot
+     */
+    public static byte[] serialize(long baseId, DataTreeSnapshot snapshot,
+            Collection<YangInstanceIdentifier> modifiedPaths) {
+        // Subtrees are applied parents first and any nested within another are dropped as the parent
+        // already contains them, so each written subtree's parent exists when it is applied.
+        List<YangInstanceIdentifier> sorted = new ArrayList<>(modifiedPaths);
+        Collections.sort(sorted, DEPTH_ORDER);
+
+        Set<YangInstanceIdentifier> included = new HashSet<>();
+        List<YangInstanceIdentifier> paths = new ArrayList<>(sorted.size());
+        for(YangInstanceIdentifier path: sorted) {
+            if(!isNested(path, included)) {
+                included.add(path);
+                paths.add(path);
+            }
+        }
+
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bos);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(baseId);
+            out.writeInt(paths.size());
+
+            for(YangInstanceIdentifier path: paths) {
+                Optional<NormalizedNode<?, ?>> node = snapshot.readNode(path);
+                SerializationUtils.serializePath(path, out);
+                SerializationUtils.serializeNormalizedNode(node.orNull(), out);
+            }
+
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Error serializing delta snapshot", e);
+        }
+    }
+
+    /**
+     * De-serializes a delta snapshot.
+     *
+     * @param bytes the bytes serialized by {@link #serialize}
+     * @return the delta snapshot
+     */
+    public static DeltaSnapshot deserialize(byte[] bytes) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if(in.readByte() != MAGIC) {
+                throw new IllegalArgumentException("Not a delta snapshot");
+            }
+
+            byte version = in.readByte();
+            if(version != VERSION) {
+                throw new IllegalArgumentException("Unsupported delta snapshot version " + version);
+            }
+
+            long baseId = in.readLong();
+            int size = in.readInt();
+            List<YangInstanceIdentifier> paths = new ArrayList<>(size);
+            List<NormalizedNode<?, ?>> nodes = new ArrayList<>(size);
+            for(int i = 0; i < size; i++) {
+                paths.add(SerializationUtils.deserializePath(in));
+                nodes.add(SerializationUtils.deserializeNormalizedNode(in));
+            }
+
+            return new DeltaSnapshot(baseId, paths, nodes);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Error deserializing delta snapshot", e);
+        }
+    }
+
+    private static boolean isNested(YangInstanceIdentifier path, Set<YangInstanceIdentifier> included) {
+        List<PathArgument> args = path.getPathArguments();
+        for(int i = 0; i < args.size(); i++) {
+            if(included.contains(YangInstanceIdentifier.create(args.subList(0, i)))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -8,31 +8,95 @@
 package org.opendaylight.controller.cluster.datastore.utils;
 
 import com.google.common.base.Optional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
+/**
+ * Combines the data read from multiple shards at the same path into a single node.
+ * <p>
+ * Nodes are merged incrementally as they are added so the data read from each shard can be merged as soon
+ * as it arrives rather than once all shards have replied. Merging is done structurally, ie the children of
+ * containers, map entries, augmentations, choices and maps are combined by identifier and merged recursively
+ * where they collide, while any other colliding node is replaced by the last one added, which is what a
+ * merge into a data tree does. Only the parents of colliding children are rebuilt - subtrees read from a
+ * single shard are reused as is and the common case of disjoint shards only rebuilds the top-level node once.
+ * <p>
+ * Unlike merging into a DataTree, the result isn't validated against the schema - the nodes were already
+ * validated when they were committed to their shards.
+ * <p>
+ * This class is thread-safe.
+ */
 public class NormalizedNodeAggregator {
-    private final YangInstanceIdentifier rootIdentifier;
-    private final List<Optional<NormalizedNode<?, ?>>> nodes;
-    private final DataTree dataTree;
-
-    private NormalizedNodeAggregator(final YangInstanceIdentifier rootIdentifier, final List<Optional<NormalizedNode<?, ?>>> nodes,
-                             final SchemaContext schemaContext) {
-        this.rootIdentifier = rootIdentifier;
-        this.nodes = nodes;
-        this.dataTree = InMemoryDataTreeFactory.getInstance().create();
-        this.dataTree.setSchemaContext(schemaContext);
+    private NormalizedNode<?, ?> aggregated;
+
+    // The children of the aggregated node, once a second node has been merged into it.
+    private Map<PathArgument, NormalizedNode<?, ?>> children;
+
+    /**
+     * Merges a node into the aggregate.
+     *
+     * @param node the node read from a shard, absent if the shard has no data
+     */
+    public synchronized void addNode(Optional<NormalizedNode<?, ?>> node) {
+        if(!node.isPresent()) {
+            return;
+        }
+
+        NormalizedNode<?, ?> newNode = node.get();
+        if(aggregated == null || !isMergeable(aggregated, newNode)) {
+            aggregated = newNode;
+            children = null;
+            return;
+        }
+
+        if(children == null) {
+            children = childrenOf(aggregated);
+        }
+
+        mergeChildren(children, newNode);
     }
 
     /**
-     * Combine data from all the nodes in the list into a tree with root as rootIdentifier
+     * Returns the node aggregated from the nodes added so far.
+     */
+    public synchronized Optional<NormalizedNode<?, ?>> getAggregatedNode() {
+        if(aggregated == null) {
+            return Optional.absent();
+        }
+
+        if(children != null) {
+            aggregated = build(aggregated, children.values());
+            children = null;
+        }
+
+        return Optional.<NormalizedNode<?, ?>>of(aggregated);
+    }
+
+    /**
+     * Combine data from all the nodes in the list into a tree with root as rootIdentifier by merging them
+     * into a DataTree.
      *
      * @param nodes
      * @param schemaContext
@@ -42,14 +106,9 @@ public class NormalizedNodeAggregator {
     public static Optional<NormalizedNode<?,?>> aggregate(final YangInstanceIdentifier rootIdentifier,
                                                           final List<Optional<NormalizedNode<?, ?>>> nodes,
                                                           final SchemaContext schemaContext) throws DataValidationFailedException {
-        return new NormalizedNodeAggregator(rootIdentifier, nodes, schemaContext).aggregate();
-    }
+        final DataTree dataTree = InMemoryDataTreeFactory.getInstance().create();
+        dataTree.setSchemaContext(schemaContext);
 
-    private Optional<NormalizedNode<?,?>> aggregate() throws DataValidationFailedException {
-        return combine().getRootNode();
-    }
-
-    private NormalizedNodeAggregator combine() throws DataValidationFailedException {
         final DataTreeModification mod = dataTree.takeSnapshot().newModification();
 
         for (final Optional<NormalizedNode<?,?>> node : nodes) {
@@ -62,10 +121,79 @@ public class NormalizedNodeAggregator {
         final DataTreeCandidate candidate = dataTree.prepare(mod);
         dataTree.commit(candidate);
 
-        return this;
+        return dataTree.takeSnapshot().readNode(rootIdentifier);
+    }
+
+    private static boolean isMergeable(NormalizedNode<?, ?> existing, NormalizedNode<?, ?> node) {
+        if(!existing.getIdentifier().equals(node.getIdentifier())) {
+            return false;
+        }
+
+        return existing instanceof ContainerNode && node instanceof ContainerNode ||
+                existing instanceof MapEntryNode && node instanceof MapEntryNode ||
+                existing instanceof AugmentationNode && node instanceof AugmentationNode ||
+                existing instanceof ChoiceNode && node instanceof ChoiceNode ||
+                existing instanceof MapNode && node instanceof MapNode;
     }
 
-    private Optional<NormalizedNode<?, ?>> getRootNode() {
-        return dataTree.takeSnapshot().readNode(rootIdentifier);
+    private static Map<PathArgument, NormalizedNode<?, ?>> childrenOf(NormalizedNode<?, ?> node) {
+        Collection<?> value = ((NormalizedNodeContainer<?, ?, ?>) node).getValue();
+        Map<PathArgument, NormalizedNode<?, ?>> children = new LinkedHashMap<>(value.size() * 2);
+        for(Object child: value) {
+            NormalizedNode<?, ?> childNode = (NormalizedNode<?, ?>) child;
+            children.put(childNode.getIdentifier(), childNode);
+        }
+
+        return children;
+    }
+
+    private static void mergeChildren(Map<PathArgument, NormalizedNode<?, ?>> children, NormalizedNode<?, ?> node) {
+        for(Object child: ((NormalizedNodeContainer<?, ?, ?>) node).getValue()) {
+            NormalizedNode<?, ?> childNode = (NormalizedNode<?, ?>) child;
+            NormalizedNode<?, ?> existing = children.get(childNode.getIdentifier());
+            children.put(childNode.getIdentifier(), existing == null ? childNode : merge(existing, childNode));
+        }
+    }
+
+    private static NormalizedNode<?, ?> merge(NormalizedNode<?, ?> existing, NormalizedNode<?, ?> node) {
+        if(!isMergeable(existing, node)) {
+            return node;
+        }
+
+        Map<PathArgument, NormalizedNode<?, ?>> children = childrenOf(existing);
+        mergeChildren(children, node);
+        return build(existing, children.values());
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static NormalizedNode<?, ?> build(NormalizedNode<?, ?> template, Collection<NormalizedNode<?, ?>> children) {
+        if(template instanceof MapNode) {
+            CollectionNodeBuilder builder = template instanceof OrderedMapNode ? Builders.orderedMapBuilder() :
+                Builders.mapBuilder();
+            builder.withNodeIdentifier(template.getIdentifier());
+            for(NormalizedNode<?, ?> child: children) {
+                builder.withChild(child);
+            }
+
+            return builder.build();
+        }
+
+        DataContainerNodeBuilder builder;
+        if(template instanceof ContainerNode) {
+            builder = Builders.containerBuilder();
+        } else if(template instanceof MapEntryNode) {
+            builder = Builders.mapEntryBuilder();
+        } else if(template instanceof AugmentationNode) {
+            builder = Builders.augmentationBuilder();
+        } else {
+            builder = Builders.choiceBuilder();
+        }
+
+        builder.withNodeIdentifier(template.getIdentifier());
+        for(NormalizedNode<?, ?> child: children) {
+            builder.withChild((DataContainerChild) child);
+        }
+
+        return builder.build();
     }
 }
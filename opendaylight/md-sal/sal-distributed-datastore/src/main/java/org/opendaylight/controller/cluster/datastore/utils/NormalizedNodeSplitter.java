@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import com.google.common.base.Optional;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ListShardStrategy;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * The counterpart of NormalizedNodeAggregator - splits data at a path spanning the shards of a ListShardStrategy
+ * into the parts belonging in each shard. The primary shard's part is the data without the list entries that
+ * belong in other shards. Every other shard's part only has the list entries that belong in it along with the
+ * enclosing nodes on the path down to the list.
+ */
+public final class NormalizedNodeSplitter {
+    private NormalizedNodeSplitter() {
+    }
+
+    /**
+     * Splits the data at the given path into the parts belonging in each shard.
+     *
+     * @param strategy the ListShardStrategy of the module the path belongs to
+     * @param path a multi-shard path of the strategy
+     * @param data the data at the path
+     * @param schemaContext the SchemaContext
+     * @param includeShardsWithoutEntries if false, the shards other than the primary shard to which none of the
+     *        list entries belong are omitted.
+     * @return the parts of the data keyed by shard name
+     */
+    public static Map<String, NormalizedNode<?, ?>> split(final ListShardStrategy strategy,
+            final YangInstanceIdentifier path, final NormalizedNode<?, ?> data, final SchemaContext schemaContext,
+            final boolean includeShardsWithoutEntries) {
+        final DataTree dataTree = InMemoryDataTreeFactory.getInstance().create();
+        dataTree.setSchemaContext(schemaContext);
+
+        // Write the data with its enclosing structure from the root so it can be read back from a modification.
+        final NormalizedNode<?, ?> topLevel = ImmutableNodes.fromInstanceId(schemaContext, path, data);
+        final YangInstanceIdentifier topLevelPath = YangInstanceIdentifier.create(topLevel.getIdentifier());
+        final YangInstanceIdentifier listPath = strategy.getListPath(path);
+
+        final Map<String, NormalizedNode<?, ?>> parts = new LinkedHashMap<>();
+        for(String shardName: strategy.getShardNames()) {
+            final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+            mod.write(topLevelPath, topLevel);
+
+            boolean hasEntries = false;
+            final Optional<NormalizedNode<?, ?>> list = mod.readNode(listPath);
+            if(list.isPresent() && list.get() instanceof MapNode) {
+                for(MapEntryNode entry: ((MapNode) list.get()).getValue()) {
+                    if(shardName.equals(strategy.findShard(entry.getIdentifier()))) {
+                        hasEntries = true;
+                    } else {
+                        mod.delete(listPath.node(entry.getIdentifier()));
+                    }
+                }
+            }
+
+            if(!shardName.equals(strategy.getPrimaryShard())) {
+                if(!hasEntries && !includeShardsWithoutEntries) {
+                    continue;
+                }
+
+                removeNonListChildren(mod, path, listPath);
+            }
+
+            final Optional<NormalizedNode<?, ?>> part = mod.readNode(path);
+            if(part.isPresent()) {
+                parts.put(shardName, part.get());
+            }
+        }
+
+        return parts;
+    }
+
+    private static void removeNonListChildren(final DataTreeModification mod, final YangInstanceIdentifier path,
+            final YangInstanceIdentifier listPath) {
+        final List<PathArgument> listPathArgs = listPath.getPathArguments();
+        YangInstanceIdentifier current = path;
+        for(int i = path.getPathArguments().size(); i < listPathArgs.size(); i++) {
+            final PathArgument next = listPathArgs.get(i);
+            final Optional<NormalizedNode<?, ?>> node = mod.readNode(current);
+            if(!node.isPresent() || !(node.get() instanceof NormalizedNodeContainer)) {
+                return;
+            }
+
+            for(Object child: ((NormalizedNodeContainer<?, ?, ?>) node.get()).getValue()) {
+                PathArgument childId = ((NormalizedNode<?, ?>) child).getIdentifier();
+                if(!next.equals(childId)) {
+                    mod.delete(current.node(childId));
+                }
+            }
+
+            current = current.node(next);
+        }
+    }
+}
@@ -10,18 +10,28 @@ package org.opendaylight.controller.cluster.datastore.utils;
 import akka.dispatch.Futures;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opendaylight.controller.cluster.datastore.messages.PrimaryShardInfo;
 import scala.concurrent.Future;
 
 /**
- * Maintains a cache of PrimaryShardInfo Future instances per shard.
+ * Maintains a cache of PrimaryShardInfo Future instances per shard. Entries are invalidated when the shard leader
+ * changes or replaced when another member pushes the new leader's location - entries replaced that way are
+ * counted as stale.
  *
  * @author Thomas Pantelis
  */
 public class PrimaryShardInfoFutureCache {
-    private final Cache<String, Future<PrimaryShardInfo>> primaryShardInfoCache = CacheBuilder.newBuilder().build();
+    private final Cache<String, Future<PrimaryShardInfo>> primaryShardInfoCache =
+            CacheBuilder.newBuilder().recordStats().build();
+
+    private final ConcurrentMap<String, Long> leaderTerms = new ConcurrentHashMap<>();
+
+    private final AtomicLong staleCount = new AtomicLong();
 
     public @Nullable Future<PrimaryShardInfo> getIfPresent(@Nonnull String shardName) {
         return primaryShardInfoCache.getIfPresent(shardName);
@@ -31,7 +41,43 @@ public class PrimaryShardInfoFutureCache {
         primaryShardInfoCache.put(shardName, Futures.successful(info));
     }
 
+    /**
+     * Replaces the cached PrimaryShardInfo for a shard, if there is one, with the given one unless a leader elected
+     * in a later term was already reported. Pushes from different members may be delivered out of order, and an
+     * older one would otherwise reinstate a deposed leader.
+     *
+     * @param leaderTerm the raft term the new primary was elected in
+     * @return true if there was an entry to replace
+     */
+    public boolean replaceIfPresent(@Nonnull String shardName, @Nonnull PrimaryShardInfo info, long leaderTerm) {
+        Long lastLeaderTerm = leaderTerms.get(shardName);
+        if(lastLeaderTerm != null && leaderTerm < lastLeaderTerm) {
+            return false;
+        }
+
+        leaderTerms.put(shardName, leaderTerm);
+
+        if(primaryShardInfoCache.asMap().replace(shardName, Futures.successful(info)) != null) {
+            staleCount.incrementAndGet();
+            return true;
+        }
+
+        return false;
+    }
+
     public void remove(@Nonnull String shardName) {
         primaryShardInfoCache.invalidate(shardName);
     }
+
+    public long getHitCount() {
+        return primaryShardInfoCache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return primaryShardInfoCache.stats().missCount();
+    }
+
+    public long getStaleCount() {
+        return staleCount.get();
+    }
 }
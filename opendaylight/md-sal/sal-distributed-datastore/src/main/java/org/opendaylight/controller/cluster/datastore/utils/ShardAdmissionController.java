@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opendaylight.controller.cluster.datastore.DatastoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-shard admission control for transaction commits. Each shard has a limit on the number of transactions
+ * concurrently committing to it from this front-end, which is adjusted additive-increase/multiplicative-decrease
+ * from the observed commit latency, ie the time from ready to commit completion. When a shard is overloaded
+ * that time is dominated by the wait in its commit queue. As with CoDel, the limit is halved when the latency
+ * exceeds the target but at most once per interval so a burst of slow commits doesn't collapse it.
+ * <p>
+ * Admission never blocks - a transaction that isn't admitted is failed by the caller. The limits are
+ * independent per shard so an overloaded shard doesn't throttle transactions to the other shards. The
+ * limits are updated without locking so concurrent updates may occasionally be lost, which is fine for
+ * what is an estimate anyway.
+ */
+public class ShardAdmissionController {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardAdmissionController.class);
+
+    @VisibleForTesting
+    static final int INITIAL_LIMIT = 16;
+    private static final int MIN_LIMIT = 1;
+
+    private final ActorContext actorContext;
+    private final Ticker ticker;
+    private final ConcurrentMap<String, ShardAdmission> shards = new ConcurrentHashMap<>();
+
+    public ShardAdmissionController(ActorContext actorContext) {
+        this(actorContext, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    ShardAdmissionController(ActorContext actorContext, Ticker ticker) {
+        this.actorContext = Preconditions.checkNotNull(actorContext);
+        this.ticker = Preconditions.checkNotNull(ticker);
+    }
+
+    /**
+     * Tries to admit a transaction commit to the given shards. The commit is admitted either to all of the
+     * shards or to none of them.
+     *
+     * @param shardNames the names of the shards the transaction commits to
+     * @return an Admission whose complete method must be called when the commit completes, or null if the
+     *         commit isn't admitted.
+     */
+    public Admission tryAdmit(Collection<String> shardNames) {
+        List<ShardAdmission> admitted = new ArrayList<>(shardNames.size());
+        for(String shardName: shardNames) {
+            ShardAdmission shard = shardAdmission(shardName);
+            if(!shard.tryAcquire()) {
+                LOG.debug("Commit not admitted to shard {} - {} in flight, limit {}", shardName,
+                        shard.inFlight.get(), shard.limit);
+
+                for(ShardAdmission s: admitted) {
+                    s.release();
+                }
+
+                return null;
+            }
+
+            admitted.add(shard);
+        }
+
+        return new Admission(admitted, ticker.read());
+    }
+
+    public double getLimit(String shardName) {
+        return shardAdmission(shardName).limit;
+    }
+
+    public int getInFlight(String shardName) {
+        return shardAdmission(shardName).inFlight.get();
+    }
+
+    private ShardAdmission shardAdmission(String shardName) {
+        ShardAdmission shard = shards.get(shardName);
+        if(shard == null) {
+            ShardAdmission newShard = new ShardAdmission(shardName, ticker.read());
+            shard = shards.putIfAbsent(shardName, newShard);
+            if(shard == null) {
+                shard = newShard;
+            }
+        }
+
+        return shard;
+    }
+
+    private void onComplete(ShardAdmission shard, long latency, long now, boolean success) {
+        shard.release();
+
+        DatastoreContext datastoreContext = actorContext.getDatastoreContext();
+        long target = TimeUnit.MILLISECONDS.toNanos(datastoreContext.getShardAdmissionTargetLatencyInMillis());
+        double limit = shard.limit;
+        if(latency > target) {
+            if(now - shard.lastDecreaseTime >= Math.max(latency, target)) {
+                shard.lastDecreaseTime = now;
+                shard.slowStart = false;
+                shard.limit = Math.max(MIN_LIMIT, limit / 2);
+
+                LOG.debug("Shard {} commit latency {} ms exceeds the target - limit decreased to {}",
+                        shard.shardName, TimeUnit.NANOSECONDS.toMillis(latency), shard.limit);
+            }
+        } else if(success) {
+            // Grow exponentially until the first congestion, then by about one per limit's worth of commits.
+            double increment = shard.slowStart ? 1 : 1 / limit;
+            shard.limit = Math.min(datastoreContext.getShardTransactionCommitQueueCapacity(), limit + increment);
+        }
+    }
+
+    /**
+     * A transaction commit admitted to a set of shards.
+     */
+    public final class Admission {
+        private final List<ShardAdmission> admitted;
+        private final long startTime;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Admission(List<ShardAdmission> admitted, long startTime) {
+            this.admitted = admitted;
+            this.startTime = startTime;
+        }
+
+        /**
+         * Releases the admission and feeds the commit latency back to the shards' limits. Subsequent calls
+         * are ignored.
+         *
+         * @param success true if the transaction committed successfully
+         */
+        public void complete(boolean success) {
+            if(completed.compareAndSet(false, true)) {
+                long now = ticker.read();
+                for(ShardAdmission shard: admitted) {
+                    onComplete(shard, now - startTime, now, success);
+                }
+            }
+        }
+    }
+
+    private static final class ShardAdmission {
+        private final String shardName;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit = INITIAL_LIMIT;
+        private volatile boolean slowStart = true;
+        private volatile long lastDecreaseTime;
+
+        ShardAdmission(String shardName, long now) {
+            this.shardName = shardName;
+            this.lastDecreaseTime = now;
+        }
+
+        boolean tryAcquire() {
+            while(true) {
+                int current = inFlight.get();
+                if(current >= (int) limit) {
+                    return false;
+                }
+
+                if(inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * Stores the full base snapshots of a shard that its delta snapshots are applied to on recovery. Each base is
+ * kept in its own file, named by its id, in a directory per shard. Akka persistence only retains the latest
+ * snapshots so the bases are kept alongside rather than in the snapshot store.
+ * <p>
+ * The last few bases are retained rather than just the latest so the latest persisted snapshot can still be
+ * recovered if the shard stops after a new base was saved but before its snapshot was persisted.
+ */
+public class SnapshotBaseStore {
+    private static final String SUFFIX = ".base";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int RETAINED_BASE_COUNT = 3;
+
+    private final File directory;
+
+    public SnapshotBaseStore(File directory) {
+        this.directory = Preconditions.checkNotNull(directory);
+    }
+
+    /**
+     * Saves a base snapshot. The file is synced to disk before it is made visible so a base that
+     * {@link #contains} reports is complete. Older bases beyond the retained count are deleted.
+     *
+     * @param baseId the id of the base, greater than the id of any previously saved base
+     * @param bytes the serialized, possibly compressed, full snapshot
+     */
+    public void save(long baseId, byte[] bytes) throws IOException {
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create snapshot base directory " + directory);
+        }
+
+        File tmpFile = new File(directory, baseId + TMP_SUFFIX);
+        try(FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(bytes);
+            out.getFD().sync();
+        }
+
+        Files.move(tmpFile.toPath(), fileFor(baseId).toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        List<Long> baseIds = getBaseIds();
+        for(int i = 0; i < baseIds.size() - RETAINED_BASE_COUNT; i++) {
+            Files.deleteIfExists(fileFor(baseIds.get(i)).toPath());
+        }
+    }
+
+    /**
+     * Determines if the base with the given id was saved and not deleted yet.
+     */
+    public boolean contains(long baseId) {
+        return fileFor(baseId).isFile();
+    }
+
+    /**
+     * Loads and de-serializes a base snapshot.
+     *
+     * @param baseId the id of the base
+     * @param stats the ShardStats to record the decompression time to, may be null
+     * @return the root node of the base
+     * @throws IOException if the base doesn't exist or can't be read
+     */
+    public NormalizedNode<?, ?> load(long baseId, @Nullable ShardStats stats) throws IOException {
+        byte[] bytes = Files.readAllBytes(fileFor(baseId).toPath());
+        return SerializationUtils.deserializeNormalizedNode(CompressionUtils.decompress(bytes, stats));
+    }
+
+    /**
+     * Returns the id of the latest saved base or -1 if there is none.
+     */
+    public long getLatestBaseId() {
+        List<Long> baseIds = getBaseIds();
+        return baseIds.isEmpty() ? -1 : baseIds.get(baseIds.size() - 1);
+    }
+
+    private File fileFor(long baseId) {
+        return new File(directory, baseId + SUFFIX);
+    }
+
+    private List<Long> getBaseIds() {
+        String[] names = directory.list();
+        if(names == null) {
+            return Collections.emptyList();
+        }
+
+        List<Long> baseIds = new ArrayList<>(names.length);
+        for(String name: names) {
+            if(name.endsWith(SUFFIX)) {
+                try {
+                    baseIds.add(Long.valueOf(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours - ignore it.
+                }
+            }
+        }
+
+        Collections.sort(baseIds);
+        return baseIds;
+    }
+}
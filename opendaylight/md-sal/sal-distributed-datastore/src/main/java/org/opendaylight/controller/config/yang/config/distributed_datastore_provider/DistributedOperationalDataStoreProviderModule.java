@@ -52,6 +52,10 @@ public class DistributedOperationalDataStoreProviderModule extends
                         getValue().intValue())
                 .shardSnapshotBatchCount(props.getShardSnapshotBatchCount().getValue().intValue())
                 .shardSnapshotDataThresholdPercentage(props.getShardSnapshotDataThresholdPercentage().getValue().intValue())
+                .shardJournalPersistMaxBatchSize(props.getShardJournalPersistMaxBatchSize().getValue().intValue())
+                .shardJournalPersistMaxBatchLingerInMillis(
+                        props.getShardJournalPersistMaxBatchLingerInMillis().getValue())
+                .shardMaxInFlightAppendEntries(props.getShardMaxInFlightAppendEntries().getValue().intValue())
                 .shardHeartbeatIntervalInMillis(props.getShardHeartbeatIntervalInMillis().getValue())
                 .shardInitializationTimeoutInSeconds(props.getShardInitializationTimeoutInSeconds().getValue())
                 .shardLeaderElectionTimeoutInSeconds(props.getShardLeaderElectionTimeoutInSeconds().getValue())
@@ -59,15 +63,38 @@ public class DistributedOperationalDataStoreProviderModule extends
                         props.getShardTransactionCommitTimeoutInSeconds().getValue().intValue())
                 .shardTransactionCommitQueueCapacity(
                         props.getShardTransactionCommitQueueCapacity().getValue().intValue())
+                .shardMaxPipelinedCommits(props.getShardMaxPipelinedCommits().getValue().intValue())
                 .persistent(props.getPersistent().booleanValue())
                 .shardIsolatedLeaderCheckIntervalInMillis(
                     props.getShardIsolatedLeaderCheckIntervalInMillis().getValue())
                 .shardElectionTimeoutFactor(props.getShardElectionTimeoutFactor().getValue())
                 .transactionCreationInitialRateLimit(props.getTransactionCreationInitialRateLimit().getValue())
                 .shardBatchedModificationCount(props.getShardBatchedModificationCount().getValue().intValue())
+                .adaptiveTransactionBatchingEnabled(props.getAdaptiveTransactionBatchingEnabled())
+                .shardBatchedModificationMaxBytes(props.getShardBatchedModificationMaxBytes().getValue().intValue())
+                .shardBatchedModificationMaxLingerInMillis(
+                        props.getShardBatchedModificationMaxLingerInMillis().getValue().intValue())
                 .shardCommitQueueExpiryTimeoutInSeconds(
                         props.getShardCommitQueueExpiryTimeoutInSeconds().getValue().intValue())
                 .transactionDebugContextEnabled(props.getTransactionDebugContextEnabled())
+                .shardAdmissionControlEnabled(props.getShardAdmissionControlEnabled())
+                .shardAdmissionTargetLatencyInMillis(props.getShardAdmissionTargetLatencyInMillis().getValue())
+                .followerReadsEnabled(props.getFollowerReadsEnabled())
+                .followerReadMaxLag(props.getFollowerReadMaxLag().getValue())
+                .dataTreeChangeListenerMaxBatchSize(props.getDataTreeChangeListenerMaxBatchSize().getValue().intValue())
+                .dataTreeChangeListenerMaxBatchLatencyInMillis(props.getDataTreeChangeListenerMaxBatchLatencyInMillis().getValue())
+                .shardSnapshotCompressionEnabled(props.getShardSnapshotCompressionEnabled())
+                .shardPayloadCompressionEnabled(props.getShardPayloadCompressionEnabled())
+                .shardPayloadCompressionThresholdInBytes(props.getShardPayloadCompressionThresholdInBytes().getValue().intValue())
+                .shardDeltaSnapshotsEnabled(props.getShardDeltaSnapshotsEnabled())
+                .shardFullSnapshotInterval(props.getShardFullSnapshotInterval().getValue().intValue())
+                .shardLeaderBalancingEnabled(props.getShardLeaderBalancingEnabled())
+                .shardLeaderBalancingIntervalInSeconds(
+                        props.getShardLeaderBalancingIntervalInSeconds().getValue().intValue())
+                .shardReplicationMultiplexingEnabled(props.getShardReplicationMultiplexingEnabled())
+                .shardReplicationHeartbeatLingerInMillis(
+                        props.getShardReplicationHeartbeatLingerInMillis().getValue().intValue())
+                .shardAsyncDataChangeResolution(props.getShardAsyncDataChangeResolution())
                 .build();
 
         return DistributedDataStoreFactory.createInstance(getOperationalSchemaServiceDependency(),
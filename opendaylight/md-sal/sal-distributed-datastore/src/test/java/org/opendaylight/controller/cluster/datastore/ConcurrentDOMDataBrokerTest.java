@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.SynchronousQueue;
@@ -53,6 +54,7 @@ import org.opendaylight.controller.md.sal.dom.api.DOMDataReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataReadWriteTransaction;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataWriteTransaction;
 import org.opendaylight.controller.md.sal.dom.api.DOMTransactionChain;
+import org.opendaylight.controller.md.sal.dom.broker.impl.jmx.DurationHistogram;
 import org.opendaylight.controller.md.sal.dom.store.impl.InMemoryDOMDataStore;
 import org.opendaylight.controller.sal.core.spi.data.DOMStore;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadTransaction;
@@ -170,6 +172,179 @@ public class ConcurrentDOMDataBrokerTest {
         inOrder.verify(mockCohort2).commit();
     }
 
+    @Test
+    public void testSubmitPipelinesPhasesAcrossCohorts() throws Exception {
+        // cohort1's canCommit only completes once cohort2's has been invoked
+        final SettableFuture<Boolean> cohort1CanCommit = SettableFuture.create();
+        doReturn(cohort1CanCommit).when(mockCohort1).canCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort1).preCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort1).commit();
+
+        doAnswer(new Answer<ListenableFuture<Boolean>>() {
+            @Override
+            public ListenableFuture<Boolean> answer(final InvocationOnMock invocation) {
+                cohort1CanCommit.set(true);
+                return Futures.immediateFuture(true);
+            }
+        }).when(mockCohort2).canCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort2).preCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort2).commit();
+
+        coordinator.submit(transaction, Arrays.asList(mockCohort1, mockCohort2)).checkedGet(5, TimeUnit.SECONDS);
+
+        verify(mockCohort1).commit();
+        verify(mockCohort2).commit();
+
+        assertEquals("Total commits", 1L, coordinator.getCommitStatsTracker().getTotalDurations());
+        for(Map.Entry<String, DurationHistogram> e: coordinator.getCommitPhaseHistograms().entrySet()) {
+            assertEquals(e.getKey() + " count", 1L, e.getValue().getCount());
+        }
+    }
+
+    @Test
+    public void testSubmitPipelinesPreCommitAndCommitAcrossCohorts() throws Exception {
+        // cohort1's preCommit and commit only complete once cohort2's have been invoked
+        final SettableFuture<Void> cohort1PreCommit = SettableFuture.create();
+        final SettableFuture<Void> cohort1Commit = SettableFuture.create();
+        doReturn(Futures.immediateFuture(true)).when(mockCohort1).canCommit();
+        doReturn(cohort1PreCommit).when(mockCohort1).preCommit();
+        doReturn(cohort1Commit).when(mockCohort1).commit();
+
+        doReturn(Futures.immediateFuture(true)).when(mockCohort2).canCommit();
+        doAnswer(completeOnInvoke(cohort1PreCommit)).when(mockCohort2).preCommit();
+        doAnswer(completeOnInvoke(cohort1Commit)).when(mockCohort2).commit();
+
+        coordinator.submit(transaction, Arrays.asList(mockCohort1, mockCohort2)).checkedGet(5, TimeUnit.SECONDS);
+
+        verify(mockCohort1).commit();
+        verify(mockCohort2).commit();
+
+        assertEquals("Total commits", 1L, coordinator.getCommitStatsTracker().getTotalDurations());
+        for(Map.Entry<String, DurationHistogram> e: coordinator.getCommitPhaseHistograms().entrySet()) {
+            assertEquals(e.getKey() + " count", 1L, e.getValue().getCount());
+        }
+    }
+
+    private static Answer<ListenableFuture<Void>> completeOnInvoke(final SettableFuture<Void> inFlight) {
+        return new Answer<ListenableFuture<Void>>() {
+            @Override
+            public ListenableFuture<Void> answer(final InvocationOnMock invocation) {
+                inFlight.set(null);
+                return Futures.immediateFuture(null);
+            }
+        };
+    }
+
+    @Test
+    public void testSubmitWithPreCommitFailureWhileOtherCohortInFlight() throws Exception {
+        testFailureWhileOtherCohortInFlight(false);
+    }
+
+    @Test
+    public void testSubmitWithCommitFailureWhileOtherCohortInFlight() throws Exception {
+        testFailureWhileOtherCohortInFlight(true);
+    }
+
+    private void testFailureWhileOtherCohortInFlight(final boolean inCommit) throws Exception {
+        final SettableFuture<Void> cohort1Future = SettableFuture.create();
+        IllegalStateException cause = new IllegalStateException("mock");
+        setupPipelinedCohorts(inCommit, cohort1Future, Futures.<Void>immediateFailedFuture(cause));
+
+        CheckedFuture<Void, TransactionCommitFailedException> future = coordinator.submit(
+                transaction, Arrays.asList(mockCohort1, mockCohort2));
+
+        assertFailure(future, cause, mockCohort1, mockCohort2);
+
+        // cohort1 completing afterwards neither moves the transaction on to the next phase nor aborts it again
+        cohort1Future.set(null);
+
+        if(!inCommit) {
+            verify(mockCohort1, never()).commit();
+            verify(mockCohort2, never()).commit();
+        }
+
+        verify(mockCohort1, times(1)).abort();
+        verify(mockCohort2, times(1)).abort();
+    }
+
+    @Test
+    public void testSubmitWithPreCommitFailureFromBothCohorts() throws Exception {
+        testFailureFromBothCohorts(false);
+    }
+
+    @Test
+    public void testSubmitWithCommitFailureFromBothCohorts() throws Exception {
+        testFailureFromBothCohorts(true);
+    }
+
+    private void testFailureFromBothCohorts(final boolean inCommit) throws Exception {
+        final SettableFuture<Void> cohort1Future = SettableFuture.create();
+        final SettableFuture<Void> cohort2Future = SettableFuture.create();
+        setupPipelinedCohorts(inCommit, cohort1Future, cohort2Future);
+
+        CheckedFuture<Void, TransactionCommitFailedException> future = coordinator.submit(
+                transaction, Arrays.asList(mockCohort1, mockCohort2));
+
+        // Both calls are in flight when they fail - only the first failure triggers the abort.
+        IllegalStateException cause = new IllegalStateException("mock");
+        cohort2Future.setException(cause);
+        cohort1Future.setException(new IllegalStateException("mock2"));
+
+        assertFailure(future, cause, mockCohort1, mockCohort2);
+
+        verify(mockCohort1, times(1)).abort();
+        verify(mockCohort2, times(1)).abort();
+    }
+
+    /**
+     * Sets up both cohorts to succeed up to the preCommit or commit phase, which returns the given futures.
+     */
+    private void setupPipelinedCohorts(final boolean inCommit, final ListenableFuture<Void> cohort1Future,
+            final ListenableFuture<Void> cohort2Future) {
+        for(DOMStoreThreePhaseCommitCohort cohort: Arrays.asList(mockCohort1, mockCohort2)) {
+            ListenableFuture<Void> phaseFuture = cohort == mockCohort1 ? cohort1Future : cohort2Future;
+            doReturn(Futures.immediateFuture(true)).when(cohort).canCommit();
+            if(inCommit) {
+                doReturn(Futures.immediateFuture(null)).when(cohort).preCommit();
+                doReturn(phaseFuture).when(cohort).commit();
+            } else {
+                doReturn(phaseFuture).when(cohort).preCommit();
+                doReturn(Futures.immediateFuture(null)).when(cohort).commit();
+            }
+
+            doReturn(Futures.immediateFuture(null)).when(cohort).abort();
+        }
+    }
+
+    @Test
+    public void testSuccessfulSubmitWithSingleCohort() throws Exception {
+        doReturn(Futures.immediateFuture(true)).when(mockCohort1).canCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort1).preCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort1).commit();
+
+        coordinator.submit(transaction, Arrays.asList(mockCohort1)).checkedGet(5, TimeUnit.SECONDS);
+
+        InOrder inOrder = inOrder(mockCohort1);
+        inOrder.verify(mockCohort1).canCommit();
+        inOrder.verify(mockCohort1).preCommit();
+        inOrder.verify(mockCohort1).commit();
+
+        assertEquals("Total commits", 1L, coordinator.getCommitStatsTracker().getTotalDurations());
+        assertEquals("Phase histograms", 3, coordinator.getCommitPhaseHistograms().size());
+    }
+
+    @Test
+    public void testSubmitWithNegativeCanCommitResponseFromSingleCohort() throws Exception {
+        doReturn(Futures.immediateFuture(false)).when(mockCohort1).canCommit();
+        doReturn(Futures.immediateFuture(null)).when(mockCohort1).abort();
+
+        CheckedFuture<Void, TransactionCommitFailedException> future = coordinator.submit(
+                transaction, Arrays.asList(mockCohort1));
+
+        assertFailure(future, null, mockCohort1);
+        verify(mockCohort1, never()).preCommit();
+    }
+
     @Test
     public void testSubmitWithNegativeCanCommitResponse() throws Exception {
         doReturn(Futures.immediateFuture(true)).when(mockCohort1).canCommit();
@@ -77,6 +77,27 @@ public class ConfigurationImplTest {
         assertEquals(0, members.size());
     }
 
+    @Test
+    public void testGetNonVotingMembersFromShardName(){
+        ConfigurationImpl nonVotingConfiguration = new ConfigurationImpl("module-shards-non-voting.conf",
+                "modules.conf");
+
+        // Non-voting replicas are still replicas of the shard.
+        List<String> members = nonVotingConfiguration.getMembersFromShardName("default");
+        assertEquals(4, members.size());
+        assertTrue(members.contains("member-4"));
+
+        assertTrue(nonVotingConfiguration.getMemberShardNames("member-4").contains("default"));
+
+        Set<String> nonVotingMembers = nonVotingConfiguration.getNonVotingMembersFromShardName("default");
+        assertEquals(1, nonVotingMembers.size());
+        assertTrue(nonVotingMembers.contains("member-4"));
+
+        assertEquals(0, nonVotingConfiguration.getNonVotingMembersFromShardName("people-1").size());
+        assertEquals(0, nonVotingConfiguration.getNonVotingMembersFromShardName("foobar").size());
+        assertEquals(0, configuration.getNonVotingMembersFromShardName("default").size());
+    }
+
     @Test
     public void testReadConfigurationFromFile(){
         File f = new File("./module-shards.conf");
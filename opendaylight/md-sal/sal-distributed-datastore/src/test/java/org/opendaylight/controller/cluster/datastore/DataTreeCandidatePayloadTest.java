@@ -8,9 +8,12 @@
 package org.opendaylight.controller.cluster.datastore;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.Collection;
 import org.apache.commons.lang3.SerializationUtils;
@@ -106,9 +109,23 @@ public class DataTreeCandidatePayloadTest {
     @Test
     public void testCandidateSerialization() throws IOException {
         final DataTreeCandidatePayload payload = DataTreeCandidatePayload.create(candidate);
+        assertEquals("payload size", 124, payload.size());
+    }
+
+    @Test
+    public void testLithiumCandidateSerialization() throws IOException {
+        final DataTreeCandidatePayload payload = DataTreeCandidatePayload.create(candidate,
+                DataStoreVersions.LITHIUM_VERSION);
         assertEquals("payload size", 141, payload.size());
     }
 
+    @Test
+    public void testLithiumPayloadSerDes() throws IOException {
+        final DataTreeCandidatePayload payload = DataTreeCandidatePayload.create(candidate,
+                DataStoreVersions.LITHIUM_VERSION);
+        assertCandidateEquals(candidate, SerializationUtils.clone(payload).getCandidate());
+    }
+
     @Test
     public void testCandidateSerDes() throws IOException {
         final DataTreeCandidatePayload payload = DataTreeCandidatePayload.create(candidate);
@@ -120,4 +137,28 @@ public class DataTreeCandidatePayloadTest {
         final DataTreeCandidatePayload payload = DataTreeCandidatePayload.create(candidate);
         assertCandidateEquals(candidate, SerializationUtils.clone(payload).getCandidate());
     }
+
+    @Test
+    public void testCompressedPayloadSerDes() throws IOException {
+        final NormalizedNode<?, ?> writeData = ImmutableContainerNodeBuilder.create().withNodeIdentifier(
+                new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME)).
+                withChild(ImmutableNodes.leafNode(TestModel.DESC_QNAME, Strings.repeat("foo", 1000))).build();
+        final DataTreeCandidate largeCandidate = DataTreeCandidates.fromNormalizedNode(TestModel.TEST_PATH, writeData);
+
+        final DataTreeCandidatePayload uncompressed = DataTreeCandidatePayload.create(largeCandidate);
+        assertFalse("Expected uncompressed", uncompressed.isCompressed());
+
+        final DataTreeCandidatePayload payload = DataTreeCandidatePayload.create(largeCandidate,
+                DataStoreVersions.CURRENT_VERSION, 100, null);
+        assertTrue("Expected compressed", payload.isCompressed());
+        assertTrue("Expected compressed size < " + uncompressed.size(), payload.size() < uncompressed.size());
+        assertCandidateEquals(largeCandidate, payload.getCandidate());
+        assertCandidateEquals(largeCandidate, SerializationUtils.clone(payload).getCandidate());
+
+        // Below the threshold or with Lithium followers the payload isn't compressed.
+        assertFalse("Expected uncompressed", DataTreeCandidatePayload.create(largeCandidate,
+                DataStoreVersions.CURRENT_VERSION, uncompressed.size() + 1, null).isCompressed());
+        assertFalse("Expected uncompressed", DataTreeCandidatePayload.create(largeCandidate,
+                DataStoreVersions.LITHIUM_VERSION, 100, null).isCompressed());
+    }
 }
@@ -137,4 +137,56 @@ public class DataTreeChangeListenerActorTest extends AbstractActorTest {
             Mockito.verify(mockListener).onDataTreeChanged(mockCandidates3);
         }};
     }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void testBatchedDataChangedOnMaxBatchSize(){
+        new JavaTestKit(getSystem()) {{
+            final DataTreeCandidate mockTreeCandidate1 = Mockito.mock(DataTreeCandidate.class);
+            final DataTreeCandidate mockTreeCandidate2 = Mockito.mock(DataTreeCandidate.class);
+            final DataTreeCandidate mockTreeCandidate3 = Mockito.mock(DataTreeCandidate.class);
+            final DOMDataTreeChangeListener mockListener = Mockito.mock(DOMDataTreeChangeListener.class);
+            final Props props = DataTreeChangeListenerActor.props(mockListener, 3, 60000, "test");
+            final ActorRef subject = getSystem().actorOf(props, "testBatchedDataChangedOnMaxBatchSize");
+
+            subject.tell(new EnableNotification(true), getRef());
+
+            subject.tell(new DataTreeChanged(ImmutableList.of(mockTreeCandidate1)), getRef());
+            expectMsgClass(DataTreeChangedReply.class);
+
+            subject.tell(new DataTreeChanged(ImmutableList.of(mockTreeCandidate2)), getRef());
+            expectMsgClass(DataTreeChangedReply.class);
+
+            Mockito.verify(mockListener, Mockito.never()).onDataTreeChanged(
+                    Matchers.anyCollectionOf(DataTreeCandidate.class));
+
+            subject.tell(new DataTreeChanged(ImmutableList.of(mockTreeCandidate3)), getRef());
+            expectMsgClass(DataTreeChangedReply.class);
+
+            Mockito.verify(mockListener).onDataTreeChanged(ImmutableList.of(mockTreeCandidate1,
+                    mockTreeCandidate2, mockTreeCandidate3));
+        }};
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void testBatchedDataChangedOnMaxBatchLatency(){
+        new JavaTestKit(getSystem()) {{
+            final DataTreeCandidate mockTreeCandidate1 = Mockito.mock(DataTreeCandidate.class);
+            final DataTreeCandidate mockTreeCandidate2 = Mockito.mock(DataTreeCandidate.class);
+            final DOMDataTreeChangeListener mockListener = Mockito.mock(DOMDataTreeChangeListener.class);
+            final Props props = DataTreeChangeListenerActor.props(mockListener, 100, 200, "test");
+            final ActorRef subject = getSystem().actorOf(props, "testBatchedDataChangedOnMaxBatchLatency");
+
+            subject.tell(new EnableNotification(true), getRef());
+
+            subject.tell(new DataTreeChanged(ImmutableList.of(mockTreeCandidate1)), getRef());
+            subject.tell(new DataTreeChanged(ImmutableList.of(mockTreeCandidate2)), getRef());
+            expectMsgClass(DataTreeChangedReply.class);
+            expectMsgClass(DataTreeChangedReply.class);
+
+            Mockito.verify(mockListener, Mockito.timeout(5000)).onDataTreeChanged(
+                    ImmutableList.of(mockTreeCandidate1, mockTreeCandidate2));
+        }};
+    }
 }
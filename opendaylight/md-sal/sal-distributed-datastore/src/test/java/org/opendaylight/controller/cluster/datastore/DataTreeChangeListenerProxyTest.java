@@ -179,6 +179,7 @@ public class DataTreeChangeListenerProxyTest extends AbstractActorTest {
 
             doReturn(executor).when(actorContext).getClientDispatcher();
             doReturn(mockActorSystem).when(actorContext).getActorSystem();
+            doReturn(DatastoreContext.newBuilder().build()).when(actorContext).getDatastoreContext();
 
             String shardName = "shard-1";
             final DataTreeChangeListenerProxy<DOMDataTreeChangeListener> proxy =
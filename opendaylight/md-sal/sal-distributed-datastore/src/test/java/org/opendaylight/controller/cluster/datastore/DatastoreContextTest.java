@@ -10,7 +10,10 @@ import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEF
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_COUNT;
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_ELECTION_TIMEOUT_FACTOR;
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_INITIALIZATION_TIMEOUT;
+import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_LINGER_IN_MILLIS;
+import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_SIZE;
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_LEADER_ELECTION_TIMEOUT;
+import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_MAX_IN_FLIGHT_APPEND_ENTRIES;
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_SNAPSHOT_DATA_THRESHOLD_PERCENTAGE;
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_TRANSACTION_IDLE_TIMEOUT;
 import static org.opendaylight.controller.cluster.datastore.DatastoreContext.DEFAULT_SHARD_TX_COMMIT_QUEUE_CAPACITY;
@@ -35,6 +38,7 @@ public class DatastoreContextTest {
         assertEquals(DEFAULT_SNAPSHOT_BATCH_COUNT, context.getShardRaftConfig().getSnapshotBatchCount());
         assertEquals(DEFAULT_HEARTBEAT_INTERVAL_IN_MILLIS, context.getShardRaftConfig().getHeartBeatInterval().length());
         assertEquals(DEFAULT_SHARD_TX_COMMIT_QUEUE_CAPACITY, context.getShardTransactionCommitQueueCapacity());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_MAX_PIPELINED_COMMITS, context.getShardMaxPipelinedCommits());
         assertEquals(DEFAULT_SHARD_INITIALIZATION_TIMEOUT.duration().toMillis(),
                 context.getShardInitializationTimeout().duration().toMillis());
         assertEquals(DEFAULT_SHARD_LEADER_ELECTION_TIMEOUT.duration().toMillis(),
@@ -46,6 +50,39 @@ public class DatastoreContextTest {
         assertEquals(DEFAULT_SHARD_ELECTION_TIMEOUT_FACTOR, context.getShardRaftConfig().getElectionTimeoutFactor());
         assertEquals(DEFAULT_TX_CREATION_INITIAL_RATE_LIMIT, context.getTransactionCreationInitialRateLimit());
         assertEquals(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_COUNT, context.getShardBatchedModificationCount());
+        assertEquals(false, context.isAdaptiveTransactionBatchingEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_BYTES,
+                context.getShardBatchedModificationMaxBytes());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_LINGER_IN_MILLIS,
+                context.getShardBatchedModificationMaxLingerInMillis());
+        assertEquals(false, context.isShardAdmissionControlEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_ADMISSION_TARGET_LATENCY_IN_MILLIS,
+                context.getShardAdmissionTargetLatencyInMillis());
+        assertEquals(false, context.isFollowerReadsEnabled());
+        assertEquals(DatastoreContext.DEFAULT_FOLLOWER_READ_MAX_LAG, context.getFollowerReadMaxLag());
+        assertEquals(DatastoreContext.DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_SIZE,
+                context.getDataTreeChangeListenerMaxBatchSize());
+        assertEquals(DatastoreContext.DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_LATENCY_IN_MILLIS,
+                context.getDataTreeChangeListenerMaxBatchLatencyInMillis());
+        assertEquals(false, context.isShardSnapshotCompressionEnabled());
+        assertEquals(false, context.isShardPayloadCompressionEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_PAYLOAD_COMPRESSION_THRESHOLD_IN_BYTES,
+                context.getShardPayloadCompressionThresholdInBytes());
+        assertEquals(false, context.isShardDeltaSnapshotsEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_FULL_SNAPSHOT_INTERVAL, context.getShardFullSnapshotInterval());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_SNAPSHOT_BASE_DIRECTORY, context.getShardSnapshotBaseDirectory());
+        assertEquals(false, context.isShardLeaderBalancingEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_LEADER_BALANCING_INTERVAL_IN_SECONDS,
+                context.getShardLeaderBalancingIntervalInSeconds());
+        assertEquals(false, context.isShardReplicationMultiplexingEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_REPLICATION_HEARTBEAT_LINGER_IN_MILLIS,
+                context.getShardReplicationHeartbeatLingerInMillis());
+        assertEquals(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_SIZE,
+                context.getShardRaftConfig().getJournalPersistMaxBatchSize());
+        assertEquals(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_LINGER_IN_MILLIS,
+                context.getShardRaftConfig().getJournalPersistMaxBatchLinger().toMillis());
+        assertEquals(DEFAULT_SHARD_MAX_IN_FLIGHT_APPEND_ENTRIES,
+                context.getShardRaftConfig().getMaxInFlightAppendEntries());
         assertEquals(InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_POOL_SIZE,
                 context.getDataStoreProperties().getMaxDataChangeExecutorPoolSize());
         assertEquals(InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_QUEUE_SIZE,
@@ -68,6 +105,7 @@ public class DatastoreContextTest {
         builder.shardSnapshotBatchCount(DEFAULT_SNAPSHOT_BATCH_COUNT + 1);
         builder.shardHeartbeatIntervalInMillis(DEFAULT_HEARTBEAT_INTERVAL_IN_MILLIS + 1);
         builder.shardTransactionCommitQueueCapacity(DEFAULT_SHARD_TX_COMMIT_QUEUE_CAPACITY + 1);
+        builder.shardMaxPipelinedCommits(DatastoreContext.DEFAULT_SHARD_MAX_PIPELINED_COMMITS + 1);
         builder.shardInitializationTimeout(DEFAULT_SHARD_INITIALIZATION_TIMEOUT.
                 duration().toMillis() + 1, TimeUnit.MILLISECONDS);
         builder.shardInitializationTimeout(DEFAULT_SHARD_INITIALIZATION_TIMEOUT.duration().toMillis() + 1,
@@ -80,6 +118,32 @@ public class DatastoreContextTest {
         builder.shardElectionTimeoutFactor(DEFAULT_SHARD_ELECTION_TIMEOUT_FACTOR + 1);
         builder.transactionCreationInitialRateLimit(DEFAULT_TX_CREATION_INITIAL_RATE_LIMIT + 1);
         builder.shardBatchedModificationCount(DEFAULT_SHARD_BATCHED_MODIFICATION_COUNT + 1);
+        builder.adaptiveTransactionBatchingEnabled(true);
+        builder.shardBatchedModificationMaxBytes(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_BYTES + 1);
+        builder.shardBatchedModificationMaxLingerInMillis(
+                DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_LINGER_IN_MILLIS + 1);
+        builder.shardAdmissionControlEnabled(true);
+        builder.shardAdmissionTargetLatencyInMillis(DatastoreContext.DEFAULT_SHARD_ADMISSION_TARGET_LATENCY_IN_MILLIS + 1);
+        builder.followerReadsEnabled(true);
+        builder.followerReadMaxLag(DatastoreContext.DEFAULT_FOLLOWER_READ_MAX_LAG + 1);
+        builder.dataTreeChangeListenerMaxBatchSize(DatastoreContext.DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_SIZE + 1);
+        builder.dataTreeChangeListenerMaxBatchLatencyInMillis(
+                DatastoreContext.DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_LATENCY_IN_MILLIS + 1);
+        builder.shardSnapshotCompressionEnabled(true);
+        builder.shardPayloadCompressionEnabled(true);
+        builder.shardPayloadCompressionThresholdInBytes(
+                DatastoreContext.DEFAULT_SHARD_PAYLOAD_COMPRESSION_THRESHOLD_IN_BYTES + 1);
+        builder.shardDeltaSnapshotsEnabled(true);
+        builder.shardFullSnapshotInterval(DatastoreContext.DEFAULT_SHARD_FULL_SNAPSHOT_INTERVAL + 1);
+        builder.shardSnapshotBaseDirectory("custom-snapshots-base");
+        builder.shardLeaderBalancingEnabled(true);
+        builder.shardLeaderBalancingIntervalInSeconds(DatastoreContext.DEFAULT_SHARD_LEADER_BALANCING_INTERVAL_IN_SECONDS + 1);
+        builder.shardReplicationMultiplexingEnabled(true);
+        builder.shardReplicationHeartbeatLingerInMillis(
+                DatastoreContext.DEFAULT_SHARD_REPLICATION_HEARTBEAT_LINGER_IN_MILLIS + 1);
+        builder.shardJournalPersistMaxBatchSize(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_SIZE + 1);
+        builder.shardJournalPersistMaxBatchLingerInMillis(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_LINGER_IN_MILLIS + 1);
+        builder.shardMaxInFlightAppendEntries(DEFAULT_SHARD_MAX_IN_FLIGHT_APPEND_ENTRIES + 1);
         builder.maxShardDataChangeExecutorPoolSize(
                 InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_POOL_SIZE + 1);
         builder.maxShardDataChangeExecutorQueueSize(
@@ -114,6 +178,7 @@ public class DatastoreContextTest {
         assertEquals(DEFAULT_HEARTBEAT_INTERVAL_IN_MILLIS + 1,
                 context.getShardRaftConfig().getHeartBeatInterval().length());
         assertEquals(DEFAULT_SHARD_TX_COMMIT_QUEUE_CAPACITY + 1, context.getShardTransactionCommitQueueCapacity());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_MAX_PIPELINED_COMMITS + 1, context.getShardMaxPipelinedCommits());
         assertEquals(DEFAULT_SHARD_INITIALIZATION_TIMEOUT.duration().toMillis() + 1,
                 context.getShardInitializationTimeout().duration().toMillis());
         assertEquals(DEFAULT_SHARD_LEADER_ELECTION_TIMEOUT.duration().toMillis() + 1,
@@ -128,6 +193,39 @@ public class DatastoreContextTest {
         assertEquals(DEFAULT_TX_CREATION_INITIAL_RATE_LIMIT + 1, context.getTransactionCreationInitialRateLimit());
         assertEquals(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_COUNT + 1,
                 context.getShardBatchedModificationCount());
+        assertEquals(true, context.isAdaptiveTransactionBatchingEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_BYTES + 1,
+                context.getShardBatchedModificationMaxBytes());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_BATCHED_MODIFICATION_MAX_LINGER_IN_MILLIS + 1,
+                context.getShardBatchedModificationMaxLingerInMillis());
+        assertEquals(true, context.isShardAdmissionControlEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_ADMISSION_TARGET_LATENCY_IN_MILLIS + 1,
+                context.getShardAdmissionTargetLatencyInMillis());
+        assertEquals(true, context.isFollowerReadsEnabled());
+        assertEquals(DatastoreContext.DEFAULT_FOLLOWER_READ_MAX_LAG + 1, context.getFollowerReadMaxLag());
+        assertEquals(DatastoreContext.DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_SIZE + 1,
+                context.getDataTreeChangeListenerMaxBatchSize());
+        assertEquals(DatastoreContext.DEFAULT_DATA_TREE_CHANGE_LISTENER_MAX_BATCH_LATENCY_IN_MILLIS + 1,
+                context.getDataTreeChangeListenerMaxBatchLatencyInMillis());
+        assertEquals(true, context.isShardSnapshotCompressionEnabled());
+        assertEquals(true, context.isShardPayloadCompressionEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_PAYLOAD_COMPRESSION_THRESHOLD_IN_BYTES + 1,
+                context.getShardPayloadCompressionThresholdInBytes());
+        assertEquals(true, context.isShardDeltaSnapshotsEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_FULL_SNAPSHOT_INTERVAL + 1, context.getShardFullSnapshotInterval());
+        assertEquals("custom-snapshots-base", context.getShardSnapshotBaseDirectory());
+        assertEquals(true, context.isShardLeaderBalancingEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_LEADER_BALANCING_INTERVAL_IN_SECONDS + 1,
+                context.getShardLeaderBalancingIntervalInSeconds());
+        assertEquals(true, context.isShardReplicationMultiplexingEnabled());
+        assertEquals(DatastoreContext.DEFAULT_SHARD_REPLICATION_HEARTBEAT_LINGER_IN_MILLIS + 1,
+                context.getShardReplicationHeartbeatLingerInMillis());
+        assertEquals(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_SIZE + 1,
+                context.getShardRaftConfig().getJournalPersistMaxBatchSize());
+        assertEquals(DEFAULT_SHARD_JOURNAL_PERSIST_MAX_BATCH_LINGER_IN_MILLIS + 1,
+                context.getShardRaftConfig().getJournalPersistMaxBatchLinger().toMillis());
+        assertEquals(DEFAULT_SHARD_MAX_IN_FLIGHT_APPEND_ENTRIES + 1,
+                context.getShardRaftConfig().getMaxInFlightAppendEntries());
         assertEquals(InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_POOL_SIZE + 1,
                 context.getDataStoreProperties().getMaxDataChangeExecutorPoolSize());
         assertEquals(InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_EXECUTOR_QUEUE_SIZE + 1,
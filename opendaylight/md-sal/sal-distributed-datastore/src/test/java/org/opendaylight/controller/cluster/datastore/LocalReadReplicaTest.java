@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+
+/**
+ * Unit tests for LocalReadReplica.
+ */
+public class LocalReadReplicaTest {
+    private static final long MAX_LEADER_CONTACT_AGE = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    public void testIsReadable() {
+        LocalReadReplica replica = new LocalReadReplica(mock(DataTree.class));
+
+        assertEquals("isReadable before update", false, replica.isReadable(Long.MAX_VALUE - 1));
+
+        replica.update(5, System.nanoTime(), MAX_LEADER_CONTACT_AGE);
+
+        assertEquals("isReadable with lag 5, max lag 5", true, replica.isReadable(5));
+        assertEquals("isReadable with lag 5, max lag 4", false, replica.isReadable(4));
+
+        replica.update(0, System.nanoTime() - 2 * MAX_LEADER_CONTACT_AGE, MAX_LEADER_CONTACT_AGE);
+
+        assertEquals("isReadable with no recent leader contact", false, replica.isReadable(5));
+
+        replica.update(0, System.nanoTime(), MAX_LEADER_CONTACT_AGE);
+        replica.notFollower();
+
+        assertEquals("isReadable when not follower", false, replica.isReadable(5));
+    }
+}
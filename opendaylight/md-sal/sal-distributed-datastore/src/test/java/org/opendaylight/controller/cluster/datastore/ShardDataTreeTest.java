@@ -1,14 +1,42 @@
 package org.opendaylight.controller.cluster.datastore;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
 import org.opendaylight.controller.md.cluster.datastore.model.PeopleModel;
 import org.opendaylight.controller.md.cluster.datastore.model.SchemaContextHelper;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataBroker.DataChangeScope;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeEvent;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeListener;
+import org.opendaylight.controller.md.sal.common.api.data.OptimisticLockFailedException;
+import org.opendaylight.controller.md.sal.dom.store.impl.DOMImmutableDataChangeEvent;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.util.concurrent.SpecialExecutors;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
@@ -33,6 +61,190 @@ public class ShardDataTreeTest {
         modify(new ShardDataTree(fullSchema), true, true, true);
     }
 
+    @Test
+    public void testPipelinedCommits() throws ExecutionException, InterruptedException {
+        ShardDataTree shardDataTree = new ShardDataTree(fullSchema);
+
+        ReadWriteShardDataTreeTransaction transaction1 = shardDataTree.newReadWriteTransaction("txn-1", null);
+        transaction1.getSnapshot().write(CarsModel.BASE_PATH, CarsModel.create());
+        ShardDataTreeCohort cohort1 = shardDataTree.finishTransaction(transaction1);
+
+        ReadWriteShardDataTreeTransaction transaction2 = shardDataTree.newReadWriteTransaction("txn-2", null);
+        transaction2.getSnapshot().write(PeopleModel.BASE_PATH, PeopleModel.create());
+        ShardDataTreeCohort cohort2 = shardDataTree.finishTransaction(transaction2);
+
+        assertTrue(cohort1.canCommit().get());
+        cohort1.preCommit().get();
+
+        // Preparing alone does not advance the tip - the commit coordinator does so when pipelining.
+        assertNull("getPreparedTip", shardDataTree.getPreparedTip());
+        shardDataTree.setPreparedTip(cohort1.getCandidate());
+
+        // The second transaction is prepared on top of the first before the first is committed.
+        assertTrue(cohort2.canCommit().get());
+        cohort2.preCommit().get();
+        shardDataTree.setPreparedTip(cohort2.getCandidate());
+
+        cohort1.commit().get();
+        assertSame("getPreparedTip", cohort2.getCandidate(), shardDataTree.getPreparedTip());
+
+        cohort2.commit().get();
+        assertNull("getPreparedTip", shardDataTree.getPreparedTip());
+
+        DataTreeSnapshot snapshot = shardDataTree.newReadOnlyTransaction("txn-3", null).getSnapshot();
+        assertEquals(true, snapshot.readNode(CarsModel.BASE_PATH).isPresent());
+        assertEquals(true, snapshot.readNode(PeopleModel.BASE_PATH).isPresent());
+    }
+
+    @Test
+    public void testPipelinedCommitConflict() throws ExecutionException, InterruptedException {
+        ShardDataTree shardDataTree = new ShardDataTree(fullSchema);
+
+        ReadWriteShardDataTreeTransaction transaction1 = shardDataTree.newReadWriteTransaction("txn-1", null);
+        transaction1.getSnapshot().write(CarsModel.BASE_PATH, CarsModel.create());
+        ShardDataTreeCohort cohort1 = shardDataTree.finishTransaction(transaction1);
+
+        ReadWriteShardDataTreeTransaction transaction2 = shardDataTree.newReadWriteTransaction("txn-2", null);
+        transaction2.getSnapshot().write(CarsModel.BASE_PATH, CarsModel.create());
+        ShardDataTreeCohort cohort2 = shardDataTree.finishTransaction(transaction2);
+
+        assertTrue(cohort1.canCommit().get());
+        cohort1.preCommit().get();
+        shardDataTree.setPreparedTip(cohort1.getCandidate());
+
+        // The second transaction conflicts with the prepared, but not yet committed, first transaction.
+        try {
+            cohort2.canCommit().get();
+            fail("Expected OptimisticLockFailedException");
+        } catch (ExecutionException e) {
+            assertEquals("Cause", OptimisticLockFailedException.class, e.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void testAsyncDataChangeResolution() throws Exception {
+        ExecutorService resolverExecutor = Executors.newSingleThreadExecutor();
+        try {
+            ShardDataTree shardDataTree = new ShardDataTree(fullSchema, resolverExecutor);
+
+            // Hold up the resolver so the registration races a commit whose events have not been resolved yet
+            final CountDownLatch resolverBlocked = new CountDownLatch(1);
+            resolverExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Uninterruptibles.awaitUninterruptibly(resolverBlocked);
+                }
+            });
+
+            commitWrite(shardDataTree, CarsModel.BASE_PATH, CarsModel.emptyContainer());
+            commitWrite(shardDataTree, CarsModel.CAR_LIST_PATH, CarsModel.newCarMapNode());
+
+            AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>> listener =
+                    mock(AsyncDataChangeListener.class);
+            Entry<ListenerRegistration<AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>>,
+                    DOMImmutableDataChangeEvent> entry = shardDataTree.registerChangeListener(
+                            CarsModel.BASE_PATH, listener, DataChangeScope.SUBTREE);
+            assertNotNull("Initial event", entry.getValue());
+            assertTrue("Initial event created cars",
+                    entry.getValue().getCreatedData().containsKey(CarsModel.BASE_PATH));
+
+            YangInstanceIdentifier carPath = CarsModel.newCarPath("optima");
+            commitWrite(shardDataTree, carPath, CarsModel.newCarEntry("optima", BigInteger.valueOf(20000)));
+
+            verify(listener, never()).onDataChanged(any(AsyncDataChangeEvent.class));
+            resolverBlocked.countDown();
+            drain(resolverExecutor);
+
+            // The commits preceding the registration are covered by the initial event only
+            ArgumentCaptor<AsyncDataChangeEvent> captor = ArgumentCaptor.forClass(AsyncDataChangeEvent.class);
+            verify(listener).onDataChanged(captor.capture());
+            assertTrue("Created car", captor.getValue().getCreatedData().containsKey(carPath));
+            assertFalse("Created car list", captor.getValue().getCreatedData().containsKey(CarsModel.CAR_LIST_PATH));
+
+            entry.getKey().close();
+            commitWrite(shardDataTree, CarsModel.newCarPath("sportage"),
+                    CarsModel.newCarEntry("sportage", BigInteger.valueOf(30000)));
+            drain(resolverExecutor);
+
+            verify(listener).onDataChanged(any(AsyncDataChangeEvent.class));
+        } finally {
+            resolverExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncDataChangeResolutionWithFullQueue() throws Exception {
+        ExecutorService resolverExecutor = SpecialExecutors.newBoundedSingleThreadExecutor(1, "test-DCL-resolver");
+        try {
+            ShardDataTree shardDataTree = new ShardDataTree(fullSchema, resolverExecutor);
+
+            final CountDownLatch resolverBlocked = new CountDownLatch(1);
+            resolverExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Uninterruptibles.awaitUninterruptibly(resolverBlocked);
+                }
+            });
+
+            final List<AsyncDataChangeEvent<YangInstanceIdentifier, NormalizedNode<?, ?>>> events =
+                    new CopyOnWriteArrayList<>();
+            shardDataTree.registerChangeListener(CarsModel.BASE_PATH,
+                    new AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>() {
+                        @Override
+                        public void onDataChanged(
+                                AsyncDataChangeEvent<YangInstanceIdentifier, NormalizedNode<?, ?>> event) {
+                            events.add(event);
+                        }
+                    }, DataChangeScope.SUBTREE);
+
+            // The registration fills the resolver's queue so these are deferred rather than blocking the caller.
+            YangInstanceIdentifier carPath = CarsModel.newCarPath("optima");
+            commitWrite(shardDataTree, CarsModel.BASE_PATH, CarsModel.emptyContainer());
+            commitWrite(shardDataTree, CarsModel.CAR_LIST_PATH, CarsModel.newCarMapNode());
+            commitWrite(shardDataTree, carPath, CarsModel.newCarEntry("optima", BigInteger.valueOf(20000)));
+
+            assertEquals("Events before the resolver drains", 0, events.size());
+            resolverBlocked.countDown();
+
+            Stopwatch sw = Stopwatch.createStarted();
+            while(events.size() < 3 && sw.elapsed(TimeUnit.SECONDS) <= 5) {
+                shardDataTree.resubmitDeferredResolutions();
+                Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+            }
+
+            assertEquals("Events", 3, events.size());
+            assertTrue("Created cars", events.get(0).getCreatedData().containsKey(CarsModel.BASE_PATH));
+            assertTrue("Created car list", events.get(1).getCreatedData().containsKey(CarsModel.CAR_LIST_PATH));
+            assertTrue("Created car", events.get(2).getCreatedData().containsKey(carPath));
+
+            // Once the resolver is shut down the events are dropped.
+            resolverExecutor.shutdown();
+            commitWrite(shardDataTree, CarsModel.newCarPath("sportage"),
+                    CarsModel.newCarEntry("sportage", BigInteger.valueOf(30000)));
+            assertEquals("Events", 3, events.size());
+        } finally {
+            resolverExecutor.shutdownNow();
+        }
+    }
+
+    private static void commitWrite(ShardDataTree shardDataTree, YangInstanceIdentifier path, NormalizedNode<?, ?> data)
+            throws ExecutionException, InterruptedException {
+        ReadWriteShardDataTreeTransaction transaction = shardDataTree.newReadWriteTransaction("txn", null);
+        transaction.getSnapshot().write(path, data);
+        ShardDataTreeCohort cohort = shardDataTree.finishTransaction(transaction);
+
+        assertTrue(cohort.canCommit().get());
+        cohort.preCommit().get();
+        cohort.commit().get();
+    }
+
+    private static void drain(ExecutorService executor) throws Exception {
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
 
     private void modify(ShardDataTree shardDataTree, boolean merge, boolean expectedCarsPresent, boolean expectedPeoplePresent) throws ExecutionException, InterruptedException {
 
@@ -12,6 +12,7 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.AddressFromURIString;
 import akka.actor.Props;
+import akka.actor.Terminated;
 import akka.cluster.Cluster;
 import akka.cluster.ClusterEvent;
 import akka.dispatch.Dispatchers;
@@ -22,6 +23,7 @@ import akka.testkit.JavaTestKit;
 import akka.testkit.TestActorRef;
 import akka.util.Timeout;
 import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -47,6 +49,7 @@ import org.opendaylight.controller.cluster.datastore.messages.FindPrimary;
 import org.opendaylight.controller.cluster.datastore.messages.LocalPrimaryShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.LocalShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.LocalShardNotFound;
+import org.opendaylight.controller.cluster.datastore.messages.PrimaryShardChanged;
 import org.opendaylight.controller.cluster.datastore.messages.PrimaryShardInfo;
 import org.opendaylight.controller.cluster.datastore.messages.RemotePrimaryShardFound;
 import org.opendaylight.controller.cluster.datastore.messages.ShardLeaderStateChanged;
@@ -60,6 +63,8 @@ import org.opendaylight.controller.cluster.notifications.RegisterRoleChangeListe
 import org.opendaylight.controller.cluster.notifications.RoleChangeNotification;
 import org.opendaylight.controller.cluster.raft.RaftState;
 import org.opendaylight.controller.cluster.raft.base.messages.FollowerInitialSyncUpStatus;
+import org.opendaylight.controller.cluster.raft.client.messages.LeadershipTransferFailedException;
+import org.opendaylight.controller.cluster.raft.client.messages.TransferLeadership;
 import org.opendaylight.controller.cluster.raft.utils.InMemoryJournal;
 import org.opendaylight.controller.md.cluster.datastore.model.TestModel;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
@@ -595,6 +600,45 @@ public class ShardManagerTest extends AbstractActorTest {
     }
 
 
+    @Test
+    public void testOnReceivePrimaryShardChanged() throws Exception {
+        new JavaTestKit(getSystem()) {{
+            final ActorRef shardManager = getSystem().actorOf(newPropsShardMgrWithMockShardActor());
+
+            PrimaryShardInfo cachedInfo = new PrimaryShardInfo(getSystem().actorSelection(
+                    mockShardActor.path()), DataStoreVersions.CURRENT_VERSION, Optional.<DataTree>absent());
+            primaryShardInfoCache.putSuccessful("astronauts", cachedInfo);
+            primaryShardInfoCache.putSuccessful(Shard.DEFAULT_NAME, cachedInfo);
+
+            String newPrimaryPath = "akka.tcp://cluster-test@127.0.0.1:2558/user/shardmanager-config/" +
+                    "member-2-shard-astronauts-config";
+            shardManager.tell(new PrimaryShardChanged("astronauts", newPrimaryPath,
+                    DataStoreVersions.CURRENT_VERSION, 2), getRef());
+            shardManager.tell(new PrimaryShardChanged(Shard.DEFAULT_NAME, newPrimaryPath,
+                    DataStoreVersions.CURRENT_VERSION, 2), getRef());
+            shardManager.tell(new PrimaryShardChanged("not-cached", newPrimaryPath,
+                    DataStoreVersions.CURRENT_VERSION, 2), getRef());
+
+            // A push from the previous leader's term delivered out of order must not overwrite the new leader.
+            shardManager.tell(new PrimaryShardChanged("astronauts",
+                    "akka.tcp://cluster-test@127.0.0.1:2559/user/shardmanager-config/member-3-shard-astronauts-config",
+                    DataStoreVersions.CURRENT_VERSION, 1), getRef());
+
+            // Wait for the ShardManager to process the messages.
+            shardManager.tell(new FindPrimary("non-existent", false), getRef());
+            expectMsgClass(duration("5 seconds"), PrimaryNotFoundException.class);
+
+            PrimaryShardInfo info = primaryShardInfoCache.getIfPresent("astronauts").value().get().get();
+            assertEquals("getPrimaryShardActor", "/user/shardmanager-config/member-2-shard-astronauts-config",
+                    info.getPrimaryShardActor().pathString());
+
+            // The local shard's entry is left to the local replica and non-cached shards aren't added.
+            assertSame("getIfPresent", cachedInfo,
+                    primaryShardInfoCache.getIfPresent(Shard.DEFAULT_NAME).value().get().get());
+            assertNull("getIfPresent", primaryShardInfoCache.getIfPresent("not-cached"));
+        }};
+    }
+
     @Test
     public void testOnReceiveFindLocalShardForNonExistentShard() throws Exception {
         new JavaTestKit(getSystem()) {{
@@ -882,6 +926,128 @@ public class ShardManagerTest extends AbstractActorTest {
 
     }
 
+    @Test
+    public void testShardLeaderBalancing() throws Exception {
+        TestActorRef<ForwardingShardManager> shardManager = newUnbalancedShardManager();
+        ForwardingShardManager shardManagerActor = shardManager.underlyingActor();
+
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+
+        TransferLeadership transfer = MessageCollectorActor.expectFirstMatching(mockShardActor,
+                TransferLeadership.class);
+        ShardIdentifier targetId = ShardIdentifier.builder().fromShardIdString(transfer.getTargetId()).build();
+        assertEquals("Target member", "member-2", targetId.getMemberName());
+
+        // Only one transfer is in progress at a time.
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+        assertEquals("TransferLeadership count", 1,
+                MessageCollectorActor.getAllMatching(mockShardActor, TransferLeadership.class).size());
+
+        shardManagerActor.onReceiveCommand(new ShardManager.LeadershipTransferReply(targetId.getShardName(), null));
+        shardManagerActor.onReceiveCommand(new ShardLeaderStateChanged(
+                "member-1-shard-" + targetId.getShardName() + "-" + shardMrgIDSuffix, transfer.getTargetId(),
+                Optional.<DataTree>absent(), DataStoreVersions.CURRENT_VERSION));
+
+        assertEquals("getShardLeaderDistribution", ImmutableMap.of("member-1", 1, "member-2", 1),
+                shardManagerActor.getMBean().getShardLeaderDistribution());
+
+        // The leaders are now balanced.
+        mockShardActor.underlyingActor().clear();
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+        assertEquals("TransferLeadership count", 0,
+                MessageCollectorActor.getAllMatching(mockShardActor, TransferLeadership.class).size());
+    }
+
+    @Test
+    public void testShardLeaderBalancingIgnoresReplyForOtherShard() throws Exception {
+        TestActorRef<ForwardingShardManager> shardManager = newUnbalancedShardManager();
+        ForwardingShardManager shardManagerActor = shardManager.underlyingActor();
+
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+
+        TransferLeadership transfer = MessageCollectorActor.expectFirstMatching(mockShardActor,
+                TransferLeadership.class);
+        String transferShardName = ShardIdentifier.builder().fromShardIdString(transfer.getTargetId()).build().
+                getShardName();
+        String otherShardName = "default".equals(transferShardName) ? "cars" : "default";
+
+        // A reply for a shard that isn't being transferred doesn't end the transfer in progress.
+        shardManagerActor.onReceiveCommand(new ShardManager.LeadershipTransferReply(otherShardName, null));
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+        assertEquals("TransferLeadership count", 1,
+                MessageCollectorActor.getAllMatching(mockShardActor, TransferLeadership.class).size());
+
+        // A failed transfer is retried on the next round.
+        shardManagerActor.onReceiveCommand(new ShardManager.LeadershipTransferReply(transferShardName,
+                new LeadershipTransferFailedException("mock")));
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+        assertEquals("TransferLeadership count", 2,
+                MessageCollectorActor.getAllMatching(mockShardActor, TransferLeadership.class).size());
+    }
+
+    @Test
+    public void testShardLeaderBalancingAfterShardTerminated() throws Exception {
+        TestActorRef<ForwardingShardManager> shardManager = newUnbalancedShardManager();
+        ForwardingShardManager shardManagerActor = shardManager.underlyingActor();
+
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+        MessageCollectorActor.expectFirstMatching(mockShardActor, TransferLeadership.class);
+
+        shardManagerActor.onReceiveCommand(new Terminated(mockShardActor, true, false));
+
+        shardManagerActor.onReceiveCommand(ShardManager.BalanceShardLeaders.INSTANCE);
+        assertEquals("TransferLeadership count", 2,
+                MessageCollectorActor.getAllMatching(mockShardActor, TransferLeadership.class).size());
+    }
+
+    @Test
+    public void testShardLeaderBalancingAfterTransferTimeout() throws Exception {
+        // The mock shard never replies so the transfer times out after 4 election timeouts.
+        datastoreContextBuilder.shardHeartbeatIntervalInMillis(10).shardElectionTimeoutFactor(2);
+
+        TestActorRef<ForwardingShardManager> shardManager = newUnbalancedShardManager();
+
+        shardManager.tell(ShardManager.BalanceShardLeaders.INSTANCE, ActorRef.noSender());
+        MessageCollectorActor.expectFirstMatching(mockShardActor, TransferLeadership.class);
+
+        int transferCount = 1;
+        Stopwatch sw = Stopwatch.createStarted();
+        while(transferCount == 1 && sw.elapsed(TimeUnit.SECONDS) <= 5) {
+            Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+            shardManager.tell(ShardManager.BalanceShardLeaders.INSTANCE, ActorRef.noSender());
+            transferCount = MessageCollectorActor.getAllMatching(mockShardActor, TransferLeadership.class).size();
+        }
+
+        assertEquals("TransferLeadership count", 2, transferCount);
+    }
+
+    private TestActorRef<ForwardingShardManager> newUnbalancedShardManager() throws Exception {
+        MockConfiguration config = new MockConfiguration(ImmutableMap.<String, List<String>>builder().
+                put("default", Arrays.asList("member-1", "member-2")).
+                put("cars", Arrays.asList("member-1", "member-2")).build());
+
+        TestActorRef<ForwardingShardManager> shardManager = TestActorRef.create(getSystem(),
+                newPropsShardMgrWithMockShardActor("shardManager", mockShardActor, new MockClusterWrapper(), config));
+        ForwardingShardManager shardManagerActor = shardManager.underlyingActor();
+
+        shardManagerActor.onReceiveCommand(new UpdateSchemaContext(TestModel.createTestContext()));
+        shardManagerActor.onReceiveCommand(MockClusterWrapper.createMemberUp("member-2",
+                "akka.tcp://cluster-test@127.0.0.1:2558"));
+
+        // member-1 leads both shards.
+        for(String shardName: Arrays.asList("default", "cars")) {
+            String memberId = "member-1-shard-" + shardName + "-" + shardMrgIDSuffix;
+            shardManagerActor.onReceiveCommand(new ShardLeaderStateChanged(memberId, memberId,
+                    Optional.of(mock(DataTree.class)), DataStoreVersions.CURRENT_VERSION));
+        }
+
+        assertEquals("getShardLeaderDistribution", ImmutableMap.of("member-1", 2, "member-2", 0),
+                shardManagerActor.getMBean().getShardLeaderDistribution());
+
+        mockShardActor.underlyingActor().clear();
+        return shardManager;
+    }
+
     private static class TestShardManager extends ShardManager {
         private final CountDownLatch recoveryComplete = new CountDownLatch(1);
 
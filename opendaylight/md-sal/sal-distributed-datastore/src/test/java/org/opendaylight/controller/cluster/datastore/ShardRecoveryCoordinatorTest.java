@@ -13,12 +13,18 @@ import static org.junit.Assert.fail;
 
 import com.google.common.base.Optional;
 import java.io.IOException;
+import java.util.Arrays;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
 import org.opendaylight.controller.cluster.datastore.modification.ModificationPayload;
 import org.opendaylight.controller.cluster.datastore.modification.MutableCompositeModification;
 import org.opendaylight.controller.cluster.datastore.modification.WriteModification;
+import org.opendaylight.controller.cluster.datastore.utils.DeltaSnapshot;
 import org.opendaylight.controller.cluster.datastore.utils.SerializationUtils;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.CompositeModificationByteStringPayload;
 import org.opendaylight.controller.cluster.raft.protobuff.client.messages.CompositeModificationPayload;
 import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
@@ -37,6 +43,9 @@ import org.slf4j.LoggerFactory;
 
 public class ShardRecoveryCoordinatorTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private ShardDataTree peopleDataTree;
     private SchemaContext peopleSchemaContext;
     private SchemaContext carsSchemaContext;
@@ -109,12 +118,70 @@ public class ShardRecoveryCoordinatorTest {
         coordinator.startLogRecoveryBatch(10);
 
         coordinator.applyRecoverySnapshot(createSnapshot());
+        coordinator.completeRecovery();
 
         assertEquals(false, readCars(peopleDataTree).isPresent());
         assertEquals(true, readPeople(peopleDataTree).isPresent());
     }
 
 
+    @Test
+    public void testApplyRecoverySnapshotFollowedByLogBatch(){
+        final ShardStats shardStats = new ShardStats("foobar", "Test");
+        final ShardRecoveryCoordinator coordinator = new ShardRecoveryCoordinator(peopleDataTree, peopleSchemaContext,
+                "foobar", LoggerFactory.getLogger("foo"), shardStats, null);
+
+        final TipProducingDataTree sourceDataTree = createPeopleDataTree();
+        coordinator.applyRecoverySnapshot(SerializationUtils.serializeNormalizedNode(
+                sourceDataTree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get()));
+
+        coordinator.startLogRecoveryBatch(10);
+        for(int i = 0; i < 5; i++) {
+            coordinator.appendRecoveredLogEntry(DataTreeCandidatePayload.create(
+                    createPerson(sourceDataTree, "person" + i)));
+        }
+
+        // The batch is applied on top of the snapshot.
+        coordinator.applyCurrentLogRecoveryBatch();
+
+        coordinator.completeRecovery();
+
+        for(int i = 0; i < 5; i++) {
+            assertEquals("person" + i + " present", true, peopleDataTree.getDataTree().takeSnapshot().readNode(
+                    PeopleModel.newPersonPath("person" + i)).isPresent());
+        }
+
+        assertEquals("getRecoveredLogEntryCount", 5, shardStats.getRecoveredLogEntryCount());
+    }
+
+    @Test
+    public void testApplyRecoveryDeltaSnapshot() throws IOException {
+        final SnapshotBaseStore baseStore = new SnapshotBaseStore(temporaryFolder.newFolder());
+        final ShardRecoveryCoordinator coordinator = new ShardRecoveryCoordinator(peopleDataTree, peopleSchemaContext,
+                "foobar", LoggerFactory.getLogger("foo"), null, baseStore);
+
+        final TipProducingDataTree sourceDataTree = createPeopleDataTree();
+        createPerson(sourceDataTree, "person0");
+        createPerson(sourceDataTree, "person1");
+        baseStore.save(1, SerializationUtils.serializeNormalizedNode(
+                sourceDataTree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get()));
+
+        createPerson(sourceDataTree, "person2");
+        final DataTreeModification modification = sourceDataTree.takeSnapshot().newModification();
+        modification.delete(PeopleModel.newPersonPath("person0"));
+        modification.ready();
+        sourceDataTree.commit(sourceDataTree.prepare(modification));
+
+        coordinator.applyRecoverySnapshot(DeltaSnapshot.serialize(1, sourceDataTree.takeSnapshot(),
+                Arrays.asList(PeopleModel.newPersonPath("person0"), PeopleModel.newPersonPath("person2"))));
+        coordinator.completeRecovery();
+
+        final DataTreeSnapshot snapshot = peopleDataTree.getDataTree().takeSnapshot();
+        assertEquals("person0 present", false, snapshot.readNode(PeopleModel.newPersonPath("person0")).isPresent());
+        assertEquals("person1 present", true, snapshot.readNode(PeopleModel.newPersonPath("person1")).isPresent());
+        assertEquals("person2 present", true, snapshot.readNode(PeopleModel.newPersonPath("person2")).isPresent());
+    }
+
     @Test
     public void testApplyCurrentLogRecoveryBatch(){
         final ShardRecoveryCoordinator coordinator = new ShardRecoveryCoordinator(peopleDataTree, peopleSchemaContext, "foobar", LoggerFactory.getLogger("foo"));
@@ -140,6 +207,28 @@ public class ShardRecoveryCoordinatorTest {
         return dataTree.prepare(modification);
     }
 
+    private static DataTreeCandidateTip createPerson(TipProducingDataTree dataTree, String name){
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.merge(PeopleModel.newPersonPath(name), PeopleModel.newPersonEntry(name));
+        modification.ready();
+
+        final DataTreeCandidateTip candidate = dataTree.prepare(modification);
+        dataTree.commit(candidate);
+        return candidate;
+    }
+
+    private TipProducingDataTree createPeopleDataTree(){
+        final TipProducingDataTree dataTree = InMemoryDataTreeFactory.getInstance().create();
+        dataTree.setSchemaContext(peopleSchemaContext);
+
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.merge(PeopleModel.BASE_PATH, PeopleModel.emptyContainer());
+        modification.merge(PeopleModel.PERSON_LIST_PATH, PeopleModel.newPersonMapNode());
+        modification.ready();
+        dataTree.commit(dataTree.prepare(modification));
+        return dataTree;
+    }
+
     private Optional<NormalizedNode<?,?>> readCars(final ShardDataTree shardDataTree){
         final TipProducingDataTree dataTree = shardDataTree.getDataTree();
         dataTree.setSchemaContext(peopleSchemaContext);
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import static org.junit.Assert.assertEquals;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import java.util.Collections;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.utils.MessageCollectorActor;
+import org.opendaylight.controller.cluster.raft.ReplicatedLogEntry;
+import org.opendaylight.controller.cluster.raft.messages.AppendEntries;
+import org.opendaylight.controller.cluster.raft.messages.AppendEntriesReply;
+
+/**
+ * Unit tests for ShardReplicationChannel.
+ *
+ * The leaders, followers and the channel are all created under the same parent so a single channel plays the
+ * part of the channels on both members.
+ */
+public class ShardReplicationChannelTest extends AbstractActorTest {
+
+    @Test
+    public void testMultiplexing() throws Exception {
+        ActorRef channel = getSystem().actorOf(ShardReplicationChannel.props(DatastoreContext.newBuilder().
+                shardReplicationHeartbeatLingerInMillis(10).build()), ShardReplicationChannel.NAME);
+
+        ActorRef leader1 = getSystem().actorOf(Props.create(MessageCollectorActor.class), "leader1");
+        ActorRef leader2 = getSystem().actorOf(Props.create(MessageCollectorActor.class), "leader2");
+        ActorRef follower1 = getSystem().actorOf(Props.create(MessageCollectorActor.class), "follower1");
+        ActorRef follower2 = getSystem().actorOf(Props.create(MessageCollectorActor.class), "follower2");
+
+        // The heartbeat is held back and sent along with the AppendEntries that isn't one.
+        AppendEntries heartbeat = new AppendEntries(1, "leader1", 0, 1,
+                Collections.<ReplicatedLogEntry>emptyList(), 0, -1, DataStoreVersions.CURRENT_VERSION);
+        channel.tell(new ShardReplicationChannel.Outbound(getSystem().actorSelection(follower1.path()),
+                heartbeat, true), leader1);
+
+        AppendEntries appendEntries = new AppendEntries(1, "leader2", 0, 1,
+                Collections.<ReplicatedLogEntry>emptyList(), 1, -1, DataStoreVersions.CURRENT_VERSION);
+        channel.tell(new ShardReplicationChannel.Outbound(getSystem().actorSelection(follower2.path()),
+                appendEntries, false), leader2);
+
+        assertEquals("getLeaderId", "leader1",
+                MessageCollectorActor.expectFirstMatching(follower1, AppendEntries.class).getLeaderId());
+        assertEquals("getLeaderId", "leader2",
+                MessageCollectorActor.expectFirstMatching(follower2, AppendEntries.class).getLeaderId());
+
+        // The followers' replies are routed back to their leaders.
+        channel.tell(new AppendEntriesReply("follower1", 1, true, 0, 1, DataStoreVersions.CURRENT_VERSION),
+                follower1);
+        channel.tell(new AppendEntriesReply("follower2", 1, true, 0, 1, DataStoreVersions.CURRENT_VERSION),
+                follower2);
+
+        assertEquals("getFollowerId", "follower1",
+                MessageCollectorActor.expectFirstMatching(leader1, AppendEntriesReply.class).getFollowerId());
+        assertEquals("getFollowerId", "follower2",
+                MessageCollectorActor.expectFirstMatching(leader2, AppendEntriesReply.class).getFollowerId());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyShort;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import akka.testkit.JavaTestKit;
+import com.google.common.base.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.identifiers.ShardTransactionIdentifier;
+import org.opendaylight.controller.cluster.datastore.messages.CreateSnapshot;
+import org.opendaylight.controller.md.cluster.datastore.model.SchemaContextHelper;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unit tests for ShardSnapshotCohort.
+ */
+public class ShardSnapshotCohortTest extends AbstractActorTest {
+    private JavaTestKit transactionActor;
+    private ShardSnapshotCohort cohort;
+    private short minimumFollowerPayloadVersion;
+
+    @Before
+    public void setUp() {
+        transactionActor = new JavaTestKit(getSystem());
+
+        ShardTransactionActorFactory transactionActorFactory = mock(ShardTransactionActorFactory.class);
+        doReturn(transactionActor.getRef()).when(transactionActorFactory).newShardTransaction(
+                any(TransactionType.class), any(ShardTransactionIdentifier.class), anyString(), anyShort());
+
+        cohort = new ShardSnapshotCohort(transactionActorFactory, new ShardDataTree(SchemaContextHelper.full()),
+                LoggerFactory.getLogger(ShardSnapshotCohortTest.class), "test");
+        cohort.setMinimumFollowerPayloadVersion(new Supplier<Short>() {
+            @Override
+            public Short get() {
+                return minimumFollowerPayloadVersion;
+            }
+        });
+    }
+
+    @Test
+    public void testSnapshotCompressionWithMixedVersionFollowers() {
+        cohort.setSnapshotCompressionEnabled(true);
+
+        minimumFollowerPayloadVersion = DataStoreVersions.LITHIUM_VERSION;
+        assertEquals("isCompressed", false, createSnapshot().isCompressed());
+
+        // A follower whose version isn't known yet
+        minimumFollowerPayloadVersion = -1;
+        assertEquals("isCompressed", false, createSnapshot().isCompressed());
+
+        minimumFollowerPayloadVersion = DataStoreVersions.BERYLLIUM_VERSION;
+        assertEquals("isCompressed", true, createSnapshot().isCompressed());
+
+        cohort.setSnapshotCompressionEnabled(false);
+        assertEquals("isCompressed", false, createSnapshot().isCompressed());
+    }
+
+    private CreateSnapshot createSnapshot() {
+        cohort.createSnapshot(transactionActor.getRef());
+        return transactionActor.expectMsgClass(CreateSnapshot.class);
+    }
+}
@@ -17,6 +17,7 @@ import akka.actor.ActorSelection;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
 import akka.actor.Status.Failure;
+import akka.actor.Terminated;
 import akka.dispatch.Dispatchers;
 import akka.dispatch.OnComplete;
 import akka.japi.Creator;
@@ -24,14 +25,17 @@ import akka.pattern.Patterns;
 import akka.persistence.SaveSnapshotSuccess;
 import akka.testkit.TestActorRef;
 import akka.util.Timeout;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -44,6 +48,7 @@ import org.opendaylight.controller.cluster.DataPersistenceProvider;
 import org.opendaylight.controller.cluster.DelegatingPersistentDataProvider;
 import org.opendaylight.controller.cluster.datastore.identifiers.ShardIdentifier;
 import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
+import org.opendaylight.controller.cluster.reporting.MetricsReporter;
 import org.opendaylight.controller.cluster.datastore.messages.AbortTransaction;
 import org.opendaylight.controller.cluster.datastore.messages.AbortTransactionReply;
 import org.opendaylight.controller.cluster.datastore.messages.BatchedModifications;
@@ -87,6 +92,7 @@ import org.opendaylight.controller.cluster.raft.base.messages.FollowerInitialSyn
 import org.opendaylight.controller.cluster.raft.client.messages.FindLeader;
 import org.opendaylight.controller.cluster.raft.client.messages.FindLeaderReply;
 import org.opendaylight.controller.cluster.raft.messages.RequestVote;
+import org.opendaylight.controller.cluster.raft.protobuff.client.messages.Payload;
 import org.opendaylight.controller.cluster.raft.utils.InMemoryJournal;
 import org.opendaylight.controller.cluster.raft.utils.InMemorySnapshotStore;
 import org.opendaylight.controller.cluster.raft.utils.MessageCollectorActor;
@@ -148,6 +154,28 @@ public class ShardTest extends AbstractShardTest {
         return Props.create(new DelegatingShardCreator(creator)).withDispatcher(Dispatchers.DefaultDispatcherId());
     }
 
+    @Test
+    public void testPhaseTimersRemovedOnStop() throws Exception {
+        new ShardTestKit(getSystem()) {{
+            final TestActorRef<Shard> shard = TestActorRef.create(getSystem(),
+                    newShardProps(), "testPhaseTimersRemovedOnStop");
+
+            waitUntilLeader(shard);
+
+            final MetricRegistry registry = MetricsReporter.getInstance(DatastoreContext.METRICS_DOMAIN)
+                    .getMetricsRegistry();
+            final String timerName = MetricRegistry.name("distributed-data-store.shard", shardID.toString(),
+                    ShardStats.CAN_COMMIT_PHASE);
+            assertTrue("Timer registered", registry.getNames().contains(timerName));
+
+            watch(shard);
+            shard.tell(PoisonPill.getInstance(), ActorRef.noSender());
+            expectMsgClass(duration("5 seconds"), Terminated.class);
+
+            assertFalse("Timer registered", registry.getNames().contains(timerName));
+        }};
+    }
+
     @Test
     public void testRegisterChangeListener() throws Exception {
         new ShardTestKit(getSystem()) {{
@@ -1171,6 +1199,119 @@ public class ShardTest extends AbstractShardTest {
         }};
     }
 
+    @Test
+    public void testPipelinedReadyLocalTransactionsWithImmediateCommit() throws Exception{
+        dataStoreContextBuilder.shardMaxPipelinedCommits(3);
+
+        new ShardTestKit(getSystem()) {{
+            // Holds back the persistence, ie consensus, of transactions until told to release them.
+            class TestShard extends Shard {
+                final List<String> persistedTransactions = Collections.synchronizedList(new ArrayList<String>());
+                private final List<Runnable> blockedPersists = new ArrayList<>();
+                volatile boolean blockConsensus;
+
+                TestShard() {
+                    super(shardID, Collections.<String,String>emptyMap(), newDatastoreContext(), SCHEMA_CONTEXT);
+                }
+
+                @Override
+                protected void persistData(final ActorRef clientActor, final String identifier,
+                        final Payload data) {
+                    if(!blockConsensus) {
+                        super.persistData(clientActor, identifier, data);
+                        return;
+                    }
+
+                    persistedTransactions.add(identifier);
+                    blockedPersists.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            TestShard.super.persistData(clientActor, identifier, data);
+                        }
+                    });
+                }
+
+                @Override
+                public void handleCommand(final Object message) {
+                    if("release_consensus".equals(message)) {
+                        blockConsensus = false;
+                        for(Runnable persist: blockedPersists) {
+                            persist.run();
+                        }
+                        blockedPersists.clear();
+                    } else {
+                        super.handleCommand(message);
+                    }
+                }
+            }
+
+            final Creator<Shard> creator = new Creator<Shard>() {
+                @Override
+                public Shard create() throws Exception {
+                    return new TestShard();
+                }
+            };
+
+            final TestActorRef<Shard> shard = TestActorRef.create(getSystem(),
+                    Props.create(new DelegatingShardCreator(creator)).withDispatcher(Dispatchers.DefaultDispatcherId()),
+                    "testPipelinedReadyLocalTransactionsWithImmediateCommit");
+
+            waitUntilLeader(shard);
+
+            final ShardDataTree dataStore = shard.underlyingActor().getDataStore();
+
+            writeToStore(shard, TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+            writeToStore(shard, TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(
+                    TestModel.OUTER_LIST_QNAME).build());
+
+            // Create all the modifications up front from the same snapshot so each transaction is
+            // validated against the candidate of the previous one while it's still being replicated.
+            final int nTransactions = 3;
+            final List<String> txIds = new ArrayList<>();
+            final List<ReadyLocalTransaction> readyMessages = new ArrayList<>();
+            for(int i = 1; i <= nTransactions; i++) {
+                final DataTreeModification modification = dataStore.getDataTree().takeSnapshot().newModification();
+                final YangInstanceIdentifier path = YangInstanceIdentifier.builder(TestModel.OUTER_LIST_PATH)
+                        .nodeWithKey(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i).build();
+                new WriteModification(path, ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME,
+                        TestModel.ID_QNAME, i)).apply(modification);
+                modification.ready();
+                txIds.add("tx" + i);
+                readyMessages.add(new ReadyLocalTransaction("tx" + i, modification, true));
+            }
+
+            final TestShard testShard = (TestShard) shard.underlyingActor();
+            testShard.blockConsensus = true;
+
+            for(final ReadyLocalTransaction readyMessage: readyMessages) {
+                shard.tell(readyMessage, getRef());
+            }
+
+            // All transactions are prepared and submitted for consensus before the first one completes.
+            for(int i = 0; i < 50 && testShard.persistedTransactions.size() < nTransactions; i++) {
+                Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+            }
+
+            assertEquals("Transactions awaiting consensus", txIds, new ArrayList<>(testShard.persistedTransactions));
+            expectNoMsg(duration("200 milliseconds"));
+
+            MapNode outerList = (MapNode) readStore(shard, TestModel.OUTER_LIST_PATH);
+            assertEquals("Outer list size before consensus", 0, outerList.getValue().size());
+
+            shard.tell("release_consensus", ActorRef.noSender());
+
+            final FiniteDuration duration = duration("5 seconds");
+            for(int i = 1; i <= nTransactions; i++) {
+                expectMsgClass(duration, CommitTransactionReply.SERIALIZABLE_CLASS);
+            }
+
+            outerList = (MapNode) readStore(shard, TestModel.OUTER_LIST_PATH);
+            assertEquals("Outer list size", nTransactions, outerList.getValue().size());
+
+            shard.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        }};
+    }
+
     @Test
     public void testReadyLocalTransactionWithThreePhaseCommit() throws Exception{
         new ShardTestKit(getSystem()) {{
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.messages.CreateSnapshot;
+import org.opendaylight.controller.cluster.datastore.utils.SnapshotBaseStore;
+import org.opendaylight.controller.md.cluster.datastore.model.PeopleModel;
+import org.opendaylight.controller.md.cluster.datastore.model.SchemaContextHelper;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Unit tests for SnapshotDeltaTracker.
+ */
+public class SnapshotDeltaTrackerTest {
+    private final SnapshotBaseStore baseStore = mock(SnapshotBaseStore.class);
+    private TipProducingDataTree dataTree;
+    private SnapshotDeltaTracker tracker;
+
+    @Before
+    public void setUp() {
+        dataTree = InMemoryDataTreeFactory.getInstance().create();
+        dataTree.setSchemaContext(SchemaContextHelper.select(SchemaContextHelper.PEOPLE_YANG));
+
+        createPeople();
+
+        tracker = new SnapshotDeltaTracker();
+        tracker.setEnabled(true, 3);
+    }
+
+    @Test
+    public void testDeltaSnapshots() {
+        CreateSnapshot full = tracker.newCreateSnapshot(false, baseStore, false);
+        assertNull("Expected full snapshot", full.getDeltaPaths());
+        assertEquals("getBaseStore", baseStore, full.getBaseStore());
+
+        tracker.onCandidateApplied(mergePerson("person1"));
+        tracker.onCandidateApplied(mergePerson("person2"));
+
+        CreateSnapshot delta = tracker.newCreateSnapshot(true, baseStore, false);
+        assertEquals("getBaseId", full.getBaseId(), delta.getBaseId());
+        assertEquals("isCompressed", true, delta.isCompressed());
+        assertEquals("getDeltaPaths", ImmutableSet.of(PeopleModel.newPersonPath("person1"),
+                PeopleModel.newPersonPath("person2")), ImmutableSet.copyOf(delta.getDeltaPaths()));
+
+        // Deltas are cumulative since the base.
+        tracker.onCandidateApplied(mergePerson("person3"));
+
+        delta = tracker.newCreateSnapshot(false, baseStore, false);
+        assertEquals("getBaseId", full.getBaseId(), delta.getBaseId());
+        assertEquals("getDeltaPaths size", 3, delta.getDeltaPaths().size());
+
+        // Every third snapshot is a full one.
+        CreateSnapshot nextFull = tracker.newCreateSnapshot(false, baseStore, false);
+        assertNull("Expected full snapshot", nextFull.getDeltaPaths());
+        assertEquals("New base", true, nextFull.getBaseId() > full.getBaseId());
+        assertEquals("getModifiedPaths size", 0, tracker.getModifiedPaths().size());
+    }
+
+    @Test
+    public void testFullSnapshotRequired() {
+        tracker.newCreateSnapshot(false, baseStore, false);
+
+        tracker.onCandidateApplied(mergePerson("person1"));
+        assertNull("Expected full snapshot for install",
+                tracker.newCreateSnapshot(false, baseStore, true).getDeltaPaths());
+
+        // Replacing the whole tree requires a full snapshot.
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(YangInstanceIdentifier.EMPTY, ImmutableNodes.containerNode(SchemaContext.NAME));
+        tracker.onCandidateApplied(commit(modification));
+        assertNull("Expected full snapshot after root write",
+                tracker.newCreateSnapshot(false, baseStore, false).getDeltaPaths());
+
+        tracker.onCandidateApplied(createPeople());
+        tracker.onCandidateApplied(mergePerson("person2"));
+        CreateSnapshot delta = tracker.newCreateSnapshot(false, baseStore, false);
+        assertNotNull("Expected delta snapshot", delta.getDeltaPaths());
+        assertEquals("Contains " + PeopleModel.BASE_PATH, true, delta.getDeltaPaths().contains(PeopleModel.BASE_PATH));
+
+        // Disabling and re-enabling starts from a new base.
+        tracker.setEnabled(false, 3);
+        tracker.setEnabled(true, 3);
+        tracker.onCandidateApplied(mergePerson("person3"));
+        assertNull("Expected full snapshot after re-enabling",
+                tracker.newCreateSnapshot(false, baseStore, false).getDeltaPaths());
+    }
+
+    private DataTreeCandidate createPeople() {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.merge(PeopleModel.BASE_PATH, PeopleModel.emptyContainer());
+        modification.merge(PeopleModel.PERSON_LIST_PATH, PeopleModel.newPersonMapNode());
+        return commit(modification);
+    }
+
+    private DataTreeCandidate mergePerson(String name) {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.merge(PeopleModel.newPersonPath(name), PeopleModel.newPersonEntry(name));
+        return commit(modification);
+    }
+
+    private DataTreeCandidate commit(DataTreeModification modification) {
+        modification.ready();
+        DataTreeCandidate candidate = dataTree.prepare(modification);
+        dataTree.commit(candidate);
+        return candidate;
+    }
+}
@@ -20,12 +20,18 @@ import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.dispatch.Futures;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Uninterruptibles;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +43,7 @@ import org.mockito.Mockito;
 import org.opendaylight.controller.cluster.datastore.exceptions.NoShardLeaderException;
 import org.opendaylight.controller.cluster.datastore.exceptions.NotInitializedException;
 import org.opendaylight.controller.cluster.datastore.exceptions.PrimaryNotFoundException;
+import org.opendaylight.controller.cluster.datastore.exceptions.ShardOverloadedException;
 import org.opendaylight.controller.cluster.datastore.exceptions.TimeoutException;
 import org.opendaylight.controller.cluster.datastore.messages.BatchedModifications;
 import org.opendaylight.controller.cluster.datastore.messages.CloseTransaction;
@@ -47,8 +54,15 @@ import org.opendaylight.controller.cluster.datastore.modification.DeleteModifica
 import org.opendaylight.controller.cluster.datastore.modification.MergeModification;
 import org.opendaylight.controller.cluster.datastore.modification.WriteModification;
 import org.opendaylight.controller.cluster.datastore.shardstrategy.DefaultShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.KeyHashShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.KeyRangeShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ListShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ShardStrategy;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.ShardStrategyFactory;
 import org.opendaylight.controller.cluster.datastore.utils.DoNothingActor;
+import org.opendaylight.controller.cluster.datastore.utils.MockConfiguration;
 import org.opendaylight.controller.cluster.datastore.utils.NormalizedNodeAggregatorTest;
+import org.opendaylight.controller.cluster.datastore.utils.ShardAdmissionController;
 import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
 import org.opendaylight.controller.md.cluster.datastore.model.SchemaContextHelper;
 import org.opendaylight.controller.md.cluster.datastore.model.TestModel;
@@ -57,11 +71,14 @@ import org.opendaylight.controller.protobuff.messages.transaction.ShardTransacti
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreThreePhaseCommitCohort;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import scala.concurrent.Promise;
 
@@ -102,6 +119,65 @@ public class TransactionProxyTest extends AbstractTransactionProxyTest {
         assertEquals("Response NormalizedNode", expectedNode, readOptional.get());
     }
 
+    @Test
+    public void testReadFromLocalReadReplica() throws Exception {
+        dataStoreContextBuilder.followerReadsEnabled(true);
+        doReturn(dataStoreContextBuilder.build()).when(mockActorContext).getDatastoreContext();
+
+        ActorRef shardActorRef = getSystem().actorOf(Props.create(DoNothingActor.class));
+
+        NormalizedNode<?, ?> expectedNode = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+        DataTree dataTree = mock(DataTree.class);
+        DataTreeSnapshot dataTreeSnapshot = mock(DataTreeSnapshot.class);
+        doReturn(dataTreeSnapshot).when(dataTree).takeSnapshot();
+        doReturn(Optional.of(expectedNode)).when(dataTreeSnapshot).readNode(TestModel.TEST_PATH);
+
+        LocalReadReplica replica = new LocalReadReplica(dataTree);
+        replica.update(0, System.nanoTime(), TimeUnit.SECONDS.toNanos(10));
+
+        doReturn(Futures.successful(new PrimaryShardInfo(getSystem().actorSelection(shardActorRef.path()),
+                DataStoreVersions.CURRENT_VERSION, Optional.<DataTree>absent(), Optional.of(replica)))).
+                when(mockActorContext).findPrimaryShardAsync(eq(DefaultShardStrategy.DEFAULT_SHARD));
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, READ_ONLY);
+
+        Optional<NormalizedNode<?, ?>> readOptional = transactionProxy.read(
+                TestModel.TEST_PATH).get(5, TimeUnit.SECONDS);
+
+        assertEquals("NormalizedNode isPresent", true, readOptional.isPresent());
+        assertEquals("Response NormalizedNode", expectedNode, readOptional.get());
+
+        verify(mockActorContext, never()).executeOperationAsync(any(ActorSelection.class), any());
+    }
+
+    @Test
+    public void testReadWithStaleLocalReadReplica() throws Exception {
+        dataStoreContextBuilder.followerReadsEnabled(true).followerReadMaxLag(10);
+        doReturn(dataStoreContextBuilder.build()).when(mockActorContext).getDatastoreContext();
+
+        ActorRef actorRef = setupActorContextWithInitialCreateTransaction(getSystem(), READ_ONLY);
+
+        DataTree dataTree = mock(DataTree.class);
+        LocalReadReplica replica = new LocalReadReplica(dataTree);
+        replica.update(11, System.nanoTime(), TimeUnit.SECONDS.toNanos(10));
+
+        doReturn(Futures.successful(new PrimaryShardInfo(actorSelection(actorRef),
+                DataStoreVersions.CURRENT_VERSION, Optional.<DataTree>absent(), Optional.of(replica)))).
+                when(mockActorContext).findPrimaryShardAsync(eq(DefaultShardStrategy.DEFAULT_SHARD));
+
+        doReturn(readSerializedDataReply(null)).when(mockActorContext).executeOperationAsync(
+                eq(actorSelection(actorRef)), eqSerializedReadData());
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, READ_ONLY);
+
+        Optional<NormalizedNode<?, ?>> readOptional = transactionProxy.read(
+                TestModel.TEST_PATH).get(5, TimeUnit.SECONDS);
+
+        assertEquals("NormalizedNode isPresent", false, readOptional.isPresent());
+
+        verify(dataTree, never()).takeSnapshot();
+    }
+
     @Test(expected = ReadFailedException.class)
     public void testReadWithInvalidReplyMessageType() throws Exception {
         ActorRef actorRef = setupActorContextWithInitialCreateTransaction(getSystem(), READ_ONLY);
@@ -721,6 +797,58 @@ public class TransactionProxyTest extends AbstractTransactionProxyTest {
                 eq(actorSelection(actorRef)), isA(CloseTransaction.SERIALIZABLE_CLASS));
     }
 
+    @Test
+    public void testReadyWithShardAdmission() throws Exception {
+        ActorRef actorRef = setupActorContextWithInitialCreateTransaction(getSystem(), WRITE_ONLY);
+
+        ShardAdmissionController admissionController = new ShardAdmissionController(mockActorContext);
+        doReturn(admissionController).when(mockActorContext).getShardAdmissionController();
+
+        expectBatchedModificationsReady(actorRef, true);
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, WRITE_ONLY);
+
+        transactionProxy.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+
+        AbstractThreePhaseCommitCohort<?> ready = transactionProxy.ready();
+
+        assertTrue(ready instanceof AdmittedThreePhaseCommitCohort);
+        assertEquals("getInFlight", 1, admissionController.getInFlight(DefaultShardStrategy.DEFAULT_SHARD));
+
+        assertEquals("canCommit", true, ready.canCommit().get(5, TimeUnit.SECONDS));
+        ready.preCommit().get(5, TimeUnit.SECONDS);
+        ready.commit().get(5, TimeUnit.SECONDS);
+
+        assertEquals("getInFlight", 0, admissionController.getInFlight(DefaultShardStrategy.DEFAULT_SHARD));
+    }
+
+    @Test
+    public void testReadyWithShardAdmissionRejected() throws Exception {
+        ActorRef actorRef = setupActorContextWithInitialCreateTransaction(getSystem(), WRITE_ONLY);
+
+        ShardAdmissionController admissionController = new ShardAdmissionController(mockActorContext);
+        doReturn(admissionController).when(mockActorContext).getShardAdmissionController();
+
+        int limit = (int) admissionController.getLimit(DefaultShardStrategy.DEFAULT_SHARD);
+        for(int i = 0; i < limit; i++) {
+            assertNotNull(admissionController.tryAdmit(Collections.singleton(DefaultShardStrategy.DEFAULT_SHARD)));
+        }
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, WRITE_ONLY);
+
+        transactionProxy.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+
+        AbstractThreePhaseCommitCohort<?> ready = transactionProxy.ready();
+
+        verifyCohortFutures(ready, ShardOverloadedException.class);
+
+        // The transaction should be closed rather than readied.
+        verify(mockActorContext).sendOperationAsync(
+                eq(actorSelection(actorRef)), isA(CloseTransaction.SERIALIZABLE_CLASS));
+        verify(mockActorContext, never()).executeOperationAsync(
+                eq(actorSelection(actorRef)), isA(BatchedModifications.class));
+    }
+
 
     /**
      * Method to test a local Tx actor. The Tx paths are matched to decide if the
@@ -1506,6 +1634,247 @@ public class TransactionProxyTest extends AbstractTransactionProxyTest {
                 eq(actorSelection(actorRef)), eqSerializedDataExists());
     }
 
+    @Test
+    public void testAdaptiveModificationOperationBatchingBySize() throws Exception {
+        // Each write below is estimated at 24 bytes so the third one exceeds the size limit.
+        dataStoreContextBuilder.shardBatchedModificationCount(100).adaptiveTransactionBatchingEnabled(true).
+                shardBatchedModificationMaxBytes(60).shardBatchedModificationMaxLingerInMillis(60000);
+
+        ActorRef actorRef = setupActorContextWithInitialCreateTransaction(getSystem(), WRITE_ONLY);
+
+        expectBatchedModifications(actorRef, 3);
+
+        NormalizedNode<?, ?> writeNode = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, WRITE_ONLY);
+
+        transactionProxy.write(TestModel.TEST_PATH, writeNode);
+        transactionProxy.write(TestModel.TEST_PATH, writeNode);
+        transactionProxy.write(TestModel.TEST_PATH, writeNode);
+
+        transactionProxy.ready();
+
+        List<BatchedModifications> batchedModifications = captureBatchedModifications(actorRef);
+        assertEquals("Captured BatchedModifications count", 2, batchedModifications.size());
+
+        verifyBatchedModifications(batchedModifications.get(0), false,
+                new WriteModification(TestModel.TEST_PATH, writeNode),
+                new WriteModification(TestModel.TEST_PATH, writeNode),
+                new WriteModification(TestModel.TEST_PATH, writeNode));
+
+        verifyBatchedModifications(batchedModifications.get(1), true, true);
+    }
+
+    @Test
+    public void testAdaptiveModificationOperationBatchingWithLingerTimer() throws Exception {
+        dataStoreContextBuilder.shardBatchedModificationCount(100).adaptiveTransactionBatchingEnabled(true).
+                shardBatchedModificationMaxLingerInMillis(50);
+
+        ActorRef actorRef = setupActorContextWithInitialCreateTransaction(getSystem(), WRITE_ONLY);
+
+        expectBatchedModifications(actorRef, 1);
+
+        NormalizedNode<?, ?> writeNode = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, WRITE_ONLY);
+
+        transactionProxy.write(TestModel.TEST_PATH, writeNode);
+
+        // The partial batch should be sent by the linger timer.
+        verify(mockActorContext, Mockito.timeout(5000)).executeOperationAsync(
+                eq(actorSelection(actorRef)), isA(BatchedModifications.class));
+
+        transactionProxy.ready();
+
+        List<BatchedModifications> batchedModifications = captureBatchedModifications(actorRef);
+        assertEquals("Captured BatchedModifications count", 2, batchedModifications.size());
+
+        verifyBatchedModifications(batchedModifications.get(0), false,
+                new WriteModification(TestModel.TEST_PATH, writeNode));
+
+        verifyBatchedModifications(batchedModifications.get(1), true, true);
+    }
+
+    @Test
+    public void testWriteListWithKeyHashShardStrategy() throws Exception {
+        testListModification(newKeyHashShardStrategy(), false);
+    }
+
+    @Test
+    public void testWriteListWithKeyRangeShardStrategy() throws Exception {
+        testListModification(newKeyRangeShardStrategy(), false);
+    }
+
+    @Test
+    public void testMergeListWithKeyHashShardStrategy() throws Exception {
+        testListModification(newKeyHashShardStrategy(), true);
+    }
+
+    @Test
+    public void testMergeListWithKeyRangeShardStrategy() throws Exception {
+        testListModification(newKeyRangeShardStrategy(), true);
+    }
+
+    @Test
+    public void testReadListWithKeyHashShardStrategy() throws Exception {
+        testListRead(newKeyHashShardStrategy());
+    }
+
+    @Test
+    public void testReadListWithKeyRangeShardStrategy() throws Exception {
+        testListRead(newKeyRangeShardStrategy());
+    }
+
+    @Test
+    public void testDeleteListWithKeyHashShardStrategy() throws Exception {
+        testListDelete(newKeyHashShardStrategy());
+    }
+
+    @Test
+    public void testDeleteListWithKeyRangeShardStrategy() throws Exception {
+        testListDelete(newKeyRangeShardStrategy());
+    }
+
+    private void testListModification(ListShardStrategy strategy, boolean merge) throws Exception {
+        dataStoreContextBuilder.shardBatchedModificationCount(1);
+        Map<String, ActorRef> actorRefs = setUpListShardStrategy(strategy, WRITE_ONLY);
+        for(ActorRef actorRef: actorRefs.values()) {
+            expectBatchedModifications(actorRef, 1);
+        }
+
+        Map<String, MapNode> expParts = splitCarEntries(strategy);
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, WRITE_ONLY);
+
+        if(merge) {
+            transactionProxy.merge(CarsModel.CAR_LIST_PATH, carMapNode(expParts.values()));
+        } else {
+            transactionProxy.write(CarsModel.CAR_LIST_PATH, carMapNode(expParts.values()));
+        }
+
+        for(String shardName: strategy.getShardNames()) {
+            MapNode expPart = expParts.get(shardName);
+            ActorRef actorRef = actorRefs.get(shardName);
+            if(merge && expPart.getValue().isEmpty() && !shardName.equals(strategy.getPrimaryShard())) {
+                // A merge leaves the shards none of the entries belong in untouched.
+                verify(mockActorContext, never()).executeOperationAsync(eq(actorSelection(actorRef)),
+                        isA(BatchedModifications.class));
+            } else if(merge) {
+                verifyOneBatchedModification(actorRef, new MergeModification(CarsModel.CAR_LIST_PATH, expPart), false);
+            } else {
+                verifyOneBatchedModification(actorRef, new WriteModification(CarsModel.CAR_LIST_PATH, expPart), false);
+            }
+        }
+    }
+
+    private void testListRead(ListShardStrategy strategy) throws Exception {
+        Map<String, ActorRef> actorRefs = setUpListShardStrategy(strategy, READ_ONLY);
+        Map<String, MapNode> parts = splitCarEntries(strategy);
+
+        for(String shardName: strategy.getShardNames()) {
+            // A shard none of the entries belong in has no list.
+            MapNode part = parts.get(shardName);
+            doReturn(readSerializedDataReply(part.getValue().isEmpty() ? null : part)).when(mockActorContext).
+                    executeOperationAsync(eq(actorSelection(actorRefs.get(shardName))),
+                            eqSerializedReadData(CarsModel.CAR_LIST_PATH));
+        }
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, READ_ONLY);
+
+        Optional<NormalizedNode<?, ?>> readOptional = transactionProxy.read(CarsModel.CAR_LIST_PATH).
+                get(5, TimeUnit.SECONDS);
+
+        assertEquals("NormalizedNode isPresent", true, readOptional.isPresent());
+        assertEquals("Response NormalizedNode", carMapNode(parts.values()), readOptional.get());
+    }
+
+    private void testListDelete(ListShardStrategy strategy) throws Exception {
+        dataStoreContextBuilder.shardBatchedModificationCount(1);
+        Map<String, ActorRef> actorRefs = setUpListShardStrategy(strategy, WRITE_ONLY);
+        for(ActorRef actorRef: actorRefs.values()) {
+            expectBatchedModifications(actorRef, 1);
+        }
+
+        TransactionProxy transactionProxy = new TransactionProxy(mockComponentFactory, WRITE_ONLY);
+
+        transactionProxy.delete(CarsModel.CAR_LIST_PATH);
+
+        for(ActorRef actorRef: actorRefs.values()) {
+            verifyOneBatchedModification(actorRef, new DeleteModification(CarsModel.CAR_LIST_PATH), false);
+        }
+    }
+
+    private static ListShardStrategy newKeyHashShardStrategy() {
+        return new KeyHashShardStrategy("cars/car", Arrays.asList("cars-1", "cars-2", "cars-3"));
+    }
+
+    private static ListShardStrategy newKeyRangeShardStrategy() {
+        // car-0 to car-2 belong in cars-1, the rest in cars-2 and none in cars-3.
+        return new KeyRangeShardStrategy("cars/car", Arrays.asList("cars-1", "cars-2", "cars-3"),
+                Arrays.asList("car-3", "x"));
+    }
+
+    private Map<String, ActorRef> setUpListShardStrategy(final ListShardStrategy strategy, TransactionType type) {
+        doReturn(SchemaContextHelper.full()).when(mockActorContext).getSchemaContext();
+
+        ShardStrategyFactory.setConfiguration(new MockConfiguration() {
+            @Override
+            public Map<String, ShardStrategy> getModuleNameToShardStrategyMap() {
+                return ImmutableMap.<String, ShardStrategy>of("cars", strategy);
+            }
+
+            @Override
+            public Optional<String> getModuleNameFromNameSpace(String nameSpace) {
+                return CarsModel.BASE_QNAME.getNamespace().toASCIIString().equals(nameSpace) ?
+                        Optional.of("cars") : Optional.<String>absent();
+            }
+        });
+
+        Map<String, ActorRef> actorRefs = new LinkedHashMap<>();
+        for(String shardName: strategy.getShardNames()) {
+            actorRefs.put(shardName, setupActorContextWithInitialCreateTransaction(getSystem(), type, shardName));
+        }
+
+        return actorRefs;
+    }
+
+    /**
+     * Returns the car list entries car-0 to car-9 split by the shard they belong in.
+     */
+    private static Map<String, MapNode> splitCarEntries(ListShardStrategy strategy) {
+        Map<String, CollectionNodeBuilder<MapEntryNode, MapNode>> builders = new LinkedHashMap<>();
+        for(String shardName: strategy.getShardNames()) {
+            builders.put(shardName, ImmutableNodes.mapNodeBuilder(CarsModel.CAR_QNAME));
+        }
+
+        for(int i = 0; i < 10; i++) {
+            MapEntryNode entry = CarsModel.newCarEntry("car-" + i, BigInteger.valueOf(i));
+            builders.get(strategy.findShard(entry.getIdentifier())).withChild(entry);
+        }
+
+        Map<String, MapNode> parts = new LinkedHashMap<>();
+        int nonEmptyParts = 0;
+        for(Map.Entry<String, CollectionNodeBuilder<MapEntryNode, MapNode>> e: builders.entrySet()) {
+            MapNode part = e.getValue().build();
+            parts.put(e.getKey(), part);
+            nonEmptyParts += part.getValue().isEmpty() ? 0 : 1;
+        }
+
+        assertTrue("Expected the entries to span multiple shards: " + parts, nonEmptyParts > 1);
+        return parts;
+    }
+
+    private static MapNode carMapNode(Collection<MapNode> parts) {
+        CollectionNodeBuilder<MapEntryNode, MapNode> builder = ImmutableNodes.mapNodeBuilder(CarsModel.CAR_QNAME);
+        for(MapNode part: parts) {
+            for(MapEntryNode entry: part.getValue()) {
+                builder.withChild(entry);
+            }
+        }
+
+        return builder.build();
+    }
+
     @Test
     public void testReadRoot() throws ReadFailedException, InterruptedException, ExecutionException, java.util.concurrent.TimeoutException {
 
@@ -19,6 +19,9 @@ import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.openmbean.CompositeData;
 
 public class ShardStatsTest {
     private MBeanServer mbeanServer;
@@ -161,4 +164,37 @@ public class ShardStatsTest {
 
 
     }
+
+    @Test
+    public void testGetTransactionPhaseLatencies() throws Exception {
+        shardStats.recordPhaseLatency(ShardStats.CAN_COMMIT_PHASE, TimeUnit.MILLISECONDS.toNanos(2));
+        shardStats.recordPhaseLatency(ShardStats.CAN_COMMIT_PHASE, TimeUnit.MILLISECONDS.toNanos(4));
+        shardStats.recordPhaseLatency(ShardStats.APPLY_PHASE, TimeUnit.MICROSECONDS.toNanos(500));
+
+        List<PhaseLatencyStats> latencies = shardStats.getTransactionPhaseLatencies();
+        Assert.assertEquals(5, latencies.size());
+
+        PhaseLatencyStats canCommit = latencies.get(1);
+        Assert.assertEquals(ShardStats.CAN_COMMIT_PHASE, canCommit.getPhase());
+        Assert.assertEquals(2L, canCommit.getCount());
+        Assert.assertEquals(4000L, canCommit.getMax());
+        Assert.assertEquals(3000.0, canCommit.getMean(), 0.1);
+
+        PhaseLatencyStats apply = latencies.get(4);
+        Assert.assertEquals(ShardStats.APPLY_PHASE, apply.getPhase());
+        Assert.assertEquals(1L, apply.getCount());
+        Assert.assertEquals(500L, apply.getMax());
+
+        Object attribute = mbeanServer.getAttribute(testMBeanName, "TransactionPhaseLatencies");
+        CompositeData[] data = (CompositeData[]) attribute;
+        Assert.assertEquals(5, data.length);
+        Assert.assertEquals(ShardStats.QUEUE_WAIT_PHASE, data[0].get("phase"));
+        Assert.assertEquals(0L, data[0].get("count"));
+        Assert.assertEquals(2L, data[1].get("count"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecordUnknownPhaseLatency() {
+        shardStats.recordPhaseLatency("bogus", 1000);
+    }
 }
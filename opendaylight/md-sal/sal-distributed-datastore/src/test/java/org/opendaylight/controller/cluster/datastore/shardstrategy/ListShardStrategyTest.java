@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.shardstrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.Configuration;
+import org.opendaylight.controller.cluster.datastore.ConfigurationImpl;
+import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
+import org.opendaylight.controller.md.cluster.datastore.model.PeopleModel;
+
+/**
+ * Unit tests for ListShardStrategy and its subclasses.
+ */
+public class ListShardStrategyTest {
+    private static Configuration configuration;
+
+    @BeforeClass
+    public static void setUpClass(){
+        configuration = new ConfigurationImpl("module-shards-list-sharding.conf", "modules.conf");
+    }
+
+    @Test
+    public void testKeyHashShardStrategy() {
+        ShardStrategy strategy = configuration.getModuleNameToShardStrategyMap().get("cars");
+        assertTrue("Expected KeyHashShardStrategy", strategy instanceof KeyHashShardStrategy);
+
+        ListShardStrategy listStrategy = (ListShardStrategy) strategy;
+        assertEquals("getShardNames", Arrays.asList("cars-1", "cars-2", "cars-3"), listStrategy.getShardNames());
+
+        assertEquals("findShard for the container", "cars-1", strategy.findShard(CarsModel.BASE_PATH));
+        assertEquals("findShard for the list", "cars-1", strategy.findShard(CarsModel.CAR_LIST_PATH));
+        assertTrue(listStrategy.isMultiShardPath(CarsModel.BASE_PATH));
+        assertTrue(listStrategy.isMultiShardPath(CarsModel.CAR_LIST_PATH));
+        assertFalse(listStrategy.isMultiShardPath(CarsModel.newCarPath("optima")));
+        assertEquals("getListPath", CarsModel.CAR_LIST_PATH, listStrategy.getListPath(CarsModel.BASE_PATH));
+
+        Set<String> shards = new HashSet<>();
+        for(int i = 0; i < 100; i++) {
+            String name = "car" + i;
+            String shard = strategy.findShard(CarsModel.newCarPath(name));
+            assertEquals("findShard is stable", shard, strategy.findShard(CarsModel.newCarPath(name)));
+            assertEquals("findShard for a path under the entry", shard,
+                    strategy.findShard(CarsModel.newCarPath(name).node(CarsModel.CAR_PRICE_QNAME)));
+            shards.add(shard);
+        }
+
+        assertEquals("Shards entries were spread across", new HashSet<>(listStrategy.getShardNames()), shards);
+    }
+
+    @Test
+    public void testKeyRangeShardStrategy() {
+        ShardStrategy strategy = configuration.getModuleNameToShardStrategyMap().get("people");
+        assertTrue("Expected KeyRangeShardStrategy", strategy instanceof KeyRangeShardStrategy);
+
+        assertEquals("people-1", strategy.findShard(PeopleModel.BASE_PATH));
+        assertEquals("people-1", strategy.findShard(PeopleModel.newPersonPath("alice")));
+        assertEquals("people-1", strategy.findShard(PeopleModel.newPersonPath("lucy")));
+        assertEquals("people-2", strategy.findShard(PeopleModel.newPersonPath("m")));
+        assertEquals("people-2", strategy.findShard(PeopleModel.newPersonPath("zed")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyRangeShardStrategyWithUnorderedRanges() {
+        new KeyRangeShardStrategy("people/person", Arrays.asList("people-1", "people-2", "people-3"),
+                Arrays.asList("m", "c"));
+    }
+
+    @Test
+    public void testGetAllShardNames() {
+        assertEquals(new HashSet<>(Arrays.asList("default", "cars-1", "cars-2", "cars-3", "people-1", "people-2")),
+                configuration.getAllShardNames());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.math.BigInteger;
+import java.util.Arrays;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.jmx.mbeans.shard.ShardStats;
+import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+/**
+ * Unit tests for CompressionUtils.
+ */
+public class CompressionUtilsTest {
+
+    @Test
+    public void testCompressAndDecompress() {
+        byte[] bytes = SerializationUtils.serializeNormalizedNode(carsNode());
+        assertFalse("Serialized node detected as compressed", CompressionUtils.isCompressed(bytes));
+
+        ShardStats stats = new ShardStats("shard-test", "test");
+        byte[] compressed = CompressionUtils.compress(bytes, stats);
+
+        assertTrue("Expected compressed", CompressionUtils.isCompressed(compressed));
+        assertTrue("Expected compressed size < " + bytes.length, compressed.length < bytes.length);
+        assertEquals("getCompressionInputBytes", bytes.length, stats.getCompressionInputBytes());
+        assertEquals("getCompressionOutputBytes", compressed.length, stats.getCompressionOutputBytes());
+        assertTrue("getCompressionRatio > 1", stats.getCompressionRatio() > 1);
+
+        assertArrayEquals("Decompressed", bytes, CompressionUtils.decompress(compressed, stats));
+        assertEquals("Deserialized", carsNode(),
+                SerializationUtils.deserializeNormalizedNode(CompressionUtils.decompress(compressed, null)));
+    }
+
+    @Test
+    public void testDecompressUncompressed() {
+        byte[] bytes = SerializationUtils.serializeNormalizedNode(carsNode());
+        assertSame("Uncompressed bytes", bytes, CompressionUtils.decompress(bytes, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompressTruncated() {
+        byte[] compressed = CompressionUtils.compress(
+                SerializationUtils.serializeNormalizedNode(carsNode()), null);
+        CompressionUtils.decompress(Arrays.copyOf(compressed, compressed.length / 2), null);
+    }
+
+    private static NormalizedNode<?, ?> carsNode() {
+        CollectionNodeBuilder<MapEntryNode, MapNode> cars = ImmutableNodes.mapNodeBuilder(CarsModel.CAR_QNAME);
+        for(int i = 0; i < 100; i++) {
+            cars.withChild(CarsModel.newCarEntry("car" + i, BigInteger.valueOf(i)));
+        }
+
+        return ImmutableContainerNodeBuilder.create().withNodeIdentifier(new NodeIdentifier(CarsModel.BASE_QNAME)).
+                withChild(cars.build()).build();
+    }
+}
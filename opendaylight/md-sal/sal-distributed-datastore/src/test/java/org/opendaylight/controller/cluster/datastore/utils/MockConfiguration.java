@@ -62,6 +62,11 @@ public class MockConfiguration implements Configuration{
         return members != null ? members : Collections.<String>emptyList();
     }
 
+    @Override
+    public Set<String> getNonVotingMembersFromShardName(final String shardName) {
+        return Collections.emptySet();
+    }
+
     @Override public Set<String> getAllShardNames() {
         return Collections.emptySet();
     }
@@ -9,6 +9,7 @@
 package org.opendaylight.controller.cluster.datastore.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
@@ -70,6 +71,33 @@ public class NormalizedNodeAggregatorTest {
 
     }
 
+    @Test
+    public void testAddNode() throws Exception {
+        SchemaContext schemaContext = SchemaContextHelper.full();
+        NormalizedNode<?, ?> expectedNode1 = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+        NormalizedNode<?, ?> expectedNode2 = CarsModel.create();
+
+        NormalizedNodeAggregator aggregator = new NormalizedNodeAggregator();
+        assertEquals("Empty aggregate", Optional.absent(), aggregator.getAggregatedNode());
+
+        Optional<NormalizedNode<?, ?>> node1 = Optional.<NormalizedNode<?, ?>>of(getRootNode(expectedNode1, schemaContext));
+        Optional<NormalizedNode<?, ?>> node2 = Optional.<NormalizedNode<?, ?>>of(getRootNode(expectedNode2, schemaContext));
+
+        aggregator.addNode(node1);
+        assertSame("Single node", node1.get(), aggregator.getAggregatedNode().get());
+
+        aggregator.addNode(Optional.<NormalizedNode<?, ?>>absent());
+        aggregator.addNode(node2);
+
+        Optional<NormalizedNode<?, ?>> optional = aggregator.getAggregatedNode();
+        assertEquals("Aggregated node", NormalizedNodeAggregator.aggregate(YangInstanceIdentifier.builder().build(),
+                Lists.newArrayList(node1, node2), schemaContext), optional);
+
+        Collection<NormalizedNode<?,?>> collection = (Collection<NormalizedNode<?,?>>) optional.get().getValue();
+        assertEquals(expectedNode1, findChildWithQName(collection, TestModel.TEST_QNAME));
+        assertEquals(expectedNode2, findChildWithQName(collection, CarsModel.BASE_QNAME));
+    }
+
     public static NormalizedNode<?,?> getRootNode(NormalizedNode<?, ?> moduleNode, SchemaContext schemaContext) throws ReadFailedException, ExecutionException, InterruptedException {
         InMemoryDOMDataStore store = new InMemoryDOMDataStore("test", Executors.newSingleThreadExecutor());
         store.onGlobalContextUpdated(schemaContext);
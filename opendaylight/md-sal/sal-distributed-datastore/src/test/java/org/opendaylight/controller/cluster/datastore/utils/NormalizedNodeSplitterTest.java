@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import static org.junit.Assert.assertEquals;
+import com.google.common.base.Optional;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.shardstrategy.KeyRangeShardStrategy;
+import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
+import org.opendaylight.controller.md.cluster.datastore.model.SchemaContextHelper;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Unit tests for NormalizedNodeSplitter.
+ */
+public class NormalizedNodeSplitterTest {
+    private final SchemaContext schemaContext = SchemaContextHelper.full();
+
+    // "accord" belongs in cars-1 and "altima" in cars-2.
+    private final KeyRangeShardStrategy strategy = new KeyRangeShardStrategy("cars/car",
+            Arrays.asList("cars-1", "cars-2", "cars-3"), Arrays.asList("ak", "b"));
+
+    @Test
+    public void testSplit() throws Exception {
+        NormalizedNode<?, ?> cars = CarsModel.create();
+
+        Map<String, NormalizedNode<?, ?>> parts = NormalizedNodeSplitter.split(strategy, CarsModel.BASE_PATH, cars,
+                schemaContext, false);
+
+        assertEquals("Shards", Arrays.asList("cars-1", "cars-2"), new ArrayList<>(parts.keySet()));
+        assertEquals("cars-1 part", carsNode(carMapNode(CarsModel.newCarEntry("accord", new BigInteger("2000")))),
+                parts.get("cars-1"));
+        assertEquals("cars-2 part", carsNode(carMapNode(CarsModel.newCarEntry("altima", new BigInteger("1000")))),
+                parts.get("cars-2"));
+
+        // Aggregating the parts gives back the original data.
+        List<Optional<NormalizedNode<?, ?>>> nodes = new ArrayList<>();
+        for(NormalizedNode<?, ?> part: parts.values()) {
+            nodes.add(Optional.<NormalizedNode<?, ?>>of(part));
+        }
+
+        assertEquals("Aggregated", Optional.of(cars), NormalizedNodeAggregator.aggregate(CarsModel.BASE_PATH, nodes,
+                schemaContext));
+
+        // As does merging them incrementally in reverse order.
+        NormalizedNodeAggregator aggregator = new NormalizedNodeAggregator();
+        for(int i = nodes.size() - 1; i >= 0; i--) {
+            aggregator.addNode(nodes.get(i));
+        }
+
+        assertEquals("Incrementally aggregated", Optional.of(cars), aggregator.getAggregatedNode());
+    }
+
+    @Test
+    public void testSplitIncludingShardsWithoutEntries() throws Exception {
+        MapEntryNode altima = CarsModel.newCarEntry("altima", new BigInteger("1000"));
+        Map<String, NormalizedNode<?, ?>> parts = NormalizedNodeSplitter.split(strategy, CarsModel.CAR_LIST_PATH,
+                carMapNode(altima), schemaContext, true);
+
+        assertEquals("Shards", Arrays.asList("cars-1", "cars-2", "cars-3"), new ArrayList<>(parts.keySet()));
+        assertEquals("cars-1 part", carMapNode(), parts.get("cars-1"));
+        assertEquals("cars-2 part", carMapNode(altima), parts.get("cars-2"));
+        assertEquals("cars-3 part", carMapNode(), parts.get("cars-3"));
+    }
+
+    private static MapNode carMapNode(MapEntryNode... entries) {
+        CollectionNodeBuilder<MapEntryNode, MapNode> builder = ImmutableNodes.mapNodeBuilder(CarsModel.CAR_QNAME);
+        for(MapEntryNode entry: entries) {
+            builder.withChild(entry);
+        }
+
+        return builder.build();
+    }
+
+    private static NormalizedNode<?, ?> carsNode(MapNode carMapNode) {
+        return ImmutableContainerNodeBuilder.create().withNodeIdentifier(new NodeIdentifier(CarsModel.BASE_QNAME))
+                .withChild(carMapNode).build();
+    }
+}
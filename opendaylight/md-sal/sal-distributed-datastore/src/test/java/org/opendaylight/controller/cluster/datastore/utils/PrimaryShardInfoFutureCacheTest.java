@@ -8,7 +8,9 @@
 package org.opendaylight.controller.cluster.datastore.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import akka.actor.ActorSelection;
 import com.google.common.base.Optional;
@@ -43,4 +45,40 @@ public class PrimaryShardInfoFutureCacheTest {
 
         assertEquals("getIfPresent", null, cache.getIfPresent("foo"));
     }
+
+    @Test
+    public void testStats() {
+        PrimaryShardInfoFutureCache cache = new PrimaryShardInfoFutureCache();
+
+        PrimaryShardInfo shardInfo = new PrimaryShardInfo(mock(ActorSelection.class), DataStoreVersions.CURRENT_VERSION,
+                Optional.<DataTree>absent());
+
+        cache.getIfPresent("foo");
+        cache.putSuccessful("foo", shardInfo);
+        cache.getIfPresent("foo");
+        cache.getIfPresent("foo");
+
+        assertEquals("getHitCount", 2, cache.getHitCount());
+        assertEquals("getMissCount", 1, cache.getMissCount());
+        assertEquals("getStaleCount", 0, cache.getStaleCount());
+
+        PrimaryShardInfo newShardInfo = new PrimaryShardInfo(mock(ActorSelection.class),
+                DataStoreVersions.CURRENT_VERSION, Optional.<DataTree>absent());
+        assertTrue("replaceIfPresent", cache.replaceIfPresent("foo", newShardInfo, 2));
+        assertEquals("getIfPresent", newShardInfo, cache.getIfPresent("foo").value().get().get());
+        assertEquals("getStaleCount", 1, cache.getStaleCount());
+
+        // A push for an earlier term delivered late is ignored.
+        assertFalse("replaceIfPresent", cache.replaceIfPresent("foo", shardInfo, 1));
+        assertEquals("getIfPresent", newShardInfo, cache.getIfPresent("foo").value().get().get());
+        assertEquals("getStaleCount", 1, cache.getStaleCount());
+
+        assertFalse("replaceIfPresent", cache.replaceIfPresent("bar", newShardInfo, 1));
+        assertEquals("getIfPresent", null, cache.getIfPresent("bar"));
+
+        // Invalidation on a local leader change isn't counted as stale.
+        cache.remove("foo");
+        assertEquals("getIfPresent", null, cache.getIfPresent("foo"));
+        assertEquals("getStaleCount", 1, cache.getStaleCount());
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.datastore.DatastoreContext;
+import org.opendaylight.controller.cluster.datastore.utils.ShardAdmissionController.Admission;
+
+/**
+ * Unit tests for ShardAdmissionController.
+ */
+public class ShardAdmissionControllerTest {
+    private static final long TARGET_LATENCY_MILLIS = 100;
+
+    private final ManualTicker ticker = new ManualTicker();
+    private ShardAdmissionController controller;
+
+    @Before
+    public void setUp() {
+        ActorContext actorContext = mock(ActorContext.class);
+        doReturn(DatastoreContext.newBuilder().shardAdmissionControlEnabled(true).
+                shardAdmissionTargetLatencyInMillis(TARGET_LATENCY_MILLIS).build()).
+                when(actorContext).getDatastoreContext();
+
+        controller = new ShardAdmissionController(actorContext, ticker);
+    }
+
+    @Test
+    public void testAdmissionLimitIsPerShard() {
+        List<Admission> admissions = admit("shard1", ShardAdmissionController.INITIAL_LIMIT);
+
+        assertNull("Expected shard1 to reject", controller.tryAdmit(Collections.singleton("shard1")));
+        assertEquals("getInFlight", ShardAdmissionController.INITIAL_LIMIT, controller.getInFlight("shard1"));
+
+        assertNotNull("Expected shard2 to admit", controller.tryAdmit(Collections.singleton("shard2")));
+
+        // A multi-shard commit is admitted to all the shards or none of them.
+        assertNull("Expected shard1 and shard3 to reject", controller.tryAdmit(Arrays.asList("shard3", "shard1")));
+        assertEquals("getInFlight", 0, controller.getInFlight("shard3"));
+
+        admissions.get(0).complete(true);
+        admissions.get(0).complete(true);
+
+        assertEquals("getInFlight", ShardAdmissionController.INITIAL_LIMIT - 1, controller.getInFlight("shard1"));
+        assertNotNull("Expected shard1 to admit", controller.tryAdmit(Collections.singleton("shard1")));
+    }
+
+    @Test
+    public void testLimitAdjustment() {
+        double limit = ShardAdmissionController.INITIAL_LIMIT;
+
+        // Slow start - the limit grows by one per commit within the target latency.
+        Admission admission = admit("shard1", 1).get(0);
+        ticker.advance(TARGET_LATENCY_MILLIS / 2);
+        admission.complete(true);
+        assertEquals("getLimit", ++limit, controller.getLimit("shard1"), 1e-9);
+
+        // A commit over the target latency halves the limit.
+        List<Admission> admissions = admit("shard1", 2);
+        ticker.advance(TARGET_LATENCY_MILLIS * 2);
+        admissions.get(0).complete(true);
+        limit /= 2;
+        assertEquals("getLimit", limit, controller.getLimit("shard1"), 1e-9);
+
+        // But not again for a commit that was already in flight at the time of the decrease.
+        ticker.advance(1);
+        admissions.get(1).complete(false);
+        assertEquals("getLimit", limit, controller.getLimit("shard1"), 1e-9);
+
+        // After a decrease the limit grows by about one per limit's worth of commits.
+        admission = admit("shard1", 1).get(0);
+        admission.complete(true);
+        limit += 1 / limit;
+        assertEquals("getLimit", limit, controller.getLimit("shard1"), 1e-9);
+
+        // A failed commit within the target latency doesn't change the limit.
+        admission = admit("shard1", 1).get(0);
+        admission.complete(false);
+        assertEquals("getLimit", limit, controller.getLimit("shard1"), 1e-9);
+
+        assertEquals("getInFlight", 0, controller.getInFlight("shard1"));
+    }
+
+    private List<Admission> admit(String shardName, int count) {
+        List<Admission> admissions = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            Admission admission = controller.tryAdmit(Collections.singleton(shardName));
+            assertNotNull("Expected " + shardName + " to admit", admission);
+            admissions.add(admission);
+        }
+
+        return admissions;
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.broker.impl.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A bean class containing a snapshot of the latency distribution of a write Tx commit phase, in
+ * microseconds. The percentiles are the upper bounds of the histogram buckets holding them.
+ */
+public class CommitPhaseLatencyStats {
+    private final String phase;
+    private final long count;
+    private final double mean;
+    private final long median;
+    private final long percentile95th;
+    private final long percentile99th;
+    private final long max;
+    private final long[] histogram;
+
+    @ConstructorProperties({"phase", "count", "mean", "median", "percentile95th", "percentile99th", "max",
+        "histogram"})
+    public CommitPhaseLatencyStats(String phase, long count, double mean, long median, long percentile95th,
+            long percentile99th, long max, long[] histogram) {
+        this.phase = phase;
+        this.count = count;
+        this.mean = mean;
+        this.median = median;
+        this.percentile95th = percentile95th;
+        this.percentile99th = percentile99th;
+        this.max = max;
+        this.histogram = histogram;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMedian() {
+        return median;
+    }
+
+    public long getPercentile95th() {
+        return percentile95th;
+    }
+
+    public long getPercentile99th() {
+        return percentile99th;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the bucket counts, bucket <code>i</code> holding the durations of up to 2^i microseconds.
+     */
+    public long[] getHistogram() {
+        return histogram;
+    }
+}
@@ -8,6 +8,8 @@
 
 package org.opendaylight.controller.md.sal.dom.broker.impl.jmx;
 
+import java.util.List;
+
 /**
  * MXBean interface for retrieving write Tx commit statistics.
  *
@@ -38,6 +40,12 @@ public interface CommitStatsMXBean {
      */
     String getAverageCommitTime();
 
+    /**
+     * Returns the latency distributions of the individual commit phases. Empty if the data broker does not
+     * track them.
+     */
+    List<CommitPhaseLatencyStats> getCommitPhaseLatencies();
+
     /**
      * Clears the current stats to their defaults.
      */
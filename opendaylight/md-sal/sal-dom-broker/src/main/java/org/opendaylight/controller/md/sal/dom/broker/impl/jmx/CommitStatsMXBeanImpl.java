@@ -8,6 +8,10 @@
 
 package org.opendaylight.controller.md.sal.dom.broker.impl.jmx;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import org.opendaylight.controller.md.sal.common.util.jmx.AbstractMXBean;
 import org.opendaylight.yangtools.util.DurationStatisticsTracker;
@@ -20,6 +24,7 @@ import org.opendaylight.yangtools.util.DurationStatisticsTracker;
 public class CommitStatsMXBeanImpl extends AbstractMXBean implements CommitStatsMXBean {
 
     private final DurationStatisticsTracker commitStatsTracker;
+    private final Map<String, DurationHistogram> phaseHistograms;
 
     /**
      * Constructor.
@@ -29,8 +34,21 @@ public class CommitStatsMXBeanImpl extends AbstractMXBean implements CommitStats
      */
     public CommitStatsMXBeanImpl(@Nonnull DurationStatisticsTracker commitStatsTracker,
             @Nonnull String mBeanType) {
+        this(commitStatsTracker, Collections.<String, DurationHistogram>emptyMap(), mBeanType);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param commitStatsTracker the DurationStatsTracker used to obtain the stats.
+     * @param phaseHistograms the per-phase latency histograms, keyed by phase name, in phase order.
+     * @param mBeanType mBeanType Used as the <code>type</code> property in the bean's ObjectName.
+     */
+    public CommitStatsMXBeanImpl(@Nonnull DurationStatisticsTracker commitStatsTracker,
+            @Nonnull Map<String, DurationHistogram> phaseHistograms, @Nonnull String mBeanType) {
         super("CommitStats", mBeanType, null);
         this.commitStatsTracker = commitStatsTracker;
+        this.phaseHistograms = phaseHistograms;
     }
 
     @Override
@@ -53,8 +71,21 @@ public class CommitStatsMXBeanImpl extends AbstractMXBean implements CommitStats
         return commitStatsTracker.getDisplayableAverageDuration();
     }
 
+    @Override
+    public List<CommitPhaseLatencyStats> getCommitPhaseLatencies() {
+        List<CommitPhaseLatencyStats> stats = new ArrayList<>(phaseHistograms.size());
+        for(Map.Entry<String, DurationHistogram> e: phaseHistograms.entrySet()) {
+            stats.add(e.getValue().toStats(e.getKey()));
+        }
+
+        return stats;
+    }
+
     @Override
     public void clearStats() {
         commitStatsTracker.reset();
+        for(DurationHistogram histogram: phaseHistograms.values()) {
+            histogram.reset();
+        }
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.broker.impl.jmx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations with exponentially sized buckets. Bucket <code>i</code> counts the
+ * durations of at most 2^i microseconds which did not fit in bucket <code>i - 1</code>, the last bucket
+ * counts everything longer.
+ */
+public class DurationHistogram {
+    static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void addDuration(final long durationNanos) {
+        final long micros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+
+        buckets.incrementAndGet(bucketFor(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    static int bucketFor(final long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+
+        // Index of the smallest power of two which is not less than micros
+        final int bucket = Long.SIZE - Long.numberOfLeadingZeros(micros - 1);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public double getMeanMicros() {
+        final long c = count.get();
+        return c == 0 ? 0 : (double) totalMicros.get() / c;
+    }
+
+    public long[] getBucketCounts() {
+        final long[] ret = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            ret[i] = buckets.get(i);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the upper bound, in microseconds, of the bucket holding the specified percentile. This is
+     * accurate within a factor of two.
+     *
+     * @param percentile the percentile, between 0 and 100
+     */
+    public long getPercentileMicros(final double percentile) {
+        final long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long threshold = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += counts[i];
+            if (seen >= threshold && seen > 0) {
+                return Math.min(1L << i, getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    public CommitPhaseLatencyStats toStats(final String phase) {
+        return new CommitPhaseLatencyStats(phase, getCount(), getMeanMicros(), getPercentileMicros(50),
+                getPercentileMicros(95), getPercentileMicros(99), getMaxMicros(), getBucketCounts());
+    }
+}
@@ -11,6 +11,10 @@ package org.opendaylight.controller.md.sal.dom.broker.impl.jmx;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.opendaylight.yangtools.util.DurationStatsTracker;
 
@@ -35,4 +39,30 @@ public class CommitStatsMXBeanImplTest {
         assertNotNull(bean.getShortestCommitTime());
         assertNotNull(bean.getAverageCommitTime());
     }
+
+    @Test
+    public void testCommitPhaseLatencies() {
+        DurationStatsTracker commitStatsTracker = new DurationStatsTracker();
+        Map<String, DurationHistogram> histograms = new LinkedHashMap<>();
+        histograms.put("CAN_COMMIT", new DurationHistogram());
+        histograms.put("COMMIT", new DurationHistogram());
+        CommitStatsMXBeanImpl bean = new CommitStatsMXBeanImpl(commitStatsTracker, histograms, "Test");
+
+        histograms.get("CAN_COMMIT").addDuration(TimeUnit.MICROSECONDS.toNanos(3));
+        histograms.get("CAN_COMMIT").addDuration(TimeUnit.MICROSECONDS.toNanos(100));
+
+        List<CommitPhaseLatencyStats> stats = bean.getCommitPhaseLatencies();
+        assertEquals("Phase count", 2, stats.size());
+        assertEquals("getPhase", "CAN_COMMIT", stats.get(0).getPhase());
+        assertEquals("getCount", 2L, stats.get(0).getCount());
+        assertEquals("getMax", 100L, stats.get(0).getMax());
+        assertEquals("getMedian", 4L, stats.get(0).getMedian());
+        assertEquals("getPercentile99th", 100L, stats.get(0).getPercentile99th());
+        assertEquals("getHistogram[2]", 1L, stats.get(0).getHistogram()[2]);
+        assertEquals("getHistogram[7]", 1L, stats.get(0).getHistogram()[7]);
+        assertEquals("getCount", 0L, stats.get(1).getCount());
+
+        bean.clearStats();
+        assertEquals("getCount", 0L, bean.getCommitPhaseLatencies().get(0).getCount());
+    }
 }
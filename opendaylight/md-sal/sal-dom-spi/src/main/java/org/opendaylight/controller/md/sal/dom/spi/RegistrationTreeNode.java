@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.concepts.Identifiable;
+import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
@@ -38,6 +39,12 @@ public final class RegistrationTreeNode<T> implements Identifiable<PathArgument>
     private static final Logger LOG = LoggerFactory.getLogger(RegistrationTreeNode.class);
 
     private final Map<PathArgument, RegistrationTreeNode<T>> children = new HashMap<>();
+    /*
+     * Index of the children registered with a wildcarded NodeIdentifier, keyed by their node type. This allows
+     * inexact lookups of list entries and leaf-list values without instantiating a NodeIdentifier for each
+     * lookup and makes the common no-wildcard case a single map probe.
+     */
+    private final Map<QName, RegistrationTreeNode<T>> wildcardChildren = new HashMap<>();
     private final Collection<T> registrations = new ArrayList<>(2);
     private final Collection<T> publicRegistrations = Collections.unmodifiableCollection(registrations);
     private final Reference<RegistrationTreeNode<T>> parent;
@@ -79,7 +86,11 @@ public final class RegistrationTreeNode<T> implements Identifiable<PathArgument>
              *       partial wildcards by iterating over the registrations and matching the maps for
              *       partial matches.
              */
-            final RegistrationTreeNode<T> child = children.get(new NodeIdentifier(arg.getNodeType()));
+            if (wildcardChildren.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            final RegistrationTreeNode<T> child = wildcardChildren.get(arg.getNodeType());
             if (child == null) {
                 return Collections.emptyList();
             } else {
@@ -99,6 +110,9 @@ public final class RegistrationTreeNode<T> implements Identifiable<PathArgument>
         if (potential == null) {
             potential = new RegistrationTreeNode<T>(this, child);
             children.put(child, potential);
+            if (child instanceof NodeIdentifier) {
+                wildcardChildren.put(child.getNodeType(), potential);
+            }
         }
         return potential;
     }
@@ -124,10 +138,21 @@ public final class RegistrationTreeNode<T> implements Identifiable<PathArgument>
     }
 
     private void removeChild(final PathArgument arg) {
-        children.remove(arg);
+        if (children.remove(arg) != null && arg instanceof NodeIdentifier) {
+            wildcardChildren.remove(arg.getNodeType());
+        }
         removeThisIfUnused();
     }
 
+    /**
+     * Check whether this node has any children.
+     *
+     * @return True if there are no children registered underneath this node.
+     */
+    public boolean hasNoChildren() {
+        return children.isEmpty();
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -26,7 +26,8 @@ public class InMemoryConfigDataStoreProviderModule extends org.opendaylight.cont
                 getDebugTransactions(),
                 InMemoryDOMDataStoreConfigProperties.create(getMaxDataChangeExecutorPoolSize(),
                         getMaxDataChangeExecutorQueueSize(), getMaxDataChangeListenerQueueSize(),
-                        getMaxDataStoreExecutorQueueSize()));
+                        getMaxDataStoreExecutorQueueSize(), getAsyncDataChangeResolution(),
+                        getDataStoreStripeCount()));
 
         InMemoryDataStoreStats statsBean = new InMemoryDataStoreStats("InMemoryConfigDataStore", dataStore);
         dataStore.setCloseable(statsBean);
@@ -25,7 +25,8 @@ public class InMemoryOperationalDataStoreProviderModule extends org.opendaylight
         InMemoryDOMDataStore dataStore = InMemoryDOMDataStoreFactory.create("DOM-OPER", getSchemaServiceDependency(),
                 getDebugTransactions(), InMemoryDOMDataStoreConfigProperties.create(getMaxDataChangeExecutorPoolSize(),
                         getMaxDataChangeExecutorQueueSize(), getMaxDataChangeListenerQueueSize(),
-                        getMaxDataStoreExecutorQueueSize()));
+                        getMaxDataStoreExecutorQueueSize(), getAsyncDataChangeResolution(),
+                        getDataStoreStripeCount()));
 
 
         InMemoryDataStoreStats statsBean = new InMemoryDataStoreStats("InMemoryOperationalDataStore", dataStore);
@@ -9,7 +9,11 @@ package org.opendaylight.controller.md.sal.dom.store.impl;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nullable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.opendaylight.controller.md.sal.common.api.data.AsyncDataBroker.DataChangeScope;
@@ -69,13 +73,15 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
                 }
             };
 
-    private final DataTree dataTree = InMemoryDataTreeFactory.getInstance().create();
+    private final DataTree dataTree;
+    private final StripedDataTree stripedTree;
     private final ListenerTree listenerTree = ListenerTree.create();
     private final AtomicLong txCounter = new AtomicLong(0);
 
     private final QueuedNotificationManager<DataChangeListenerRegistration<?>, DOMImmutableDataChangeEvent> dataChangeListenerNotificationManager;
     private final InMemoryDOMStoreTreeChangePublisher changePublisher;
     private final ExecutorService dataChangeListenerExecutor;
+    private final ExecutorService dataChangeResolverExecutor;
     private final boolean debugTransactions;
     private final String name;
 
@@ -87,8 +93,37 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
 
     public InMemoryDOMDataStore(final String name, final ExecutorService dataChangeListenerExecutor,
             final int maxDataChangeListenerQueueSize, final boolean debugTransactions) {
+        this(name, dataChangeListenerExecutor, null, maxDataChangeListenerQueueSize, debugTransactions);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param dataChangeResolverExecutor single-threaded executor used to resolve data change events off the
+     *        commit path. If null, events are resolved on the committing thread.
+     */
+    public InMemoryDOMDataStore(final String name, final ExecutorService dataChangeListenerExecutor,
+            @Nullable final ExecutorService dataChangeResolverExecutor, final int maxDataChangeListenerQueueSize,
+            final boolean debugTransactions) {
+        this(name, dataChangeListenerExecutor, dataChangeResolverExecutor, maxDataChangeListenerQueueSize,
+                debugTransactions, 1);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param dataChangeResolverExecutor single-threaded executor used to resolve data change events off the
+     *        commit path. If null, events are resolved on the committing thread.
+     * @param dataStoreStripeCount number of data trees the top-level nodes are spread across, each with its own
+     *        commit lock. A value of 1 keeps a single data tree, with all commits serialized.
+     */
+    public InMemoryDOMDataStore(final String name, final ExecutorService dataChangeListenerExecutor,
+            @Nullable final ExecutorService dataChangeResolverExecutor, final int maxDataChangeListenerQueueSize,
+            final boolean debugTransactions, final int dataStoreStripeCount) {
+        Preconditions.checkArgument(dataStoreStripeCount > 0, "Invalid stripe count %s", dataStoreStripeCount);
         this.name = Preconditions.checkNotNull(name);
         this.dataChangeListenerExecutor = Preconditions.checkNotNull(dataChangeListenerExecutor);
+        this.dataChangeResolverExecutor = dataChangeResolverExecutor;
         this.debugTransactions = debugTransactions;
 
         dataChangeListenerNotificationManager =
@@ -96,6 +131,19 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
                         DCL_NOTIFICATION_MGR_INVOKER, maxDataChangeListenerQueueSize,
                         "DataChangeListenerQueueMgr");
         changePublisher = new InMemoryDOMStoreTreeChangePublisher(this.dataChangeListenerExecutor, maxDataChangeListenerQueueSize);
+
+        if(dataStoreStripeCount > 1) {
+            dataTree = null;
+            stripedTree = new StripedDataTree(dataStoreStripeCount) {
+                @Override
+                protected void onCandidateCommitted(final DataTreeCandidate candidate) {
+                    publishChange(candidate);
+                }
+            };
+        } else {
+            dataTree = InMemoryDataTreeFactory.getInstance().create();
+            stripedTree = null;
+        }
     }
 
     public void setCloseable(final AutoCloseable closeable) {
@@ -113,17 +161,17 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
 
     @Override
     public DOMStoreReadTransaction newReadOnlyTransaction() {
-        return SnapshotBackedTransactions.newReadTransaction(nextIdentifier(), debugTransactions, dataTree.takeSnapshot());
+        return SnapshotBackedTransactions.newReadTransaction(nextIdentifier(), debugTransactions, takeSnapshot());
     }
 
     @Override
     public DOMStoreReadWriteTransaction newReadWriteTransaction() {
-        return SnapshotBackedTransactions.newReadWriteTransaction(nextIdentifier(), debugTransactions, dataTree.takeSnapshot(), this);
+        return SnapshotBackedTransactions.newReadWriteTransaction(nextIdentifier(), debugTransactions, takeSnapshot(), this);
     }
 
     @Override
     public DOMStoreWriteTransaction newWriteOnlyTransaction() {
-        return SnapshotBackedTransactions.newWriteTransaction(nextIdentifier(), debugTransactions, dataTree.takeSnapshot(), this);
+        return SnapshotBackedTransactions.newWriteTransaction(nextIdentifier(), debugTransactions, takeSnapshot(), this);
     }
 
     @Override
@@ -133,11 +181,18 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
 
     @Override
     public synchronized void onGlobalContextUpdated(final SchemaContext ctx) {
-        dataTree.setSchemaContext(ctx);
+        if(stripedTree != null) {
+            stripedTree.setSchemaContext(ctx);
+        } else {
+            dataTree.setSchemaContext(ctx);
+        }
     }
 
     @Override
     public void close() {
+        if(dataChangeResolverExecutor != null) {
+            ExecutorServiceUtil.tryGracefulShutdown(dataChangeResolverExecutor, 30, TimeUnit.SECONDS);
+        }
         ExecutorServiceUtil.tryGracefulShutdown(dataChangeListenerExecutor, 30, TimeUnit.SECONDS);
 
         if(closeable != null) {
@@ -154,7 +209,27 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
     }
 
     final DataTreeSnapshot takeSnapshot() {
-        return dataTree.takeSnapshot();
+        return stripedTree != null ? stripedTree.takeSnapshot() : dataTree.takeSnapshot();
+    }
+
+    final boolean isStriped() {
+        return stripedTree != null;
+    }
+
+    /*
+     * Listener registrations have to be atomic with regard to commits. Non-striped commits synchronize on
+     * this instance, which the callers already hold, striped commits have to be locked out explicitly.
+     */
+    private void lockCommits() {
+        if(stripedTree != null) {
+            stripedTree.lockCommits();
+        }
+    }
+
+    private void unlockCommits() {
+        if(stripedTree != null) {
+            stripedTree.unlockCommits();
+        }
     }
 
     @Override
@@ -168,42 +243,107 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
          * FIXME: improve this to read-write lock, such that multiple listener
          * registrations can occur simultaneously
          */
+        if(dataChangeResolverExecutor != null) {
+            return registerChangeListenerAsync(path, listener, scope);
+        }
+
         final DataChangeListenerRegistration<L> reg;
         synchronized (this) {
             LOG.debug("{}: Registering data change listener {} for {}", name, listener, path);
 
-            reg = listenerTree.registerDataChangeListener(path, listener, scope);
+            lockCommits();
+            try {
+                reg = listenerTree.registerDataChangeListener(path, listener, scope);
+                notifyInitialState(reg, takeSnapshot(), path);
+            } finally {
+                unlockCommits();
+            }
+        }
 
-            Optional<NormalizedNode<?, ?>> currentState = dataTree.takeSnapshot().readNode(path);
-            if (currentState.isPresent()) {
-                final NormalizedNode<?, ?> data = currentState.get();
+        return new AbstractListenerRegistration<L>(listener) {
+            @Override
+            protected void removeRegistration() {
+                synchronized (InMemoryDOMDataStore.this) {
+                    reg.close();
+                }
+            }
+        };
+    }
 
-                final DOMImmutableDataChangeEvent event = DOMImmutableDataChangeEvent.builder(DataChangeScope.BASE) //
-                        .setAfter(data) //
-                        .addCreated(path, data) //
-                        .build();
+    /*
+     * With asynchronous resolution there may be commits whose events have not been resolved yet. Adding the
+     * listener to the tree right away would make it see those commits on top of an initial state which already
+     * includes them, hence we capture the state in commit order and add the listener from the resolver thread,
+     * once all the commits preceding it have been resolved.
+     */
+    private <L extends AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>>> ListenerRegistration<L> registerChangeListenerAsync(
+            final YangInstanceIdentifier path, final L listener, final DataChangeScope scope) {
+        final SettableFuture<DataChangeListenerRegistration<L>> futureReg = SettableFuture.create();
+        synchronized (this) {
+            LOG.debug("{}: Registering data change listener {} for {}", name, listener, path);
 
-                dataChangeListenerNotificationManager.submitNotification(reg, event);
+            lockCommits();
+            try {
+                final DataTreeSnapshot snapshot = takeSnapshot();
+                dataChangeResolverExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final DataChangeListenerRegistration<L> reg = listenerTree.registerDataChangeListener(
+                                path, listener, scope);
+                        notifyInitialState(reg, snapshot, path);
+                        futureReg.set(reg);
+                    }
+                });
+            } finally {
+                unlockCommits();
             }
         }
 
         return new AbstractListenerRegistration<L>(listener) {
             @Override
             protected void removeRegistration() {
-                synchronized (InMemoryDOMDataStore.this) {
-                    reg.close();
+                // Queued behind the registration task, hence the future is guaranteed to be set when we run
+                try {
+                    dataChangeResolverExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            Futures.getUnchecked(futureReg).close();
+                        }
+                    });
+                } catch(RejectedExecutionException e) {
+                    LOG.debug("{}: Data store is closed, not removing listener {}", name, getInstance(), e);
                 }
             }
         };
     }
 
+    private void notifyInitialState(final DataChangeListenerRegistration<?> reg, final DataTreeSnapshot snapshot,
+            final YangInstanceIdentifier path) {
+        Optional<NormalizedNode<?, ?>> currentState = snapshot.readNode(path);
+        if (currentState.isPresent()) {
+            final NormalizedNode<?, ?> data = currentState.get();
+
+            final DOMImmutableDataChangeEvent event = DOMImmutableDataChangeEvent.builder(DataChangeScope.BASE) //
+                    .setAfter(data) //
+                    .addCreated(path, data) //
+                    .build();
+
+            dataChangeListenerNotificationManager.submitNotification(reg, event);
+        }
+    }
+
     @Override
     public synchronized <L extends DOMDataTreeChangeListener> ListenerRegistration<L> registerTreeChangeListener(final YangInstanceIdentifier treeId, final L listener) {
         /*
          * Make sure commit is not occurring right now. Listener has to be
          * registered and its state capture enqueued at a consistent point.
          */
-        return changePublisher.registerTreeChangeListener(treeId, listener, dataTree.takeSnapshot());
+        lockCommits();
+        try {
+            return changePublisher.registerTreeChangeListener(treeId, listener, takeSnapshot());
+        } finally {
+            unlockCommits();
+        }
     }
 
     @Override
@@ -222,7 +362,11 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
     }
 
     void validate(final DataTreeModification modification) throws DataValidationFailedException {
-        dataTree.validate(modification);
+        if(stripedTree != null) {
+            stripedTree.validate(modification);
+        } else {
+            dataTree.validate(modification);
+        }
     }
 
     DataTreeCandidate prepare(final DataTreeModification modification) {
@@ -231,7 +375,32 @@ public class InMemoryDOMDataStore extends TransactionReadyPrototype<String> impl
 
     synchronized void commit(final DataTreeCandidate candidate) {
         dataTree.commit(candidate);
+        publishChange(candidate);
+    }
+
+    /**
+     * Validate, prepare and commit a modification in striped mode. Only the stripes touched by the modification
+     * are locked, so this may run concurrently with other commits.
+     */
+    void commitStriped(final DataTreeModification modification) throws DataValidationFailedException {
+        stripedTree.commit(modification);
+    }
+
+    private void publishChange(final DataTreeCandidate candidate) {
         changePublisher.publishChange(candidate);
-        ResolveDataChangeEventsTask.create(candidate, listenerTree).resolve(dataChangeListenerNotificationManager);
+
+        final ResolveDataChangeEventsTask task = ResolveDataChangeEventsTask.create(candidate, listenerTree);
+        if(dataChangeResolverExecutor == null) {
+            task.resolve(dataChangeListenerNotificationManager);
+            return;
+        }
+
+        // Submitted while holding the commit lock, so the tasks are queued in commit order
+        dataChangeResolverExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                task.resolve(dataChangeListenerNotificationManager);
+            }
+        });
     }
 }
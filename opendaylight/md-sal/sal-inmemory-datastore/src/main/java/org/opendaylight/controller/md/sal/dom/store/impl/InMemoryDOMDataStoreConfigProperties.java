@@ -21,17 +21,23 @@ public class InMemoryDOMDataStoreConfigProperties {
     public static final int DEFAULT_MAX_DATA_CHANGE_EXECUTOR_POOL_SIZE = 20;
     public static final int DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE = 1000;
     public static final int DEFAULT_MAX_DATA_STORE_EXECUTOR_QUEUE_SIZE = 5000;
+    public static final boolean DEFAULT_ASYNC_DATA_CHANGE_RESOLUTION = true;
+    public static final int DEFAULT_DATA_STORE_STRIPE_COUNT = 1;
 
     private static final InMemoryDOMDataStoreConfigProperties DEFAULT =
             create(DEFAULT_MAX_DATA_CHANGE_EXECUTOR_POOL_SIZE,
                     DEFAULT_MAX_DATA_CHANGE_EXECUTOR_QUEUE_SIZE,
                     DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE,
-                    DEFAULT_MAX_DATA_STORE_EXECUTOR_QUEUE_SIZE);
+                    DEFAULT_MAX_DATA_STORE_EXECUTOR_QUEUE_SIZE,
+                    DEFAULT_ASYNC_DATA_CHANGE_RESOLUTION,
+                    DEFAULT_DATA_STORE_STRIPE_COUNT);
 
     private final int maxDataChangeExecutorQueueSize;
     private final int maxDataChangeExecutorPoolSize;
     private final int maxDataChangeListenerQueueSize;
     private final int maxDataStoreExecutorQueueSize;
+    private final boolean asyncDataChangeResolution;
+    private final int dataStoreStripeCount;
 
     /**
      * Constructs an instance with the given property values.
@@ -44,20 +50,41 @@ public class InMemoryDOMDataStoreConfigProperties {
      *            maximum queue size for the data change listeners.
      * @param maxDataStoreExecutorQueueSize
      *            maximum queue size for the data store executor.
+     * @param asyncDataChangeResolution
+     *            whether data change events are resolved off the committing thread.
+     * @param dataStoreStripeCount
+     *            number of independently committed data trees the top-level nodes are spread across.
      */
+    public static InMemoryDOMDataStoreConfigProperties create(int maxDataChangeExecutorPoolSize,
+            int maxDataChangeExecutorQueueSize, int maxDataChangeListenerQueueSize,
+            int maxDataStoreExecutorQueueSize, boolean asyncDataChangeResolution, int dataStoreStripeCount) {
+        return new InMemoryDOMDataStoreConfigProperties(maxDataChangeExecutorPoolSize,
+                maxDataChangeExecutorQueueSize, maxDataChangeListenerQueueSize,
+                maxDataStoreExecutorQueueSize, asyncDataChangeResolution, dataStoreStripeCount);
+    }
+
+    public static InMemoryDOMDataStoreConfigProperties create(int maxDataChangeExecutorPoolSize,
+            int maxDataChangeExecutorQueueSize, int maxDataChangeListenerQueueSize,
+            int maxDataStoreExecutorQueueSize, boolean asyncDataChangeResolution) {
+        return new InMemoryDOMDataStoreConfigProperties(maxDataChangeExecutorPoolSize,
+                maxDataChangeExecutorQueueSize, maxDataChangeListenerQueueSize,
+                maxDataStoreExecutorQueueSize, asyncDataChangeResolution, DEFAULT_DATA_STORE_STRIPE_COUNT);
+    }
+
     public static InMemoryDOMDataStoreConfigProperties create(int maxDataChangeExecutorPoolSize,
             int maxDataChangeExecutorQueueSize, int maxDataChangeListenerQueueSize,
             int maxDataStoreExecutorQueueSize) {
         return new InMemoryDOMDataStoreConfigProperties(maxDataChangeExecutorPoolSize,
                 maxDataChangeExecutorQueueSize, maxDataChangeListenerQueueSize,
-                maxDataStoreExecutorQueueSize);
+                maxDataStoreExecutorQueueSize, DEFAULT_ASYNC_DATA_CHANGE_RESOLUTION, DEFAULT_DATA_STORE_STRIPE_COUNT);
     }
 
     public static InMemoryDOMDataStoreConfigProperties create(int maxDataChangeExecutorPoolSize,
             int maxDataChangeExecutorQueueSize, int maxDataChangeListenerQueueSize) {
         return new InMemoryDOMDataStoreConfigProperties(maxDataChangeExecutorPoolSize,
                 maxDataChangeExecutorQueueSize, maxDataChangeListenerQueueSize,
-                DEFAULT_MAX_DATA_STORE_EXECUTOR_QUEUE_SIZE);
+                DEFAULT_MAX_DATA_STORE_EXECUTOR_QUEUE_SIZE, DEFAULT_ASYNC_DATA_CHANGE_RESOLUTION,
+                DEFAULT_DATA_STORE_STRIPE_COUNT);
     }
 
     /**
@@ -69,11 +96,13 @@ public class InMemoryDOMDataStoreConfigProperties {
 
     private InMemoryDOMDataStoreConfigProperties(int maxDataChangeExecutorPoolSize,
             int maxDataChangeExecutorQueueSize, int maxDataChangeListenerQueueSize,
-            int maxDataStoreExecutorQueueSize) {
+            int maxDataStoreExecutorQueueSize, boolean asyncDataChangeResolution, int dataStoreStripeCount) {
         this.maxDataChangeExecutorQueueSize = maxDataChangeExecutorQueueSize;
         this.maxDataChangeExecutorPoolSize = maxDataChangeExecutorPoolSize;
         this.maxDataChangeListenerQueueSize = maxDataChangeListenerQueueSize;
         this.maxDataStoreExecutorQueueSize = maxDataStoreExecutorQueueSize;
+        this.asyncDataChangeResolution = asyncDataChangeResolution;
+        this.dataStoreStripeCount = dataStoreStripeCount;
     }
 
     /**
@@ -103,4 +132,19 @@ public class InMemoryDOMDataStoreConfigProperties {
     public int getMaxDataStoreExecutorQueueSize() {
         return maxDataStoreExecutorQueueSize;
     }
+
+    /**
+     * Returns whether data change events are resolved on a dedicated thread rather than on the
+     * committing thread.
+     */
+    public boolean isAsyncDataChangeResolution() {
+        return asyncDataChangeResolution;
+    }
+
+    /**
+     * Returns the number of data trees, each with its own commit lock, the top-level nodes are spread across.
+     */
+    public int getDataStoreStripeCount() {
+        return dataStoreStripeCount;
+    }
 }
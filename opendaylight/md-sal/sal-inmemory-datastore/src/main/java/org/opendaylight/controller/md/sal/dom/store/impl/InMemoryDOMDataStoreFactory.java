@@ -71,8 +71,17 @@ public final class InMemoryDOMDataStoreFactory {
         ExecutorService dataChangeListenerExecutor = SpecialExecutors.newBlockingBoundedFastThreadPool(
                 dclExecutorMaxPoolSize, dclExecutorMaxQueueSize, name + "-DCL" );
 
+        // Data change events are resolved off the commit path on a single thread, so they are still delivered in
+        // commit order. The queue is bounded and blocking so a resolution backlog throttles the committers.
+        ExecutorService dataChangeResolverExecutor = null;
+        if (actualProperties.isAsyncDataChangeResolution()) {
+            dataChangeResolverExecutor = SpecialExecutors.newBlockingBoundedFastThreadPool(1,
+                    actualProperties.getMaxDataChangeListenerQueueSize(), name + "-DCL-resolver");
+        }
+
         final InMemoryDOMDataStore dataStore = new InMemoryDOMDataStore(name, dataChangeListenerExecutor,
-                actualProperties.getMaxDataChangeListenerQueueSize(), debugTransactions);
+                dataChangeResolverExecutor, actualProperties.getMaxDataChangeListenerQueueSize(), debugTransactions,
+                actualProperties.getDataStoreStripeCount());
 
         if (schemaService != null) {
             schemaService.registerSchemaContextListener(dataStore);
@@ -67,6 +67,11 @@ class InMemoryDOMStoreThreePhaseCommitCohort implements DOMStoreThreePhaseCommit
 
     @Override
     public final ListenableFuture<Void> preCommit() {
+        if (store.isStriped()) {
+            // Striped stores prepare the candidates as part of the commit, with the stripe locks held
+            return SUCCESSFUL_FUTURE;
+        }
+
         try {
             candidate = store.prepare(modification);
             return SUCCESSFUL_FUTURE;
@@ -88,6 +93,10 @@ class InMemoryDOMStoreThreePhaseCommitCohort implements DOMStoreThreePhaseCommit
 
     @Override
     public ListenableFuture<Void> commit() {
+        if (store.isStriped()) {
+            return commitStriped();
+        }
+
         checkState(candidate != null, "Proposed subtree must be computed");
 
         /*
@@ -97,4 +106,25 @@ class InMemoryDOMStoreThreePhaseCommitCohort implements DOMStoreThreePhaseCommit
         store.commit(candidate);
         return SUCCESSFUL_FUTURE;
     }
-}
\ No newline at end of file
+
+    private ListenableFuture<Void> commitStriped() {
+        try {
+            store.commitStriped(modification);
+            return SUCCESSFUL_FUTURE;
+        } catch (ConflictingModificationAppliedException e) {
+            // Another transaction modified the same data since we were validated
+            LOG.warn("Store Tx: {} Conflicting modification for {}.", getTransaction().getIdentifier(),
+                    e.getPath());
+            warnDebugContext(getTransaction());
+            return Futures.immediateFailedFuture(new OptimisticLockFailedException("Optimistic lock failed.", e));
+        } catch (DataValidationFailedException e) {
+            LOG.warn("Store Tx: {} Data Precondition failed for {}.", getTransaction().getIdentifier(),
+                    e.getPath(), e);
+            warnDebugContext(getTransaction());
+            return Futures.immediateFailedFuture(new TransactionCommitFailedException("Data did not pass validation.", e));
+        } catch (Exception e) {
+            LOG.warn("Unexpected failure in commit phase", e);
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+}
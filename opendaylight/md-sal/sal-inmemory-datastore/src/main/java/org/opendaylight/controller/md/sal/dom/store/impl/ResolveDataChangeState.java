@@ -21,9 +21,6 @@ import org.opendaylight.controller.md.sal.common.api.data.AsyncDataBroker.DataCh
 import org.opendaylight.controller.md.sal.dom.spi.RegistrationTreeNode;
 import org.opendaylight.controller.md.sal.dom.store.impl.DOMImmutableDataChangeEvent.Builder;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
-import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
-import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
-import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.slf4j.Logger;
@@ -260,21 +257,37 @@ final class ResolveDataChangeState {
             return Collections.emptyList();
         }
 
-        final List<RegistrationTreeNode<DataChangeListenerRegistration<?>>> result = new ArrayList<>();
-        if (child instanceof NodeWithValue || child instanceof NodeIdentifierWithPredicates) {
-            NodeIdentifier wildcardedIdentifier = new NodeIdentifier(child.getNodeType());
-            addChildNodes(result, parentNodes, wildcardedIdentifier);
-        }
-        addChildNodes(result, parentNodes, child);
-        return result;
-    }
+        /*
+         * Wildcarded matches are looked up through the per-node wildcard index, and the result list is only
+         * allocated once we find a match, as the vast majority of visited nodes have no listeners underneath.
+         */
+        List<RegistrationTreeNode<DataChangeListenerRegistration<?>>> result = null;
+        for (RegistrationTreeNode<DataChangeListenerRegistration<?>> node : parentNodes) {
+            if (node.hasNoChildren()) {
+                continue;
+            }
 
-    private static void addChildNodes(final List<RegistrationTreeNode<DataChangeListenerRegistration<?>>> result, final Collection<RegistrationTreeNode<DataChangeListenerRegistration<?>>> parentNodes, final PathArgument childIdentifier) {
+            final Collection<RegistrationTreeNode<DataChangeListenerRegistration<?>>> inexact = node.getInexactChildren(child);
+            if (!inexact.isEmpty()) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.addAll(inexact);
+            }
+        }
         for (RegistrationTreeNode<DataChangeListenerRegistration<?>> node : parentNodes) {
-            RegistrationTreeNode<DataChangeListenerRegistration<?>> child = node.getExactChild(childIdentifier);
-            if (child != null) {
-                result.add(child);
+            final RegistrationTreeNode<DataChangeListenerRegistration<?>> exact = node.getExactChild(child);
+            if (exact != null) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(exact);
             }
         }
+
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return result;
     }
 }
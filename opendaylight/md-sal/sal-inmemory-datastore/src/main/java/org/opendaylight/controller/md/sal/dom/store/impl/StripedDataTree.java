@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.store.impl;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * A set of data trees, each of which holds the top-level nodes hashing to it. Each stripe has its own commit
+ * lock, so transactions touching disjoint stripes can be validated and prepared concurrently.
+ *
+ * <p>
+ * Switching the stripe tips is done while holding a single tip lock, which is also taken when snapshots are taken.
+ * A snapshot therefore never observes a transaction spanning multiple stripes half-committed, and the merged view
+ * it presents is consistent. The candidates a transaction committed to its stripes are merged into a single
+ * candidate while the tip lock is held, so committed transactions are reported one at a time, in commit order.
+ */
+abstract class StripedDataTree {
+    private final DataTree[] trees;
+    private final Lock[] commitLocks;
+    private final Lock tipLock = new ReentrantLock();
+
+    StripedDataTree(final int stripeCount) {
+        Preconditions.checkArgument(stripeCount > 1, "Stripe count must be greater than 1, was %s", stripeCount);
+
+        trees = new DataTree[stripeCount];
+        commitLocks = new Lock[stripeCount];
+        for (int i = 0; i < stripeCount; ++i) {
+            trees[i] = InMemoryDataTreeFactory.getInstance().create();
+            commitLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Invoked for each transaction once it has been committed, with the tip lock held. Transactions are thus
+     * reported in the order they were committed.
+     *
+     * @param candidate Committed candidate, merged across all stripes and rooted at the data tree root
+     */
+    protected abstract void onCandidateCommitted(DataTreeCandidate candidate);
+
+    int getStripeCount() {
+        return trees.length;
+    }
+
+    void setSchemaContext(final SchemaContext ctx) {
+        tipLock.lock();
+        try {
+            for (DataTree tree : trees) {
+                tree.setSchemaContext(ctx);
+            }
+        } finally {
+            tipLock.unlock();
+        }
+    }
+
+    DataTreeSnapshot takeSnapshot() {
+        final DataTreeSnapshot[] snapshots = new DataTreeSnapshot[trees.length];
+        tipLock.lock();
+        try {
+            for (int i = 0; i < trees.length; ++i) {
+                snapshots[i] = trees[i].takeSnapshot();
+            }
+        } finally {
+            tipLock.unlock();
+        }
+
+        return new StripedDataTreeSnapshot(snapshots);
+    }
+
+    /**
+     * Prevent commits from switching any stripe tip until {@link #unlockCommits()} is called. Used to make
+     * listener registrations atomic with regard to commits.
+     */
+    void lockCommits() {
+        tipLock.lock();
+    }
+
+    void unlockCommits() {
+        tipLock.unlock();
+    }
+
+    void validate(final DataTreeModification modification) throws DataValidationFailedException {
+        final DataTreeModification[] stripes = stripeModifications(modification);
+        for (int i = 0; i < stripes.length; ++i) {
+            if (stripes[i] != null) {
+                trees[i].validate(stripes[i]);
+            }
+        }
+    }
+
+    /**
+     * Validate, prepare and commit a modification atomically. The commit locks of the stripes touched by the
+     * modification are acquired in stripe order, hence concurrent commits cannot deadlock.
+     *
+     * @param modification Modification created from one of our snapshots
+     * @throws DataValidationFailedException if the modification does not apply to the current state, in which
+     *         case no stripe has been modified
+     */
+    void commit(final DataTreeModification modification) throws DataValidationFailedException {
+        final DataTreeModification[] stripes = stripeModifications(modification);
+
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; ++locked) {
+                if (stripes[locked] != null) {
+                    commitLocks[locked].lock();
+                }
+            }
+
+            final DataTreeCandidate[] candidates = new DataTreeCandidate[stripes.length];
+            boolean modified = false;
+            for (int i = 0; i < stripes.length; ++i) {
+                if (stripes[i] != null) {
+                    trees[i].validate(stripes[i]);
+                    candidates[i] = trees[i].prepare(stripes[i]);
+                    modified = true;
+                }
+            }
+
+            if (!modified) {
+                return;
+            }
+
+            tipLock.lock();
+            try {
+                for (int i = 0; i < candidates.length; ++i) {
+                    if (candidates[i] != null) {
+                        trees[i].commit(candidates[i]);
+                    }
+                }
+                onCandidateCommitted(mergeCandidates(candidates));
+            } finally {
+                tipLock.unlock();
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; --i) {
+                if (stripes[i] != null) {
+                    commitLocks[i].unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge the candidates committed to the stripes. Must be called with the tip lock held, right after they have
+     * been committed, so that the stripes not modified contribute their state as of this commit.
+     */
+    private DataTreeCandidate mergeCandidates(final DataTreeCandidate[] candidates) {
+        final DataTreeCandidateNode[] nodes = new DataTreeCandidateNode[candidates.length];
+        @SuppressWarnings("unchecked")
+        final Optional<NormalizedNode<?, ?>>[] before = new Optional[candidates.length];
+        @SuppressWarnings("unchecked")
+        final Optional<NormalizedNode<?, ?>>[] after = new Optional[candidates.length];
+
+        for (int i = 0; i < candidates.length; ++i) {
+            if (candidates[i] != null) {
+                nodes[i] = candidates[i].getRootNode();
+                before[i] = nodes[i].getDataBefore();
+                after[i] = nodes[i].getDataAfter();
+            } else {
+                before[i] = trees[i].takeSnapshot().readNode(YangInstanceIdentifier.EMPTY);
+                after[i] = before[i];
+            }
+        }
+
+        return DataTreeCandidates.newDataTreeCandidate(YangInstanceIdentifier.EMPTY,
+                new StripedDataTreeCandidateNode(nodes, before, after));
+    }
+
+    private DataTreeModification[] stripeModifications(final DataTreeModification modification) {
+        Preconditions.checkArgument(modification instanceof StripedDataTreeModification,
+                "Modification %s was not created from a striped snapshot", modification);
+        final DataTreeModification[] stripes = ((StripedDataTreeModification) modification).getStripeModifications();
+        Preconditions.checkArgument(stripes.length == trees.length, "Modification %s has %s stripes, expected %s",
+                modification, stripes.length, trees.length);
+        return stripes;
+    }
+
+    /**
+     * Return the stripe holding a particular path.
+     *
+     * @return Stripe index, or -1 if the path is the root, which spans all stripes.
+     */
+    static int stripeIndex(final YangInstanceIdentifier path, final int stripeCount) {
+        if (YangInstanceIdentifier.EMPTY.equals(path)) {
+            return -1;
+        }
+        return stripeIndex(path.getPathArguments().iterator().next(), stripeCount);
+    }
+
+    static int stripeIndex(final PathArgument topLevel, final int stripeCount) {
+        return (topLevel.hashCode() & Integer.MAX_VALUE) % stripeCount;
+    }
+
+    /**
+     * Read the root node, merging the top-level nodes of all stripes.
+     */
+    static Optional<NormalizedNode<?, ?>> readRoot(final DataTreeSnapshot[] stripes) {
+        @SuppressWarnings("unchecked")
+        final Optional<NormalizedNode<?, ?>>[] roots = new Optional[stripes.length];
+        for (int i = 0; i < stripes.length; ++i) {
+            roots[i] = stripes[i].readNode(YangInstanceIdentifier.EMPTY);
+        }
+        return mergeRoots(roots);
+    }
+
+    /**
+     * Merge the root nodes of all stripes into a single root node.
+     */
+    static Optional<NormalizedNode<?, ?>> mergeRoots(final Optional<NormalizedNode<?, ?>>[] roots) {
+        DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> builder = null;
+        for (Optional<NormalizedNode<?, ?>> root : roots) {
+            if (root.isPresent()) {
+                if (builder == null) {
+                    builder = ImmutableContainerNodeBuilder.create().withNodeIdentifier(
+                            (NodeIdentifier) root.get().getIdentifier());
+                }
+                for (DataContainerChild<? extends PathArgument, ?> child : ((ContainerNode) root.get()).getValue()) {
+                    builder.withChild(child);
+                }
+            }
+        }
+
+        if (builder == null) {
+            return Optional.absent();
+        }
+        return Optional.<NormalizedNode<?, ?>>of(builder.build());
+    }
+
+    /**
+     * Split a root node into per-stripe root nodes.
+     *
+     * @param includeEmpty Whether stripes which have no top-level nodes should get an empty root or null.
+     */
+    static ContainerNode[] splitRoot(final NormalizedNode<?, ?> data, final int stripeCount,
+            final boolean includeEmpty) {
+        Preconditions.checkArgument(data instanceof ContainerNode, "Root node %s is not a container", data);
+        final ContainerNode root = (ContainerNode) data;
+
+        @SuppressWarnings("unchecked")
+        final DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode>[] builders =
+                new DataContainerNodeAttrBuilder[stripeCount];
+        for (DataContainerChild<? extends PathArgument, ?> child : root.getValue()) {
+            final int i = stripeIndex(child.getIdentifier(), stripeCount);
+            if (builders[i] == null) {
+                builders[i] = ImmutableContainerNodeBuilder.create().withNodeIdentifier(root.getIdentifier());
+            }
+            builders[i].withChild(child);
+        }
+
+        final ContainerNode[] ret = new ContainerNode[stripeCount];
+        for (int i = 0; i < stripeCount; ++i) {
+            if (builders[i] != null) {
+                ret[i] = builders[i].build();
+            } else if (includeEmpty) {
+                ret[i] = ImmutableContainerNodeBuilder.create().withNodeIdentifier(root.getIdentifier()).build();
+            }
+        }
+        return ret;
+    }
+}
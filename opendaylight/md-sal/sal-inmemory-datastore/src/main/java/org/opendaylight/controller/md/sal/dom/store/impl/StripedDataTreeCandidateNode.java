@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.store.impl;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+
+/**
+ * The root node of a transaction committed to a {@link StripedDataTree}, merging the root nodes of the candidates
+ * committed to the individual stripes. Stripes which were not modified contribute their current root to both
+ * the before and after images, which are only assembled when asked for.
+ */
+final class StripedDataTreeCandidateNode implements DataTreeCandidateNode {
+    private final DataTreeCandidateNode[] stripes;
+    private final Optional<NormalizedNode<?, ?>>[] stripeRootsBefore;
+    private final Optional<NormalizedNode<?, ?>>[] stripeRootsAfter;
+    private final ModificationType type;
+    private final PathArgument identifier;
+    private Optional<NormalizedNode<?, ?>> dataBefore;
+    private Optional<NormalizedNode<?, ?>> dataAfter;
+
+    /**
+     * @param stripes Root nodes of the candidates committed to each stripe, null for stripes not modified
+     * @param stripeRootsBefore Root node of each stripe before the commit
+     * @param stripeRootsAfter Root node of each stripe after the commit
+     */
+    StripedDataTreeCandidateNode(final DataTreeCandidateNode[] stripes,
+            final Optional<NormalizedNode<?, ?>>[] stripeRootsBefore,
+            final Optional<NormalizedNode<?, ?>>[] stripeRootsAfter) {
+        this.stripes = Preconditions.checkNotNull(stripes);
+        this.stripeRootsBefore = Preconditions.checkNotNull(stripeRootsBefore);
+        this.stripeRootsAfter = Preconditions.checkNotNull(stripeRootsAfter);
+
+        ModificationType mergedType = null;
+        PathArgument id = null;
+        boolean allModified = true;
+        for (DataTreeCandidateNode stripe : stripes) {
+            if (stripe == null) {
+                allModified = false;
+                continue;
+            }
+
+            if (id == null) {
+                id = stripe.getIdentifier();
+            }
+            if (mergedType == null) {
+                mergedType = stripe.getModificationType();
+            } else if (mergedType != stripe.getModificationType()) {
+                mergedType = ModificationType.SUBTREE_MODIFIED;
+            }
+        }
+        Preconditions.checkArgument(mergedType != null, "No stripe was modified");
+
+        // A write or delete of the root spans all stripes, anything more selective only modifies some of the
+        // top-level nodes.
+        if (!allModified && mergedType != ModificationType.UNMODIFIED) {
+            mergedType = ModificationType.SUBTREE_MODIFIED;
+        }
+
+        this.type = mergedType;
+        this.identifier = id;
+    }
+
+    @Override
+    public PathArgument getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        final List<DataTreeCandidateNode> ret = new ArrayList<>();
+        for (DataTreeCandidateNode stripe : stripes) {
+            if (stripe != null) {
+                ret.addAll(stripe.getChildNodes());
+            }
+        }
+        return Collections.unmodifiableList(ret);
+    }
+
+    @Override
+    public DataTreeCandidateNode getModifiedChild(final PathArgument childIdentifier) {
+        final DataTreeCandidateNode stripe = stripes[StripedDataTree.stripeIndex(childIdentifier, stripes.length)];
+        return stripe != null ? stripe.getModifiedChild(childIdentifier) : null;
+    }
+
+    @Override
+    public ModificationType getModificationType() {
+        return type;
+    }
+
+    @Override
+    public synchronized Optional<NormalizedNode<?, ?>> getDataBefore() {
+        if (dataBefore == null) {
+            dataBefore = StripedDataTree.mergeRoots(stripeRootsBefore);
+        }
+        return dataBefore;
+    }
+
+    @Override
+    public synchronized Optional<NormalizedNode<?, ?>> getDataAfter() {
+        if (dataAfter == null) {
+            dataAfter = StripedDataTree.mergeRoots(stripeRootsAfter);
+        }
+        return dataAfter;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.store.impl;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+
+/**
+ * A modification of a {@link StripedDataTree}. Operations are dispatched to per-stripe modifications, which are
+ * only instantiated once a stripe is touched, so that committing only needs to lock the stripes actually
+ * modified. Operations on the root node are split across all stripes.
+ */
+final class StripedDataTreeModification implements DataTreeModification {
+    private final DataTreeSnapshot[] bases;
+    private final DataTreeModification[] modifications;
+    private boolean sealed;
+
+    StripedDataTreeModification(final DataTreeSnapshot[] bases) {
+        this.bases = Preconditions.checkNotNull(bases);
+        this.modifications = new DataTreeModification[bases.length];
+    }
+
+    DataTreeModification[] getStripeModifications() {
+        Preconditions.checkState(sealed, "Modification %s has not been sealed", this);
+        return modifications;
+    }
+
+    private DataTreeModification stripe(final int index) {
+        Preconditions.checkState(!sealed, "Modification %s has been sealed", this);
+
+        DataTreeModification ret = modifications[index];
+        if (ret == null) {
+            ret = bases[index].newModification();
+            modifications[index] = ret;
+        }
+        return ret;
+    }
+
+    private DataTreeSnapshot current(final int index) {
+        final DataTreeModification mod = modifications[index];
+        return mod != null ? mod : bases[index];
+    }
+
+    private DataTreeSnapshot[] current() {
+        final DataTreeSnapshot[] ret = new DataTreeSnapshot[bases.length];
+        for (int i = 0; i < ret.length; ++i) {
+            ret[i] = current(i);
+        }
+        return ret;
+    }
+
+    @Override
+    public void delete(final YangInstanceIdentifier path) {
+        final int index = StripedDataTree.stripeIndex(path, bases.length);
+        if (index >= 0) {
+            stripe(index).delete(path);
+        } else {
+            for (int i = 0; i < bases.length; ++i) {
+                stripe(i).delete(path);
+            }
+        }
+    }
+
+    @Override
+    public void merge(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        final int index = StripedDataTree.stripeIndex(path, bases.length);
+        if (index >= 0) {
+            stripe(index).merge(path, data);
+            return;
+        }
+
+        // Stripes which do not have any of the merged nodes are left untouched
+        final ContainerNode[] roots = StripedDataTree.splitRoot(data, bases.length, false);
+        for (int i = 0; i < roots.length; ++i) {
+            if (roots[i] != null) {
+                stripe(i).merge(path, roots[i]);
+            }
+        }
+    }
+
+    @Override
+    public void write(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        final int index = StripedDataTree.stripeIndex(path, bases.length);
+        if (index >= 0) {
+            stripe(index).write(path, data);
+            return;
+        }
+
+        // A root write replaces all stripes, including the ones which end up empty
+        final ContainerNode[] roots = StripedDataTree.splitRoot(data, bases.length, true);
+        for (int i = 0; i < roots.length; ++i) {
+            stripe(i).write(path, roots[i]);
+        }
+    }
+
+    @Override
+    public void ready() {
+        Preconditions.checkState(!sealed, "Modification %s has already been sealed", this);
+        sealed = true;
+        for (DataTreeModification mod : modifications) {
+            if (mod != null) {
+                mod.ready();
+            }
+        }
+    }
+
+    @Override
+    public void applyToCursor(final DataTreeModificationCursor cursor) {
+        for (DataTreeModification mod : modifications) {
+            if (mod != null) {
+                mod.applyToCursor(cursor);
+            }
+        }
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
+        final int index = StripedDataTree.stripeIndex(path, bases.length);
+        if (index >= 0) {
+            return current(index).readNode(path);
+        }
+        return StripedDataTree.readRoot(current());
+    }
+
+    @Override
+    public DataTreeModification newModification() {
+        Preconditions.checkState(sealed, "Modification %s has not been sealed", this);
+        return new StripedDataTreeModification(current());
+    }
+}
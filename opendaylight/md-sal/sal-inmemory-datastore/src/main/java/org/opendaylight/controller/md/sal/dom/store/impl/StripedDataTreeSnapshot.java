@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2015 Brocade Communications Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.dom.store.impl;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+
+/**
+ * A consistent snapshot of a {@link StripedDataTree}, presenting the stripes as a single tree.
+ */
+final class StripedDataTreeSnapshot implements DataTreeSnapshot {
+    private final DataTreeSnapshot[] stripes;
+
+    StripedDataTreeSnapshot(final DataTreeSnapshot[] stripes) {
+        this.stripes = Preconditions.checkNotNull(stripes);
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
+        final int stripe = StripedDataTree.stripeIndex(path, stripes.length);
+        if (stripe < 0) {
+            return StripedDataTree.readRoot(stripes);
+        }
+        return stripes[stripe].readNode(path);
+    }
+
+    @Override
+    public DataTreeModification newModification() {
+        return new StripedDataTreeModification(stripes);
+    }
+}
@@ -11,16 +11,36 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataBroker.DataChangeScope;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeEvent;
+import org.opendaylight.controller.md.sal.common.api.data.AsyncDataChangeListener;
+import org.opendaylight.controller.md.sal.common.api.data.OptimisticLockFailedException;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
+import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadTransaction;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreReadWriteTransaction;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreThreePhaseCommitCohort;
@@ -28,10 +48,15 @@ import org.opendaylight.controller.sal.core.spi.data.DOMStoreTransactionChain;
 import org.opendaylight.controller.sal.core.spi.data.DOMStoreWriteTransaction;
 import org.opendaylight.controller.sal.core.spi.data.SnapshotBackedTransactions;
 import org.opendaylight.controller.sal.core.spi.data.SnapshotBackedWriteTransaction.TransactionReadyPrototype;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
@@ -447,6 +472,236 @@ public class InMemoryDataStoreTest {
         assertFalse(txTwo.ready().canCommit().get());
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDataChangeListenerWithAsyncResolution() throws Exception {
+        ExecutorService resolverExecutor = Executors.newSingleThreadExecutor();
+        InMemoryDOMDataStore asyncStore = new InMemoryDOMDataStore("TEST-ASYNC", MoreExecutors.newDirectExecutorService(),
+                resolverExecutor, InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE, false);
+        asyncStore.onGlobalContextUpdated(schemaContext);
+
+        // Hold up the resolver so the registration races commits whose events have not been resolved yet
+        final CountDownLatch resolverBlocked = new CountDownLatch(1);
+        resolverExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Uninterruptibles.awaitUninterruptibly(resolverBlocked);
+            }
+        });
+
+        DOMStoreReadWriteTransaction writeTx = asyncStore.newReadWriteTransaction();
+        writeTx.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        assertThreePhaseCommit(writeTx.ready());
+
+        AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>> listener =
+                Mockito.mock(AsyncDataChangeListener.class);
+        ListenerRegistration<?> reg = asyncStore.registerChangeListener(TestModel.TEST_PATH, listener,
+                DataChangeScope.SUBTREE);
+
+        writeTx = asyncStore.newReadWriteTransaction();
+        writeTx.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        assertThreePhaseCommit(writeTx.ready());
+
+        YangInstanceIdentifier entryPath = TestModel.OUTER_LIST_PATH.node(
+                new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1));
+        writeTx = asyncStore.newReadWriteTransaction();
+        writeTx.write(entryPath, ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1));
+        assertThreePhaseCommit(writeTx.ready());
+
+        Mockito.verify(listener, Mockito.never()).onDataChanged(Mockito.any(AsyncDataChangeEvent.class));
+        resolverBlocked.countDown();
+
+        // Drain the resolver before checking, so any extra event would have been delivered by now
+        resolverExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        // The first commit must only be seen through the initial event, followed by the others in commit order
+        ArgumentCaptor<AsyncDataChangeEvent> captor = ArgumentCaptor.forClass(AsyncDataChangeEvent.class);
+        Mockito.verify(listener, Mockito.times(3)).onDataChanged(captor.capture());
+
+        AsyncDataChangeEvent<YangInstanceIdentifier, NormalizedNode<?, ?>> event = captor.getAllValues().get(0);
+        assertEquals("Initial event created", Collections.singleton(TestModel.TEST_PATH),
+                event.getCreatedData().keySet());
+
+        event = captor.getAllValues().get(1);
+        assertTrue("Second event created outer list", event.getCreatedData().containsKey(TestModel.OUTER_LIST_PATH));
+        assertFalse("Second event created entry", event.getCreatedData().containsKey(entryPath));
+
+        event = captor.getAllValues().get(2);
+        assertTrue("Third event created entry", event.getCreatedData().containsKey(entryPath));
+        assertFalse("Third event created outer list", event.getCreatedData().containsKey(TestModel.OUTER_LIST_PATH));
+
+        reg.close();
+        asyncStore.close();
+        assertTrue(resolverExecutor.isShutdown());
+    }
+
+    @Test
+    public void testStripedTransactionCommit() throws Exception {
+        InMemoryDOMDataStore stripedStore = new InMemoryDOMDataStore("TEST-STRIPED",
+                MoreExecutors.newDirectExecutorService(), null,
+                InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE, false, 4);
+        stripedStore.onGlobalContextUpdated(schemaContext);
+
+        DOMStoreReadWriteTransaction writeTx = stripedStore.newReadWriteTransaction();
+        assertTestContainerWrite(writeTx);
+        assertThreePhaseCommit(writeTx.ready());
+
+        assertTestContainerExists(stripedStore.newReadOnlyTransaction());
+        Optional<NormalizedNode<?, ?>> root = stripedStore.newReadOnlyTransaction().read(
+                YangInstanceIdentifier.EMPTY).get();
+        assertTrue("Root isPresent", root.isPresent());
+        assertTrue("Root has test container", ((ContainerNode) root.get()).getChild(
+                new NodeIdentifier(TestModel.TEST_QNAME)).isPresent());
+
+        // Two transactions modifying the same stripe - the second one has to fail
+        DOMStoreReadWriteTransaction tx1 = stripedStore.newReadWriteTransaction();
+        DOMStoreReadWriteTransaction tx2 = stripedStore.newReadWriteTransaction();
+        tx1.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        tx2.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        assertThreePhaseCommit(tx1.ready());
+
+        try {
+            tx2.ready().canCommit().get();
+            fail("Expected OptimisticLockFailedException");
+        } catch(ExecutionException e) {
+            assertTrue("Unexpected cause " + e.getCause(), e.getCause() instanceof OptimisticLockFailedException);
+        }
+
+        // Writing the root replaces the contents of all stripes
+        writeTx = stripedStore.newReadWriteTransaction();
+        writeTx.write(YangInstanceIdentifier.EMPTY, ImmutableNodes.containerNode(SchemaContext.NAME));
+        assertThreePhaseCommit(writeTx.ready());
+
+        assertFalse("Test container isPresent", stripedStore.newReadOnlyTransaction().read(
+                TestModel.TEST_PATH).get().isPresent());
+
+        stripedStore.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testStripedTransactionCommitAcrossStripes() throws Exception {
+        final int stripeCount = 4;
+        InMemoryDOMDataStore stripedStore = new InMemoryDOMDataStore("TEST-STRIPED",
+                MoreExecutors.newDirectExecutorService(), null,
+                InMemoryDOMDataStoreConfigProperties.DEFAULT_MAX_DATA_CHANGE_LISTENER_QUEUE_SIZE, false, stripeCount);
+        stripedStore.onGlobalContextUpdated(schemaContext);
+
+        // Find two top-level containers which live in different stripes
+        final QName firstQName = TestModel.topQName(1);
+        final int firstStripe = StripedDataTree.stripeIndex(new NodeIdentifier(firstQName), stripeCount);
+        QName otherQName = null;
+        for(int i = 2; i <= 8 && otherQName == null; i++) {
+            if(StripedDataTree.stripeIndex(new NodeIdentifier(TestModel.topQName(i)), stripeCount) != firstStripe) {
+                otherQName = TestModel.topQName(i);
+            }
+        }
+        assertNotNull("No top-level container in a stripe other than " + firstStripe, otherQName);
+        final QName secondQName = otherQName;
+        final YangInstanceIdentifier firstPath = YangInstanceIdentifier.of(firstQName);
+        final YangInstanceIdentifier secondPath = YangInstanceIdentifier.of(secondQName);
+
+        DOMDataTreeChangeListener treeListener = Mockito.mock(DOMDataTreeChangeListener.class);
+        ListenerRegistration<?> treeReg = stripedStore.registerTreeChangeListener(YangInstanceIdentifier.EMPTY,
+                treeListener);
+        AsyncDataChangeListener<YangInstanceIdentifier, NormalizedNode<?, ?>> changeListener =
+                Mockito.mock(AsyncDataChangeListener.class);
+        ListenerRegistration<?> changeReg = stripedStore.registerChangeListener(YangInstanceIdentifier.EMPTY,
+                changeListener, DataChangeScope.SUBTREE);
+        Mockito.reset(treeListener, changeListener);
+
+        // A transaction spanning both stripes is reported to root listeners as a single change
+        DOMStoreReadWriteTransaction writeTx = stripedStore.newReadWriteTransaction();
+        writeTx.write(firstPath, topContainer(firstQName, "first"));
+        writeTx.write(secondPath, topContainer(secondQName, "first"));
+        assertThreePhaseCommit(writeTx.ready());
+
+        ArgumentCaptor<Collection> candidates = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(treeListener).onDataTreeChanged(candidates.capture());
+        assertEquals("Candidates", 1, candidates.getValue().size());
+        DataTreeCandidateNode rootNode = ((DataTreeCandidate) candidates.getValue().iterator().next()).getRootNode();
+        assertEquals("Modified children", 2, rootNode.getChildNodes().size());
+        assertNotNull("First container modified", rootNode.getModifiedChild(new NodeIdentifier(firstQName)));
+        assertNotNull("Second container modified", rootNode.getModifiedChild(new NodeIdentifier(secondQName)));
+        ContainerNode rootAfter = (ContainerNode) rootNode.getDataAfter().get();
+        assertTrue("First container after", rootAfter.getChild(new NodeIdentifier(firstQName)).isPresent());
+        assertTrue("Second container after", rootAfter.getChild(new NodeIdentifier(secondQName)).isPresent());
+        ContainerNode rootBefore = (ContainerNode) rootNode.getDataBefore().get();
+        assertFalse("First container before", rootBefore.getChild(new NodeIdentifier(firstQName)).isPresent());
+
+        ArgumentCaptor<AsyncDataChangeEvent> event = ArgumentCaptor.forClass(AsyncDataChangeEvent.class);
+        Mockito.verify(changeListener).onDataChanged(event.capture());
+        assertTrue("First container created", event.getValue().getCreatedData().containsKey(firstPath));
+        assertTrue("Second container created", event.getValue().getCreatedData().containsKey(secondPath));
+        ContainerNode updatedRoot = (ContainerNode) event.getValue().getUpdatedSubtree();
+        assertTrue("Second container in updated subtree",
+                updatedRoot.getChild(new NodeIdentifier(secondQName)).isPresent());
+
+        // A transaction modifying only one stripe still reports the other stripe's state in the root images
+        writeTx = stripedStore.newReadWriteTransaction();
+        writeTx.write(firstPath, topContainer(firstQName, "second"));
+        assertThreePhaseCommit(writeTx.ready());
+
+        Mockito.verify(treeListener, Mockito.times(2)).onDataTreeChanged(candidates.capture());
+        rootNode = ((DataTreeCandidate) candidates.getValue().iterator().next()).getRootNode();
+        assertEquals("Modified children", 1, rootNode.getChildNodes().size());
+        assertTrue("Second container before", ((ContainerNode) rootNode.getDataBefore().get()).getChild(
+                new NodeIdentifier(secondQName)).isPresent());
+        assertTrue("Second container after", ((ContainerNode) rootNode.getDataAfter().get()).getChild(
+                new NodeIdentifier(secondQName)).isPresent());
+
+        // Concurrent commits to different stripes do not conflict and are each reported once
+        final int commitsPerStripe = 50;
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Void>> futures = new ArrayList<>();
+        for(final QName qname: Arrays.asList(firstQName, secondQName)) {
+            final InMemoryDOMDataStore store = stripedStore;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    barrier.await();
+                    for(int i = 0; i < commitsPerStripe; i++) {
+                        DOMStoreWriteTransaction tx = store.newWriteOnlyTransaction();
+                        tx.write(YangInstanceIdentifier.of(qname), topContainer(qname, "value" + i));
+                        assertThreePhaseCommit(tx.ready());
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        for(Future<Void> future: futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Mockito.verify(treeListener, Mockito.timeout(5000).times(2 + 2 * commitsPerStripe)).onDataTreeChanged(
+                Mockito.any(Collection.class));
+        Mockito.verify(changeListener, Mockito.timeout(5000).times(2 + 2 * commitsPerStripe)).onDataChanged(
+                Mockito.any(AsyncDataChangeEvent.class));
+
+        Optional<NormalizedNode<?, ?>> root = stripedStore.newReadOnlyTransaction().read(
+                YangInstanceIdentifier.EMPTY).get();
+        assertEquals("First container", topContainer(firstQName, "value" + (commitsPerStripe - 1)),
+                ((ContainerNode) root.get()).getChild(new NodeIdentifier(firstQName)).get());
+        assertEquals("Second container", topContainer(secondQName, "value" + (commitsPerStripe - 1)),
+                ((ContainerNode) root.get()).getChild(new NodeIdentifier(secondQName)).get());
+
+        treeReg.close();
+        changeReg.close();
+        stripedStore.close();
+    }
+
+    private static ContainerNode topContainer(final QName qname, final String value) {
+        return ImmutableContainerNodeBuilder.create().withNodeIdentifier(new NodeIdentifier(qname))
+                .withChild(ImmutableNodes.leafNode(TestModel.VALUE_QNAME, value)).build();
+    }
+
     private static void assertThreePhaseCommit(final DOMStoreThreePhaseCommitCohort cohort)
             throws InterruptedException, ExecutionException {
         assertTrue(cohort.canCommit().get().booleanValue());
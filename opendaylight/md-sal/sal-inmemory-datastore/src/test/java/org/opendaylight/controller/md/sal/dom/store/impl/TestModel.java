@@ -34,6 +34,11 @@ public class TestModel {
     public static final QName TWO_QNAME = QName.create(TEST_QNAME, "two");
     public static final QName THREE_QNAME = QName.create(TEST_QNAME, "three");
 
+    // Top-level containers top-1 to top-8, each with a value leaf, used to span the stripes of a striped store
+    public static QName topQName(final int n) {
+        return QName.create(TEST_QNAME, "top-" + n);
+    }
+
 
     public static final InputStream getDatastoreTestInputStream() {
         return getInputStream(DATASTORE_TEST_YANG);